@@ -0,0 +1,60 @@
+package rule.engine.org.app.api.mapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import rule.engine.org.app.benchmark.BenchmarkFixtures;
+import rule.engine.org.app.domain.entity.execution.cargo.CargoReport;
+import rule.engine.org.app.domain.entity.execution.declaration.Declaration;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion of request payload maps into fact objects (the JSON-to-fact step of /execute)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FactMapperBenchmark {
+
+    private static final int PAYLOADS = 256;
+
+    private FactMapper factMapper;
+    private List<Map<String, Object>> declarationPayloads;
+    private List<Map<String, Object>> cargoReportPayloads;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        int next() {
+            int index = next;
+            next = index + 1 == PAYLOADS ? 0 : index + 1;
+            return index;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        factMapper = new FactMapper(BenchmarkFixtures.objectMapper());
+        declarationPayloads = BenchmarkFixtures.declarationPayloads(PAYLOADS);
+        cargoReportPayloads = BenchmarkFixtures.cargoReportPayloads(PAYLOADS);
+    }
+
+    @Benchmark
+    public Declaration buildDeclarationFromMap(Cursor cursor) {
+        return factMapper.buildDeclarationFromMap(declarationPayloads.get(cursor.next()));
+    }
+
+    @Benchmark
+    public CargoReport buildCargoReportFromMap(Cursor cursor) {
+        return factMapper.buildCargoReportFromMap(cargoReportPayloads.get(cursor.next()));
+    }
+}
@@ -0,0 +1,496 @@
+package rule.engine.org.app.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import rule.engine.org.app.domain.entity.ui.DecisionRule;
+import rule.engine.org.app.domain.entity.ui.FactType;
+import rule.engine.org.app.domain.entity.ui.RuleCondition;
+import rule.engine.org.app.domain.entity.ui.RuleConditionGroup;
+import rule.engine.org.app.domain.entity.ui.RuleGroupType;
+import rule.engine.org.app.domain.entity.ui.RuleOperatorType;
+import rule.engine.org.app.domain.entity.ui.RuleOutput;
+import rule.engine.org.app.domain.entity.ui.RuleValueType;
+import rule.engine.org.app.util.DrlConstants;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Shared inputs for the JMH benchmarks
+ *
+ * Facts are generated from the WCO samples (goods-declaration-sample.json, cargo-report-sample.json):
+ * the sample keys are renamed to the fact classes' field names and amounts, countries, HS codes
+ * and item counts are varied with a fixed seed, so every run sees the same facts.
+ * Rules are generated in the same DRL shape RuleController produces (header, "<name>_<id>",
+ * salience, RuleOutputHit consequence), minus the per-match System.out logging, so the numbers
+ * measure the engine rather than console output.
+ */
+public final class BenchmarkFixtures {
+
+    public static final long SEED = 42L;
+
+    private static final String DECLARATION_SAMPLE = "goods-declaration-sample.json";
+    private static final String CARGO_REPORT_SAMPLE = "cargo-report-sample.json";
+
+    private static final String[] COUNTRIES = {"CN", "VN", "US", "DE", "JP", "KR", "TH", "IN"};
+    private static final String[] HS_CODES = {"610910", "620342", "851712", "847130", "030617", "870323", "392690", "940360"};
+    private static final String[] INCOTERMS = {"CIF", "FOB", "EXW", "DAP"};
+
+    // WCO names that do not follow the "lowerCamel, ...ID -> ...Id" convention of the fact classes
+    private static final Map<String, String> DECLARATION_FIELDS = Map.of(
+        "ID", "declarationId",
+        "UCR", "ucr",
+        "HSID", "hsId",
+        "GrossMassMeasure", "totalGrossMassMeasure",
+        "NetMassMeasure", "totalNetMassMeasure",
+        "FreightAmount", "totalFreightAmount",
+        "InsuranceAmount", "totalInsuranceAmount",
+        "GovernmentAgencyGoodsItem", "governmentAgencyGoodsItems");
+
+    private static final ObjectMapper OBJECT_MAPPER = JsonMapper.builder().findAndAddModules().build();
+
+    /**
+     * Rules together with the structured rows the rule editor would have saved for them
+     */
+    public record StructuredRules(List<DecisionRule> rules, List<RuleCondition> conditions, List<RuleOutput> outputs) {
+    }
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Mapper configured like Spring's (java.time support)
+     */
+    public static ObjectMapper objectMapper() {
+        return OBJECT_MAPPER;
+    }
+
+    /**
+     * Declaration payloads in the shape accepted by /api/v1/rules/execute
+     */
+    public static List<Map<String, Object>> declarationPayloads(int count) {
+        Map<String, Object> sample = declarationSample();
+        Random random = new Random(SEED);
+        List<Map<String, Object>> payloads = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            payloads.add(varyDeclaration(sample, i, random));
+        }
+        return payloads;
+    }
+
+    /**
+     * CargoReport payloads; consignments and items are derived from the sample's parties and goods
+     */
+    public static List<Map<String, Object>> cargoReportPayloads(int count) {
+        Map<String, Object> sample = readSample(CARGO_REPORT_SAMPLE);
+        Random random = new Random(SEED);
+        List<Map<String, Object>> payloads = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            payloads.add(cargoReport(sample, i, random));
+        }
+        return payloads;
+    }
+
+    /**
+     * Active latest rules for a fact type, with IDs 1..count
+     * Thresholds are spread so a realistic share of rules match each generated fact.
+     */
+    public static List<DecisionRule> rules(FactType factType, int count) {
+        Random random = new Random(SEED);
+        List<DecisionRule> rules = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long id = i + 1;
+            String ruleName = "Benchmark rule " + id;
+            String when = factType == FactType.CARGO_REPORT ? cargoReportCondition(i, random) : declarationCondition(i, random);
+
+            DecisionRule rule = new DecisionRule();
+            rule.setId(id);
+            rule.setRuleName(ruleName);
+            rule.setFactType(factType);
+            rule.setPriority(random.nextInt(100));
+            rule.setActive(true);
+            rule.setIsLatest(true);
+            rule.setRuleContent(DrlConstants.buildDrlHeader()
+                + "rule \"" + ruleName + "_" + id + "\"\n"
+                + "salience " + rule.getPriority() + "\n"
+                + "when\n"
+                + "    " + when + "\n"
+                + "then\n"
+                + "    RuleOutputHit output = new RuleOutputHit();\n"
+                + "    output.setAction(\"" + (i % 7 == 0 ? "REVIEW" : "FLAG") + "\");\n"
+                + "    output.setResult(\"Rule '" + ruleName + "' matched\");\n"
+                + "    output.setScore(new BigDecimal(\"" + (5 + random.nextInt(20)) + "\"));\n"
+                + "    output.setFlag(\"RISK_" + (i % 5) + "\");\n"
+                + "    totalResults.getHits().add(output);\n"
+                + "end\n");
+            rules.add(rule);
+        }
+        return rules;
+    }
+
+    /**
+     * Declaration rules with IDs 1..count and their condition / output rows, as saved by POST /api/v1/rules
+     * Every rule tests fields of the declaration itself (one AND group), except roughly
+     * itemRulePercent of them, which match goods items and have no structured conditions
+     * (hand-written DRL), so they can only run in Drools.
+     */
+    public static StructuredRules structuredRules(int count, int itemRulePercent) {
+        Random random = new Random(SEED);
+        List<DecisionRule> rules = new ArrayList<>(count);
+        List<RuleCondition> conditions = new ArrayList<>();
+        List<RuleOutput> outputs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long id = i + 1;
+            String ruleName = "Benchmark rule " + id;
+            DecisionRule rule = new DecisionRule();
+            rule.setId(id);
+            rule.setRuleName(ruleName);
+            rule.setFactType(FactType.DECLARATION);
+            rule.setPriority(random.nextInt(100));
+            rule.setActive(true);
+            rule.setIsLatest(true);
+
+            RuleConditionGroup group = new RuleConditionGroup();
+            group.setDecisionRule(rule);
+            group.setType(RuleGroupType.AND);
+            List<RuleCondition> ruleConditions = new ArrayList<>();
+            String when;
+            if (random.nextInt(100) < itemRulePercent) {
+                when = "$d : Declaration()\n"
+                    + "    GovernmentAgencyGoodsItem(hsId == \"" + pick(HS_CODES, random) + "\", customsValueAmount > "
+                    + (5000 + random.nextInt(80000)) + ") from $d.governmentAgencyGoodsItems";
+            } else {
+                switch (i % 4) {
+                    case 0 -> ruleConditions.add(condition(group, "invoiceAmount", RuleOperatorType.GT,
+                        BigDecimal.valueOf(20000 + random.nextInt(300000))));
+                    case 1 -> {
+                        ruleConditions.add(condition(group, "countryOfExportId", RuleOperatorType.EQUALS, pick(COUNTRIES, random)));
+                        ruleConditions.add(condition(group, "totalGrossMassMeasure", RuleOperatorType.GT,
+                            BigDecimal.valueOf(1000 + random.nextInt(40000))));
+                    }
+                    case 2 -> {
+                        ruleConditions.add(condition(group, "incotermCode", RuleOperatorType.EQUALS, pick(INCOTERMS, random)));
+                        ruleConditions.add(condition(group, "totalFreightAmount", RuleOperatorType.GT,
+                            BigDecimal.valueOf(500 + random.nextInt(8000))));
+                    }
+                    default -> {
+                        ruleConditions.add(condition(group, "packageQuantity", RuleOperatorType.GTE, 20 + random.nextInt(300)));
+                        ruleConditions.add(condition(group, "countryOfExportId", RuleOperatorType.NOT_EQUALS, pick(COUNTRIES, random)));
+                    }
+                }
+                when = "$d : Declaration(" + String.join(" && ", ruleConditions.stream().map(BenchmarkFixtures::constraint).toList()) + ")";
+            }
+            conditions.addAll(ruleConditions);
+
+            RuleOutput output = new RuleOutput();
+            output.setDecisionRule(rule);
+            output.setAction(i % 7 == 0 ? "REVIEW" : "FLAG");
+            output.setResult("Rule '" + ruleName + "' matched");
+            output.setScore(new BigDecimal(5 + random.nextInt(20)));
+            output.setFlag("RISK_" + (i % 5));
+            outputs.add(output);
+
+            rule.setRuleContent(DrlConstants.buildDrlHeader()
+                + "rule \"" + ruleName + "_" + id + "\"\n"
+                + "salience " + rule.getPriority() + "\n"
+                + "when\n"
+                + "    " + when + "\n"
+                + "then\n"
+                + "    RuleOutputHit output = new RuleOutputHit();\n"
+                + "    output.setAction(\"" + output.getAction() + "\");\n"
+                + "    output.setResult(\"" + output.getResult() + "\");\n"
+                + "    output.setScore(new BigDecimal(\"" + output.getScore() + "\"));\n"
+                + "    output.setFlag(\"" + output.getFlag() + "\");\n"
+                + "    totalResults.getHits().add(output);\n"
+                + "end\n");
+            rules.add(rule);
+        }
+        return new StructuredRules(rules, conditions, outputs);
+    }
+
+    /**
+     * Spring Data repository stand-in: methods named in answers return the answer,
+     * default methods run their own body, anything else returns an empty value
+     */
+    public static <T> T repository(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.apply(args);
+            }
+            if (method.isDefault()) {
+                return InvocationHandler.invokeDefault(proxy, method, args);
+            }
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> type.getSimpleName() + " stub";
+                };
+            }
+            Class<?> returnType = method.getReturnType();
+            if (returnType == Optional.class) {
+                return Optional.empty();
+            }
+            if (Collection.class.isAssignableFrom(returnType)) {
+                return List.of();
+            }
+            if (returnType == boolean.class) {
+                return false;
+            }
+            if (returnType == long.class) {
+                return 0L;
+            }
+            return null;
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler));
+    }
+
+    private static RuleCondition condition(RuleConditionGroup group, String field, RuleOperatorType operator, Object value) {
+        RuleCondition condition = new RuleCondition();
+        condition.setGroup(group);
+        condition.setFieldPath("declaration." + field);
+        condition.setOperator(operator);
+        if (value instanceof BigDecimal decimal) {
+            condition.setValueType(RuleValueType.BIG_DECIMAL);
+            condition.setValueDecimal(decimal);
+        } else if (value instanceof Integer number) {
+            condition.setValueType(RuleValueType.INT);
+            condition.setValueNumber(number.longValue());
+        } else {
+            condition.setValueType(RuleValueType.STRING);
+            condition.setValueText((String) value);
+        }
+        return condition;
+    }
+
+    private static String constraint(RuleCondition condition) {
+        String field = condition.getFieldPath().substring("declaration.".length());
+        String operator = switch (condition.getOperator()) {
+            case EQUALS -> "==";
+            case NOT_EQUALS -> "!=";
+            case GT -> ">";
+            case GTE -> ">=";
+            case LT -> "<";
+            default -> "<=";
+        };
+        String value = switch (condition.getValueType()) {
+            case BIG_DECIMAL -> condition.getValueDecimal().toPlainString();
+            case INT -> condition.getValueNumber().toString();
+            default -> "\"" + condition.getValueText() + "\"";
+        };
+        return field + " " + operator + " " + value;
+    }
+
+    private static String declarationCondition(int i, Random random) {
+        return switch (i % 5) {
+            case 0 -> "$d : Declaration(invoiceAmount > " + (20000 + random.nextInt(300000)) + ")";
+            case 1 -> "$d : Declaration(countryOfExportId == \"" + pick(COUNTRIES, random)
+                + "\" && totalGrossMassMeasure > " + (1000 + random.nextInt(40000)) + ")";
+            case 2 -> "$d : Declaration(incotermCode == \"" + pick(INCOTERMS, random)
+                + "\" && totalFreightAmount > " + (500 + random.nextInt(8000)) + ")";
+            case 3 -> "$d : Declaration(importerCountryId != countryOfExportId && packageQuantity > "
+                + (20 + random.nextInt(300)) + ")";
+            default -> "$d : Declaration()\n"
+                + "    GovernmentAgencyGoodsItem(hsId == \"" + pick(HS_CODES, random) + "\", customsValueAmount > "
+                + (5000 + random.nextInt(80000)) + ") from $d.governmentAgencyGoodsItems";
+        };
+    }
+
+    private static String cargoReportCondition(int i, Random random) {
+        return switch (i % 4) {
+            case 0 -> "$c : CargoReport(carrierCountryId == \"" + pick(COUNTRIES, random) + "\")";
+            case 1 -> "$c : CargoReport(loadingLocationId == \"CNSHA\" && transportMeansModeCode == \"1\")";
+            case 2 -> "$c : CargoReport()\n"
+                + "    Consignment(grossMassMeasure > " + (1000 + random.nextInt(20000)) + ") from $c.consignments";
+            default -> "$c : CargoReport()\n"
+                + "    $cons : Consignment() from $c.consignments\n"
+                + "    ConsignmentItem(hsId == \"" + pick(HS_CODES, random) + "\") from $cons.consignmentItems";
+        };
+    }
+
+    private static Map<String, Object> declarationSample() {
+        Map<String, Object> sample = readSample(DECLARATION_SAMPLE);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> data = (Map<String, Object>) sample.getOrDefault("data", sample);
+        return data;
+    }
+
+    private static Map<String, Object> readSample(String resource) {
+        try (InputStream in = BenchmarkFixtures.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Benchmark sample " + resource + " not found on the classpath");
+            }
+            return OBJECT_MAPPER.readValue(in, new TypeReference<Map<String, Object>>() {});
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Map<String, Object> varyDeclaration(Map<String, Object> sample, int index, Random random) {
+        Map<String, Object> payload = rename(sample);
+        payload.put("declarationId", "BENCH-IM-" + index);
+        payload.put("countryOfExportId", pick(COUNTRIES, random));
+        payload.put("incotermCode", pick(INCOTERMS, random));
+        payload.put("importerId", "VN" + (1000000000L + random.nextInt(1000)));
+        payload.put("invoiceAmount", scale(sample.get("InvoiceAmount"), random));
+        payload.put("totalGrossMassMeasure", scale(sample.get("GrossMassMeasure"), random));
+        payload.put("totalNetMassMeasure", scale(sample.get("NetMassMeasure"), random));
+        payload.put("totalFreightAmount", scale(sample.get("FreightAmount"), random));
+        payload.put("packageQuantity", 1 + random.nextInt(400));
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> sampleItems = (List<Map<String, Object>>) payload.get("governmentAgencyGoodsItems");
+        List<Map<String, Object>> items = new ArrayList<>();
+        int itemCount = 1 + random.nextInt(8);
+        for (int i = 0; i < itemCount && sampleItems != null && !sampleItems.isEmpty(); i++) {
+            Map<String, Object> item = new LinkedHashMap<>(sampleItems.get(i % sampleItems.size()));
+            item.put("sequenceNumeric", i + 1);
+            item.put("hsId", pick(HS_CODES, random));
+            item.put("originCountryId", pick(COUNTRIES, random));
+            item.put("customsValueAmount", scale(item.get("customsValueAmount"), random));
+            items.add(item);
+        }
+        payload.put("governmentAgencyGoodsItems", items);
+        return payload;
+    }
+
+    private static Map<String, Object> cargoReport(Map<String, Object> sample, int index, Random random) {
+        Map<String, Object> declaration = rename(sample);
+        LocalDateTime submitted = OffsetDateTime.parse(String.valueOf(sample.get("SubmissionDateTime"))).toLocalDateTime();
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("functionCode", declaration.get("functionCode"));
+        payload.put("typeCode", "CRI");
+        payload.put("officeId", declaration.get("officeId"));
+        payload.put("reportId", "BENCH-CR-" + index);
+        payload.put("submissionDateTime", submitted.toString());
+        payload.put("transportMeansModeCode", declaration.get("transportMeansModeCode"));
+        payload.put("transportMeansId", declaration.get("transportMeansId"));
+        payload.put("transportMeansJourneyId", declaration.get("transportMeansJourneyId"));
+        payload.put("loadingLocationId", declaration.get("loadingLocationId"));
+        payload.put("unloadingLocationId", declaration.get("unloadingLocationId"));
+        payload.put("estimatedDepartureDateTime", submitted.minusDays(7).toString());
+        payload.put("estimatedArrivalDateTime", submitted.plusDays(random.nextInt(5)).toString());
+        payload.put("carrierId", "CARRIER-" + random.nextInt(50));
+        payload.put("carrierName", "Benchmark Line " + random.nextInt(50));
+        payload.put("carrierCountryId", pick(COUNTRIES, random));
+        payload.put("masterTransportDocumentId", declaration.get("previousDocumentIds"));
+
+        List<Map<String, Object>> equipment = new ArrayList<>();
+        int equipmentCount = 1 + random.nextInt(4);
+        for (int i = 0; i < equipmentCount; i++) {
+            Map<String, Object> container = new LinkedHashMap<>();
+            container.put("equipmentId", "BNCU" + (1000000 + random.nextInt(9000000)));
+            container.put("equipmentTypeCode", i % 2 == 0 ? "45G1" : "22G1");
+            container.put("sealId", "SEAL-" + random.nextInt(100000));
+            container.put("grossMassMeasure", scale(sample.get("GrossMassMeasure"), random));
+            equipment.add(container);
+        }
+        payload.put("transportEquipment", equipment);
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> goodsItems = (List<Map<String, Object>>) declaration.get("governmentAgencyGoodsItems");
+        List<Map<String, Object>> consignments = new ArrayList<>();
+        int consignmentCount = 1 + random.nextInt(3);
+        for (int c = 0; c < consignmentCount; c++) {
+            Map<String, Object> consignment = new LinkedHashMap<>();
+            consignment.put("transportContractDocumentId", "HBL-" + index + "-" + c);
+            consignment.put("ucr", declaration.get("ucr"));
+            consignment.put("consignorId", declaration.get("consignorId"));
+            consignment.put("consignorName", declaration.get("consignorName"));
+            consignment.put("consignorCountryId", pick(COUNTRIES, random));
+            consignment.put("consigneeId", declaration.get("consigneeId"));
+            consignment.put("consigneeName", declaration.get("consigneeName"));
+            consignment.put("consigneeCountryId", declaration.get("consigneeCountryId"));
+            consignment.put("marksNumbersId", declaration.get("marksNumbersId"));
+            consignment.put("packageQuantity", 1 + random.nextInt(400));
+            consignment.put("packageTypeCode", "CT");
+            consignment.put("grossMassMeasure", scale(sample.get("GrossMassMeasure"), random));
+            consignment.put("loadingLocationId", declaration.get("loadingLocationId"));
+            consignment.put("unloadingLocationId", declaration.get("unloadingLocationId"));
+
+            List<Map<String, Object>> items = new ArrayList<>();
+            int itemCount = 1 + random.nextInt(5);
+            for (int i = 0; i < itemCount && goodsItems != null && !goodsItems.isEmpty(); i++) {
+                Map<String, Object> goods = goodsItems.get(i % goodsItems.size());
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("sequenceNumeric", i + 1);
+                item.put("goodsDescription", goods.get("description"));
+                item.put("hsId", pick(HS_CODES, random));
+                item.put("originCountryId", pick(COUNTRIES, random));
+                item.put("quantityQuantity", goods.get("quantityQuantity"));
+                item.put("quantityUnitCode", goods.get("quantityUnitCode"));
+                item.put("netWeightMeasure", scale(goods.get("netWeightMeasure"), random));
+                item.put("grossWeightMeasure", scale(goods.get("grossWeightMeasure"), random));
+                items.add(item);
+            }
+            consignment.put("consignmentItems", items);
+            consignments.add(consignment);
+        }
+        payload.put("consignments", consignments);
+        return payload;
+    }
+
+    /**
+     * Rename WCO keys to fact field names, recursively through item lists
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> rename(Map<String, Object> wco) {
+        Map<String, Object> renamed = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : wco.entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof List<?> list && !list.isEmpty() && list.get(0) instanceof Map) {
+                List<Map<String, Object>> items = new ArrayList<>();
+                for (Object item : list) {
+                    items.add(rename((Map<String, Object>) item));
+                }
+                value = items;
+            } else if (value instanceof List<?> list) {
+                // Document ID lists are stored comma-separated on the fact classes
+                value = String.join(",", list.stream().map(String::valueOf).toList());
+            }
+            renamed.put(fieldName(entry.getKey()), value);
+        }
+        return renamed;
+    }
+
+    private static String fieldName(String wcoKey) {
+        String mapped = DECLARATION_FIELDS.get(wcoKey);
+        if (mapped != null) {
+            return mapped;
+        }
+        String name = wcoKey;
+        if (name.endsWith("IDs")) {
+            name = name.substring(0, name.length() - 3) + "Ids";
+        } else if (name.endsWith("ID")) {
+            name = name.substring(0, name.length() - 2) + "Id";
+        }
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static BigDecimal scale(Object amount, Random random) {
+        double base = amount instanceof Number number ? number.doubleValue() : 1000.0;
+        return BigDecimal.valueOf(base * (0.2 + random.nextDouble() * 2.8)).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static String pick(String[] values, Random random) {
+        return values[random.nextInt(values.length)];
+    }
+}
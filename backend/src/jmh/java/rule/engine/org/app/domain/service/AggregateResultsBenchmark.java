@@ -0,0 +1,56 @@
+package rule.engine.org.app.domain.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import rule.engine.org.app.benchmark.BenchmarkFixtures;
+import rule.engine.org.app.domain.entity.execution.RuleOutputHit;
+import rule.engine.org.app.domain.entity.execution.TotalRuleResults;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Score, final action and final flag aggregation over the hits of one execution
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AggregateResultsBenchmark {
+
+    private static final String[] ACTIONS = {"APPROVE", "HOLD", "FLAG", "REVIEW", "REJECT"};
+
+    @Param({"1", "10", "100"})
+    public int hitCount;
+
+    private TotalRuleResults results;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(BenchmarkFixtures.SEED);
+        results = new TotalRuleResults();
+        results.setRunAt(LocalDateTime.now());
+        for (int i = 0; i < hitCount; i++) {
+            RuleOutputHit hit = new RuleOutputHit();
+            hit.setAction(ACTIONS[random.nextInt(ACTIONS.length)]);
+            hit.setScore(BigDecimal.valueOf(random.nextInt(2500), 2));
+            hit.setFlag(random.nextBoolean() ? "RISK_" + random.nextInt(5) : null);
+            results.getHits().add(hit);
+        }
+    }
+
+    @Benchmark
+    public TotalRuleResults aggregateResults() {
+        // Aggregation only overwrites the totals, so the same hits can be aggregated repeatedly
+        RuleEngineManager.aggregateResults(results);
+        return results;
+    }
+}
@@ -0,0 +1,114 @@
+package rule.engine.org.app.domain.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import rule.engine.org.app.api.mapper.FactMapper;
+import rule.engine.org.app.benchmark.BenchmarkFixtures;
+import rule.engine.org.app.domain.entity.execution.TotalRuleResults;
+import rule.engine.org.app.domain.entity.ui.FactType;
+import rule.engine.org.app.domain.repository.DecisionRuleRepository;
+import rule.engine.org.app.domain.repository.KieContainerVersionRepository;
+import rule.engine.org.app.domain.repository.KieModuleArtifactRepository;
+import rule.engine.org.app.domain.repository.RuleConditionRepository;
+import rule.engine.org.app.domain.repository.RuleOutputRepository;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk rescoring of Declaration facts: fireRulesBulk (columnar) against a fireRules loop
+ * Both score the same facts against the same structured rules; times are per fact. With
+ * itemRulePercent above zero that share of rules only exists as DRL and runs in Drools
+ * during the bulk run, so the cost of the fallback shows up as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BulkScoringBenchmark {
+
+    private static final int FACTS = 4096;
+
+    @Param({"50", "500"})
+    public int ruleCount;
+
+    @Param({"0", "20"})
+    public int itemRulePercent;
+
+    private RuleEngineManager ruleEngineManager;
+    private List<Object> declarations;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkFixtures.StructuredRules rules = BenchmarkFixtures.structuredRules(ruleCount, itemRulePercent);
+        DecisionRuleRepository decisionRuleRepository = BenchmarkFixtures.repository(DecisionRuleRepository.class, Map.of(
+            "findDistinctFactTypes", args -> List.of(FactType.DECLARATION),
+            "findByFactTypeAndIsLatestTrueAndActiveTrueOrderByPriorityAsc", args -> rules.rules()));
+        RuleConditionRepository conditionRepository = BenchmarkFixtures.repository(RuleConditionRepository.class, Map.of(
+            "findByDecisionRuleIds", args -> rules.conditions().stream()
+                .filter(condition -> ((Collection<?>) args[0]).contains(condition.getGroup().getDecisionRule().getId()))
+                .toList()));
+        RuleOutputRepository outputRepository = BenchmarkFixtures.repository(RuleOutputRepository.class, Map.of(
+            "findByDecisionRuleIdInOrderByOrderIndexAsc", args -> rules.outputs().stream()
+                .filter(output -> ((Collection<?>) args[0]).contains(output.getDecisionRule().getId()))
+                .toList()));
+
+        ReferenceLists referenceLists = new ReferenceLists();
+        RuleSetCompiler ruleSetCompiler = new RuleSetCompiler(RuleSetCompiler.BuildMode.DRL, false, 0, null);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ruleEngineManager = new RuleEngineManager(
+            decisionRuleRepository,
+            BenchmarkFixtures.repository(KieContainerVersionRepository.class, Map.of()),
+            ruleSetCompiler,
+            new KieModuleArtifactStore(BenchmarkFixtures.repository(KieModuleArtifactRepository.class, Map.of()), ruleSetCompiler, false, 0),
+            new RuleExecutionMetrics(meterRegistry, 0),
+            referenceLists,
+            new PredicateRuleCompiler(conditionRepository, outputRepository, referenceLists),
+            meterRegistry,
+            1,
+            Duration.ofMinutes(1),
+            true,
+            BigDecimal.ZERO,
+            List.of(),
+            true);
+
+        FactMapper factMapper = new FactMapper(BenchmarkFixtures.objectMapper());
+        declarations = BenchmarkFixtures.declarationPayloads(FACTS).stream()
+            .map(factMapper::buildDeclarationFromMap)
+            .map(Object.class::cast)
+            .toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ruleEngineManager.disposeAll();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FACTS)
+    public void fireRulesPerFact(Blackhole blackhole) {
+        for (Object declaration : declarations) {
+            blackhole.consume(ruleEngineManager.fireRules(FactType.DECLARATION.getValue(), declaration));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FACTS)
+    public List<TotalRuleResults> fireRulesBulk() {
+        return ruleEngineManager.fireRulesBulk(FactType.DECLARATION.getValue(), declarations);
+    }
+}
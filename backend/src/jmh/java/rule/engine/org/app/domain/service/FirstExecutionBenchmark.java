@@ -0,0 +1,85 @@
+package rule.engine.org.app.domain.service;
+
+import org.kie.api.KieServices;
+import org.kie.api.builder.ReleaseId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import rule.engine.org.app.api.mapper.FactMapper;
+import rule.engine.org.app.benchmark.BenchmarkFixtures;
+import rule.engine.org.app.domain.entity.execution.TotalRuleResults;
+import rule.engine.org.app.domain.entity.ui.DecisionRule;
+import rule.engine.org.app.domain.entity.ui.FactType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * First execution of a Declaration fact on a freshly built container, per build mode
+ * The classic DRL path still pays MVEL interpretation and JIT on the first session, the executable
+ * model does not. Completes the build mode comparison next to RuleSetCompilerBenchmark (build time)
+ * and RuleEngineBenchmark (steady-state execution). Each iteration builds a new container on its
+ * own ReleaseId outside the measurement and fires one fact through the Drools backend.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class FirstExecutionBenchmark {
+
+    @Param({"50", "500"})
+    public int ruleCount;
+
+    @Param({"DRL", "EXECUTABLE_MODEL"})
+    public RuleSetCompiler.BuildMode buildMode;
+
+    private RuleSetCompiler ruleSetCompiler;
+    private ReferenceLists referenceLists;
+    private List<DecisionRule> rules;
+    private Object declaration;
+    private int build;
+    private RuleSetCompiler.KieContainerBuildResult freshBuild;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ruleSetCompiler = new RuleSetCompiler(buildMode, false, 0, null);
+        referenceLists = new ReferenceLists();
+        rules = BenchmarkFixtures.rules(FactType.DECLARATION, ruleCount);
+        declaration = new FactMapper(BenchmarkFixtures.objectMapper())
+            .buildDeclarationFromMap(BenchmarkFixtures.declarationPayloads(1).get(0));
+    }
+
+    @Setup(Level.Iteration)
+    public void buildContainer() {
+        ReleaseId releaseId = KieServices.Factory.get().newReleaseId(
+            "org.rule.jmh", "first-execution-" + ruleCount + "-" + buildMode.name().toLowerCase(), ++build + ".0.0");
+        freshBuild = ruleSetCompiler.buildKieContainer(rules, FactType.DECLARATION.getValue(), releaseId, buildMode);
+    }
+
+    @Benchmark
+    public TotalRuleResults firstExecution() {
+        TotalRuleResults results = new TotalRuleResults();
+        results.setRunAt(LocalDateTime.now());
+        new DroolsRuleBackend(freshBuild.container, ruleSetCompiler.factLayout(freshBuild.container), referenceLists, null)
+            .fire(declaration, results, null, null, null);
+        return results;
+    }
+
+    @TearDown(Level.Iteration)
+    public void disposeContainer() {
+        freshBuild.container.dispose();
+        KieServices.Factory.get().getRepository().removeKieModule(freshBuild.kieModule.getReleaseId());
+        freshBuild = null;
+    }
+}
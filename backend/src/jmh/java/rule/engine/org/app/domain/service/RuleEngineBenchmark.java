@@ -0,0 +1,127 @@
+package rule.engine.org.app.domain.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import rule.engine.org.app.api.mapper.FactMapper;
+import rule.engine.org.app.benchmark.BenchmarkFixtures;
+import rule.engine.org.app.domain.entity.execution.TotalRuleResults;
+import rule.engine.org.app.domain.entity.ui.DecisionRule;
+import rule.engine.org.app.domain.entity.ui.FactType;
+import rule.engine.org.app.domain.repository.DecisionRuleRepository;
+import rule.engine.org.app.domain.repository.KieContainerVersionRepository;
+import rule.engine.org.app.domain.repository.KieModuleArtifactRepository;
+import rule.engine.org.app.domain.repository.RuleConditionRepository;
+import rule.engine.org.app.domain.repository.RuleOutputRepository;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RuleEngineManager.fireRules on the live container, for Declaration and CargoReport facts
+ * The manager runs against in-memory repositories serving generated rules; the artifact store
+ * and per-rule metrics are off so only rule execution (session, listeners, aggregation) is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RuleEngineBenchmark {
+
+    private static final int FACTS = 256;
+
+    @Param({"50", "500"})
+    public int ruleCount;
+
+    @Param({"DRL", "EXECUTABLE_MODEL"})
+    public RuleSetCompiler.BuildMode buildMode;
+
+    private RuleEngineManager ruleEngineManager;
+    private Object[] declarations;
+    private Object[] cargoReports;
+
+    /**
+     * Position in the fact arrays, per benchmark thread
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        int next(int size) {
+            int index = next;
+            next = index + 1 == size ? 0 : index + 1;
+            return index;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<FactType, List<DecisionRule>> rules = Map.of(
+            FactType.DECLARATION, BenchmarkFixtures.rules(FactType.DECLARATION, ruleCount),
+            FactType.CARGO_REPORT, BenchmarkFixtures.rules(FactType.CARGO_REPORT, ruleCount));
+        DecisionRuleRepository decisionRuleRepository = BenchmarkFixtures.repository(DecisionRuleRepository.class, Map.of(
+            "findDistinctFactTypes", args -> List.copyOf(rules.keySet()),
+            "findByFactTypeAndIsLatestTrueAndActiveTrueOrderByPriorityAsc", args -> rules.get((FactType) args[0])));
+        KieContainerVersionRepository versionRepository =
+            BenchmarkFixtures.repository(KieContainerVersionRepository.class, Map.of());
+        KieModuleArtifactRepository artifactRepository =
+            BenchmarkFixtures.repository(KieModuleArtifactRepository.class, Map.of());
+
+        ReferenceLists referenceLists = new ReferenceLists();
+        PredicateRuleCompiler predicateRuleCompiler = new PredicateRuleCompiler(
+            BenchmarkFixtures.repository(RuleConditionRepository.class, Map.of()),
+            BenchmarkFixtures.repository(RuleOutputRepository.class, Map.of()),
+            referenceLists);
+
+        RuleSetCompiler ruleSetCompiler = new RuleSetCompiler(buildMode, false, 0, null);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ruleEngineManager = new RuleEngineManager(
+            decisionRuleRepository,
+            versionRepository,
+            ruleSetCompiler,
+            new KieModuleArtifactStore(artifactRepository, ruleSetCompiler, false, 0),
+            new RuleExecutionMetrics(meterRegistry, 0),
+            referenceLists,
+            predicateRuleCompiler,
+            meterRegistry,
+            1,
+            Duration.ofMinutes(1),
+            true,
+            BigDecimal.ZERO,
+            List.of(),
+            false);
+
+        FactMapper factMapper = new FactMapper(BenchmarkFixtures.objectMapper());
+        declarations = BenchmarkFixtures.declarationPayloads(FACTS).stream()
+            .map(factMapper::buildDeclarationFromMap)
+            .toArray();
+        cargoReports = BenchmarkFixtures.cargoReportPayloads(FACTS).stream()
+            .map(factMapper::buildCargoReportFromMap)
+            .toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ruleEngineManager.disposeAll();
+    }
+
+    @Benchmark
+    public TotalRuleResults fireRulesDeclaration(Cursor cursor) {
+        return ruleEngineManager.fireRules(FactType.DECLARATION.getValue(), declarations[cursor.next(declarations.length)]);
+    }
+
+    @Benchmark
+    public TotalRuleResults fireRulesCargoReport(Cursor cursor) {
+        return ruleEngineManager.fireRules(FactType.CARGO_REPORT.getValue(), cargoReports[cursor.next(cargoReports.length)]);
+    }
+}
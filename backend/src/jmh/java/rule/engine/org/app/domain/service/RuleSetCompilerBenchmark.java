@@ -0,0 +1,68 @@
+package rule.engine.org.app.domain.service;
+
+import org.kie.api.KieServices;
+import org.kie.api.builder.ReleaseId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import rule.engine.org.app.benchmark.BenchmarkFixtures;
+import rule.engine.org.app.domain.entity.ui.DecisionRule;
+import rule.engine.org.app.domain.entity.ui.FactType;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full compile of a rule set into a new KieContainer (RuleSetCompiler.buildKieContainer) versus rule count
+ * Each build is a single shot on its own ReleaseId; the container is disposed after the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class RuleSetCompilerBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int ruleCount;
+
+    @Param({"DRL", "EXECUTABLE_MODEL"})
+    public RuleSetCompiler.BuildMode buildMode;
+
+    private RuleSetCompiler ruleSetCompiler;
+    private List<DecisionRule> rules;
+    private int build;
+    private RuleSetCompiler.KieContainerBuildResult lastBuild;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ruleSetCompiler = new RuleSetCompiler(buildMode, false, 0, null);
+        rules = BenchmarkFixtures.rules(FactType.DECLARATION, ruleCount);
+    }
+
+    @Benchmark
+    public RuleSetCompiler.KieContainerBuildResult buildKieContainer() {
+        ReleaseId releaseId = KieServices.Factory.get().newReleaseId(
+            "org.rule.jmh", "declaration-" + ruleCount + "-" + buildMode.name().toLowerCase(), ++build + ".0.0");
+        lastBuild = ruleSetCompiler.buildKieContainer(rules, FactType.DECLARATION.getValue(), releaseId, buildMode);
+        return lastBuild;
+    }
+
+    @TearDown(Level.Iteration)
+    public void disposeBuild() {
+        if (lastBuild != null) {
+            lastBuild.container.dispose();
+            KieServices.Factory.get().getRepository().removeKieModule(lastBuild.kieModule.getReleaseId());
+            lastBuild = null;
+        }
+    }
+}
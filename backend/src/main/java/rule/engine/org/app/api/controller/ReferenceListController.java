@@ -0,0 +1,114 @@
+package rule.engine.org.app.api.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import rule.engine.org.app.api.request.ReferenceListRequest;
+import rule.engine.org.app.api.response.ErrorResponse;
+import rule.engine.org.app.api.response.ReferenceListResponse;
+import rule.engine.org.app.domain.entity.ui.ReferenceList;
+import rule.engine.org.app.domain.service.ReferenceListService;
+import rule.engine.org.app.domain.service.ReferenceLists;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Reference lists used by IN / NOT_IN ("inList" / "notInList") conditions
+ * Changes are published to the running engine immediately; no rule rebuild is needed.
+ */
+@RestController
+@RequestMapping("/api/v1/reference-lists")
+public class ReferenceListController {
+
+    private static final Logger log = LoggerFactory.getLogger(ReferenceListController.class);
+
+    private final ReferenceListService referenceListService;
+    private final ReferenceLists referenceLists;
+
+    public ReferenceListController(ReferenceListService referenceListService, ReferenceLists referenceLists) {
+        this.referenceListService = referenceListService;
+        this.referenceLists = referenceLists;
+    }
+
+    /**
+     * All lists with their loaded size and lookup counters
+     */
+    @GetMapping
+    public ResponseEntity<List<ReferenceListResponse>> getLists() {
+        List<ReferenceListResponse> lists = referenceListService.getLists().stream()
+            .map(list -> ReferenceListResponse.from(list, referenceLists, null))
+            .collect(Collectors.toList());
+        return ResponseEntity.ok(lists);
+    }
+
+    /**
+     * One list including its values
+     */
+    @GetMapping("/{name}")
+    public ResponseEntity<ReferenceListResponse> getList(@PathVariable String name) {
+        Optional<ReferenceList> list = referenceListService.getList(name);
+        return list.map(l -> ResponseEntity.ok(ReferenceListResponse.from(l, referenceLists, referenceListService.getValues(l))))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Create a list or replace all of its values
+     */
+    @PutMapping("/{name}")
+    public ResponseEntity<?> replaceList(@PathVariable String name, @RequestBody ReferenceListRequest request) {
+        try {
+            List<String> values = request.getValues() != null ? request.getValues() : List.of();
+            ReferenceList list = referenceListService.replace(name, request.getDescription(), values);
+            return ResponseEntity.ok(ReferenceListResponse.from(list, referenceLists, null));
+        } catch (IllegalArgumentException e) {
+            ErrorResponse errorResponse = ErrorResponse.builder()
+                .success(false)
+                .error(e.getMessage())
+                .errorType("ValidationException")
+                .build();
+            return ResponseEntity.badRequest().body(errorResponse);
+        } catch (Exception e) {
+            log.error("Failed to replace reference list {}", name, e);
+            ErrorResponse errorResponse = ErrorResponse.builder()
+                .success(false)
+                .error(e.getMessage())
+                .errorType(e.getClass().getName())
+                .build();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
+    /**
+     * Delete a list; refused while a current rule still uses it
+     */
+    @DeleteMapping("/{name}")
+    public ResponseEntity<?> deleteList(@PathVariable String name) {
+        try {
+            if (!referenceListService.delete(name)) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.noContent().build();
+        } catch (IllegalStateException e) {
+            ErrorResponse errorResponse = ErrorResponse.builder()
+                .success(false)
+                .error(e.getMessage())
+                .errorType("IllegalStateException")
+                .build();
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+        }
+    }
+
+    /**
+     * Reload all lists from the database (e.g. after a direct bulk load into reference_list_entries)
+     */
+    @PostMapping("/reload")
+    public ResponseEntity<Map<String, Object>> reload() {
+        referenceListService.reload();
+        return ResponseEntity.ok(Map.of("success", true, "lists", referenceListService.getLists().size()));
+    }
+}
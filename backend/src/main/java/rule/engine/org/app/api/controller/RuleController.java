@@ -1,14 +1,25 @@
 package rule.engine.org.app.api.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import rule.engine.org.app.api.mapper.FactMapper;
 import rule.engine.org.app.api.request.RuleOutputRequest;
 import rule.engine.org.app.api.request.CreateRuleRequest;
 import rule.engine.org.app.api.request.UpdateRuleRequest;
 import rule.engine.org.app.api.request.RestoreVersionRequest;
+import rule.engine.org.app.api.request.ShadowStartRequest;
+import rule.engine.org.app.api.request.ReplayRequest;
+import rule.engine.org.app.api.response.BatchExecuteResponse;
 import rule.engine.org.app.api.response.ConditionResponse;
+import rule.engine.org.app.api.response.ExecutionJobResponse;
 import rule.engine.org.app.api.response.RuleExecutionResponse;
 import rule.engine.org.app.api.response.RuleExecuteResponse;
 import rule.engine.org.app.api.response.ErrorResponse;
@@ -17,6 +28,10 @@ import rule.engine.org.app.api.response.DeployResponse;
 import rule.engine.org.app.api.response.PackageInfoResponse;
 import rule.engine.org.app.api.response.ContainerStatusResponse;
 import rule.engine.org.app.api.response.RuleFieldMetadata;
+import rule.engine.org.app.api.response.ShadowStatusResponse;
+import rule.engine.org.app.api.response.ReplayResponse;
+import rule.engine.org.app.api.response.RuleImpactResponse;
+import rule.engine.org.app.api.response.DecisionTableImportResponse;
 import rule.engine.org.app.api.response.RuleFieldMetadata.FieldDefinition;
 import rule.engine.org.app.domain.entity.ui.DecisionRule;
 import rule.engine.org.app.domain.entity.ui.FactType;
@@ -27,7 +42,6 @@ import rule.engine.org.app.domain.entity.ui.RuleOutput;
 import rule.engine.org.app.domain.entity.ui.RuleOutputGroup;
 import rule.engine.org.app.domain.entity.ui.RuleGroupType;
 import rule.engine.org.app.domain.entity.ui.RuleOperatorType;
-import rule.engine.org.app.domain.entity.ui.RuleValueType;
 import rule.engine.org.app.domain.repository.DecisionRuleRepository;
 import rule.engine.org.app.domain.repository.RuleExecutionResultRepository;
 import rule.engine.org.app.domain.repository.RuleConditionGroupRepository;
@@ -35,15 +49,34 @@ import rule.engine.org.app.domain.repository.RuleConditionRepository;
 import rule.engine.org.app.domain.repository.RuleOutputRepository;
 import rule.engine.org.app.domain.repository.RuleOutputGroupRepository;
 import rule.engine.org.app.domain.repository.KieContainerVersionRepository;
+import rule.engine.org.app.domain.service.BatchRuleExecutor;
 import rule.engine.org.app.domain.service.RuleEngineManager;
+import rule.engine.org.app.domain.service.RuleExecutionJobService;
 import rule.engine.org.app.domain.service.RuleVersionService;
+import rule.engine.org.app.domain.service.ShadowExecutionService;
+import rule.engine.org.app.domain.service.ReplayService;
+import rule.engine.org.app.domain.service.RuleImpactService;
+import rule.engine.org.app.domain.service.ReferenceLists;
+import rule.engine.org.app.domain.service.RuleDrlGenerator;
+import rule.engine.org.app.domain.service.DecisionTableImportService;
 import rule.engine.org.app.domain.entity.ui.KieContainerVersion;
 import rule.engine.org.app.util.RuleFieldExtractor;
-import rule.engine.org.app.util.DrlConstants;
+import rule.engine.org.app.util.DecisionTableReader;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @RestController
@@ -61,6 +94,19 @@ public class RuleController {
     private final RuleOutputRepository outputRepository;
     private final RuleOutputGroupRepository outputGroupRepository;
     private final KieContainerVersionRepository containerVersionRepository;
+    private final FactMapper factMapper;
+    private final BatchRuleExecutor batchRuleExecutor;
+    private final RuleExecutionJobService jobService;
+    private final ShadowExecutionService shadowExecutionService;
+    private final ReplayService replayService;
+    private final RuleImpactService ruleImpactService;
+    private final ReferenceLists referenceLists;
+    private final DecisionTableImportService decisionTableImportService;
+    private final ObjectMapper objectMapper;
+    private final int maxBatchItems;
+    private final int maxJobItems;
+    private final int maxImportRows;
+    private final int bulkChunkSize;
 
     public RuleController(DecisionRuleRepository decisionRuleRepository,
                         RuleExecutionResultRepository executionResultRepository,
@@ -70,7 +116,20 @@ public class RuleController {
                         RuleConditionRepository conditionRepository,
                         RuleOutputRepository outputRepository,
                         RuleOutputGroupRepository outputGroupRepository,
-                        KieContainerVersionRepository containerVersionRepository) {
+                        KieContainerVersionRepository containerVersionRepository,
+                        FactMapper factMapper,
+                        BatchRuleExecutor batchRuleExecutor,
+                        RuleExecutionJobService jobService,
+                        ShadowExecutionService shadowExecutionService,
+                        ReplayService replayService,
+                        RuleImpactService ruleImpactService,
+                        ReferenceLists referenceLists,
+                        DecisionTableImportService decisionTableImportService,
+                        ObjectMapper objectMapper,
+                        @Value("${rule-engine.batch.max-items:10000}") int maxBatchItems,
+                        @Value("${rule-engine.jobs.max-items:1000000}") int maxJobItems,
+                        @Value("${rule-engine.import.max-rows:50000}") int maxImportRows,
+                        @Value("${rule-engine.bulk.chunk-size:4096}") int bulkChunkSize) {
         this.decisionRuleRepository = decisionRuleRepository;
         this.executionResultRepository = executionResultRepository;
         this.ruleEngineManager = ruleEngineManager;
@@ -80,6 +139,19 @@ public class RuleController {
         this.outputRepository = outputRepository;
         this.outputGroupRepository = outputGroupRepository;
         this.containerVersionRepository = containerVersionRepository;
+        this.factMapper = factMapper;
+        this.batchRuleExecutor = batchRuleExecutor;
+        this.jobService = jobService;
+        this.shadowExecutionService = shadowExecutionService;
+        this.replayService = replayService;
+        this.ruleImpactService = ruleImpactService;
+        this.referenceLists = referenceLists;
+        this.decisionTableImportService = decisionTableImportService;
+        this.objectMapper = objectMapper;
+        this.maxBatchItems = maxBatchItems;
+        this.maxJobItems = maxJobItems;
+        this.maxImportRows = maxImportRows;
+        this.bulkChunkSize = Math.max(1, bulkChunkSize);
     }
 
     @GetMapping
@@ -95,36 +167,19 @@ public class RuleController {
      * Execute rules with Declaration data
      * This endpoint accepts Declaration data and fires all matching rules
      * Supports testing with a specific version by passing "version" parameter
+     * Passing "haltOn" (e.g. REJECT) stops firing at the first hit with that action, once the rules of
+     * its priority have run; rules run in priority (salience) order and the response reports
+     * truncated=true when firing was halted
      * IMPORTANT: This endpoint must be placed BEFORE endpoints with path variables like /{id} or /{ruleId}/executions
      * to avoid path matching conflicts (Spring may match /execute with /{ruleId}/executions)
      */
     @PostMapping(value = "/execute", consumes = org.springframework.http.MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<?> executeRules(
             @RequestBody Map<String, Object> declarationData,
-            @RequestParam(required = false) Long version) {
+            @RequestParam(required = false) Long version,
+            @RequestParam(required = false) String haltOn) {
         try {
-            // Convert map to Declaration entity
-            rule.engine.org.app.domain.entity.execution.declaration.Declaration declaration = 
-                buildDeclarationFromMap(declarationData);
-            
-            // Get fact type from declaration data or default to "Declaration"
-            String factTypeStr = (String) declarationData.getOrDefault("factType", "Declaration");
-            FactType factType = FactType.fromValue(factTypeStr);
-            
-            // Fire rules using RuleEngineManager
-            rule.engine.org.app.domain.entity.execution.TotalRuleResults results;
-            
-            if (version != null && version > 0) {
-                // Execute with specific version
-                results = ruleEngineManager.fireRulesWithVersion(factType.getValue(), declaration, version);
-            } else {
-                // Execute with current version
-                results = ruleEngineManager.fireRules(factType.getValue(), declaration);
-            }
-            
-            // Build response using DTO factory method
-            RuleExecuteResponse response = RuleExecuteResponse.from(results, declaration.getDeclarationId());
-            
+            RuleExecuteResponse response = executeFact(declarationData, version, haltOn);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             ErrorResponse errorResponse = ErrorResponse.builder()
@@ -138,6 +193,302 @@ public class RuleController {
         }
     }
 
+    /**
+     * Execute rules for many facts in one call
+     * Each item has the same shape as the /execute body (including optional factType).
+     * Items are scored in parallel on a bounded worker pool and returned in input order;
+     * a failure in one item is reported on that item and does not fail the rest
+     */
+    @PostMapping(value = "/execute/batch", consumes = org.springframework.http.MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> executeRulesBatch(
+            @RequestBody List<Map<String, Object>> items,
+            @RequestParam(required = false) Long version,
+            @RequestParam(required = false) String haltOn) {
+        if (items.size() > maxBatchItems) {
+            ErrorResponse errorResponse = ErrorResponse.builder()
+                .success(false)
+                .error("Batch size " + items.size() + " exceeds the maximum of " + maxBatchItems + " items")
+                .errorType("ValidationException")
+                .build();
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+        
+        long startNanos = System.nanoTime();
+        List<RuleExecuteResponse> results = batchRuleExecutor.mapInOrder(
+            items,
+            item -> executeFact(item, version, haltOn),
+            (item, e) -> {
+                log.debug("Error executing rules for batch item: {}", e.getMessage(), e);
+                return RuleExecuteResponse.error(e.getMessage(), e.getClass().getName());
+            });
+        long durationMs = java.util.concurrent.TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        
+        int failed = (int) results.stream()
+            .filter(result -> !Boolean.TRUE.equals(result.getSuccess()))
+            .count();
+        
+        BatchExecuteResponse response = BatchExecuteResponse.builder()
+            .success(true)
+            .total(results.size())
+            .succeeded(results.size() - failed)
+            .failed(failed)
+            .durationMs(durationMs)
+            .results(results)
+            .build();
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Rescore many facts of one fact type against the current rules in bulk
+     * Items have the /execute body shape (their factType is ignored in favour of the parameter).
+     * Facts are split into chunks scored column-at-a-time on the batch worker pool: vectorizable
+     * rules run over the whole chunk, the others in Drools per fact. Results come back in input
+     * order like /execute/batch; there is no version or haltOn, and bulk results are not recorded
+     * by shadow execution or other execution observers.
+     */
+    @PostMapping(value = "/execute/bulk", consumes = org.springframework.http.MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> executeRulesBulk(
+            @RequestBody List<Map<String, Object>> items,
+            @RequestParam(required = false, defaultValue = "Declaration") String factType) {
+        if (items.size() > maxBatchItems) {
+            ErrorResponse errorResponse = ErrorResponse.builder()
+                .success(false)
+                .error("Batch size " + items.size() + " exceeds the maximum of " + maxBatchItems + " items")
+                .errorType("ValidationException")
+                .build();
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+        
+        FactType factTypeEnum = FactType.fromValue(factType);
+        List<List<Map<String, Object>>> chunks = new ArrayList<>();
+        for (int start = 0; start < items.size(); start += bulkChunkSize) {
+            chunks.add(items.subList(start, Math.min(items.size(), start + bulkChunkSize)));
+        }
+        
+        long startNanos = System.nanoTime();
+        List<List<RuleExecuteResponse>> chunkResults = batchRuleExecutor.mapInOrder(
+            chunks,
+            chunk -> executeBulkChunk(factTypeEnum, chunk),
+            (chunk, e) -> {
+                log.debug("Error executing rules for bulk chunk: {}", e.getMessage(), e);
+                RuleExecuteResponse error = RuleExecuteResponse.error(e.getMessage(), e.getClass().getName());
+                return new ArrayList<>(Collections.nCopies(chunk.size(), error));
+            });
+        long durationMs = java.util.concurrent.TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        
+        List<RuleExecuteResponse> results = new ArrayList<>(items.size());
+        chunkResults.forEach(results::addAll);
+        int failed = (int) results.stream()
+            .filter(result -> !Boolean.TRUE.equals(result.getSuccess()))
+            .count();
+        
+        BatchExecuteResponse response = BatchExecuteResponse.builder()
+            .success(true)
+            .total(results.size())
+            .succeeded(results.size() - failed)
+            .failed(failed)
+            .durationMs(durationMs)
+            .results(results)
+            .build();
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Map and score one bulk chunk; an item that does not map is reported on that item only
+     */
+    private List<RuleExecuteResponse> executeBulkChunk(FactType factType, List<Map<String, Object>> chunk) {
+        RuleExecuteResponse[] responses = new RuleExecuteResponse[chunk.size()];
+        List<Object> facts = new ArrayList<>(chunk.size());
+        List<Integer> positions = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            try {
+                facts.add(factMapper.toFact(factType, chunk.get(i)));
+                positions.add(i);
+            } catch (RuntimeException e) {
+                log.debug("Error mapping bulk item: {}", e.getMessage(), e);
+                responses[i] = RuleExecuteResponse.error(e.getMessage(), e.getClass().getName());
+            }
+        }
+        List<rule.engine.org.app.domain.entity.execution.TotalRuleResults> scored =
+            ruleEngineManager.fireRulesBulk(factType.getValue(), facts);
+        for (int i = 0; i < facts.size(); i++) {
+            responses[positions.get(i)] = RuleExecuteResponse.from(scored.get(i), factMapper.factId(facts.get(i)));
+        }
+        return Arrays.asList(responses);
+    }
+
+    /**
+     * Execute rules for a newline-delimited JSON stream of facts
+     * Each input line has the same shape as the /execute body; one RuleExecuteResponse line is
+     * written per input line, in input order, as results complete. Input is parsed incrementally
+     * and only a bounded window of items is in flight, so memory stays flat for any stream size.
+     */
+    @PostMapping(value = "/execute/stream", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+                 produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> executeRulesStream(
+            InputStream body,
+            @RequestParam(required = false) Long version,
+            @RequestParam(required = false) String haltOn) {
+        StreamingResponseBody stream = out -> {
+            try (MappingIterator<Map<String, Object>> items = factMapper.readPayloads(body)) {
+                long count = batchRuleExecutor.streamInOrder(
+                    items,
+                    item -> executeFact(item, version, haltOn),
+                    (item, e) -> RuleExecuteResponse.error(e.getMessage(), e.getClass().getName()),
+                    result -> writeNdjsonLine(out, result));
+                log.info("Streamed rule execution results for {} items", count);
+            } catch (UncheckedIOException e) {
+                // Client went away while results were being written
+                throw e.getCause();
+            } catch (RuntimeException e) {
+                // Malformed input: report it as a final line; lines already written stay valid
+                log.warn("Stopping rule execution stream: {}", e.getMessage());
+                writeNdjsonLine(out, RuleExecuteResponse.error("Invalid NDJSON input: " + e.getMessage(), e.getClass().getName()));
+            }
+            out.flush();
+        };
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(stream);
+    }
+
+    /**
+     * Submit an asynchronous execution job
+     * Returns 202 with the job ID right away; poll /jobs/{jobId} for progress and fetch
+     * /jobs/{jobId}/results once it has completed
+     */
+    @PostMapping(value = "/jobs", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> submitExecutionJob(
+            @RequestBody List<Map<String, Object>> items,
+            @RequestParam(required = false) Long version,
+            @RequestParam(required = false) String haltOn) {
+        if (items.size() > maxJobItems) {
+            ErrorResponse errorResponse = ErrorResponse.builder()
+                .success(false)
+                .error("Job size " + items.size() + " exceeds the maximum of " + maxJobItems + " items")
+                .errorType("ValidationException")
+                .build();
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+        
+        RuleExecutionJobService.Job job = jobService.submit(
+            items,
+            item -> executeFact(item, version, haltOn),
+            (item, e) -> RuleExecuteResponse.error(e.getMessage(), e.getClass().getName()));
+        return ResponseEntity.accepted().body(toJobResponse(job));
+    }
+
+    /**
+     * Get progress of an execution job
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<ExecutionJobResponse> getExecutionJob(@PathVariable String jobId) {
+        return jobService.getJob(jobId)
+            .map(job -> ResponseEntity.ok(toJobResponse(job)))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Get a page of results of a finished execution job, in input order
+     */
+    @GetMapping("/jobs/{jobId}/results")
+    public ResponseEntity<?> getExecutionJobResults(
+            @PathVariable String jobId,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "1000") int limit) {
+        Optional<RuleExecutionJobService.Job> jobOpt = jobService.getJob(jobId);
+        if (jobOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        RuleExecutionJobService.Job job = jobOpt.get();
+        if (!job.isDone()) {
+            ErrorResponse errorResponse = ErrorResponse.builder()
+                .success(false)
+                .error("Job " + jobId + " is still " + job.getStatus())
+                .errorType("IllegalStateException")
+                .build();
+            return ResponseEntity.status(org.springframework.http.HttpStatus.CONFLICT).body(errorResponse);
+        }
+        
+        ExecutionJobResponse response = toJobResponse(job);
+        response.setOffset(offset);
+        response.setResults(job.getResults(offset, Math.min(limit, 10000)));
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Cancel an execution job; running items are interrupted, the rest are skipped. The job reports
+     * CANCELLING until its running items have settled, then CANCELLED
+     */
+    @DeleteMapping("/jobs/{jobId}")
+    public ResponseEntity<?> cancelExecutionJob(@PathVariable String jobId) {
+        if (jobService.getJob(jobId).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!jobService.cancel(jobId)) {
+            ErrorResponse errorResponse = ErrorResponse.builder()
+                .success(false)
+                .error("Job " + jobId + " has already finished")
+                .errorType("IllegalStateException")
+                .build();
+            return ResponseEntity.status(org.springframework.http.HttpStatus.CONFLICT).body(errorResponse);
+        }
+        return ResponseEntity.ok(toJobResponse(jobService.getJob(jobId).get()));
+    }
+
+    private ExecutionJobResponse toJobResponse(RuleExecutionJobService.Job job) {
+        return ExecutionJobResponse.builder()
+            .jobId(job.getId())
+            .status(job.getStatus().name())
+            .total(job.getTotal())
+            .completed(job.getCompleted())
+            .failed(job.getFailed())
+            .throughputPerSecond(job.getThroughputPerSecond())
+            .submittedAt(job.getSubmittedAt())
+            .startedAt(job.getStartedAt())
+            .finishedAt(job.getFinishedAt())
+            .build();
+    }
+
+    private void writeNdjsonLine(OutputStream out, Object value) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(value));
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Convert one execution payload to its fact and fire rules against the current
+     * container, or against a historical version when one is given
+     * With haltOn, firing stops at the first hit with that action (short-circuit triage)
+     */
+    private RuleExecuteResponse executeFact(Map<String, Object> data, Long version, String haltOn) {
+        // Get fact type from payload or default to "Declaration"
+        String factTypeStr = (String) data.getOrDefault("factType", "Declaration");
+        FactType factType = FactType.fromValue(factTypeStr);
+        
+        Object fact = factMapper.toFact(factType, data);
+        
+        rule.engine.org.app.domain.entity.execution.TotalRuleResults results;
+        if (version != null && version > 0) {
+            // Execute with specific version
+            results = ruleEngineManager.fireRulesWithVersion(factType.getValue(), fact, version, terminalAction(haltOn));
+        } else {
+            // Execute with current version
+            results = ruleEngineManager.fireRules(factType.getValue(), fact, terminalAction(haltOn));
+        }
+        
+        // Build response using DTO factory method
+        return RuleExecuteResponse.from(results, factMapper.factId(fact));
+    }
+
+    private static String terminalAction(String haltOn) {
+        return haltOn == null || haltOn.isBlank() ? null : haltOn.trim().toUpperCase();
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<RuleResponse> getRule(@PathVariable Long id) {
         Optional<DecisionRule> ruleOpt = decisionRuleRepository.findById(id);
@@ -176,6 +527,16 @@ public class RuleController {
             }
         }
         
+        String unknownList = findUnknownReferenceList(request.getConditions());
+        if (unknownList != null) {
+            ErrorResponse errorResponse = ErrorResponse.builder()
+                .success(false)
+                .error("Unknown reference list: " + unknownList)
+                .errorType("ValidationException")
+                .build();
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+        
         // Generate ruleContent before saving (uses placeholder ID 0 if rule not yet saved)
         String ruleContent = buildCompleteDrlFromRequest(request, rule);
         if (ruleContent == null || ruleContent.isBlank()) {
@@ -238,6 +599,151 @@ public class RuleController {
         RuleResponse response = buildRuleResponse(saved, request);
         return ResponseEntity.ok(response);
     }
+    /**
+     * Count the stored declarations a proposed rule would hit, without saving it
+     * The body is a create-rule request. Conditions are pushed down to SQL over the declarations
+     * tables where possible; otherwise the rule runs in Drools over the stored declarations that
+     * pass the translatable conditions. The response reports which path was used.
+     */
+    @PostMapping(value = "/impact", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> estimateRuleImpact(
+            @RequestBody CreateRuleRequest request,
+            @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(
+                iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE_TIME) java.time.LocalDateTime from,
+            @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(
+                iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE_TIME) java.time.LocalDateTime to,
+            @RequestParam(required = false, defaultValue = "20") int sampleSize) {
+        try {
+            String unknownList = findUnknownReferenceList(request.getConditions());
+            if (unknownList != null) {
+                throw new IllegalArgumentException("Unknown reference list: " + unknownList);
+            }
+            DecisionRule rule = buildRuleFromRequest(request);
+            String ruleContent = buildCompleteDrlFromRequest(request, rule);
+            if (ruleContent == null || ruleContent.isBlank()) {
+                throw new IllegalArgumentException("Failed to generate rule content: conditions or output are required");
+            }
+            rule.setRuleContent(ruleContent);
+            List<RuleCondition> conditions = RuleDrlGenerator.conditionRows(rule, request.getConditions());
+            RuleImpactService.ImpactEstimate estimate = ruleImpactService.estimate(rule, conditions, from, to, sampleSize);
+            return ResponseEntity.ok(RuleImpactResponse.from(estimate));
+        } catch (IllegalArgumentException e) {
+            ErrorResponse errorResponse = ErrorResponse.builder()
+                .success(false)
+                .error(e.getMessage())
+                .errorType("ValidationException")
+                .build();
+            return ResponseEntity.badRequest().body(errorResponse);
+        } catch (Exception e) {
+            log.error("Error estimating rule impact", e);
+            ErrorResponse errorResponse = ErrorResponse.builder()
+                .success(false)
+                .error(e.getMessage())
+                .errorType(e.getClass().getName())
+                .build();
+            return ResponseEntity.status(org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(errorResponse);
+        }
+    }
+
+    /**
+     * Import a decision table (CSV or XLSX) as new rules of one fact type
+     *
+     * Row 1 names the columns, every other row is one rule:
+     * - ruleName (required), label, priority, active, evaluationStage, versionNotes
+     * - action, result, score, flag, documentType, documentId, description: the rule's output
+     * - "<field> <operator>" columns, e.g. "declaration.invoiceAmount >=": each non-blank cell is
+     *   one AND condition with the cell as value (the list name for inList / notInList)
+     * Every row is validated first; with any error nothing is imported and the errors of all rows
+     * are returned. Otherwise the rules are inserted with JDBC batches and the rule set is compiled
+     * once (DecisionTableImportService). Imported rules are drafts unless the active column says otherwise.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importDecisionTable(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false, defaultValue = "Declaration") String factType,
+            @RequestParam(defaultValue = "false") boolean dryRun) {
+        long start = System.nanoTime();
+        FactType factTypeEnum = FactType.fromValue(factType);
+
+        List<DecisionTableReader.TableRow> rows;
+        try (InputStream input = file.getInputStream()) {
+            rows = DecisionTableReader.read(file.getOriginalFilename(), input);
+        } catch (IOException | IllegalArgumentException e) {
+            ErrorResponse errorResponse = ErrorResponse.builder()
+                .success(false)
+                .error("Unreadable decision table: " + e.getMessage())
+                .errorType("ValidationException")
+                .build();
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+        if (rows.size() < 2 || rows.size() - 1 > maxImportRows) {
+            ErrorResponse errorResponse = ErrorResponse.builder()
+                .success(false)
+                .error(rows.size() < 2
+                    ? "Decision table needs a header row and at least one rule row"
+                    : "Decision table has more than " + maxImportRows + " rule rows")
+                .errorType("ValidationException")
+                .build();
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+        long parsed = System.nanoTime();
+
+        DecisionTableImportService.ParsedTable table = decisionTableImportService.parse(rows, factTypeEnum);
+        long validated = System.nanoTime();
+
+        DecisionTableImportResponse.DecisionTableImportResponseBuilder response = DecisionTableImportResponse.builder()
+            .factType(factTypeEnum.getValue())
+            .dryRun(dryRun)
+            .rowsRead(rows.size() - 1)
+            .parseMillis(toMillis(parsed - start))
+            .validateMillis(toMillis(validated - parsed));
+        if (!table.errors().isEmpty()) {
+            return ResponseEntity.badRequest().body(response
+                .success(false)
+                .rulesImported(0)
+                .errors(table.errors())
+                .totalMillis(toMillis(System.nanoTime() - start))
+                .build());
+        }
+        if (dryRun) {
+            return ResponseEntity.ok(response
+                .success(true)
+                .rulesImported(0)
+                .totalMillis(toMillis(System.nanoTime() - start))
+                .build());
+        }
+
+        List<DecisionTableImportService.ImportedRule> imported = decisionTableImportService.prepare(factTypeEnum, table.requests());
+
+        DecisionTableImportService.ImportTimings timings;
+        try {
+            timings = decisionTableImportService.insert(factTypeEnum.getValue(), imported);
+        } catch (RuntimeException e) {
+            log.error("Decision table import for {} rolled back: {}", factTypeEnum.getValue(), e.getMessage(), e);
+            ErrorResponse errorResponse = ErrorResponse.builder()
+                .success(false)
+                .error("Import rolled back: " + e.getMessage())
+                .errorType(e.getClass().getName())
+                .build();
+            return ResponseEntity.status(org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(errorResponse);
+        }
+        long total = System.nanoTime() - start;
+        log.info("Imported {} {} rules from {} in {} ms (compile {} ms)", imported.size(), factTypeEnum.getValue(),
+            file.getOriginalFilename(), toMillis(total), toMillis(timings.compileNanos()));
+        return ResponseEntity.ok(response
+            .success(true)
+            .rulesImported(imported.size())
+            .importMillis(toMillis(timings.insertNanos()))
+            .compileMillis(toMillis(timings.compileNanos()))
+            .totalMillis(toMillis(total))
+            .build());
+    }
+
+    private static long toMillis(long nanos) {
+        return java.util.concurrent.TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
 
     @PutMapping("/{id}")
     @org.springframework.transaction.annotation.Transactional
@@ -292,6 +798,16 @@ public class RuleController {
             }
         }
         
+        String unknownList = findUnknownReferenceList(request.getConditions());
+        if (unknownList != null) {
+            ErrorResponse errorResponse = ErrorResponse.builder()
+                .success(false)
+                .error("Unknown reference list: " + unknownList)
+                .errorType("ValidationException")
+                .build();
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+        
         // Generate ruleContent before saving
         rule.setId(id); // Set ID for ruleContent generation (needed for both createNewVersion and direct update)
         String ruleContent = buildCompleteDrlFromRequest(request, rule);
@@ -657,6 +1173,229 @@ public class RuleController {
             return ResponseEntity.status(org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE).body(result);
         }
     }
+    
+    /**
+     * Start shadow execution for a fact type: a sample of live executions is replayed against
+     * a candidate (a deployed version or a pending change request) and the outcomes are compared.
+     * Replaces any shadow already running for the fact type.
+     */
+    @PostMapping("/shadow/{factType}")
+    public ResponseEntity<?> startShadow(@PathVariable String factType, @RequestBody ShadowStartRequest request) {
+        if ((request.getVersion() == null) == (request.getChangeRequestId() == null)) {
+            ErrorResponse errorResponse = ErrorResponse.builder()
+                .success(false)
+                .error("Specify exactly one of version or changeRequestId")
+                .errorType("ValidationException")
+                .build();
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+        double sampleRate = request.getSampleRate() != null ? request.getSampleRate() : 0.1;
+        try {
+            ShadowExecutionService.Shadow shadow;
+            if (request.getVersion() != null) {
+                shadow = shadowExecutionService.startForVersion(factType, request.getVersion(), sampleRate);
+            } else {
+                shadow = shadowExecutionService.startForChangeRequest(factType, request.getChangeRequestId(), sampleRate);
+            }
+            return ResponseEntity.ok(ShadowStatusResponse.from(shadow, List.of()));
+        } catch (IllegalArgumentException e) {
+            ErrorResponse errorResponse = ErrorResponse.builder()
+                .success(false)
+                .error(e.getMessage())
+                .errorType("ValidationException")
+                .build();
+            return ResponseEntity.badRequest().body(errorResponse);
+        } catch (Exception e) {
+            log.error("Error starting shadow execution for {}", factType, e);
+            ErrorResponse errorResponse = ErrorResponse.builder()
+                .success(false)
+                .error(e.getMessage())
+                .errorType(e.getClass().getName())
+                .build();
+            return ResponseEntity.status(org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(errorResponse);
+        }
+    }
+
+    /**
+     * Get shadow execution statistics and the latest diffs, newest first
+     */
+    @GetMapping("/shadow/{factType}")
+    public ResponseEntity<ShadowStatusResponse> getShadow(
+            @PathVariable String factType,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(defaultValue = "false") boolean mismatchesOnly) {
+        return shadowExecutionService.getShadow(factType)
+            .map(shadow -> ResponseEntity.ok(ShadowStatusResponse.from(shadow, shadow.getDiffs(Math.min(limit, 1000), mismatchesOnly))))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Stop shadow execution for a fact type and return its final statistics
+     */
+    @DeleteMapping("/shadow/{factType}")
+    public ResponseEntity<ShadowStatusResponse> stopShadow(@PathVariable String factType) {
+        return shadowExecutionService.stop(factType)
+            .map(shadow -> ResponseEntity.ok(ShadowStatusResponse.from(shadow, List.of())))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Replay stored declarations against a candidate version and compare with a baseline
+     * Returns 202 right away; poll /replays/{replayId} for progress and the aggregated report.
+     */
+    @PostMapping(value = "/replays", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> replayStoredDeclarations(@RequestBody ReplayRequest request) {
+        if (request.getCandidateVersion() == null) {
+            ErrorResponse errorResponse = ErrorResponse.builder()
+                .success(false)
+                .error("candidateVersion is required")
+                .errorType("ValidationException")
+                .build();
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+        String factType = FactType.DECLARATION.getValue();
+        try {
+            ReplayService.Replay replay = replayService.replayStoredDeclarations(new ReplayService.ReplayOptions(
+                factType,
+                request.getBaselineVersion() != null ? request.getBaselineVersion() : ruleEngineManager.getContainerVersion(factType),
+                request.getCandidateVersion(),
+                request.getConcurrency() != null ? request.getConcurrency() : 0,
+                request.getFrom(),
+                request.getTo(),
+                request.getLimit() != null ? request.getLimit() : 0));
+            return ResponseEntity.accepted().body(ReplayResponse.from(replay));
+        } catch (IllegalArgumentException e) {
+            ErrorResponse errorResponse = ErrorResponse.builder()
+                .success(false)
+                .error(e.getMessage())
+                .errorType("ValidationException")
+                .build();
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+    }
+
+    /**
+     * Replay an uploaded NDJSON file of facts (same shape as the /execute body, one per line)
+     * The upload is spooled to a temporary file before returning 202, then read one line at a
+     * time by the replay; the file is deleted when the replay ends.
+     */
+    @PostMapping(value = "/replays/{factType}", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<?> replayUpload(
+            @PathVariable String factType,
+            InputStream body,
+            @RequestParam long candidateVersion,
+            @RequestParam(required = false) Long baselineVersion,
+            @RequestParam(defaultValue = "0") int concurrency,
+            @RequestParam(defaultValue = "0") long limit) {
+        FactType factTypeEnum = FactType.fromValue(factType);
+        Path spool = null;
+        ReplayService.FactSource facts = null;
+        try {
+            spool = Files.createTempFile("rule-replay-", ".ndjson");
+            Files.copy(body, spool, StandardCopyOption.REPLACE_EXISTING);
+            facts = ndjsonFacts(factTypeEnum, spool);
+            ReplayService.Replay replay = replayService.replay("upload", new ReplayService.ReplayOptions(
+                factTypeEnum.getValue(),
+                baselineVersion != null ? baselineVersion : ruleEngineManager.getContainerVersion(factTypeEnum.getValue()),
+                candidateVersion, concurrency, null, null, limit), facts);
+            return ResponseEntity.accepted().body(ReplayResponse.from(replay));
+        } catch (IllegalArgumentException e) {
+            closeQuietly(facts, spool);
+            ErrorResponse errorResponse = ErrorResponse.builder()
+                .success(false)
+                .error(e.getMessage())
+                .errorType("ValidationException")
+                .build();
+            return ResponseEntity.badRequest().body(errorResponse);
+        } catch (Exception e) {
+            closeQuietly(facts, spool);
+            log.error("Error starting replay for {}", factType, e);
+            ErrorResponse errorResponse = ErrorResponse.builder()
+                .success(false)
+                .error(e.getMessage())
+                .errorType(e.getClass().getName())
+                .build();
+            return ResponseEntity.status(org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(errorResponse);
+        }
+    }
+
+    /**
+     * Get progress and the report of a replay
+     */
+    @GetMapping("/replays/{replayId}")
+    public ResponseEntity<ReplayResponse> getReplay(@PathVariable String replayId) {
+        return replayService.getReplay(replayId)
+            .map(replay -> ResponseEntity.ok(ReplayResponse.from(replay)))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Cancel a replay; facts already running finish and the report keeps what was processed
+     */
+    @DeleteMapping("/replays/{replayId}")
+    public ResponseEntity<?> cancelReplay(@PathVariable String replayId) {
+        if (replayService.getReplay(replayId).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!replayService.cancel(replayId)) {
+            ErrorResponse errorResponse = ErrorResponse.builder()
+                .success(false)
+                .error("Replay " + replayId + " has already finished")
+                .errorType("IllegalStateException")
+                .build();
+            return ResponseEntity.status(org.springframework.http.HttpStatus.CONFLICT).body(errorResponse);
+        }
+        return ResponseEntity.ok(ReplayResponse.from(replayService.getReplay(replayId).get()));
+    }
+
+    /**
+     * Facts parsed lazily from a spooled NDJSON file; closing deletes the file
+     */
+    private ReplayService.FactSource ndjsonFacts(FactType factType, Path spool) throws IOException {
+        InputStream in = Files.newInputStream(spool);
+        MappingIterator<Map<String, Object>> payloads;
+        try {
+            payloads = factMapper.readPayloads(in);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        return new ReplayService.FactSource() {
+            @Override
+            public boolean hasNext() {
+                return payloads.hasNext();
+            }
+
+            @Override
+            public Object next() {
+                return factMapper.toFact(factType, payloads.next());
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    payloads.close();
+                    in.close();
+                } finally {
+                    Files.deleteIfExists(spool);
+                }
+            }
+        };
+    }
+
+    private void closeQuietly(ReplayService.FactSource facts, Path spool) {
+        try {
+            if (facts != null) {
+                facts.close();
+            } else if (spool != null) {
+                Files.deleteIfExists(spool);
+            }
+        } catch (Exception e) {
+            log.warn("Could not remove replay spool file {}: {}", spool, e.getMessage());
+        }
+    }
 
     @GetMapping("/active")
     public List<DecisionRule> getActiveRules() {
@@ -682,29 +1421,6 @@ public class RuleController {
         return ResponseEntity.ok(metadata);
     }
     
-    /**
-     * Build Declaration entity from map data using Jackson ObjectMapper
-     * This automatically maps all fields from Map to Declaration entity
-     * Unknown properties (like factType) are automatically ignored
-     */
-    private rule.engine.org.app.domain.entity.execution.declaration.Declaration buildDeclarationFromMap(
-            Map<String, Object> data) {
-        try {
-            // Use Jackson ObjectMapper to automatically convert Map to Declaration
-            // Configure to ignore unknown properties (like factType which is not a field of Declaration entity)
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            mapper.configure(com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-            
-            rule.engine.org.app.domain.entity.execution.declaration.Declaration declaration = 
-                mapper.convertValue(data, rule.engine.org.app.domain.entity.execution.declaration.Declaration.class);
-            
-            return declaration;
-        } catch (Exception e) {
-            log.error("Error converting Map to Declaration: {}", e.getMessage(), e);
-            throw new IllegalArgumentException("Invalid Declaration data: " + e.getMessage(), e);
-        }
-    }
-    
     /**
      * Get execution history for a specific declaration
      */
@@ -877,9 +1593,6 @@ public class RuleController {
      * Internal method to build complete DRL from request DTO
      */
     private String buildCompleteDrlFromRequestInternal(Object request, DecisionRule rule) {
-        // Build WHEN clause from conditions
-        FactType factType = rule.getFactType() != null ? rule.getFactType() : FactType.DECLARATION;
-        
         List<Map<String, Object>> conditions = null;
         Map<String, Object> output = null;
         
@@ -891,200 +1604,28 @@ public class RuleController {
             output = ((UpdateRuleRequest) request).getOutput();
         }
         
-        String whenClause = buildWhenClauseFromConditions(conditions, factType.getValue());
-        if (whenClause == null || whenClause.isBlank()) {
-            return null;
-        }
-        
-        // Build THEN clause from output
-        String thenClause = buildThenClauseFromOutput(output, rule);
-        if (thenClause == null || thenClause.isBlank()) {
-            return null;
-        }
-        
-        // Build complete DRL with package, imports, globals, and rule definition
-        StringBuilder drl = new StringBuilder();
-        
-        // DRL header (package, imports, globals)
-        drl.append(DrlConstants.buildDrlHeader());
-        
-        // Rule definition
-        String ruleName = rule.getRuleName() != null ? rule.getRuleName() : "Rule";
-        // Use placeholder for rule ID if not yet saved (will be updated after save)
-        Long ruleId = rule.getId() != null ? rule.getId() : 0L;
-        int salience = rule.getPriority() != null ? rule.getPriority() : 0;
-        
-        drl.append("rule \"").append(ruleName).append("_").append(ruleId).append("\"\n");
-        drl.append("salience ").append(salience).append("\n");
-        drl.append("when\n");
-        drl.append("    ").append(whenClause).append("\n");
-        drl.append("then\n");
-        drl.append(thenClause);
-        drl.append("end\n");
-        
-        return drl.toString();
-    }
-    
-    /**
-     * Build WHEN clause from conditions array
-     */
-    private String buildWhenClauseFromConditions(List<Map<String, Object>> conditions, String factType) {
-        if (conditions == null || conditions.isEmpty()) {
-            return null;
-        }
-        return generateWhenExprFromConditions(conditions, factType);
+        return RuleDrlGenerator.ruleDrl(rule, conditions, output);
     }
     
     /**
-     * Build THEN clause from output object
+     * Name of the first reference list used by the conditions that is not loaded, or null
      */
-    private String buildThenClauseFromOutput(Map<String, Object> output, DecisionRule rule) {
-        if (output == null) {
-            output = new java.util.HashMap<>();
-        }
-        
-        // Build THEN clause
-        StringBuilder then = new StringBuilder();
-        
-        // Create RuleOutputHit and set fields
-        then.append("    RuleOutputHit output = new RuleOutputHit();\n");
-        
-        String action = output.get("action") != null ? output.get("action").toString() : "FLAG";
-        then.append("    output.setAction(\"").append(escapeJavaString(action)).append("\");\n");
-        
-        String result = output.get("result") != null ? output.get("result").toString()
-            : "Rule '" + (rule.getRuleName() != null ? rule.getRuleName() : "Unknown") + "' matched";
-        then.append("    output.setResult(\"").append(escapeJavaString(result)).append("\");\n");
-        
-        Object scoreObj = output.get("score");
-        String score = "0";
-        if (scoreObj != null) {
-            if (scoreObj instanceof Number) {
-                score = scoreObj.toString();
-            } else {
-                score = scoreObj.toString();
-            }
-        }
-        then.append("    output.setScore(new BigDecimal(\"").append(score).append("\"));\n");
-        
-        // Set optional fields
-        if (output.get("flag") != null) {
-            then.append("    output.setFlag(\"").append(escapeJavaString(output.get("flag").toString())).append("\");\n");
-        }
-        if (output.get("documentType") != null) {
-            then.append("    output.setDocumentType(\"").append(escapeJavaString(output.get("documentType").toString())).append("\");\n");
-        }
-        if (output.get("documentId") != null) {
-            then.append("    output.setDocumentId(\"").append(escapeJavaString(output.get("documentId").toString())).append("\");\n");
-        }
-        if (output.get("description") != null) {
-            then.append("    output.setDescription(\"").append(escapeJavaString(output.get("description").toString())).append("\");\n");
-        }
-        
-        // Add to totalResults
-        then.append("    totalResults.getHits().add(output);\n");
-        
-        // Log rule match
-        then.append("    System.out.println(\"[DROOLS] Rule '").append(rule.getRuleName() != null ? rule.getRuleName() : "Unknown")
-            .append("' matched for declaration: \" + $d.getDeclarationId());\n");
-        
-        return then.toString();
-    }
-    
-    private String escapeJavaString(String str) {
-        if (str == null) return "";
-        return str.replace("\\", "\\\\")
-                  .replace("\"", "\\\"")
-                  .replace("\n", "\\n")
-                  .replace("\r", "\\r")
-                  .replace("\t", "\\t");
-    }
-    
-    private String generateWhenExprFromConditions(List<Map<String, Object>> conditions, String factType) {
-        if (conditions == null || conditions.isEmpty()) {
+    private String findUnknownReferenceList(List<Map<String, Object>> conditions) {
+        if (conditions == null) {
             return null;
         }
-
-        // Build a lookup of field types for quoting values correctly
-        // Use factType to extract correct fields
-        FactType factTypeEnum = factType != null && !factType.isEmpty() 
-            ? FactType.fromValue(factType) : FactType.DECLARATION;
-        Map<String, String> fieldTypeByName = RuleFieldExtractor.extractInputFields(factTypeEnum.getValue()).stream()
-            .collect(Collectors.toMap(FieldDefinition::getName, FieldDefinition::getType, (a, b) -> a));
-
-        StringBuilder conditionBuilder = new StringBuilder();
-        for (int i = 0; i < conditions.size(); i++) {
-            Map<String, Object> condition = conditions.get(i);
-            Object fieldObj = condition.get("field");
-            Object operatorObj = condition.get("operator");
-            if (fieldObj == null || operatorObj == null) {
-                continue;
-            }
-
-            String field = fieldObj.toString();
-            String operator = operatorObj.toString();
-            Object valueObj = condition.get("value");
-
-            // Convert field path from declaration.fieldName to $d.fieldName for Drools
-            // e.g., declaration.importerName -> $d.importerName
-            // e.g., declaration.governmentAgencyGoodsItems.customsValueAmount -> $d.governmentAgencyGoodsItems.customsValueAmount
-            String droolsFieldPath = field;
-            if (field.startsWith("declaration.")) {
-                droolsFieldPath = "$d." + field.substring("declaration.".length());
-            }
-
-            String fieldType = fieldTypeByName.getOrDefault(field, "string");
-            String valueExpression = buildValueExpression(valueObj, fieldType);
-
-            if (valueExpression == null) {
-                continue;
-            }
-
-            conditionBuilder.append(droolsFieldPath).append(' ').append(operator).append(' ').append(valueExpression);
-
-            if (i < conditions.size() - 1) {
-                String logicalOp = String.valueOf(condition.getOrDefault("logicalOp", "AND"));
-                conditionBuilder.append(logicalOp.equalsIgnoreCase("OR") ? " || " : " && ");
+        for (Map<String, Object> condition : conditions) {
+            Object operator = condition.get("operator");
+            if (operator != null && RuleDrlGenerator.REFERENCE_LIST_OPERATORS.contains(operator.toString())) {
+                Object listName = condition.get("value");
+                if (listName == null || !referenceLists.isLoaded(listName.toString())) {
+                    return String.valueOf(listName);
+                }
             }
         }
-
-        if (conditionBuilder.length() == 0) {
-            return null;
-        }
-
-        // Determine fact type variable and class name based on factType
-        String factVariable;
-        String factClassName;
-        if (factTypeEnum == FactType.CARGO_REPORT) {
-            factVariable = "$c";
-            factClassName = "CargoReport";
-        } else {
-            factVariable = "$d";
-            factClassName = "Declaration";
-        }
-
-        return factVariable + " : " + factClassName + "(" + conditionBuilder + ")";
+        return null;
     }
 
-    private String buildValueExpression(Object valueObj, String fieldType) {
-        if (valueObj == null) {
-            return "null";
-        }
-
-        switch (fieldType) {
-            case "integer":
-            case "decimal":
-                return valueObj.toString();
-            case "boolean":
-                return String.valueOf(valueObj);
-            default:
-                String escaped = valueObj.toString()
-                    .replace("\\", "\\\\")
-                    .replace("\"", "\\\"");
-                return "\"" + escaped + "\"";
-        }
-    }
-    
     /**
      * Parse and save rule conditions from request body
      * Supports structured format (conditions array)
@@ -1098,98 +1639,17 @@ public class RuleController {
         }
         conditionGroupRepository.deleteAll(existingGroups);
         
-        // Parse conditions from structured format
-        if (conditions != null && !conditions.isEmpty()) {
-                // Group conditions by logical operator (AND/OR)
-                // Create groups based on logicalOp transitions
-                RuleConditionGroup currentGroup = null;
-                RuleGroupType currentGroupType = RuleGroupType.AND;
-                int groupOrderIndex = 0;
-                int conditionOrderIndex = 0;
-                
-                for (Map<String, Object> cond : conditions) {
-                    if (!cond.containsKey("field") || !cond.containsKey("operator") || !cond.containsKey("value")) {
-                        continue;
-                    }
-                    
-                    // Get logical operator for this condition (default to AND)
-                    String logicalOp = (String) cond.getOrDefault("logicalOp", "AND");
-                    RuleGroupType groupType = "OR".equals(logicalOp) ? RuleGroupType.OR : RuleGroupType.AND;
-                    
-                    // Create new group if operator changed or first condition
-                    if (currentGroup == null || !currentGroupType.equals(groupType)) {
-                        currentGroup = new RuleConditionGroup();
-                        currentGroup.setDecisionRule(rule);
-                        currentGroup.setType(groupType);
-                        currentGroup.setOrderIndex(groupOrderIndex++);
-                        currentGroup = conditionGroupRepository.save(currentGroup);
-                        currentGroupType = groupType;
-                        conditionOrderIndex = 0; // Reset condition order within group
-                    }
-                    
-                    // Parse and save condition
-                    RuleCondition condition = parseConditionFromMap(cond, currentGroup, conditionOrderIndex++);
-                    conditionRepository.save(condition);
-                }
-            }
-        }
-    
-    /**
-     * Map operator string to RuleOperatorType enum
-     */
-    private RuleOperatorType mapOperator(String operatorStr) {
-        return switch (operatorStr) {
-            case "==" -> RuleOperatorType.EQUALS;
-            case "!=" -> RuleOperatorType.NOT_EQUALS;
-            case ">" -> RuleOperatorType.GT;
-            case ">=" -> RuleOperatorType.GTE;
-            case "<" -> RuleOperatorType.LT;
-            case "<=" -> RuleOperatorType.LTE;
-            case "contains" -> RuleOperatorType.STR_CONTAINS;
-            case "startsWith" -> RuleOperatorType.STR_STARTS_WITH;
-            case "endsWith" -> RuleOperatorType.STR_ENDS_WITH;
-            default -> RuleOperatorType.EQUALS;
-        };
-    }
-    
-    /**
-     * Parse condition from structured map format
-     */
-    private RuleCondition parseConditionFromMap(Map<String, Object> cond, RuleConditionGroup group, int orderIndex) {
-        RuleCondition condition = new RuleCondition();
-        condition.setGroup(group);
-        condition.setFieldPath((String) cond.get("field"));
-        condition.setOrderIndex(orderIndex);
-        
-        // Map operator
-        String operatorStr = (String) cond.get("operator");
-        condition.setOperator(mapOperator(operatorStr));
-        
-        // Parse value
-        Object value = cond.get("value");
-        if (value == null) {
-            condition.setValueType(RuleValueType.STRING);
-            condition.setValueText(null);
-        } else if (value instanceof String) {
-            condition.setValueType(RuleValueType.STRING);
-            condition.setValueText((String) value);
-        } else if (value instanceof Number) {
-            if (value instanceof Integer || value instanceof Long) {
-                condition.setValueType(RuleValueType.INT);
-                condition.setValueNumber(((Number) value).longValue());
-            } else {
-                condition.setValueType(RuleValueType.BIG_DECIMAL);
-                condition.setValueDecimal(new java.math.BigDecimal(value.toString()));
+        // Groups are saved before their conditions, in order
+        RuleConditionGroup lastGroup = null;
+        RuleConditionGroup savedGroup = null;
+        for (RuleCondition condition : RuleDrlGenerator.conditionRows(rule, conditions)) {
+            if (condition.getGroup() != lastGroup) {
+                lastGroup = condition.getGroup();
+                savedGroup = conditionGroupRepository.save(lastGroup);
             }
-        } else if (value instanceof Boolean) {
-            condition.setValueType(RuleValueType.BOOLEAN);
-            condition.setValueBoolean((Boolean) value);
-        } else {
-            condition.setValueType(RuleValueType.STRING);
-            condition.setValueText(value.toString());
+            condition.setGroup(savedGroup);
+            conditionRepository.save(condition);
         }
-        
-        return condition;
     }
     
     /**
@@ -1258,6 +1718,7 @@ public class RuleController {
             .ruleContent(rule.getRuleContent())
             .priority(rule.getPriority())
             .active(rule.getActive())
+            .evaluationStage(rule.getEvaluationStage())
             .version(rule.getVersion())
             .parentRuleId(rule.getParentRuleId())
             .isLatest(rule.getIsLatest())
@@ -1416,6 +1877,8 @@ public class RuleController {
             case STR_CONTAINS -> "contains";
             case STR_STARTS_WITH -> "startsWith";
             case STR_ENDS_WITH -> "endsWith";
+            case IN -> "inList";
+            case NOT_IN -> "notInList";
             default -> "==";
         };
     }
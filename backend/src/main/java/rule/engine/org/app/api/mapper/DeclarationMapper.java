@@ -56,6 +56,11 @@ public interface DeclarationMapper {
     @Mapping(target = "otherChargesAmount", ignore = true)
     @Mapping(target = "previousDocumentIds", ignore = true)
     @Mapping(target = "governmentAgencyGoodsItems", source = "declarationItems")
+    @Mapping(target = "itemCount", ignore = true)
+    @Mapping(target = "totalCustomsValueAmount", ignore = true)
+    @Mapping(target = "totalDutyAmount", ignore = true)
+    @Mapping(target = "maxDutyRate", ignore = true)
+    @Mapping(target = "distinctOriginCountryCount", ignore = true)
     Declaration toEntity(DeclarationRequest request);
 
     @Mapping(target = "id", ignore = true)
@@ -0,0 +1,88 @@
+package rule.engine.org.app.api.mapper;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import rule.engine.org.app.domain.entity.execution.cargo.CargoReport;
+import rule.engine.org.app.domain.entity.execution.declaration.Declaration;
+import rule.engine.org.app.domain.entity.ui.FactType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * Converts raw execution payloads (JSON maps) into Drools fact objects
+ * Uses a single shared, pre-configured ObjectMapper so conversion does not pay
+ * mapper construction cost on every request
+ */
+@Component
+public class FactMapper {
+
+    private static final TypeReference<Map<String, Object>> PAYLOAD_TYPE = new TypeReference<>() {};
+
+    private final ObjectMapper objectMapper;
+
+    public FactMapper(ObjectMapper objectMapper) {
+        // Copy Spring's mapper (keeps java.time support) and ignore unknown properties like factType
+        this.objectMapper = objectMapper.copy()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    /**
+     * Build the fact object matching the given fact type from map data
+     */
+    public Object toFact(FactType factType, Map<String, Object> data) {
+        if (factType == FactType.CARGO_REPORT) {
+            return buildCargoReportFromMap(data);
+        }
+        return buildDeclarationFromMap(data);
+    }
+
+    /**
+     * Build Declaration entity from map data using Jackson ObjectMapper
+     * This automatically maps all fields from Map to Declaration entity
+     * Unknown properties (like factType) are automatically ignored
+     */
+    public Declaration buildDeclarationFromMap(Map<String, Object> data) {
+        try {
+            return objectMapper.convertValue(data, Declaration.class);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid Declaration data: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Build CargoReport entity from map data using Jackson ObjectMapper
+     */
+    public CargoReport buildCargoReportFromMap(Map<String, Object> data) {
+        try {
+            return objectMapper.convertValue(data, CargoReport.class);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid CargoReport data: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Read newline-delimited JSON payloads one at a time with the streaming parser
+     * Only the current payload is materialized, so input size does not affect memory.
+     */
+    public MappingIterator<Map<String, Object>> readPayloads(InputStream inputStream) throws IOException {
+        return objectMapper.readerFor(PAYLOAD_TYPE).readValues(inputStream);
+    }
+
+    /**
+     * Business identifier of a fact (declarationId or reportId), used in execution responses
+     */
+    public String factId(Object fact) {
+        if (fact instanceof Declaration declaration) {
+            return declaration.getDeclarationId();
+        }
+        if (fact instanceof CargoReport cargoReport) {
+            return cargoReport.getReportId();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,27 @@
+package rule.engine.org.app.api.request;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for replaying stored declarations; baselineVersion defaults to the deployed version
+ * from/to filter on submission time, limit caps the number of declarations (0 = all)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ReplayRequest {
+    private Long baselineVersion;
+    private Long candidateVersion;
+    private Integer concurrency;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private Long limit;
+}
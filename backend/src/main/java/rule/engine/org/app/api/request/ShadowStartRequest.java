@@ -0,0 +1,21 @@
+package rule.engine.org.app.api.request;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for starting shadow execution; exactly one of version or changeRequestId selects the candidate
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ShadowStartRequest {
+    private Long version;
+    private Long changeRequestId;
+    private Double sampleRate;
+}
@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import rule.engine.org.app.domain.entity.ui.EvaluationStage;
 import rule.engine.org.app.domain.entity.ui.FactType;
 
 import java.util.List;
@@ -24,6 +25,7 @@ public class UpdateRuleRequest {
     private Integer priority;
     private Boolean active;
     private FactType factType;
+    private EvaluationStage evaluationStage; // Defaults to STANDARD
     private String description; // Optional description (not a field of DecisionRule entity)
     private List<Map<String, Object>> conditions; // Structured conditions array
     private Map<String, Object> output; // Output object
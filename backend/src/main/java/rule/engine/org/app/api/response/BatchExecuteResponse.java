@@ -0,0 +1,27 @@
+package rule.engine.org.app.api.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for batch rule execution endpoint response
+ * Results are returned in the same order as the submitted items
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchExecuteResponse {
+    private Boolean success;
+    private Integer total;
+    private Integer succeeded;
+    private Integer failed;
+    private Long durationMs;
+    private List<RuleExecuteResponse> results;
+}
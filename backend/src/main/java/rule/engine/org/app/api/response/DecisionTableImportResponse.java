@@ -0,0 +1,44 @@
+package rule.engine.org.app.api.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for the result of a decision table import: per-row errors and where the time went
+ * With any row error nothing is imported; a dry run only validates.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DecisionTableImportResponse {
+    private Boolean success;
+    private String factType;
+    private Boolean dryRun;
+    private Integer rowsRead;
+    private Integer rulesImported;
+    private List<RowError> errors;
+    private Long parseMillis;
+    private Long validateMillis;
+    private Long importMillis;
+    private Long compileMillis;
+    private Long totalMillis;
+
+    /**
+     * Problem with one cell (or the whole row when column is null); row 1 is the header
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private Integer row;
+        private String column;
+        private String message;
+    }
+}
@@ -0,0 +1,33 @@
+package rule.engine.org.app.api.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * DTO for asynchronous execution job status and results
+ * results is only present on the results endpoint, as a page starting at offset
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ExecutionJobResponse {
+    private String jobId;
+    private String status;
+    private Integer total;
+    private Integer completed;
+    private Integer failed;
+    private Double throughputPerSecond;
+    private Instant submittedAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private Integer offset;
+    private List<RuleExecuteResponse> results;
+}
@@ -0,0 +1,47 @@
+package rule.engine.org.app.api.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import rule.engine.org.app.domain.entity.ui.ReferenceList;
+import rule.engine.org.app.domain.service.ReferenceLists;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * DTO for a reference list: size and lookup counters of the loaded copy, values on request
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ReferenceListResponse {
+    private String name;
+    private String description;
+    private Boolean loaded;
+    private Integer size;
+    private Long hits;
+    private Long misses;
+    private Instant updatedAt;
+    private List<String> values;
+
+    /**
+     * Convert from entity; values are left out unless given
+     */
+    public static ReferenceListResponse from(ReferenceList list, ReferenceLists loaded, List<String> values) {
+        return ReferenceListResponse.builder()
+            .name(list.getName())
+            .description(list.getDescription())
+            .loaded(loaded.isLoaded(list.getName()))
+            .size(loaded.size(list.getName()))
+            .hits(loaded.hits(list.getName()))
+            .misses(loaded.misses(list.getName()))
+            .updatedAt(list.getUpdatedAt())
+            .values(values)
+            .build();
+    }
+}
@@ -0,0 +1,82 @@
+package rule.engine.org.app.api.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import rule.engine.org.app.domain.service.ReplayService;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO for replay progress and its report: action changes, score shift, per-rule hit deltas
+ * The report covers the facts processed so far, so it can be read while the replay runs.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ReplayResponse {
+    private String replayId;
+    private String status;
+    private String source;
+    private String factType;
+    private Long baselineVersion;
+    private Long candidateVersion;
+    private Integer concurrency;
+    private Instant submittedAt;
+    private Instant finishedAt;
+    private String error;
+    private Long processed;
+    private Long failed;
+    private Double throughputPerSecond;
+    private Double baselineMicrosAvg;
+    private Double candidateMicrosAvg;
+    private Long actionChanges;
+    private Map<String, Long> actionTransitions;
+    private BigDecimal baselineScoreMean;
+    private BigDecimal candidateScoreMean;
+    private Long scoreIncreased;
+    private Long scoreDecreased;
+    private Map<String, Map<String, Long>> scoreDistribution;
+    private List<ReplayService.RuleHitDelta> ruleHitDeltas;
+    private List<String> changedSamples;
+
+    /**
+     * Convert from a running or finished replay
+     */
+    public static ReplayResponse from(ReplayService.Replay replay) {
+        ReplayService.ReplayOptions options = replay.getOptions();
+        return ReplayResponse.builder()
+            .replayId(replay.getId())
+            .status(replay.getStatus().name())
+            .source(replay.getSource())
+            .factType(options.factType())
+            .baselineVersion(options.baselineVersion())
+            .candidateVersion(options.candidateVersion())
+            .concurrency(options.concurrency())
+            .submittedAt(replay.getSubmittedAt())
+            .finishedAt(replay.getFinishedAt())
+            .error(replay.getError())
+            .processed(replay.getProcessed())
+            .failed(replay.getFailed())
+            .throughputPerSecond(replay.getThroughputPerSecond())
+            .baselineMicrosAvg(replay.getBaselineMicrosAvg())
+            .candidateMicrosAvg(replay.getCandidateMicrosAvg())
+            .actionChanges(replay.getActionChanges())
+            .actionTransitions(replay.getActionTransitions())
+            .baselineScoreMean(replay.getBaselineScoreMean())
+            .candidateScoreMean(replay.getCandidateScoreMean())
+            .scoreIncreased(replay.getScoreIncreased())
+            .scoreDecreased(replay.getScoreDecreased())
+            .scoreDistribution(replay.getScoreDistribution())
+            .ruleHitDeltas(replay.getRuleHitDeltas())
+            .changedSamples(replay.getChangedSamples())
+            .build();
+    }
+}
@@ -32,6 +32,9 @@ public class RuleExecuteResponse {
     private String finalFlag;
     private Integer hitsCount;
     private List<RuleOutputHitDto> hits;
+    private Boolean truncated;
+    private String error;
+    private String errorType;
     
     /**
      * Nested DTO for rule output hits
@@ -49,6 +52,8 @@ public class RuleExecuteResponse {
         private String documentType;
         private String documentId;
         private String description;
+        private String ruleName;
+        private Long ruleId;
         
         /**
          * Convert from RuleOutputHit entity
@@ -62,6 +67,8 @@ public class RuleExecuteResponse {
                 .documentType(hit.getDocumentType())
                 .documentId(hit.getDocumentId())
                 .description(hit.getDescription())
+                .ruleName(hit.getRuleName())
+                .ruleId(hit.getRuleId())
                 .build();
         }
     }
@@ -86,6 +93,7 @@ public class RuleExecuteResponse {
             .finalFlag(results.getFinalFlag())
             .hitsCount(results.getHits() != null ? results.getHits().size() : 0)
             .hits(hitsDto)
+            .truncated(results.getTruncated())
             .build();
     }
     
@@ -95,6 +103,8 @@ public class RuleExecuteResponse {
     public static RuleExecuteResponse error(String error, String errorType) {
         return RuleExecuteResponse.builder()
             .success(false)
+            .error(error)
+            .errorType(errorType)
             .build();
     }
 }
@@ -0,0 +1,46 @@
+package rule.engine.org.app.api.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import rule.engine.org.app.domain.service.RuleImpactService;
+
+import java.util.List;
+
+/**
+ * DTO for the number of stored declarations a proposed rule would hit
+ * path tells how they were counted: SQL (whole rule pushed down), SQL_PREFILTER_DROOLS or DROOLS;
+ * unsupported lists the conditions that could not be pushed down.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RuleImpactResponse {
+    private Boolean success;
+    private String path;
+    private String predicate;
+    private List<String> unsupported;
+    private Long matched;
+    private Long scanned;
+    private Boolean truncated;
+    private List<String> sampleDeclarationIds;
+    private Long durationMs;
+
+    public static RuleImpactResponse from(RuleImpactService.ImpactEstimate estimate) {
+        return RuleImpactResponse.builder()
+            .success(true)
+            .path(estimate.path().name())
+            .predicate(estimate.predicate())
+            .unsupported(estimate.unsupported())
+            .matched(estimate.matched())
+            .scanned(estimate.scanned())
+            .truncated(estimate.truncated())
+            .sampleDeclarationIds(estimate.sampleDeclarationIds())
+            .durationMs(estimate.durationMs())
+            .build();
+    }
+}
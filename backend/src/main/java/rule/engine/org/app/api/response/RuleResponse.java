@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import rule.engine.org.app.domain.entity.ui.EvaluationStage;
 
 import java.time.Instant;
 import java.util.List;
@@ -25,6 +26,7 @@ public class RuleResponse {
     private String ruleContent;
     private Integer priority;
     private Boolean active;
+    private EvaluationStage evaluationStage;
     private String description;
     private List<Map<String, Object>> conditions;
     private Map<String, Object> output;
@@ -0,0 +1,60 @@
+package rule.engine.org.app.api.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import rule.engine.org.app.domain.service.ShadowExecutionService;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * DTO for shadow execution status: candidate, comparison counts, latency and the latest diffs
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ShadowStatusResponse {
+    private String factType;
+    private String candidate;
+    private String releaseId;
+    private Double sampleRate;
+    private Instant startedAt;
+    private Long sampled;
+    private Long skipped;
+    private Long compared;
+    private Long failed;
+    private Long actionMismatches;
+    private Long scoreMismatches;
+    private Long hitMismatches;
+    private Double liveMicrosAvg;
+    private Double candidateMicrosAvg;
+    private List<ShadowExecutionService.ShadowDiff> diffs;
+
+    /**
+     * Convert from an active (or just stopped) shadow
+     */
+    public static ShadowStatusResponse from(ShadowExecutionService.Shadow shadow, List<ShadowExecutionService.ShadowDiff> diffs) {
+        return ShadowStatusResponse.builder()
+            .factType(shadow.getFactType())
+            .candidate(shadow.getCandidate())
+            .releaseId(shadow.getReleaseId())
+            .sampleRate(shadow.getSampleRate())
+            .startedAt(shadow.getStartedAt())
+            .sampled(shadow.getSampled())
+            .skipped(shadow.getSkipped())
+            .compared(shadow.getCompared())
+            .failed(shadow.getFailed())
+            .actionMismatches(shadow.getActionMismatches())
+            .scoreMismatches(shadow.getScoreMismatches())
+            .hitMismatches(shadow.getHitMismatches())
+            .liveMicrosAvg(shadow.getLiveMicrosAvg())
+            .candidateMicrosAvg(shadow.getCandidateMicrosAvg())
+            .diffs(diffs)
+            .build();
+    }
+}
@@ -0,0 +1,40 @@
+package rule.engine.org.app.domain.entity.execution;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a transient fact field as an aggregate over one of the fact's collections
+ *
+ * The engine fills every derived field of a fact in a single pass over each collection right
+ * before the fact is inserted, so rules test e.g. itemCount > 50 instead of each running its own
+ * accumulate. RuleFieldExtractor lists derived fields as input fields for the UI.
+ * SUM / MIN / MAX fields are BigDecimal, COUNT / COUNT_DISTINCT fields are Integer.
+ * SUM over no values is 0, MIN / MAX over no values are null.
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface DerivedFeature {
+
+    /**
+     * Collection field of the fact the aggregate runs over (e.g., governmentAgencyGoodsItems)
+     */
+    String source();
+
+    /**
+     * Field of the collection elements; empty to count the elements themselves (COUNT only)
+     */
+    String field() default "";
+
+    Aggregate aggregate();
+
+    enum Aggregate {
+        COUNT,
+        SUM,
+        MIN,
+        MAX,
+        COUNT_DISTINCT
+    }
+}
@@ -47,6 +47,16 @@ public class RuleOutputHit {
      * Optional longer description for reporting.
      */
     private String description;
+
+    /**
+     * Name of the rule that produced this output (set by the engine after the rule fires).
+     */
+    private String ruleName;
+
+    /**
+     * ID of the DecisionRule that produced this output, or null if it cannot be resolved.
+     */
+    private Long ruleId;
 }
 
 
@@ -40,6 +40,12 @@ public class TotalRuleResults {
      * Execution timestamp.
      */
     private LocalDateTime runAt;
+
+    /**
+     * Whether firing was halted on a terminal action before all matches fired.
+     * Null when the execution did not use a terminal action.
+     */
+    private Boolean truncated;
 }
 
 
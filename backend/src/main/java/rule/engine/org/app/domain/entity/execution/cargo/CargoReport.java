@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import rule.engine.org.app.domain.entity.common.BaseAuditableEntity;
+import rule.engine.org.app.domain.entity.execution.DerivedFeature;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -82,5 +84,18 @@ public class CargoReport extends BaseAuditableEntity {
     // Relationship to consignments
     @OneToMany(mappedBy = "cargoReport", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Consignment> consignments = new ArrayList<>();
+
+    // Derived features (not persisted; computed by the engine before rules fire)
+    @Transient
+    @DerivedFeature(source = "consignments", aggregate = DerivedFeature.Aggregate.COUNT)
+    private Integer consignmentCount;
+
+    @Transient
+    @DerivedFeature(source = "consignments", field = "grossMassMeasure", aggregate = DerivedFeature.Aggregate.SUM)
+    private BigDecimal totalConsignmentGrossMassMeasure;
+
+    @Transient
+    @DerivedFeature(source = "transportEquipment", aggregate = DerivedFeature.Aggregate.COUNT)
+    private Integer transportEquipmentCount;
 }
 
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import rule.engine.org.app.domain.entity.common.BaseAuditableEntity;
+import rule.engine.org.app.domain.entity.execution.DerivedFeature;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -162,5 +163,26 @@ public class Declaration extends BaseAuditableEntity {
     // Relationship to goods items (used by Drools; ignore missing rows at runtime)
     @OneToMany(mappedBy = "declaration", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<GovernmentAgencyGoodsItem> governmentAgencyGoodsItems = new ArrayList<>();
+
+    // Derived features (not persisted; computed by the engine before rules fire)
+    @Transient
+    @DerivedFeature(source = "governmentAgencyGoodsItems", aggregate = DerivedFeature.Aggregate.COUNT)
+    private Integer itemCount;
+
+    @Transient
+    @DerivedFeature(source = "governmentAgencyGoodsItems", field = "customsValueAmount", aggregate = DerivedFeature.Aggregate.SUM)
+    private BigDecimal totalCustomsValueAmount;
+
+    @Transient
+    @DerivedFeature(source = "governmentAgencyGoodsItems", field = "dutyAmount", aggregate = DerivedFeature.Aggregate.SUM)
+    private BigDecimal totalDutyAmount;
+
+    @Transient
+    @DerivedFeature(source = "governmentAgencyGoodsItems", field = "dutyRate", aggregate = DerivedFeature.Aggregate.MAX)
+    private BigDecimal maxDutyRate;
+
+    @Transient
+    @DerivedFeature(source = "governmentAgencyGoodsItems", field = "originCountryId", aggregate = DerivedFeature.Aggregate.COUNT_DISTINCT)
+    private Integer distinctOriginCountryCount;
 }
 
@@ -53,6 +53,13 @@ public class DecisionRule extends BaseAuditableEntity {
     @Column(name = "active")
     private Boolean active = false; // New rules default to draft (inactive)
 
+    /**
+     * Evaluation stage; stages run in order and DEEP may be skipped for clean facts
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "evaluation_stage", nullable = false, length = 20)
+    private EvaluationStage evaluationStage = EvaluationStage.STANDARD;
+
     // ========== RULE OUTPUT METADATA ==========
     // These define WHAT ACTION to take when rule matches
     // They are COPIED to RuleExecutionResult when the rule fires
@@ -0,0 +1,20 @@
+package rule.engine.org.app.domain.entity.ui;
+
+/**
+ * Stage in which a rule is evaluated
+ * Stages run in declaration order, each compiled as its own agenda group. DEEP rules are meant for
+ * expensive checks (regex, collection scans, watch-list lookups) and can be skipped when the
+ * earlier stages found nothing (rule-engine.stages.*).
+ */
+public enum EvaluationStage {
+    SCREENING,
+    STANDARD,
+    DEEP;
+
+    /**
+     * Agenda group the stage's rules are compiled into
+     */
+    public String getAgendaGroup() {
+        return "stage-" + name().toLowerCase();
+    }
+}
@@ -0,0 +1,71 @@
+package rule.engine.org.app.domain.entity.ui;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import rule.engine.org.app.domain.entity.common.BaseAuditableEntity;
+
+/**
+ * KieModuleArtifact - Compiled KieModule (kjar) stored for reuse on startup
+ *
+ * Keyed by fact type, rules hash, build mode and build fingerprint, so an artifact is only
+ * reused for exactly the rules and fact classes it was compiled from.
+ */
+@Entity
+@Table(name = "kie_module_artifacts", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_kie_module_artifacts_key",
+        columnNames = {"fact_type", "rules_hash", "build_mode", "build_fingerprint"})
+})
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(exclude = "artifact")
+public class KieModuleArtifact extends BaseAuditableEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Fact type the rule set applies to (e.g., "Declaration", "CargoReport")
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "fact_type", nullable = false, length = 100)
+    private FactType factType = FactType.DECLARATION;
+
+    /**
+     * MD5 hash of the rules compiled into this artifact
+     */
+    @Column(name = "rules_hash", nullable = false, length = 64)
+    private String rulesHash;
+
+    /**
+     * Build mode used to compile the artifact (DRL or EXECUTABLE_MODEL)
+     */
+    @Column(name = "build_mode", nullable = false, length = 50)
+    private String buildMode;
+
+    /**
+     * Hash of the DRL header and fact classes the artifact was compiled against
+     */
+    @Column(name = "build_fingerprint", nullable = false, length = 64)
+    private String buildFingerprint;
+
+    /**
+     * Drools ReleaseId of the stored KieModule
+     */
+    @Column(name = "release_id", nullable = false, length = 255)
+    private String releaseId;
+
+    /**
+     * Serialized kjar bytes
+     */
+    @Column(name = "artifact", nullable = false)
+    private byte[] artifact;
+
+    /**
+     * Size of the artifact in bytes
+     */
+    @Column(name = "size_bytes", nullable = false)
+    private Integer sizeBytes;
+}
@@ -0,0 +1,32 @@
+package rule.engine.org.app.domain.entity.ui;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import rule.engine.org.app.domain.entity.common.BaseAuditableEntity;
+
+/**
+ * ReferenceList - Named list of values used by IN / NOT_IN conditions
+ *
+ * Values live in reference_list_entries and are read with plain JDBC (lists can be large);
+ * at runtime they are served from memory by ReferenceLists.
+ */
+@Entity
+@Table(name = "reference_lists")
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class ReferenceList extends BaseAuditableEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * List name as referenced from rules (e.g., "HIGH_RISK_COUNTRIES")
+     */
+    @Column(name = "name", nullable = false, unique = true, length = 100)
+    private String name;
+
+    @Column(name = "description", columnDefinition = "text")
+    private String description;
+}
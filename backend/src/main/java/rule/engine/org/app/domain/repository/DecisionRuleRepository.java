@@ -45,6 +45,11 @@ public interface DecisionRuleRepository extends JpaRepository<DecisionRule, Long
      */
     Optional<DecisionRule> findByRuleNameAndIsLatestTrue(String ruleName);
     
+    /**
+     * Find latest rules whose DRL contains a fragment (e.g., a reference list lookup)
+     */
+    List<DecisionRule> findByIsLatestTrueAndRuleContentContaining(String fragment);
+    
     /**
      * Find all distinct fact types
      */
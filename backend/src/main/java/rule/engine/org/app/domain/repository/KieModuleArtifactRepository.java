@@ -0,0 +1,25 @@
+package rule.engine.org.app.domain.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import rule.engine.org.app.domain.entity.ui.FactType;
+import rule.engine.org.app.domain.entity.ui.KieModuleArtifact;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface KieModuleArtifactRepository extends JpaRepository<KieModuleArtifact, Long> {
+
+    /**
+     * Find the artifact compiled from exactly these rules, build mode and fact classes
+     */
+    Optional<KieModuleArtifact> findByFactTypeAndRulesHashAndBuildModeAndBuildFingerprint(
+        FactType factType, String rulesHash, String buildMode, String buildFingerprint);
+
+    /**
+     * IDs of all artifacts for a fact type, newest first (does not load artifact bytes)
+     */
+    @Query("SELECT a.id FROM KieModuleArtifact a WHERE a.factType = :factType ORDER BY a.createdAt DESC")
+    List<Long> findIdsByFactTypeNewestFirst(@Param("factType") FactType factType);
+}
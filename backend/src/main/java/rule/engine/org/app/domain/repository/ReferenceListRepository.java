@@ -0,0 +1,16 @@
+package rule.engine.org.app.domain.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import rule.engine.org.app.domain.entity.ui.ReferenceList;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReferenceListRepository extends JpaRepository<ReferenceList, Long> {
+
+    Optional<ReferenceList> findByName(String name);
+
+    List<ReferenceList> findAllByOrderByNameAsc();
+}
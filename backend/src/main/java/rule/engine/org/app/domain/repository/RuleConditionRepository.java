@@ -1,13 +1,23 @@
 package rule.engine.org.app.domain.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import rule.engine.org.app.domain.entity.ui.RuleCondition;
 import rule.engine.org.app.domain.entity.ui.RuleConditionGroup;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface RuleConditionRepository extends JpaRepository<RuleCondition, Long> {
     List<RuleCondition> findByGroupOrderByOrderIndexAsc(RuleConditionGroup group);
+
+    /**
+     * Conditions of many rules at once, with their groups, in rule / group / condition order
+     */
+    @Query("SELECT c FROM RuleCondition c JOIN FETCH c.group g " +
+           "WHERE g.decisionRule.id IN :ruleIds ORDER BY g.decisionRule.id, g.orderIndex, c.orderIndex")
+    List<RuleCondition> findByDecisionRuleIds(@Param("ruleIds") Collection<Long> ruleIds);
 }
 
 
@@ -4,11 +4,14 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import rule.engine.org.app.domain.entity.ui.DecisionRule;
 import rule.engine.org.app.domain.entity.ui.RuleOutput;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface RuleOutputRepository extends JpaRepository<RuleOutput, Long> {
     List<RuleOutput> findByDecisionRuleOrderByOrderIndexAsc(DecisionRule decisionRule);
     
     List<RuleOutput> findByDecisionRuleIdOrderByOrderIndexAsc(Long decisionRuleId);
+
+    List<RuleOutput> findByDecisionRuleIdInOrderByOrderIndexAsc(Collection<Long> decisionRuleIds);
 }
 
@@ -0,0 +1,153 @@
+package rule.engine.org.app.domain.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Bounded worker pool for scoring many facts in one call
+ * Work is split into chunks and fanned out over a fixed number of threads (one per core by default).
+ * When the queue is full the submitting thread runs the chunk itself, which throttles callers
+ * instead of letting the queue grow without limit.
+ */
+@Service
+public class BatchRuleExecutor {
+
+    // Chunks per worker thread: enough to balance uneven items without per-item task overhead
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    private final ThreadPoolExecutor executor;
+    private final int parallelism;
+    private final int streamWindow;
+
+    public BatchRuleExecutor(
+            @Value("${rule-engine.batch.pool-size:0}") int poolSize,
+            @Value("${rule-engine.batch.queue-capacity:1024}") int queueCapacity,
+            @Value("${rule-engine.batch.stream-window:0}") int streamWindow) {
+        this.parallelism = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        this.streamWindow = streamWindow > 0 ? streamWindow : parallelism * CHUNKS_PER_WORKER;
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+            parallelism,
+            parallelism,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "rule-batch-" + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+    }
+
+    /**
+     * Apply task to every input in parallel and return the results in input order
+     * An exception thrown for one input is converted with onError and does not affect the others
+     *
+     * @param inputs Items to process
+     * @param task Work to run for each item
+     * @param onError Builds the result for an item whose task threw
+     * @return Results, one per input, in input order
+     */
+    public <T, R> List<R> mapInOrder(List<T> inputs, Function<T, R> task, BiFunction<T, Exception, R> onError) {
+        int size = inputs.size();
+        if (size == 0) {
+            return new ArrayList<>();
+        }
+
+        Object[] results = new Object[size];
+        int chunkSize = Math.max(1, (size + parallelism * CHUNKS_PER_WORKER - 1) / (parallelism * CHUNKS_PER_WORKER));
+
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (int start = 0; start < size; start += chunkSize) {
+            int from = start;
+            int to = Math.min(size, start + chunkSize);
+            chunks.add(CompletableFuture.runAsync(() -> {
+                for (int i = from; i < to; i++) {
+                    T input = inputs.get(i);
+                    try {
+                        results[i] = task.apply(input);
+                    } catch (Exception e) {
+                        results[i] = onError.apply(input, e);
+                    }
+                }
+            }, executor));
+        }
+
+        CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).join();
+
+        @SuppressWarnings("unchecked")
+        List<R> ordered = (List<R>) Arrays.asList(results);
+        return new ArrayList<>(ordered);
+    }
+
+    /**
+     * Apply task to a stream of inputs in parallel and hand results to sink in input order
+     * At most streamWindow items are in flight: the next input is only pulled once the oldest
+     * result has been handed to the sink, so a slow reader or a slow sink throttles the other side
+     * and memory stays bounded whatever the stream length.
+     *
+     * @param inputs Items to process, pulled lazily
+     * @param task Work to run for each item
+     * @param onError Builds the result for an item whose task threw
+     * @param sink Receives results in input order, on the calling thread
+     * @return Number of results handed to the sink
+     */
+    public <T, R> long streamInOrder(Iterator<T> inputs, Function<T, R> task,
+                                     BiFunction<T, Exception, R> onError, Consumer<R> sink) {
+        Deque<CompletableFuture<R>> window = new ArrayDeque<>(streamWindow);
+        long count = 0;
+        try {
+            while (inputs.hasNext()) {
+                T input = inputs.next();
+                window.addLast(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return task.apply(input);
+                    } catch (Exception e) {
+                        return onError.apply(input, e);
+                    }
+                }, executor));
+                if (window.size() >= streamWindow) {
+                    sink.accept(window.removeFirst().join());
+                    count++;
+                }
+            }
+            while (!window.isEmpty()) {
+                sink.accept(window.removeFirst().join());
+                count++;
+            }
+            return count;
+        } finally {
+            // Input or sink failed: drop work that has not started yet
+            window.forEach(future -> future.cancel(false));
+        }
+    }
+
+    /**
+     * Number of worker threads in the pool
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    @jakarta.annotation.PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,568 @@
+package rule.engine.org.app.domain.service;
+
+import org.kie.api.runtime.rule.AgendaFilter;
+import org.kie.api.runtime.rule.Match;
+import rule.engine.org.app.domain.entity.execution.RuleOutputHit;
+import rule.engine.org.app.domain.entity.execution.TotalRuleResults;
+import rule.engine.org.app.domain.entity.ui.EvaluationStage;
+import rule.engine.org.app.domain.entity.ui.RuleOperatorType;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Scores chunks of facts column-at-a-time for bulk rescoring
+ *
+ * The fields tested by the vectorizable rules (see PredicateRuleCompiler.compileColumnar) are
+ * read once per chunk into primitive columns: numbers as exact fixed-point longs, booleans and
+ * strings as int codes, strings ranked through a sorted per-chunk dictionary so that ordering
+ * and equality become integer range tests. Every distinct condition is then evaluated once over
+ * the whole column into a bitset (64 facts per word) and rules combine those words with AND /
+ * OR; the loops are plain array scans the JIT can unroll and vectorize. Rules that cannot be
+ * expressed this way still run in Drools, restricted by fallbackFilter() to just those rules,
+ * with the columnar hits of earlier stages already in the results so DEEP skipping sees them.
+ * Immutable and shared by all bulk executions of a container snapshot.
+ */
+final class ColumnarRuleSet {
+
+    // Fixed-point digits kept per numeric column, and the largest constant magnitude allowed,
+    // so that 2 * constant * 10^scale always fits in a long
+    static final int MAX_SCALE = 6;
+    static final BigDecimal MAX_CONSTANT = BigDecimal.TEN.pow(12);
+
+    // Fact values beyond this (after scaling) are clamped: still above / below every constant
+    private static final long CLAMP = 2_000_000_000_000_000_000L;
+    private static final BigInteger CLAMP_BIG = BigInteger.valueOf(CLAMP);
+    private static final long[] POW10 = new long[19];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+
+    /**
+     * A condition on one fact field, as accepted by the columnar compiler
+     * @param operand Normalized constant (BigDecimal, Boolean or String), list name for IN / NOT_IN,
+     *                or null for a null literal
+     */
+    record FieldTest(String field, Class<?> type, Function<Object, Object> getter,
+                     RuleOperatorType operator, Object operand) {
+    }
+
+    /**
+     * A vectorizable rule: its hit and its condition as OR of ANDs of field tests
+     */
+    record VectorRule(PredicateRuleSet.CompiledRule rule, List<List<FieldTest>> alternatives) {
+    }
+
+    private enum Kind {
+        NUMBER,
+        BOOLEAN,
+        CODE
+    }
+
+    private static final class Column {
+        final Kind kind;
+        final Function<Object, Object> getter;
+        int scale;
+
+        Column(Kind kind, Function<Object, Object> getter) {
+            this.kind = kind;
+            this.getter = getter;
+        }
+    }
+
+    /**
+     * Values of one column for one chunk
+     * NUMBER: numbers (2 * floor(value * 10^scale) + 1 if a fraction was cut off) and nulls (bitset);
+     * BOOLEAN / CODE: codes (-1 for null), CODE also the sorted dictionary the codes index.
+     */
+    private static final class ColumnData {
+        long[] numbers;
+        long[] nulls;
+        int[] codes;
+        String[] dictionary;
+    }
+
+    /**
+     * A distinct condition; conditions repeated across rules share one test
+     */
+    private static final class Test {
+        final int column;
+        final RuleOperatorType operator;
+        final Object operand;
+        long encoded;
+
+        Test(int column, RuleOperatorType operator, Object operand) {
+            this.column = column;
+            this.operator = operator;
+            this.operand = operand;
+        }
+    }
+
+    /**
+     * A rule with its alternatives as test indexes
+     */
+    private record CompiledVectorRule(PredicateRuleSet.CompiledRule rule, int[][] alternatives) {
+    }
+
+    private final Class<?> factClass;
+    private final Column[] columns;
+    private final Test[] tests;
+    private final CompiledVectorRule[][] rulesByStage;
+    private final int vectorRuleCount;
+    private final int fallbackRuleCount;
+    private final Set<String> coveredRuleNames;
+    private final Set<Long> coveredRuleIds;
+    private final ReferenceLists referenceLists;
+    private final Predicate<TotalRuleResults> skipDeep;
+
+    /**
+     * @param fallbackRuleCount Rules of the rule set left to Drools
+     * @param skipDeep Tested before DEEP with the results so far; null to always run DEEP
+     */
+    ColumnarRuleSet(Class<?> factClass, List<VectorRule> rules, int fallbackRuleCount,
+                    ReferenceLists referenceLists, Predicate<TotalRuleResults> skipDeep) {
+        this.factClass = factClass;
+        this.fallbackRuleCount = fallbackRuleCount;
+        this.referenceLists = referenceLists;
+        this.skipDeep = skipDeep;
+        this.vectorRuleCount = rules.size();
+
+        Map<String, Integer> columnIndex = new LinkedHashMap<>();
+        List<Column> columnList = new ArrayList<>();
+        Map<String, Integer> testIndex = new HashMap<>();
+        List<Test> testList = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        Set<Long> ids = new HashSet<>();
+        List<List<CompiledVectorRule>> stageRules = new ArrayList<>();
+        for (int s = 0; s < StagedEvaluation.STAGES.length; s++) {
+            stageRules.add(new ArrayList<>());
+        }
+
+        for (VectorRule rule : rules) {
+            int[][] alternatives = new int[rule.alternatives().size()][];
+            for (int a = 0; a < alternatives.length; a++) {
+                List<FieldTest> conjunction = rule.alternatives().get(a);
+                alternatives[a] = new int[conjunction.size()];
+                for (int c = 0; c < conjunction.size(); c++) {
+                    FieldTest test = conjunction.get(c);
+                    int column = columnIndex.computeIfAbsent(test.field(), field -> {
+                        columnList.add(new Column(kind(test.type()), test.getter()));
+                        return columnList.size() - 1;
+                    });
+                    if (test.operand() instanceof BigDecimal constant) {
+                        Column target = columnList.get(column);
+                        target.scale = Math.max(target.scale, Math.max(0, constant.scale()));
+                    }
+                    String key = column + " " + test.operator() + " " + test.operand();
+                    alternatives[a][c] = testIndex.computeIfAbsent(key, k -> {
+                        testList.add(new Test(column, test.operator(), test.operand()));
+                        return testList.size() - 1;
+                    });
+                }
+            }
+            stageRules.get(rule.rule().stage().ordinal()).add(new CompiledVectorRule(rule.rule(), alternatives));
+            names.add(rule.rule().ruleName());
+            ids.add(rule.rule().ruleId());
+        }
+
+        this.columns = columnList.toArray(new Column[0]);
+        this.tests = testList.toArray(new Test[0]);
+        for (Test test : tests) {
+            if (test.operand instanceof BigDecimal constant) {
+                // Scales are final now that every constant of the column has been seen
+                test.encoded = 2 * constant.movePointRight(columns[test.column].scale).longValueExact();
+            }
+        }
+        this.rulesByStage = new CompiledVectorRule[stageRules.size()][];
+        for (int s = 0; s < stageRules.size(); s++) {
+            rulesByStage[s] = stageRules.get(s).stream()
+                .sorted(Comparator.comparingInt((CompiledVectorRule r) -> r.rule().priority()).reversed()
+                    .thenComparingLong(r -> r.rule().ruleId()))
+                .toArray(CompiledVectorRule[]::new);
+        }
+        this.coveredRuleNames = Set.copyOf(names);
+        this.coveredRuleIds = Set.copyOf(ids);
+    }
+
+    private static Kind kind(Class<?> type) {
+        if (type == String.class) {
+            return Kind.CODE;
+        }
+        return type == Boolean.class ? Kind.BOOLEAN : Kind.NUMBER;
+    }
+
+    int vectorRuleCount() {
+        return vectorRuleCount;
+    }
+
+    int fallbackRuleCount() {
+        return fallbackRuleCount;
+    }
+
+    /**
+     * Drools matches still to fire: rules the columns do not answer
+     * Template rules fire one match per parameter row, so rows are filtered by their rule ID.
+     */
+    AgendaFilter fallbackFilter() {
+        return this::isFallback;
+    }
+
+    private boolean isFallback(Match match) {
+        if (coveredRuleNames.contains(match.getRule().getName())) {
+            return false;
+        }
+        if (match.getDeclarationIds().contains("$row")
+                && match.getDeclarationValue("$row") instanceof RuleTemplateRow row) {
+            return !coveredRuleIds.contains(row.getRuleId());
+        }
+        return true;
+    }
+
+    /**
+     * Score a chunk of facts, one result per fact in input order
+     * @param fallback Backend for the rules left to Drools (filtered with fallbackFilter()),
+     *                 or null when every rule is vectorized
+     */
+    List<TotalRuleResults> score(List<?> facts, RuleBackend fallback) {
+        int size = facts.size();
+        for (Object fact : facts) {
+            if (!factClass.isInstance(fact)) {
+                throw new IllegalArgumentException("Expected " + factClass.getSimpleName() + " facts, got "
+                    + (fact == null ? "null" : fact.getClass().getSimpleName()));
+            }
+            // Rules may test derived fields, which Drools gets from FactLayout.insert
+            DerivedFeatures.compute(fact);
+        }
+
+        ColumnData[] data = new ColumnData[columns.length];
+        for (int c = 0; c < columns.length; c++) {
+            data[c] = read(columns[c], facts);
+        }
+
+        // Hits per stage and fact, in firing order
+        long[][] testWords = new long[tests.length][];
+        @SuppressWarnings("unchecked")
+        List<RuleOutputHit>[][] hits = new List[StagedEvaluation.STAGES.length][size];
+        for (int s = 0; s < rulesByStage.length; s++) {
+            for (CompiledVectorRule rule : rulesByStage[s]) {
+                long[] matched = match(rule, data, testWords, size);
+                if (matched == null) {
+                    continue;
+                }
+                for (int w = 0; w < matched.length; w++) {
+                    long word = matched[w];
+                    while (word != 0) {
+                        int i = (w << 6) + Long.numberOfTrailingZeros(word);
+                        word &= word - 1;
+                        if (hits[s][i] == null) {
+                            hits[s][i] = new ArrayList<>();
+                        }
+                        hits[s][i].add(rule.rule().hit());
+                    }
+                }
+            }
+        }
+
+        int deep = EvaluationStage.DEEP.ordinal();
+        LocalDateTime runAt = LocalDateTime.now();
+        List<TotalRuleResults> scored = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            TotalRuleResults results = new TotalRuleResults();
+            results.setRunAt(runAt);
+            for (int s = 0; s < deep; s++) {
+                addHits(results, hits[s][i]);
+            }
+            boolean deepRan;
+            if (fallback != null) {
+                long[] stageNanos = new long[StagedEvaluation.STAGES.length];
+                fallback.fire(facts.get(i), results, null, null, stageNanos);
+                deepRan = stageNanos[deep] != StagedEvaluation.NOT_RUN;
+            } else {
+                deepRan = skipDeep == null || !skipDeep.test(results);
+            }
+            if (deepRan) {
+                addHits(results, hits[deep][i]);
+            }
+            RuleEngineManager.aggregateResults(results);
+            scored.add(results);
+        }
+        return scored;
+    }
+
+    private static void addHits(TotalRuleResults results, List<RuleOutputHit> hits) {
+        if (hits != null) {
+            results.getHits().addAll(hits);
+        }
+    }
+
+    /**
+     * Facts matched by a rule as a bitset, or null if none; tests are evaluated on first use
+     */
+    private long[] match(CompiledVectorRule rule, ColumnData[] data, long[][] testWords, int size) {
+        long[] matched = null;
+        for (int[] conjunction : rule.alternatives()) {
+            long[] all = null;
+            for (int t : conjunction) {
+                if (testWords[t] == null) {
+                    testWords[t] = evaluate(tests[t], data[tests[t].column], size);
+                }
+                if (all == null) {
+                    all = testWords[t].clone();
+                } else {
+                    long any = 0;
+                    long[] words = testWords[t];
+                    for (int w = 0; w < all.length; w++) {
+                        all[w] &= words[w];
+                        any |= all[w];
+                    }
+                    if (any == 0) {
+                        break;
+                    }
+                }
+            }
+            if (matched == null) {
+                matched = all;
+            } else {
+                for (int w = 0; w < matched.length; w++) {
+                    matched[w] |= all[w];
+                }
+            }
+        }
+        if (matched != null) {
+            for (long word : matched) {
+                if (word != 0) {
+                    return matched;
+                }
+            }
+        }
+        return null;
+    }
+
+    // ---- Reading columns ----
+
+    private static ColumnData read(Column column, List<?> facts) {
+        int size = facts.size();
+        ColumnData data = new ColumnData();
+        switch (column.kind) {
+            case NUMBER -> {
+                data.numbers = new long[size];
+                data.nulls = new long[words(size)];
+                for (int i = 0; i < size; i++) {
+                    Object value = column.getter.apply(facts.get(i));
+                    if (value == null) {
+                        data.nulls[i >>> 6] |= 1L << i;
+                    } else {
+                        data.numbers[i] = encode(value, column.scale);
+                    }
+                }
+            }
+            case BOOLEAN -> {
+                data.codes = new int[size];
+                for (int i = 0; i < size; i++) {
+                    Object value = column.getter.apply(facts.get(i));
+                    data.codes[i] = value == null ? -1 : ((Boolean) value ? 1 : 0);
+                }
+            }
+            case CODE -> {
+                String[] values = new String[size];
+                Map<String, Integer> ranks = new HashMap<>();
+                for (int i = 0; i < size; i++) {
+                    values[i] = (String) column.getter.apply(facts.get(i));
+                    if (values[i] != null) {
+                        ranks.putIfAbsent(values[i], 0);
+                    }
+                }
+                String[] dictionary = ranks.keySet().toArray(new String[0]);
+                Arrays.sort(dictionary);
+                for (int r = 0; r < dictionary.length; r++) {
+                    ranks.put(dictionary[r], r);
+                }
+                data.dictionary = dictionary;
+                data.codes = new int[size];
+                for (int i = 0; i < size; i++) {
+                    data.codes[i] = values[i] == null ? -1 : ranks.get(values[i]);
+                }
+            }
+        }
+        return data;
+    }
+
+    /**
+     * 2 * floor(value * 10^scale), plus 1 if that cut off a fraction, clamped to +-2 * CLAMP
+     * Comparing against 2 * constant * 10^scale then gives exactly the BigDecimal comparison.
+     */
+    static long encode(Object value, int scale) {
+        if (value instanceof Integer || value instanceof Long) {
+            long number = ((Number) value).longValue();
+            long limit = CLAMP / POW10[scale];
+            if (number > limit) {
+                return 2 * CLAMP;
+            }
+            if (number < -limit) {
+                return -2 * CLAMP;
+            }
+            return 2 * number * POW10[scale];
+        }
+        BigDecimal decimal = value instanceof BigDecimal d ? d : new BigDecimal(value.toString());
+        if (decimal.precision() <= 18 && decimal.precision() - decimal.scale() <= 12) {
+            // Below 10^12 with at most 18 digits: scale with long arithmetic
+            long unscaled = decimal.unscaledValue().longValue();
+            int excess = decimal.scale() - scale;
+            if (excess <= 0) {
+                return 2 * unscaled * POW10[-excess];
+            }
+            long divisor = POW10[excess];
+            long floor = Math.floorDiv(unscaled, divisor);
+            return 2 * floor + (unscaled - floor * divisor != 0 ? 1 : 0);
+        }
+        BigDecimal scaled = decimal.movePointRight(scale);
+        BigInteger floor = scaled.setScale(0, RoundingMode.FLOOR).toBigIntegerExact();
+        if (floor.compareTo(CLAMP_BIG) > 0) {
+            return 2 * CLAMP;
+        }
+        if (floor.compareTo(CLAMP_BIG.negate()) < 0) {
+            return -2 * CLAMP;
+        }
+        return 2 * floor.longValue() + (scaled.compareTo(new BigDecimal(floor)) != 0 ? 1 : 0);
+    }
+
+    // ---- Evaluating tests ----
+
+    private long[] evaluate(Test test, ColumnData data, int size) {
+        Kind kind = columns[test.column].kind;
+        RuleOperatorType operator = test.operator;
+        boolean negate = operator == RuleOperatorType.NOT_EQUALS || operator == RuleOperatorType.NOT_IN;
+        long[] words;
+        if (test.operand == null) {
+            // == null / != null
+            words = kind == Kind.NUMBER ? data.nulls.clone() : codesBetween(data.codes, -1, -1, size);
+        } else if (kind == Kind.NUMBER) {
+            long k = test.encoded;
+            words = switch (operator) {
+                case EQUALS, NOT_EQUALS -> numbersBetween(data.numbers, k, k, size);
+                case GT -> numbersBetween(data.numbers, k + 1, Long.MAX_VALUE, size);
+                case GTE -> numbersBetween(data.numbers, k, Long.MAX_VALUE, size);
+                case LT -> numbersBetween(data.numbers, Long.MIN_VALUE, k - 1, size);
+                case LTE -> numbersBetween(data.numbers, Long.MIN_VALUE, k, size);
+                default -> throw new IllegalStateException("Operator " + operator + " on a numeric column");
+            };
+            // Null fields fail every comparison (and so pass !=)
+            for (int w = 0; w < words.length; w++) {
+                words[w] &= ~data.nulls[w];
+            }
+        } else if (kind == Kind.BOOLEAN) {
+            int code = (Boolean) test.operand ? 1 : 0;
+            words = codesBetween(data.codes, code, code, size);
+        } else {
+            words = evaluateCode(test, data, size);
+        }
+        if (negate) {
+            for (int w = 0; w < words.length; w++) {
+                words[w] = ~words[w];
+            }
+            clearTail(words, size);
+        }
+        return words;
+    }
+
+    /**
+     * Tests on a dictionary-encoded string column
+     * Comparisons become code ranges in the sorted dictionary; string operators and reference
+     * lists are answered once per distinct value.
+     */
+    private long[] evaluateCode(Test test, ColumnData data, int size) {
+        String[] dictionary = data.dictionary;
+        String operand = (String) test.operand;
+        switch (test.operator) {
+            case STR_CONTAINS, STR_STARTS_WITH, STR_ENDS_WITH, IN, NOT_IN -> {
+                boolean[] accepted = new boolean[dictionary.length];
+                for (int r = 0; r < dictionary.length; r++) {
+                    accepted[r] = switch (test.operator) {
+                        case STR_CONTAINS -> dictionary[r].contains(operand);
+                        case STR_STARTS_WITH -> dictionary[r].startsWith(operand);
+                        case STR_ENDS_WITH -> dictionary[r].endsWith(operand);
+                        default -> referenceLists.contains(operand, dictionary[r]);
+                    };
+                }
+                long[] words = new long[words(size)];
+                int[] codes = data.codes;
+                for (int i = 0; i < size; i++) {
+                    int code = codes[i];
+                    if (code >= 0 && accepted[code]) {
+                        words[i >>> 6] |= 1L << i;
+                    }
+                }
+                return words;
+            }
+            default -> {
+                int position = Arrays.binarySearch(dictionary, operand);
+                int below = position >= 0 ? position : -position - 1;
+                int upTo = position >= 0 ? position + 1 : below;
+                return switch (test.operator) {
+                    case EQUALS, NOT_EQUALS -> codesBetween(data.codes, below, upTo - 1, size);
+                    case GT -> codesBetween(data.codes, upTo, Integer.MAX_VALUE, size);
+                    case GTE -> codesBetween(data.codes, below, Integer.MAX_VALUE, size);
+                    case LT -> codesBetween(data.codes, 0, below - 1, size);
+                    case LTE -> codesBetween(data.codes, 0, upTo - 1, size);
+                    default -> throw new IllegalStateException("Operator " + test.operator + " on a string column");
+                };
+            }
+        }
+    }
+
+    /**
+     * Bitset of from <= value <= to (branch-free unsigned range check)
+     */
+    private static long[] numbersBetween(long[] values, long from, long to, int size) {
+        long[] words = new long[words(size)];
+        if (from > to) {
+            return words;
+        }
+        long width = to - from;
+        for (int i = 0; i < size; i++) {
+            long inside = Long.compareUnsigned(values[i] - from, width) <= 0 ? 1L : 0L;
+            words[i >>> 6] |= inside << i;
+        }
+        return words;
+    }
+
+    private static long[] codesBetween(int[] codes, int from, int to, int size) {
+        long[] words = new long[words(size)];
+        if (from > to) {
+            return words;
+        }
+        int width = to - from;
+        for (int i = 0; i < size; i++) {
+            long inside = Integer.compareUnsigned(codes[i] - from, width) <= 0 ? 1L : 0L;
+            words[i >>> 6] |= inside << i;
+        }
+        return words;
+    }
+
+    private static int words(int size) {
+        return (size + 63) >>> 6;
+    }
+
+    private static void clearTail(long[] words, int size) {
+        if ((size & 63) != 0 && words.length > 0) {
+            words[words.length - 1] &= (1L << size) - 1;
+        }
+    }
+}
@@ -0,0 +1,506 @@
+package rule.engine.org.app.domain.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import rule.engine.org.app.api.request.CreateRuleRequest;
+import rule.engine.org.app.api.response.DecisionTableImportResponse;
+import rule.engine.org.app.api.response.RuleFieldMetadata;
+import rule.engine.org.app.api.response.RuleFieldMetadata.FieldDefinition;
+import rule.engine.org.app.domain.entity.ui.DecisionRule;
+import rule.engine.org.app.domain.entity.ui.EvaluationStage;
+import rule.engine.org.app.domain.entity.ui.FactType;
+import rule.engine.org.app.domain.entity.ui.RuleCondition;
+import rule.engine.org.app.domain.entity.ui.RuleOutput;
+import rule.engine.org.app.util.DecisionTableReader;
+import rule.engine.org.app.util.RuleFieldExtractor;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports decision tables: validates the rows read by DecisionTableReader, then writes them as
+ * rules, conditions and outputs with JDBC batch inserts
+ *
+ * Validation reports the errors of every row at once, so an analyst can fix the whole sheet in one
+ * pass. Importing thousands of rows through the repositories would cost several round trips per rule
+ * (rule, content update, group, conditions, output group, output). Here rule and group IDs are
+ * drawn from their sequences up front, which lets each rule's DRL be rendered (the rule name
+ * embeds the ID) before anything is written; all rows are then inserted in one transaction.
+ * The rule set of the fact type is rebuilt once inside the same transaction, so a table whose
+ * rules do not compile leaves nothing behind. Imported rules are version 1 of a new rule with a
+ * single AND condition group and one output, i.e. what POST /api/v1/rules stores for an all-AND rule.
+ */
+@Service
+public class DecisionTableImportService {
+
+    /**
+     * Rule and output attributes a decision table may have as columns (all other columns are conditions)
+     */
+    private static final Set<String> TABLE_COLUMNS = Set.of(
+        "ruleName", "label", "priority", "active", "evaluationStage", "versionNotes",
+        "action", "result", "score", "flag", "documentType", "documentId", "description");
+
+    /**
+     * UI operators a decision table condition column may use (those with a stored operator type)
+     */
+    private static final Set<String> TABLE_OPERATORS = Set.of(
+        "==", "!=", ">", ">=", "<", "<=", "contains", "startsWith", "endsWith", "inList", "notInList");
+
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    private static final String INSERT_RULE_SQL = "INSERT INTO decision_rules "
+        + "(id, rule_name, label, fact_type, rule_content, priority, active, evaluation_stage, "
+        + "version, is_latest, version_notes, created_date, created_by, last_modified_date, last_modified_by) "
+        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 1, TRUE, ?, ?, 'system', ?, 'system')";
+
+    private static final String INSERT_CONDITION_GROUP_SQL = "INSERT INTO rule_condition_group "
+        + "(id, decision_rule_id, type, order_index, created_date, created_by, last_modified_date, last_modified_by) "
+        + "VALUES (?, ?, CAST('AND' AS group_type), 0, ?, 'system', ?, 'system')";
+
+    private static final String INSERT_CONDITION_SQL = "INSERT INTO rule_condition "
+        + "(group_id, field_path, operator, value_type, value_text, value_number, value_decimal, value_boolean, order_index, "
+        + "created_date, created_by, last_modified_date, last_modified_by) "
+        + "VALUES (?, ?, CAST(? AS operator_type), CAST(? AS value_type), ?, ?, ?, ?, ?, ?, 'system', ?, 'system')";
+
+    private static final String INSERT_OUTPUT_GROUP_SQL = "INSERT INTO rule_output_group "
+        + "(id, decision_rule_id, type, order_index, created_date, created_by, last_modified_date, last_modified_by) "
+        + "VALUES (?, ?, CAST('AND' AS group_type), 0, ?, 'system', ?, 'system')";
+
+    private static final String INSERT_OUTPUT_SQL = "INSERT INTO rule_output "
+        + "(group_id, decision_rule_id, action, result, score, flag, document_type, document_id, description, order_index, "
+        + "created_date, created_by, last_modified_date, last_modified_by) "
+        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?, 'system', ?, 'system')";
+
+    /**
+     * One imported rule; the rule carries its ID and DRL, conditions and output are not yet linked
+     */
+    public record ImportedRule(DecisionRule rule, List<RuleCondition> conditions, RuleOutput output) {
+    }
+
+    /**
+     * Time spent writing the rows and rebuilding the rule set
+     */
+    public record ImportTimings(long insertNanos, long compileNanos) {
+    }
+
+    /**
+     * Create requests of the valid rows and the errors of the others (header errors leave no requests)
+     */
+    public record ParsedTable(List<CreateRuleRequest> requests, List<DecisionTableImportResponse.RowError> errors) {
+    }
+
+    private record ConditionRow(long groupId, RuleCondition condition) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RuleEngineManager ruleEngineManager;
+    private final ReferenceLists referenceLists;
+
+    public DecisionTableImportService(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            RuleEngineManager ruleEngineManager,
+            ReferenceLists referenceLists) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.ruleEngineManager = ruleEngineManager;
+        this.referenceLists = referenceLists;
+    }
+
+    /**
+     * Turn the rows of a decision table (header first) into create requests, collecting every problem found
+     * Rows with errors yield no request; the header must be valid before any row is looked at.
+     */
+    public ParsedTable parse(List<DecisionTableReader.TableRow> rows, FactType factType) {
+        List<DecisionTableImportResponse.RowError> errors = new ArrayList<>();
+        Map<String, String> fieldTypeByName = RuleFieldExtractor.extractInputFields(factType.getValue()).stream()
+            .collect(Collectors.toMap(FieldDefinition::getName, FieldDefinition::getType, (a, b) -> a));
+        Map<String, List<RuleFieldMetadata.OperatorDefinition>> operatorsByType = RuleFieldExtractor.getOperatorsByType();
+
+        // Header: attribute columns by name, condition columns as "<field> <operator>"
+        DecisionTableReader.TableRow header = rows.get(0);
+        Map<String, Integer> columns = new HashMap<>();
+        List<String[]> conditionColumns = new ArrayList<>();
+        List<Integer> conditionIndexes = new ArrayList<>();
+        for (int i = 0; i < header.cells().size(); i++) {
+            String name = header.cell(i);
+            if (name == null) {
+                continue;
+            }
+            if (TABLE_COLUMNS.contains(name)) {
+                if (columns.putIfAbsent(name, i) != null) {
+                    errors.add(new DecisionTableImportResponse.RowError(1, name, "Duplicate column"));
+                }
+                continue;
+            }
+            int space = name.lastIndexOf(' ');
+            String field = space > 0 ? name.substring(0, space).trim() : name;
+            String operator = space > 0 ? name.substring(space + 1) : null;
+            String fieldType = fieldTypeByName.get(field);
+            if (fieldType == null) {
+                errors.add(new DecisionTableImportResponse.RowError(1, name,
+                    "Unknown column; expected a rule attribute or \"<field> <operator>\" with a " + factType.getValue() + " field"));
+            } else if (operator == null || !TABLE_OPERATORS.contains(operator)
+                    || operatorsByType.getOrDefault(fieldType, List.of()).stream().noneMatch(op -> op.getOperator().equals(operator))) {
+                errors.add(new DecisionTableImportResponse.RowError(1, name,
+                    "Operator " + operator + " not supported for " + fieldType + " field " + field));
+            } else {
+                conditionColumns.add(new String[] {field, operator, fieldType});
+                conditionIndexes.add(i);
+            }
+        }
+        if (!columns.containsKey("ruleName")) {
+            errors.add(new DecisionTableImportResponse.RowError(1, "ruleName", "Missing required column"));
+        }
+        if (conditionColumns.isEmpty()) {
+            errors.add(new DecisionTableImportResponse.RowError(1, null, "No condition columns"));
+        }
+        if (!errors.isEmpty()) {
+            return new ParsedTable(List.of(), errors);
+        }
+
+        List<CreateRuleRequest> requests = new ArrayList<>(rows.size() - 1);
+        List<Integer> requestRows = new ArrayList<>(rows.size() - 1);
+        Map<String, Integer> rowByName = new HashMap<>();
+        for (DecisionTableReader.TableRow row : rows.subList(1, rows.size())) {
+            int errorCount = errors.size();
+            int rowNumber = row.number();
+
+            String ruleName = tableCell(row, columns, "ruleName");
+            if (ruleName == null) {
+                errors.add(new DecisionTableImportResponse.RowError(rowNumber, "ruleName", "Rule name is required"));
+            } else if (ruleName.length() > 255) {
+                errors.add(new DecisionTableImportResponse.RowError(rowNumber, "ruleName", "Rule name longer than 255 characters"));
+            } else {
+                Integer firstRow = rowByName.putIfAbsent(ruleName, rowNumber);
+                if (firstRow != null) {
+                    errors.add(new DecisionTableImportResponse.RowError(rowNumber, "ruleName",
+                        "Rule name already used in row " + firstRow));
+                }
+            }
+
+            Integer priority = null;
+            String priorityText = tableCell(row, columns, "priority");
+            if (priorityText != null) {
+                try {
+                    priority = Integer.parseInt(priorityText);
+                } catch (NumberFormatException e) {
+                    errors.add(new DecisionTableImportResponse.RowError(rowNumber, "priority", "Not an integer: " + priorityText));
+                }
+            }
+            Boolean active = null;
+            String activeText = tableCell(row, columns, "active");
+            if (activeText != null) {
+                active = parseTableBoolean(activeText);
+                if (active == null) {
+                    errors.add(new DecisionTableImportResponse.RowError(rowNumber, "active", "Not true or false: " + activeText));
+                }
+            }
+            EvaluationStage stage = null;
+            String stageText = tableCell(row, columns, "evaluationStage");
+            if (stageText != null) {
+                try {
+                    stage = EvaluationStage.valueOf(stageText.toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    errors.add(new DecisionTableImportResponse.RowError(rowNumber, "evaluationStage",
+                        "Unknown evaluation stage: " + stageText));
+                }
+            }
+
+            Map<String, Object> output = new LinkedHashMap<>();
+            for (String column : List.of("action", "result", "flag", "documentType", "documentId", "description")) {
+                String value = tableCell(row, columns, column);
+                if (value != null) {
+                    output.put(column, value);
+                }
+            }
+            if (output.containsKey("action") && output.get("action").toString().length() > 50) {
+                errors.add(new DecisionTableImportResponse.RowError(rowNumber, "action", "Action longer than 50 characters"));
+            }
+            String scoreText = tableCell(row, columns, "score");
+            if (scoreText != null) {
+                try {
+                    BigDecimal score = new BigDecimal(scoreText);
+                    // rule_output.score is NUMERIC(5, 2)
+                    if (score.abs().compareTo(BigDecimal.valueOf(1000)) >= 0) {
+                        errors.add(new DecisionTableImportResponse.RowError(rowNumber, "score", "Score out of range: " + scoreText));
+                    }
+                    output.put("score", score);
+                } catch (NumberFormatException e) {
+                    errors.add(new DecisionTableImportResponse.RowError(rowNumber, "score", "Not a number: " + scoreText));
+                }
+            }
+
+            List<Map<String, Object>> conditions = new ArrayList<>();
+            for (int c = 0; c < conditionColumns.size(); c++) {
+                String text = row.cell(conditionIndexes.get(c));
+                if (text == null) {
+                    continue;
+                }
+                String[] column = conditionColumns.get(c);
+                String columnName = header.cell(conditionIndexes.get(c));
+                Object value = RuleDrlGenerator.REFERENCE_LIST_OPERATORS.contains(column[1]) ? text : parseTableValue(text, column[2]);
+                if (value == null) {
+                    errors.add(new DecisionTableImportResponse.RowError(rowNumber, columnName,
+                        "Not a valid " + column[2] + " value: " + text));
+                    continue;
+                }
+                if (RuleDrlGenerator.REFERENCE_LIST_OPERATORS.contains(column[1]) && !referenceLists.isLoaded(text)) {
+                    errors.add(new DecisionTableImportResponse.RowError(rowNumber, columnName, "Unknown reference list: " + text));
+                    continue;
+                }
+                Map<String, Object> condition = new LinkedHashMap<>();
+                condition.put("field", column[0]);
+                condition.put("operator", column[1]);
+                condition.put("value", value);
+                condition.put("logicalOp", "AND");
+                conditions.add(condition);
+            }
+            if (conditions.isEmpty() && errors.size() == errorCount) {
+                errors.add(new DecisionTableImportResponse.RowError(rowNumber, null, "At least one condition is required"));
+            }
+
+            if (errors.size() == errorCount) {
+                requests.add(CreateRuleRequest.builder()
+                    .ruleName(ruleName)
+                    .label(tableCell(row, columns, "label"))
+                    .priority(priority)
+                    .active(active)
+                    .factType(factType)
+                    .evaluationStage(stage)
+                    .versionNotes(tableCell(row, columns, "versionNotes"))
+                    .conditions(conditions)
+                    .output(output)
+                    .build());
+                requestRows.add(rowNumber);
+            }
+        }
+
+        // Names taken by existing rules, checked in one query
+        Set<String> existing = existingRuleNames(rowByName.keySet());
+        for (int i = 0; i < requests.size(); i++) {
+            if (existing.contains(requests.get(i).getRuleName())) {
+                errors.add(new DecisionTableImportResponse.RowError(requestRows.get(i), "ruleName", "Rule name already exists"));
+            }
+        }
+        for (String name : existing) {
+            Integer rowNumber = rowByName.get(name);
+            if (!requestRows.contains(rowNumber)) {
+                errors.add(new DecisionTableImportResponse.RowError(rowNumber, "ruleName", "Rule name already exists"));
+            }
+        }
+        errors.sort(Comparator.comparing(DecisionTableImportResponse.RowError::getRow));
+        return new ParsedTable(requests, errors);
+    }
+
+    private static String tableCell(DecisionTableReader.TableRow row, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        return index != null ? row.cell(index) : null;
+    }
+
+    /**
+     * Condition value typed like the UI sends it (Long, BigDecimal, Boolean or String), or null if it does not parse
+     */
+    private static Object parseTableValue(String text, String fieldType) {
+        try {
+            return switch (fieldType) {
+                case "integer" -> Long.parseLong(text);
+                case "decimal" -> new BigDecimal(text);
+                case "boolean" -> parseTableBoolean(text);
+                default -> text;
+            };
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Boolean parseTableBoolean(String text) {
+        if (text.equalsIgnoreCase("true")) {
+            return Boolean.TRUE;
+        }
+        if (text.equalsIgnoreCase("false")) {
+            return Boolean.FALSE;
+        }
+        return null;
+    }
+
+    /**
+     * Names among the given ones that already belong to a latest rule version (one query)
+     */
+    public Set<String> existingRuleNames(Collection<String> ruleNames) {
+        if (ruleNames.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                "SELECT rule_name FROM decision_rules WHERE is_latest = TRUE AND rule_name = ANY (?)");
+            Array names = connection.createArrayOf("varchar", ruleNames.toArray());
+            statement.setArray(1, names);
+            return statement;
+        }, (resultSet, rowNum) -> resultSet.getString(1)));
+    }
+
+    /**
+     * Rules to insert for the parsed requests of a table: IDs drawn from the sequence, DRL rendered
+     */
+    public List<ImportedRule> prepare(FactType factType, List<CreateRuleRequest> requests) {
+        // Rule IDs first: the generated DRL names each rule "<ruleName>_<id>"
+        List<Long> ruleIds = nextIds("decision_rules_id_seq", requests.size());
+        List<ImportedRule> imported = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            CreateRuleRequest request = requests.get(i);
+            DecisionRule rule = new DecisionRule();
+            rule.setId(ruleIds.get(i));
+            rule.setRuleName(request.getRuleName());
+            rule.setLabel(request.getLabel());
+            rule.setFactType(factType);
+            if (request.getPriority() != null) {
+                rule.setPriority(request.getPriority());
+            }
+            if (request.getActive() != null) {
+                rule.setActive(request.getActive());
+            }
+            if (request.getEvaluationStage() != null) {
+                rule.setEvaluationStage(request.getEvaluationStage());
+            }
+            rule.setVersionNotes(request.getVersionNotes());
+            rule.setRuleContent(RuleDrlGenerator.ruleDrl(rule, request.getConditions(), request.getOutput()));
+
+            List<RuleCondition> conditions = new ArrayList<>(request.getConditions().size());
+            for (int j = 0; j < request.getConditions().size(); j++) {
+                conditions.add(RuleDrlGenerator.conditionRow(request.getConditions().get(j), null, j));
+            }
+            Map<String, Object> outputMap = request.getOutput();
+            RuleOutput output = new RuleOutput();
+            output.setAction((String) outputMap.get("action"));
+            output.setResult((String) outputMap.get("result"));
+            output.setScore((BigDecimal) outputMap.get("score"));
+            output.setFlag((String) outputMap.get("flag"));
+            output.setDocumentType((String) outputMap.get("documentType"));
+            output.setDocumentId((String) outputMap.get("documentId"));
+            output.setDescription((String) outputMap.get("description"));
+            imported.add(new ImportedRule(rule, conditions, output));
+        }
+        return imported;
+    }
+
+    /**
+     * Insert the rules with their condition group, conditions, output group and output, then
+     * rebuild the fact type's rule set, all in one transaction
+     * Every rule must already carry its ID and rule content (see prepare).
+     * @throws RuntimeException if the rules do not compile; nothing is inserted then
+     */
+    public ImportTimings insert(String factType, List<ImportedRule> rules) {
+        return transactionTemplate.execute(status -> {
+            long insertStart = System.nanoTime();
+            insertRows(rules);
+            long compileStart = System.nanoTime();
+            ruleEngineManager.rebuildRules(factType);
+            return new ImportTimings(compileStart - insertStart, System.nanoTime() - compileStart);
+        });
+    }
+
+    private void insertRows(List<ImportedRule> rules) {
+        if (rules.isEmpty()) {
+            return;
+        }
+        List<Long> conditionGroupIds = nextIds("rule_condition_group_id_seq", rules.size());
+        List<Long> outputGroupIds = nextIds("rule_output_group_id_seq", rules.size());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        jdbcTemplate.batchUpdate(INSERT_RULE_SQL, rules, INSERT_BATCH_SIZE, (ps, imported) -> {
+            DecisionRule rule = imported.rule();
+            ps.setLong(1, rule.getId());
+            ps.setString(2, rule.getRuleName());
+            ps.setString(3, rule.getLabel());
+            ps.setString(4, rule.getFactType().name());
+            ps.setString(5, rule.getRuleContent());
+            ps.setInt(6, rule.getPriority() != null ? rule.getPriority() : 0);
+            ps.setBoolean(7, Boolean.TRUE.equals(rule.getActive()));
+            ps.setString(8, rule.getEvaluationStage().name());
+            ps.setString(9, rule.getVersionNotes());
+            ps.setTimestamp(10, now);
+            ps.setTimestamp(11, now);
+        });
+
+        List<Long[]> groups = new ArrayList<>(rules.size());
+        List<ConditionRow> conditions = new ArrayList<>();
+        for (int i = 0; i < rules.size(); i++) {
+            long groupId = conditionGroupIds.get(i);
+            groups.add(new Long[] {groupId, rules.get(i).rule().getId()});
+            for (RuleCondition condition : rules.get(i).conditions()) {
+                conditions.add(new ConditionRow(groupId, condition));
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_CONDITION_GROUP_SQL, groups, INSERT_BATCH_SIZE, (ps, group) -> {
+            ps.setLong(1, group[0]);
+            ps.setLong(2, group[1]);
+            ps.setTimestamp(3, now);
+            ps.setTimestamp(4, now);
+        });
+        jdbcTemplate.batchUpdate(INSERT_CONDITION_SQL, conditions, INSERT_BATCH_SIZE, (ps, row) -> {
+            RuleCondition condition = row.condition();
+            ps.setLong(1, row.groupId());
+            ps.setString(2, condition.getFieldPath());
+            ps.setString(3, condition.getOperator().name());
+            ps.setString(4, condition.getValueType().name());
+            ps.setString(5, condition.getValueText());
+            ps.setObject(6, condition.getValueNumber(), Types.BIGINT);
+            ps.setBigDecimal(7, condition.getValueDecimal());
+            ps.setObject(8, condition.getValueBoolean(), Types.BOOLEAN);
+            ps.setInt(9, condition.getOrderIndex() != null ? condition.getOrderIndex() : 0);
+            ps.setTimestamp(10, now);
+            ps.setTimestamp(11, now);
+        });
+
+        List<Long[]> outputGroups = new ArrayList<>(rules.size());
+        for (int i = 0; i < rules.size(); i++) {
+            outputGroups.add(new Long[] {outputGroupIds.get(i), rules.get(i).rule().getId()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_OUTPUT_GROUP_SQL, outputGroups, INSERT_BATCH_SIZE, (ps, group) -> {
+            ps.setLong(1, group[0]);
+            ps.setLong(2, group[1]);
+            ps.setTimestamp(3, now);
+            ps.setTimestamp(4, now);
+        });
+        List<Integer> indexes = new ArrayList<>(rules.size());
+        for (int i = 0; i < rules.size(); i++) {
+            indexes.add(i);
+        }
+        jdbcTemplate.batchUpdate(INSERT_OUTPUT_SQL, indexes, INSERT_BATCH_SIZE, (ps, i) -> {
+            RuleOutput output = rules.get(i).output();
+            ps.setLong(1, outputGroupIds.get(i));
+            ps.setLong(2, rules.get(i).rule().getId());
+            ps.setString(3, output.getAction());
+            ps.setString(4, output.getResult());
+            ps.setBigDecimal(5, output.getScore());
+            ps.setString(6, output.getFlag());
+            ps.setString(7, output.getDocumentType());
+            ps.setString(8, output.getDocumentId());
+            ps.setString(9, output.getDescription());
+            ps.setTimestamp(10, now);
+            ps.setTimestamp(11, now);
+        });
+    }
+
+    private List<Long> nextIds(String sequence, int count) {
+        return jdbcTemplate.queryForList(
+            "SELECT nextval('" + sequence + "') FROM generate_series(1, ?)", Long.class, count);
+    }
+}
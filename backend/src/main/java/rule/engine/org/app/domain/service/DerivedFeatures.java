@@ -0,0 +1,193 @@
+package rule.engine.org.app.domain.service;
+
+import rule.engine.org.app.domain.entity.execution.DerivedFeature;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Computes the @DerivedFeature fields of a fact
+ *
+ * The plan of a fact class (which collections to scan, which element fields to read, where to
+ * write) is built once by reflection; computing then walks each source collection once and
+ * updates every aggregate over it per element. Values already on the fact are overwritten, so
+ * callers cannot smuggle in their own totals.
+ */
+final class DerivedFeatures {
+
+    /**
+     * One derived field: reads an element field, accumulates, writes the result to the fact
+     */
+    private static final class Feature {
+        final Field target;
+        final Field elementField;
+        final DerivedFeature.Aggregate aggregate;
+
+        Feature(Field target, Field elementField, DerivedFeature.Aggregate aggregate) {
+            this.target = target;
+            this.elementField = elementField;
+            this.aggregate = aggregate;
+        }
+    }
+
+    /**
+     * Features grouped by the collection they aggregate over
+     */
+    private record Source(Field collection, List<Feature> features) {
+    }
+
+    private static final ClassValue<List<Source>> PLANS = new ClassValue<>() {
+        @Override
+        protected List<Source> computeValue(Class<?> type) {
+            return plan(type);
+        }
+    };
+
+    private DerivedFeatures() {
+    }
+
+    /**
+     * Fill the derived fields of a fact; facts without any are left untouched
+     */
+    static void compute(Object fact) {
+        if (fact == null) {
+            return;
+        }
+        List<Source> sources = PLANS.get(fact.getClass());
+        if (sources.isEmpty()) {
+            return;
+        }
+        try {
+            for (Source source : sources) {
+                compute(fact, source);
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot compute derived features of " + fact.getClass().getSimpleName(), e);
+        }
+    }
+
+    private static void compute(Object fact, Source source) throws IllegalAccessException {
+        List<Feature> features = source.features();
+        int n = features.size();
+        int[] counts = new int[n];
+        BigDecimal[] values = new BigDecimal[n];
+        @SuppressWarnings("unchecked")
+        Set<Object>[] distinct = new Set[n];
+
+        Object collection = source.collection().get(fact);
+        if (collection instanceof Collection<?> elements) {
+            for (Object element : elements) {
+                if (element == null) {
+                    continue;
+                }
+                for (int i = 0; i < n; i++) {
+                    Feature feature = features.get(i);
+                    Object value = feature.elementField != null ? feature.elementField.get(element) : element;
+                    if (value == null) {
+                        continue;
+                    }
+                    switch (feature.aggregate) {
+                        case COUNT -> counts[i]++;
+                        case COUNT_DISTINCT -> {
+                            if (distinct[i] == null) {
+                                distinct[i] = new HashSet<>();
+                            }
+                            distinct[i].add(value instanceof BigDecimal decimal ? decimal.stripTrailingZeros() : value);
+                        }
+                        case SUM -> values[i] = values[i] == null ? decimal(value) : values[i].add(decimal(value));
+                        case MIN -> {
+                            BigDecimal decimal = decimal(value);
+                            values[i] = values[i] == null || decimal.compareTo(values[i]) < 0 ? decimal : values[i];
+                        }
+                        case MAX -> {
+                            BigDecimal decimal = decimal(value);
+                            values[i] = values[i] == null || decimal.compareTo(values[i]) > 0 ? decimal : values[i];
+                        }
+                    }
+                }
+            }
+        }
+
+        for (int i = 0; i < n; i++) {
+            Feature feature = features.get(i);
+            Object result = switch (feature.aggregate) {
+                case COUNT -> counts[i];
+                case COUNT_DISTINCT -> distinct[i] != null ? distinct[i].size() : 0;
+                case SUM -> values[i] != null ? values[i] : BigDecimal.ZERO;
+                case MIN, MAX -> values[i];
+            };
+            feature.target.set(fact, result);
+        }
+    }
+
+    private static BigDecimal decimal(Object value) {
+        if (value instanceof BigDecimal decimal) {
+            return decimal;
+        }
+        if (value instanceof Integer || value instanceof Long) {
+            return BigDecimal.valueOf(((Number) value).longValue());
+        }
+        if (value instanceof Number number) {
+            return BigDecimal.valueOf(number.doubleValue());
+        }
+        throw new IllegalStateException("Derived feature over non-numeric value " + value.getClass().getSimpleName());
+    }
+
+    /**
+     * Read the @DerivedFeature fields of a class and check them against their sources
+     */
+    private static List<Source> plan(Class<?> type) {
+        Map<String, List<Feature>> bySource = new LinkedHashMap<>();
+        Map<String, Field> collections = new LinkedHashMap<>();
+        for (Field target : type.getDeclaredFields()) {
+            DerivedFeature annotation = target.getAnnotation(DerivedFeature.class);
+            if (annotation == null) {
+                continue;
+            }
+            Field collection = declaredField(type, annotation.source());
+            if (!Collection.class.isAssignableFrom(collection.getType())) {
+                throw new IllegalStateException("Derived feature " + target.getName() + ": " + annotation.source() + " is not a collection");
+            }
+            Field elementField = null;
+            if (!annotation.field().isEmpty()) {
+                Class<?> elementType = (Class<?>) ((ParameterizedType) collection.getGenericType())
+                    .getActualTypeArguments()[0];
+                elementField = declaredField(elementType, annotation.field());
+            } else if (annotation.aggregate() != DerivedFeature.Aggregate.COUNT) {
+                throw new IllegalStateException("Derived feature " + target.getName() + ": " + annotation.aggregate() + " needs a field");
+            }
+            Class<?> expected = switch (annotation.aggregate()) {
+                case COUNT, COUNT_DISTINCT -> Integer.class;
+                case SUM, MIN, MAX -> BigDecimal.class;
+            };
+            if (target.getType() != expected) {
+                throw new IllegalStateException("Derived feature " + target.getName() + " must be " + expected.getSimpleName());
+            }
+            target.setAccessible(true);
+            collections.put(annotation.source(), collection);
+            bySource.computeIfAbsent(annotation.source(), k -> new ArrayList<>())
+                .add(new Feature(target, elementField, annotation.aggregate()));
+        }
+        List<Source> sources = new ArrayList<>();
+        bySource.forEach((name, features) -> sources.add(new Source(collections.get(name), List.copyOf(features))));
+        return List.copyOf(sources);
+    }
+
+    private static Field declaredField(Class<?> type, String name) {
+        try {
+            Field field = type.getDeclaredField(name);
+            field.setAccessible(true);
+            return field;
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException("Derived feature source " + type.getSimpleName() + "." + name + " does not exist", e);
+        }
+    }
+}
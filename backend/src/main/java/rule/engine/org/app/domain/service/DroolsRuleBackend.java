@@ -0,0 +1,70 @@
+package rule.engine.org.app.domain.service;
+
+import org.kie.api.event.rule.AgendaEventListener;
+import org.kie.api.runtime.KieContainer;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.rule.AgendaFilter;
+import rule.engine.org.app.domain.entity.execution.TotalRuleResults;
+
+import java.util.function.Predicate;
+
+/**
+ * Rule backend firing a fact through a session of a compiled KieContainer
+ */
+final class DroolsRuleBackend implements RuleBackend {
+
+    private final KieContainer container;
+    private final FactLayout layout;
+    private final ReferenceLists referenceLists;
+    private final Predicate<TotalRuleResults> skipDeep;
+    private final AgendaFilter filter;
+
+    DroolsRuleBackend(KieContainer container, FactLayout layout, ReferenceLists referenceLists,
+                      Predicate<TotalRuleResults> skipDeep) {
+        this(container, layout, referenceLists, skipDeep, null);
+    }
+
+    /**
+     * @param filter Matches to fire, e.g. only rules the columnar bulk mode cannot answer; null fires all
+     */
+    DroolsRuleBackend(KieContainer container, FactLayout layout, ReferenceLists referenceLists,
+                      Predicate<TotalRuleResults> skipDeep, AgendaFilter filter) {
+        this.container = container;
+        this.layout = layout;
+        this.referenceLists = referenceLists;
+        this.skipDeep = skipDeep;
+        this.filter = filter;
+    }
+
+    @Override
+    public String name() {
+        return "drools";
+    }
+
+    @Override
+    public void fire(Object fact, TotalRuleResults results, String haltOn, AgendaEventListener listener, long[] stageNanos) {
+        // Stateful so stages can be focused one by one; a stateless session does the same per call internally
+        KieSession session = container.newKieSession();
+        try {
+            // Set TotalRuleResults as global so rules can add outputs
+            session.setGlobal("totalResults", results);
+            // Reference lists for IN / NOT_IN conditions; the instance is shared and reloaded in place
+            session.setGlobal("refLists", referenceLists);
+            // Record which rule produced each hit
+            session.addEventListener(new HitAttributionListener(results));
+            AgendaFilter stageFilter = filter;
+            if (haltOn != null) {
+                // Registered after attribution so halted hits are still stamped with their rule
+                HaltOnActionListener halt = new HaltOnActionListener(results, haltOn, filter);
+                session.addEventListener(halt);
+                stageFilter = halt;
+            }
+            if (listener != null) {
+                session.addEventListener(listener);
+            }
+            StagedEvaluation.fire(session, fact, results, layout, skipDeep, stageNanos, stageFilter);
+        } finally {
+            session.dispose();
+        }
+    }
+}
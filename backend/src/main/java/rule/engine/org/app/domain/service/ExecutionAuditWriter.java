@@ -0,0 +1,314 @@
+package rule.engine.org.app.domain.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import rule.engine.org.app.api.mapper.FactMapper;
+import rule.engine.org.app.domain.entity.execution.RuleOutputHit;
+import rule.engine.org.app.domain.entity.execution.TotalRuleResults;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists rule hits of live executions into rule_execution_results
+ *
+ * The request thread only turns hits into rows and offers them to a bounded queue; a single
+ * writer thread drains the queue and inserts the rows with JDBC batch updates, flushing when
+ * batch-size rows are waiting or flush-interval has passed since the first row of the batch.
+ * When the queue is full the overflow policy decides what gives:
+ * - DROP_NEWEST: discard the incoming rows (executions are never slowed down)
+ * - DROP_OLDEST: discard the oldest queued rows to make room
+ * - BLOCK: wait up to block-timeout for space, then discard
+ * Dropped and failed rows are counted (rule.engine.audit.*): the audit trail is best effort and
+ * must not add latency to scoring. A batch that fails is written again row by row, so a bad row
+ * only loses itself. Only hits of rules in the live rule set (the foreign key must resolve) and
+ * facts with an identifier are recorded; scores are rounded to the column's two decimals and
+ * clamped to its range.
+ */
+@Service
+public class ExecutionAuditWriter implements RuleExecutionObserver {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionAuditWriter.class);
+
+    private static final String INSERT_SQL = "INSERT INTO rule_execution_results "
+        + "(declaration_id, decision_rule_id, matched, rule_action, rule_result, rule_score, executed_at, "
+        + "created_date, created_by, last_modified_date, last_modified_by) "
+        + "VALUES (?, ?, TRUE, ?, ?, ?, ?, ?, 'system', ?, 'system')";
+
+    // rule_score is NUMERIC(5,2)
+    private static final BigDecimal MAX_SCORE = new BigDecimal("999.99");
+    private static final BigDecimal MIN_SCORE = MAX_SCORE.negate();
+
+    /**
+     * What to do with new rows when the queue is full
+     */
+    public enum OverflowPolicy {
+        DROP_NEWEST,
+        DROP_OLDEST,
+        BLOCK
+    }
+
+    /**
+     * One rule_execution_results row
+     */
+    private record AuditRow(String declarationId, long ruleId, String action, String result,
+                            BigDecimal score, LocalDateTime executedAt) {
+    }
+
+    private final RuleEngineManager ruleEngineManager;
+    private final FactMapper factMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutNanos;
+    private final BlockingQueue<AuditRow> queue;
+
+    private final Counter enqueuedRows;
+    private final Counter droppedRows;
+    private final Counter writtenRows;
+    private final Counter failedRows;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public ExecutionAuditWriter(
+            RuleEngineManager ruleEngineManager,
+            FactMapper factMapper,
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${rule-engine.audit.enabled:true}") boolean enabled,
+            @Value("${rule-engine.audit.queue-capacity:50000}") int queueCapacity,
+            @Value("${rule-engine.audit.batch-size:500}") int batchSize,
+            @Value("${rule-engine.audit.flush-interval:1s}") Duration flushInterval,
+            @Value("${rule-engine.audit.overflow-policy:DROP_NEWEST}") OverflowPolicy overflowPolicy,
+            @Value("${rule-engine.audit.block-timeout:50ms}") Duration blockTimeout) {
+        this.ruleEngineManager = ruleEngineManager;
+        this.factMapper = factMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutNanos = blockTimeout.toNanos();
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+
+        this.enqueuedRows = Counter.builder("rule.engine.audit.enqueued")
+            .description("Rule hits queued for persistence")
+            .register(meterRegistry);
+        this.droppedRows = Counter.builder("rule.engine.audit.dropped")
+            .description("Rule hits discarded because the audit queue was full")
+            .register(meterRegistry);
+        this.writtenRows = Counter.builder("rule.engine.audit.written")
+            .description("Rule hits written to rule_execution_results")
+            .register(meterRegistry);
+        this.failedRows = Counter.builder("rule.engine.audit.failed")
+            .description("Rule hits lost because their insert failed")
+            .register(meterRegistry);
+        Gauge.builder("rule.engine.audit.queue.size", queue, BlockingQueue::size)
+            .description("Rule hits waiting to be written")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writerThread = new Thread(this::runWriter, "rule-audit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        ruleEngineManager.addObserver(this);
+    }
+
+    @Override
+    public void onExecuted(String factType, long version, Object fact, TotalRuleResults results, long elapsedNanos) {
+        if (!running || results.getHits().isEmpty()) {
+            return;
+        }
+        String declarationId = factMapper.factId(fact);
+        if (declarationId == null) {
+            return;
+        }
+        LocalDateTime executedAt = results.getRunAt() != null ? results.getRunAt() : LocalDateTime.now();
+        for (RuleOutputHit hit : results.getHits()) {
+            if (hit.getRuleId() != null && ruleEngineManager.isLiveRule(factType, hit.getRuleId())) {
+                enqueue(new AuditRow(declarationId, hit.getRuleId(), hit.getAction(), hit.getResult(),
+                    columnScore(hit.getScore()), executedAt));
+            }
+        }
+    }
+
+    /**
+     * Score as stored in rule_score: two decimals, clamped to the column's range
+     */
+    private static BigDecimal columnScore(BigDecimal score) {
+        if (score == null) {
+            return null;
+        }
+        BigDecimal rounded = score.setScale(2, RoundingMode.HALF_UP);
+        return rounded.max(MIN_SCORE).min(MAX_SCORE);
+    }
+
+    private void enqueue(AuditRow row) {
+        boolean accepted = switch (overflowPolicy) {
+            case DROP_NEWEST -> queue.offer(row);
+            case DROP_OLDEST -> {
+                while (!queue.offer(row)) {
+                    if (queue.poll() != null) {
+                        droppedRows.increment();
+                    }
+                }
+                yield true;
+            }
+            case BLOCK -> {
+                try {
+                    yield queue.offer(row, blockTimeoutNanos, TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    yield false;
+                }
+            }
+        };
+        if (accepted) {
+            enqueuedRows.increment();
+        } else {
+            droppedRows.increment();
+        }
+    }
+
+    private void runWriter() {
+        List<AuditRow> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                fillBatch(batch);
+            } catch (InterruptedException e) {
+                running = false;
+            }
+            flush(batch);
+        }
+        // Shutting down: write whatever is still queued
+        while (true) {
+            queue.drainTo(batch, batchSize - batch.size());
+            if (batch.isEmpty()) {
+                break;
+            }
+            flush(batch);
+        }
+    }
+
+    /**
+     * Collect rows until the batch is full or the flush interval has passed since the first one
+     */
+    private void fillBatch(List<AuditRow> batch) throws InterruptedException {
+        AuditRow first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                return;
+            }
+            AuditRow next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<AuditRow> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, row) -> bind(ps, row, now));
+            writtenRows.increment(batch.size());
+        } catch (Exception e) {
+            log.warn("Batch insert of {} rule execution results failed, writing them one by one: {}",
+                batch.size(), e.getMessage());
+            flushRowByRow(batch, now);
+        } finally {
+            batch.clear();
+        }
+    }
+
+    /**
+     * Insert the rows of a failed batch one at a time; only the rows that fail again are lost
+     */
+    private void flushRowByRow(List<AuditRow> batch, Timestamp now) {
+        int failed = 0;
+        String firstError = null;
+        for (AuditRow row : batch) {
+            try {
+                jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, row, now));
+                writtenRows.increment();
+            } catch (Exception e) {
+                failed++;
+                if (firstError == null) {
+                    firstError = "rule " + row.ruleId() + ", fact " + row.declarationId() + ": " + e.getMessage();
+                }
+            }
+        }
+        if (failed > 0) {
+            failedRows.increment(failed);
+            log.warn("Could not write {} of {} rule execution results (first: {})", failed, batch.size(), firstError);
+        }
+    }
+
+    private static void bind(PreparedStatement ps, AuditRow row, Timestamp now) throws SQLException {
+        ps.setString(1, row.declarationId());
+        ps.setLong(2, row.ruleId());
+        ps.setString(3, row.action());
+        ps.setString(4, row.result());
+        ps.setBigDecimal(5, row.score());
+        ps.setTimestamp(6, Timestamp.valueOf(row.executedAt()));
+        ps.setTimestamp(7, now);
+        ps.setTimestamp(8, now);
+    }
+
+
+    /**
+     * Stop accepting rows and write out the queue before the datasource is closed
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (writerThread == null) {
+            return;
+        }
+        running = false;
+        try {
+            writerThread.join(TimeUnit.NANOSECONDS.toMillis(flushIntervalNanos) + 10_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            log.warn("Audit writer stopped with {} rule execution results unwritten", queue.size());
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package rule.engine.org.app.domain.service;
+
+import org.kie.api.KieBase;
+import org.kie.api.definition.KiePackage;
+import org.kie.api.definition.rule.Rule;
+import org.kie.api.runtime.KieSession;
+import rule.engine.org.app.domain.entity.execution.cargo.CargoReport;
+import rule.engine.org.app.domain.entity.execution.cargo.Consignment;
+import rule.engine.org.app.domain.entity.execution.cargo.ConsignmentItem;
+import rule.engine.org.app.domain.entity.execution.cargo.TransportEquipment;
+import rule.engine.org.app.domain.entity.execution.declaration.Declaration;
+import rule.engine.org.app.domain.entity.execution.declaration.GovernmentAgencyGoodsItem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * What the rules of one container need in working memory besides the fact itself
+ *
+ * - Child facts: goods items, consignments, consignment items and transport equipment are
+ *   inserted as facts of their own when some rule has a pattern on their type, so item-level
+ *   conditions are plain alpha constraints that Drools indexes and shares across rules instead
+ *   of list navigation inside the parent pattern. A session only ever holds one root fact, so
+ *   child patterns need no join back to their parent.
+ * - HS code prefixes: the HsPrefixIndex matches of the fact, set as the hsPrefixes global.
+ * - Derived features: the fact's @DerivedFeature aggregates, computed for every fact.
+ * - Rule templates: the parameter rows of template rules, set as the ruleTemplates global.
+ *
+ * RuleSetCompiler records these as rule metadata (@childFacts, @hsPrefixes, @ruleTemplate), so the layout can be
+ * rebuilt from any KieBase, including one loaded from a stored kjar. Child types nobody matches
+ * are not inserted, so rule sets without item-level patterns pay nothing for large declarations.
+ */
+final class FactLayout {
+
+    /**
+     * Rule metadata key holding the comma-separated child fact types a rule matches in working memory
+     */
+    static final String CHILD_FACTS_KEY = "childFacts";
+
+    static final FactLayout EMPTY = new FactLayout(Set.of(), HsPrefixIndex.EMPTY, RuleTemplateTable.EMPTY);
+
+    private static final Pattern CHILD_PATTERN = Pattern.compile(
+        "(?<![\\w.$])(GovernmentAgencyGoodsItem|ConsignmentItem|Consignment|TransportEquipment)\\s*\\(");
+    private static final Pattern FROM_KEYWORD = Pattern.compile("\\s*from\\b");
+
+    private final boolean goodsItems;
+    private final boolean consignments;
+    private final boolean consignmentItems;
+    private final boolean transportEquipment;
+    private final HsPrefixIndex hsPrefixes;
+    private final RuleTemplateTable templates;
+
+    FactLayout(Set<String> childFacts, HsPrefixIndex hsPrefixes, RuleTemplateTable templates) {
+        this.goodsItems = childFacts.contains(GovernmentAgencyGoodsItem.class.getSimpleName());
+        this.consignments = childFacts.contains(Consignment.class.getSimpleName());
+        this.consignmentItems = childFacts.contains(ConsignmentItem.class.getSimpleName());
+        this.transportEquipment = childFacts.contains(TransportEquipment.class.getSimpleName());
+        this.hsPrefixes = hsPrefixes;
+        this.templates = templates;
+    }
+
+    /**
+     * Child fact types a rendered rule matches in working memory, sorted
+     * Patterns sourced with "from" read the parent's collections and do not count.
+     */
+    static Set<String> childFactsIn(String ruleDefinition) {
+        Set<String> types = new TreeSet<>();
+        Matcher matcher = CHILD_PATTERN.matcher(ruleDefinition);
+        while (matcher.find()) {
+            int end = closingParenthesis(ruleDefinition, matcher.end() - 1);
+            if (end < 0) {
+                continue;
+            }
+            Matcher from = FROM_KEYWORD.matcher(ruleDefinition).region(end + 1, ruleDefinition.length());
+            if (!from.lookingAt()) {
+                types.add(matcher.group(1));
+            }
+        }
+        return types;
+    }
+
+    /**
+     * Build the layout from the @childFacts, @hsPrefixes and @ruleTemplate metadata of every rule in a KieBase
+     */
+    static FactLayout fromKieBase(KieBase kieBase) {
+        Set<String> childFacts = new HashSet<>();
+        Set<String> prefixes = new HashSet<>();
+        List<String> templates = new ArrayList<>();
+        for (KiePackage kiePackage : kieBase.getKiePackages()) {
+            for (Rule rule : kiePackage.getRules()) {
+                childFacts.addAll(metadataValues(rule, CHILD_FACTS_KEY));
+                prefixes.addAll(metadataValues(rule, HsPrefixIndex.METADATA_KEY));
+                templates.addAll(metadataValues(rule, RuleTemplateCompiler.METADATA_KEY));
+            }
+        }
+        if (childFacts.isEmpty() && prefixes.isEmpty() && templates.isEmpty()) {
+            return EMPTY;
+        }
+        return new FactLayout(childFacts,
+            prefixes.isEmpty() ? HsPrefixIndex.EMPTY : new HsPrefixIndex(prefixes),
+            templates.isEmpty() ? RuleTemplateTable.EMPTY : RuleTemplateTable.fromMetadata(templates));
+    }
+
+    /**
+     * Compute the fact's derived features and set its HS prefix matches and the template rows as
+     * globals, then insert the fact and the child facts the rules match on
+     * All of it comes first because constraints are evaluated on insert.
+     */
+    void insert(KieSession session, Object fact) {
+        DerivedFeatures.compute(fact);
+        session.setGlobal("hsPrefixes", hsPrefixes.match(fact));
+        session.setGlobal("ruleTemplates", templates);
+        session.insert(fact);
+        if (fact instanceof Declaration declaration) {
+            if (goodsItems) {
+                insertAll(session, declaration.getGovernmentAgencyGoodsItems());
+            }
+        } else if (fact instanceof CargoReport cargoReport) {
+            if (transportEquipment) {
+                insertAll(session, cargoReport.getTransportEquipment());
+            }
+            if ((consignments || consignmentItems) && cargoReport.getConsignments() != null) {
+                for (Consignment consignment : cargoReport.getConsignments()) {
+                    if (consignment == null) {
+                        continue;
+                    }
+                    if (consignments) {
+                        session.insert(consignment);
+                    }
+                    if (consignmentItems) {
+                        insertAll(session, consignment.getConsignmentItems());
+                    }
+                }
+            }
+        }
+    }
+
+    private static void insertAll(KieSession session, List<?> children) {
+        if (children == null) {
+            return;
+        }
+        for (Object child : children) {
+            if (child != null) {
+                session.insert(child);
+            }
+        }
+    }
+
+    /**
+     * Comma-separated values of a metadata entry
+     */
+    private static List<String> metadataValues(Rule rule, String key) {
+        Object value = rule.getMetaData().get(key);
+        if (value == null) {
+            return List.of();
+        }
+        String text = value.toString();
+        // Depending on the build mode the value may keep its DRL quotes
+        if (text.length() >= 2 && text.startsWith("\"") && text.endsWith("\"")) {
+            text = text.substring(1, text.length() - 1);
+        }
+        return Arrays.stream(text.split(","))
+            .map(String::trim)
+            .filter(s -> !s.isEmpty())
+            .toList();
+    }
+
+    /**
+     * Index of the parenthesis closing the one at open, skipping string literals; -1 if unbalanced
+     */
+    private static int closingParenthesis(String text, int open) {
+        int depth = 0;
+        boolean inString = false;
+        for (int i = open; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (inString) {
+                if (c == '\\') {
+                    i++;
+                } else if (c == '"') {
+                    inString = false;
+                }
+            } else if (c == '"') {
+                inString = true;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,61 @@
+package rule.engine.org.app.domain.service;
+
+import org.kie.api.event.rule.AfterMatchFiredEvent;
+import org.kie.api.event.rule.DefaultAgendaEventListener;
+import org.kie.api.runtime.KieRuntime;
+import org.kie.api.runtime.rule.AgendaFilter;
+import org.kie.api.runtime.rule.Match;
+import rule.engine.org.app.domain.entity.execution.RuleOutputHit;
+import rule.engine.org.app.domain.entity.execution.TotalRuleResults;
+
+import java.util.List;
+
+/**
+ * Halts firing once a hit with the terminal action has been produced
+ * Matches fire in salience order, so giving high-severity rules a higher priority makes them
+ * run (and halt) first. Matches of the same salience as the terminal hit still fire: Drools
+ * orders them arbitrarily, and which of them fired must not depend on it (PredicateRuleSet
+ * halts the same way). Lower matches are never fired and the results are marked truncated.
+ * Registered both as listener and as agenda filter; one per execution, like HitAttributionListener.
+ */
+class HaltOnActionListener extends DefaultAgendaEventListener implements AgendaFilter {
+
+    private final TotalRuleResults results;
+    private final String terminalAction;
+    private final AgendaFilter filter;
+    private int checkedHits;
+    private KieRuntime haltedRuntime;
+    private int haltSalience;
+
+    /**
+     * @param filter Matches to fire among those not halted; null fires all
+     */
+    HaltOnActionListener(TotalRuleResults results, String terminalAction, AgendaFilter filter) {
+        this.results = results;
+        this.terminalAction = terminalAction;
+        this.filter = filter;
+        results.setTruncated(false);
+    }
+
+    @Override
+    public void afterMatchFired(AfterMatchFiredEvent event) {
+        List<RuleOutputHit> hits = results.getHits();
+        for (int i = checkedHits; i < hits.size() && haltedRuntime == null; i++) {
+            if (terminalAction.equalsIgnoreCase(hits.get(i).getAction())) {
+                results.setTruncated(true);
+                haltedRuntime = event.getKieRuntime();
+                haltSalience = event.getMatch().getSalience();
+            }
+        }
+        checkedHits = hits.size();
+    }
+
+    @Override
+    public boolean accept(Match match) {
+        if (haltedRuntime != null && match.getSalience() < haltSalience) {
+            haltedRuntime.halt();
+            return false;
+        }
+        return filter == null || filter.accept(match);
+    }
+}
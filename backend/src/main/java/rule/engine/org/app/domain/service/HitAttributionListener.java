@@ -0,0 +1,68 @@
+package rule.engine.org.app.domain.service;
+
+import org.kie.api.event.rule.AfterMatchFiredEvent;
+import org.kie.api.event.rule.BeforeMatchFiredEvent;
+import org.kie.api.event.rule.DefaultAgendaEventListener;
+import rule.engine.org.app.domain.entity.execution.RuleOutputHit;
+import rule.engine.org.app.domain.entity.execution.TotalRuleResults;
+
+import java.util.List;
+
+/**
+ * Stamps each hit with the rule that produced it
+ * Rule consequences only append RuleOutputHit objects to the totalResults global, so hits added
+ * while a match fires belong to that match's rule. Generated rules are named "<ruleName>_<ruleId>",
+ * which gives the DecisionRule ID; hits from rules named otherwise (or with the placeholder ID 0)
+ * keep a null ruleId. Hits that already carry a rule ID (set by template rules, which fire on behalf
+ * of the decision rule in the matched row) are left as they are.
+ * One listener per execution: the execution's session fires on a single thread.
+ */
+class HitAttributionListener extends DefaultAgendaEventListener {
+
+    private final TotalRuleResults results;
+    private int hitsBefore;
+
+    HitAttributionListener(TotalRuleResults results) {
+        this.results = results;
+    }
+
+    @Override
+    public void beforeMatchFired(BeforeMatchFiredEvent event) {
+        hitsBefore = results.getHits().size();
+    }
+
+    @Override
+    public void afterMatchFired(AfterMatchFiredEvent event) {
+        List<RuleOutputHit> hits = results.getHits();
+        if (hits.size() == hitsBefore) {
+            return;
+        }
+        String ruleName = event.getMatch().getRule().getName();
+        Long ruleId = ruleIdFromName(ruleName);
+        for (int i = hitsBefore; i < hits.size(); i++) {
+            RuleOutputHit hit = hits.get(i);
+            if (hit.getRuleId() != null) {
+                continue;
+            }
+            hit.setRuleName(ruleName);
+            hit.setRuleId(ruleId);
+        }
+    }
+
+    /**
+     * DecisionRule ID encoded in a generated rule name
+     * @return ID, or null if the name has no positive numeric "_<id>" suffix
+     */
+    static Long ruleIdFromName(String ruleName) {
+        int separator = ruleName.lastIndexOf('_');
+        if (separator < 0 || separator == ruleName.length() - 1) {
+            return null;
+        }
+        try {
+            long id = Long.parseLong(ruleName.substring(separator + 1));
+            return id > 0 ? id : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
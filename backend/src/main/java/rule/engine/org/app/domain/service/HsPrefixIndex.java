@@ -0,0 +1,150 @@
+package rule.engine.org.app.domain.service;
+
+import rule.engine.org.app.domain.entity.execution.declaration.Declaration;
+import rule.engine.org.app.domain.entity.execution.declaration.GovernmentAgencyGoodsItem;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Prefix trie over the HS-code prefixes tested by the rules of one container
+ *
+ * RuleSetCompiler records the prefixes of each rule's hsPrefixes.matched(...) constraints as
+ * @hsPrefixes rule metadata, from which FactLayout rebuilds the index for any KieBase. Matching walks each goods item's HS code down the trie once and
+ * collects every prefix passed on the way, for the fact and for the item: O(items x code length)
+ * per fact, independent of how many rules or prefixes there are.
+ */
+final class HsPrefixIndex {
+
+    /**
+     * Rule metadata key holding the comma-separated prefixes a rule tests
+     */
+    static final String METADATA_KEY = "hsPrefixes";
+
+    static final HsPrefixIndex EMPTY = new HsPrefixIndex(Set.of());
+
+    private static final Pattern CONDITION = Pattern.compile("hsPrefixes\\.matched\\((?:this,\\s*)?\"([A-Za-z0-9.]+)\"\\)");
+
+    /**
+     * Trie node; HS codes are digits, anything else goes to the sparse map
+     */
+    private static final class Node {
+        Node[] digits;
+        Map<Character, Node> others;
+        // Prefix ending at this node, or null
+        String prefix;
+
+        Node child(char c) {
+            if (c >= '0' && c <= '9') {
+                return digits != null ? digits[c - '0'] : null;
+            }
+            return others != null ? others.get(c) : null;
+        }
+
+        Node addChild(char c) {
+            Node existing = child(c);
+            if (existing != null) {
+                return existing;
+            }
+            Node created = new Node();
+            if (c >= '0' && c <= '9') {
+                if (digits == null) {
+                    digits = new Node[10];
+                }
+                digits[c - '0'] = created;
+            } else {
+                if (others == null) {
+                    others = new HashMap<>();
+                }
+                others.put(c, created);
+            }
+            return created;
+        }
+    }
+
+    private final Node root = new Node();
+    private final int size;
+
+    HsPrefixIndex(Collection<String> prefixes) {
+        int count = 0;
+        for (String prefix : prefixes) {
+            if (prefix == null || prefix.isEmpty()) {
+                continue;
+            }
+            Node node = root;
+            for (int i = 0; i < prefix.length(); i++) {
+                node = node.addChild(prefix.charAt(i));
+            }
+            if (node.prefix == null) {
+                node.prefix = prefix;
+                count++;
+            }
+        }
+        this.size = count;
+    }
+
+    /**
+     * Number of distinct prefixes indexed
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Prefixes tested by the hsPrefixes.matched(...) constraints of a rendered rule, sorted
+     */
+    static Set<String> prefixesIn(String ruleDefinition) {
+        Set<String> prefixes = new TreeSet<>();
+        Matcher matcher = CONDITION.matcher(ruleDefinition);
+        while (matcher.find()) {
+            prefixes.add(matcher.group(1));
+        }
+        return prefixes;
+    }
+
+    /**
+     * Prefixes matched by the goods items of a declaration
+     * HS code prefix conditions exist for declarations only (HsPrefixMatches.GOODS_ITEM_HS_FIELD).
+     */
+    HsPrefixMatches match(Object fact) {
+        if (size == 0) {
+            return HsPrefixMatches.NONE;
+        }
+        Set<String> matched = new HashSet<>();
+        Map<Object, Set<String>> itemPrefixes = new IdentityHashMap<>();
+        if (fact instanceof Declaration declaration && declaration.getGovernmentAgencyGoodsItems() != null) {
+            for (GovernmentAgencyGoodsItem item : declaration.getGovernmentAgencyGoodsItems()) {
+                collect(item, matched, itemPrefixes);
+            }
+        }
+        return matched.isEmpty() ? HsPrefixMatches.NONE : new HsPrefixMatches(matched, itemPrefixes);
+    }
+
+    /**
+     * Walk one item's HS code down the trie, adding every prefix that ends on the way to the fact's and the item's matches
+     */
+    private void collect(GovernmentAgencyGoodsItem item, Set<String> matched, Map<Object, Set<String>> itemPrefixes) {
+        String hsId = item != null ? item.getHsId() : null;
+        if (hsId == null) {
+            return;
+        }
+        Node node = root;
+        for (int i = 0; i < hsId.length(); i++) {
+            node = node.child(hsId.charAt(i));
+            if (node == null) {
+                break;
+            }
+            if (node.prefix != null) {
+                matched.add(node.prefix);
+                itemPrefixes.computeIfAbsent(item, key -> new HashSet<>(4)).add(node.prefix);
+            }
+        }
+    }
+}
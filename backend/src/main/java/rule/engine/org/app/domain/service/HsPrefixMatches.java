@@ -0,0 +1,72 @@
+package rule.engine.org.app.domain.service;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * HS-code prefixes matched by the goods items of one fact, exposed to DRL as the hsPrefixes global
+ *
+ * Computed once per evaluation by HsPrefixIndex (a single pass over the items), so an
+ * "HS code starts with" condition is a hash set lookup instead of a scan of every item per rule.
+ * The matches are kept per item as well: a rule whose other goods item conditions must hold on the
+ * same item tests the prefix inside its GovernmentAgencyGoodsItem pattern (see itemCondition).
+ */
+public final class HsPrefixMatches {
+
+    /**
+     * UI field path whose startsWith conditions are served by the prefix index
+     */
+    public static final String GOODS_ITEM_HS_FIELD = "declaration.governmentAgencyGoodsItems.hsId";
+
+    static final HsPrefixMatches NONE = new HsPrefixMatches(Set.of(), Map.of());
+
+    private final Set<String> prefixes;
+    // Goods item (by identity) -> prefixes its HS code matches; items matching none are absent
+    private final Map<Object, Set<String>> itemPrefixes;
+
+    HsPrefixMatches(Set<String> prefixes, Map<Object, Set<String>> itemPrefixes) {
+        this.prefixes = prefixes;
+        this.itemPrefixes = itemPrefixes;
+    }
+
+    /**
+     * Whether some goods item's HS code starts with the prefix
+     * Only prefixes used by a rule of the container are indexed.
+     */
+    public boolean matched(String prefix) {
+        return prefixes.contains(prefix);
+    }
+
+    /**
+     * Whether this goods item's HS code starts with the prefix
+     */
+    public boolean matched(Object item, String prefix) {
+        Set<String> matched = itemPrefixes.get(item);
+        return matched != null && matched.contains(prefix);
+    }
+
+    public Set<String> getPrefixes() {
+        return prefixes;
+    }
+
+    /**
+     * DRL constraint testing a prefix against all goods items of the fact, for a rule with no other item condition
+     * Prefixes are embedded in a string literal, so only letters, digits and '.' are accepted.
+     * @return Constraint, or null if the prefix cannot be indexed
+     */
+    public static String condition(String prefix) {
+        return indexable(prefix) ? "hsPrefixes.matched(\"" + prefix + "\")" : null;
+    }
+
+    /**
+     * DRL constraint testing a prefix against the goods item of the enclosing GovernmentAgencyGoodsItem pattern
+     * @return Constraint, or null if the prefix cannot be indexed
+     */
+    public static String itemCondition(String prefix) {
+        return indexable(prefix) ? "hsPrefixes.matched(this, \"" + prefix + "\")" : null;
+    }
+
+    private static boolean indexable(String prefix) {
+        return prefix != null && prefix.matches("[A-Za-z0-9.]{1,20}");
+    }
+}
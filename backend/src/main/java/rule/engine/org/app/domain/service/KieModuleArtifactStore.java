@@ -0,0 +1,149 @@
+package rule.engine.org.app.domain.service;
+
+import org.drools.compiler.kie.builder.impl.InternalKieModule;
+import org.kie.api.KieServices;
+import org.kie.api.builder.KieModule;
+import org.kie.api.runtime.KieContainer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import rule.engine.org.app.domain.entity.ui.FactType;
+import rule.engine.org.app.domain.entity.ui.KieModuleArtifact;
+import rule.engine.org.app.domain.repository.KieModuleArtifactRepository;
+import rule.engine.org.app.util.DrlConstants;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Stores compiled KieModules (kjars) in the database so startup can skip DRL compilation
+ *
+ * Artifacts are keyed by fact type, rules hash, build mode and a build fingerprint (hash of the
+ * DRL header, the fact classes the rules are compiled against, the Drools version and the
+ * compiler's render settings - renderer version, stage agenda groups, template configuration),
+ * so an artifact built by an older application version or under another configuration, whose DRL
+ * could differ for the same rules, is never reused.
+ * Only EXECUTABLE_MODEL builds are stored: their kjar carries the compiled rule model, so
+ * loading it skips compilation. A classic DRL kjar holds DRL sources that are compiled again
+ * when the KieBase is created, so storing it would save nothing.
+ */
+@Service
+public class KieModuleArtifactStore {
+
+    private static final Logger log = LoggerFactory.getLogger(KieModuleArtifactStore.class);
+
+    private final KieModuleArtifactRepository artifactRepository;
+    private final boolean enabled;
+    private final int maxPerFactType;
+    private final String buildFingerprint;
+
+    public KieModuleArtifactStore(
+            KieModuleArtifactRepository artifactRepository,
+            RuleSetCompiler ruleSetCompiler,
+            @Value("${rule-engine.artifact-store.enabled:true}") boolean enabled,
+            @Value("${rule-engine.artifact-store.max-per-fact-type:10}") int maxPerFactType) {
+        this.artifactRepository = artifactRepository;
+        this.enabled = enabled;
+        this.maxPerFactType = maxPerFactType;
+        this.buildFingerprint = calculateBuildFingerprint(ruleSetCompiler.renderSettings());
+    }
+
+    /**
+     * Load the stored artifact for these rules, if one exists, into a new container
+     * @return Container built from the stored kjar, or empty if none matches or it cannot be loaded
+     */
+    Optional<RuleSetCompiler.KieContainerBuildResult> load(String factType, String rulesHash, RuleSetCompiler.BuildMode mode) {
+        if (!isStored(mode)) {
+            return Optional.empty();
+        }
+        try {
+            Optional<KieModuleArtifact> artifact = artifactRepository.findByFactTypeAndRulesHashAndBuildModeAndBuildFingerprint(
+                FactType.fromValue(factType), rulesHash, mode.name(), buildFingerprint);
+            if (artifact.isEmpty()) {
+                return Optional.empty();
+            }
+
+            KieServices kieServices = KieServices.Factory.get();
+            KieModule kieModule = kieServices.getRepository()
+                .addKieModule(kieServices.getResources().newByteArrayResource(artifact.get().getArtifact()));
+            KieContainer container = kieServices.newKieContainer(kieModule.getReleaseId());
+            return Optional.of(new RuleSetCompiler.KieContainerBuildResult(container, kieModule, null));
+        } catch (Exception e) {
+            log.warn("Could not load stored KieModule for {} (hash {}), compiling instead: {}", factType, rulesHash, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Store the compiled KieModule for these rules unless an artifact already exists
+     * Failures are logged and ignored: the artifact store is an optimization only.
+     */
+    void save(String factType, String rulesHash, RuleSetCompiler.BuildMode mode, KieModule kieModule) {
+        if (!isStored(mode) || !(kieModule instanceof InternalKieModule internalKieModule)) {
+            return;
+        }
+        try {
+            FactType factTypeEnum = FactType.fromValue(factType);
+            if (artifactRepository.findByFactTypeAndRulesHashAndBuildModeAndBuildFingerprint(
+                    factTypeEnum, rulesHash, mode.name(), buildFingerprint).isPresent()) {
+                return;
+            }
+
+            byte[] bytes = internalKieModule.getBytes();
+            KieModuleArtifact artifact = new KieModuleArtifact();
+            artifact.setFactType(factTypeEnum);
+            artifact.setRulesHash(rulesHash);
+            artifact.setBuildMode(mode.name());
+            artifact.setBuildFingerprint(buildFingerprint);
+            artifact.setReleaseId(kieModule.getReleaseId().toString());
+            artifact.setArtifact(bytes);
+            artifact.setSizeBytes(bytes.length);
+            artifactRepository.save(artifact);
+
+            // Keep only the newest artifacts per fact type
+            List<Long> ids = artifactRepository.findIdsByFactTypeNewestFirst(factTypeEnum);
+            if (ids.size() > maxPerFactType) {
+                artifactRepository.deleteAllById(ids.subList(maxPerFactType, ids.size()));
+            }
+        } catch (Exception e) {
+            log.warn("Could not store KieModule for {} (hash {}): {}", factType, rulesHash, e.getMessage());
+        }
+    }
+
+    private boolean isStored(RuleSetCompiler.BuildMode mode) {
+        return enabled && mode == RuleSetCompiler.BuildMode.EXECUTABLE_MODEL;
+    }
+
+    private String calculateBuildFingerprint(String renderSettings) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("MD5");
+            md.update(DrlConstants.buildDrlHeader().getBytes(StandardCharsets.UTF_8));
+            md.update(renderSettings.getBytes(StandardCharsets.UTF_8));
+            String droolsVersion = KieServices.class.getPackage().getImplementationVersion();
+            md.update(String.valueOf(droolsVersion).getBytes(StandardCharsets.UTF_8));
+
+            // Compiled rules bind to fact class members, so include the bytecode of every imported class
+            ClassLoader classLoader = getClass().getClassLoader();
+            for (String importClass : DrlConstants.DRL_IMPORTS) {
+                try (InputStream in = classLoader.getResourceAsStream(importClass.replace('.', '/') + ".class")) {
+                    if (in != null) {
+                        md.update(in.readAllBytes());
+                    }
+                }
+            }
+
+            StringBuilder hash = new StringBuilder();
+            for (byte b : md.digest()) {
+                hash.append(String.format("%02x", b));
+            }
+            return hash.toString();
+        } catch (Exception e) {
+            // Fallback: unique per process, so stored artifacts are never trusted
+            return "unknown-" + System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,453 @@
+package rule.engine.org.app.domain.service;
+
+import org.springframework.stereotype.Component;
+import rule.engine.org.app.domain.entity.execution.TotalRuleResults;
+import rule.engine.org.app.domain.entity.ui.DecisionRule;
+import rule.engine.org.app.domain.entity.ui.EvaluationStage;
+import rule.engine.org.app.domain.entity.ui.RuleCondition;
+import rule.engine.org.app.domain.entity.ui.RuleConditionGroup;
+import rule.engine.org.app.domain.entity.ui.RuleGroupType;
+import rule.engine.org.app.domain.entity.ui.RuleOperatorType;
+import rule.engine.org.app.domain.entity.ui.RuleOutput;
+import rule.engine.org.app.domain.repository.RuleConditionRepository;
+import rule.engine.org.app.domain.repository.RuleOutputRepository;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Compiles the structured conditions of a rule set into a PredicateRuleSet
+ *
+ * Supported are rules whose conditions all test fields of the fact itself (String, Integer,
+ * Long, BigDecimal, Boolean) with ==, !=, >, >=, <, <=, contains, startsWith, endsWith or a
+ * reference list (IN / NOT_IN), joined by AND / OR the way the DRL generator joins them (&&
+ * binds tighter than ||). Field reads go through getters bound with LambdaMetafactory, so a
+ * condition costs an interface call rather than a reflective one. Semantics follow Drools:
+ * a null field fails ==, ordering and string tests and passes !=; numbers compare by value.
+ * A rule set with anything else (item-level fields, HS prefixes, NOT groups, hand-written DRL,
+ * several outputs) is rejected as a whole and stays on Drools. For bulk scoring the same rules
+ * are compiled per rule instead (compileColumnar): what fits the columns is vectorized and the
+ * rest is left to Drools.
+ */
+@Component
+public class PredicateRuleCompiler {
+
+    static final Set<Class<?>> FIELD_TYPES = Set.of(
+        String.class, Integer.class, Long.class, BigDecimal.class, Boolean.class);
+
+    // Getter functions by "Class#field", shared by every compile
+    private static final Map<String, Function<Object, Object>> ACCESSORS = new ConcurrentHashMap<>();
+
+    private final RuleConditionRepository conditionRepository;
+    private final RuleOutputRepository outputRepository;
+    private final ReferenceLists referenceLists;
+
+    public PredicateRuleCompiler(
+            RuleConditionRepository conditionRepository,
+            RuleOutputRepository outputRepository,
+            ReferenceLists referenceLists) {
+        this.conditionRepository = conditionRepository;
+        this.outputRepository = outputRepository;
+        this.referenceLists = referenceLists;
+    }
+
+    /**
+     * Structured rows of a rule set, by rule ID
+     */
+    private record RuleRows(Map<Long, List<RuleCondition>> conditions, Map<Long, List<RuleOutput>> outputs) {
+    }
+
+    /**
+     * Compile every rule of the rule set
+     * @param skipDeep Tested before DEEP with the results so far; null to always run DEEP
+     * @throws IllegalArgumentException naming the first rule that cannot run as predicates
+     */
+    PredicateRuleSet compile(List<DecisionRule> rules, String factType, Predicate<TotalRuleResults> skipDeep) {
+        Class<?> factClass = factClass(factType);
+        RuleRows rows = load(rules);
+        String prefix = fieldPrefix(factType);
+        List<PredicateRuleSet.CompiledRule> compiled = new ArrayList<>(rules.size());
+        for (DecisionRule rule : rules) {
+            RuleOutput output = singleOutput(rule, rows);
+            Predicate<Object> condition;
+            try {
+                condition = condition(conditions(rule, rows), prefix, factClass);
+            } catch (IllegalArgumentException e) {
+                throw unsupported(rule, e.getMessage());
+            }
+            compiled.add(compiledRule(rule, output, condition));
+        }
+        return new PredicateRuleSet(factClass, compiled, skipDeep);
+    }
+
+    /**
+     * Compile the rules that can be evaluated on primitive columns for bulk scoring
+     * The others stay with Drools (see ColumnarRuleSet.fallbackFilter()). Every rule the
+     * template compiler folds is vectorizable, so template rows are never split.
+     * @return Null if no rule is vectorizable
+     */
+    ColumnarRuleSet compileColumnar(List<DecisionRule> rules, String factType, Predicate<TotalRuleResults> skipDeep) {
+        Class<?> factClass = factClass(factType);
+        RuleRows rows = load(rules);
+        String prefix = fieldPrefix(factType);
+        List<ColumnarRuleSet.VectorRule> vectorized = new ArrayList<>();
+        for (DecisionRule rule : rules) {
+            try {
+                RuleOutput output = singleOutput(rule, rows);
+                List<RuleCondition> conditions = conditions(rule, rows);
+                List<List<ColumnarRuleSet.FieldTest>> alternatives = fieldTests(conditions, prefix, factClass);
+                Predicate<Object> condition = condition(conditions, prefix, factClass);
+                vectorized.add(new ColumnarRuleSet.VectorRule(compiledRule(rule, output, condition), alternatives));
+            } catch (IllegalArgumentException e) {
+                // Left to Drools
+            }
+        }
+        if (vectorized.isEmpty()) {
+            return null;
+        }
+        return new ColumnarRuleSet(factClass, vectorized, rules.size() - vectorized.size(), referenceLists, skipDeep);
+    }
+
+    private static Class<?> factClass(String factType) {
+        Class<?> factClass = RuleTemplateTable.factClass(factType);
+        if (factClass == null) {
+            throw new IllegalArgumentException("Unknown fact type " + factType);
+        }
+        return factClass;
+    }
+
+    private static String fieldPrefix(String factType) {
+        return Character.toLowerCase(factType.charAt(0)) + factType.substring(1) + ".";
+    }
+
+    private RuleRows load(List<DecisionRule> rules) {
+        List<Long> ruleIds = rules.stream().map(DecisionRule::getId).collect(Collectors.toList());
+        if (ruleIds.isEmpty()) {
+            return new RuleRows(Map.of(), Map.of());
+        }
+        return new RuleRows(
+            conditionRepository.findByDecisionRuleIds(ruleIds).stream()
+                .collect(Collectors.groupingBy(c -> c.getGroup().getDecisionRule().getId())),
+            outputRepository.findByDecisionRuleIdInOrderByOrderIndexAsc(ruleIds).stream()
+                .collect(Collectors.groupingBy(o -> o.getDecisionRule().getId())));
+    }
+
+    private static List<RuleCondition> conditions(DecisionRule rule, RuleRows rows) {
+        List<RuleCondition> conditions = rows.conditions().get(rule.getId());
+        if (conditions == null || conditions.isEmpty()) {
+            throw unsupported(rule, "no structured conditions");
+        }
+        return conditions;
+    }
+
+    private static RuleOutput singleOutput(DecisionRule rule, RuleRows rows) {
+        List<RuleOutput> outputs = rows.outputs().get(rule.getId());
+        if (outputs == null || outputs.size() != 1) {
+            throw unsupported(rule, "not exactly one output");
+        }
+        return outputs.get(0);
+    }
+
+    /**
+     * Rule with its output; defaults as in generated rules (FLAG, "Rule '<name>' matched", score 0)
+     */
+    private static PredicateRuleSet.CompiledRule compiledRule(DecisionRule rule, RuleOutput output, Predicate<Object> condition) {
+        String ruleName = rule.getRuleName() != null ? rule.getRuleName() : "Unknown";
+        return new PredicateRuleSet.CompiledRule(
+            rule.getId(),
+            ruleName + "_" + rule.getId(),
+            rule.getEvaluationStage() != null ? rule.getEvaluationStage() : EvaluationStage.STANDARD,
+            rule.getPriority() != null ? rule.getPriority() : 0,
+            condition,
+            output.getAction() != null ? output.getAction() : "FLAG",
+            output.getResult() != null ? output.getResult() : "Rule '" + ruleName + "' matched",
+            output.getScore() != null ? output.getScore() : BigDecimal.ZERO,
+            output.getFlag(),
+            output.getDocumentType(),
+            output.getDocumentId(),
+            output.getDescription());
+    }
+
+    private static IllegalArgumentException unsupported(DecisionRule rule, String reason) {
+        return new IllegalArgumentException("Rule " + rule.getRuleName() + "_" + rule.getId() + ": " + reason);
+    }
+
+    /**
+     * Combine the conditions of a rule (in group / condition order) into one predicate
+     * The operator after a condition is the type of its group, as saved by the rule editor.
+     */
+    private Predicate<Object> condition(List<RuleCondition> conditions, String prefix, Class<?> factClass) {
+        List<Predicate<Object>> alternatives = new ArrayList<>();
+        List<Predicate<Object>> conjunction = new ArrayList<>();
+        for (int i = 0; i < conditions.size(); i++) {
+            RuleCondition condition = conditions.get(i);
+            RuleConditionGroup group = condition.getGroup();
+            if (group.getParent() != null || group.getType() == RuleGroupType.NOT) {
+                throw new IllegalArgumentException("nested or NOT condition group");
+            }
+            conjunction.add(test(condition, prefix, factClass));
+            if (i == conditions.size() - 1 || group.getType() == RuleGroupType.OR) {
+                alternatives.add(allOf(conjunction));
+                conjunction = new ArrayList<>();
+            }
+        }
+        return anyOf(alternatives);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Predicate<Object> allOf(List<Predicate<Object>> predicates) {
+        if (predicates.size() == 1) {
+            return predicates.get(0);
+        }
+        Predicate<Object>[] all = predicates.toArray(new Predicate[0]);
+        return fact -> {
+            for (Predicate<Object> predicate : all) {
+                if (!predicate.test(fact)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Predicate<Object> anyOf(List<Predicate<Object>> predicates) {
+        if (predicates.size() == 1) {
+            return predicates.get(0);
+        }
+        Predicate<Object>[] any = predicates.toArray(new Predicate[0]);
+        return fact -> {
+            for (Predicate<Object> predicate : any) {
+                if (predicate.test(fact)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    /**
+     * Predicate of a single condition
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate<Object> test(RuleCondition condition, String prefix, Class<?> factClass) {
+        String path = condition.getFieldPath();
+        RuleOperatorType operator = condition.getOperator();
+        Method getter = fieldGetter(condition, prefix, factClass);
+        Class<?> fieldType = getter.getReturnType();
+        Function<Object, Object> field = accessor(factClass, getter);
+        String value = valueText(condition);
+
+        if (operator == RuleOperatorType.IN || operator == RuleOperatorType.NOT_IN) {
+            if (value == null) {
+                throw new IllegalArgumentException("reference list condition without list name");
+            }
+            ReferenceLists lists = referenceLists;
+            return operator == RuleOperatorType.IN
+                ? fact -> lists.contains(value, field.apply(fact))
+                : fact -> !lists.contains(value, field.apply(fact));
+        }
+        if (value == null) {
+            // Literal null: only == null / != null are meaningful
+            return switch (operator) {
+                case EQUALS -> fact -> field.apply(fact) == null;
+                case NOT_EQUALS -> fact -> field.apply(fact) != null;
+                default -> throw new IllegalArgumentException("operator " + operator + " against null");
+            };
+        }
+        if (operator == RuleOperatorType.STR_CONTAINS || operator == RuleOperatorType.STR_STARTS_WITH
+                || operator == RuleOperatorType.STR_ENDS_WITH) {
+            if (fieldType != String.class) {
+                throw new IllegalArgumentException("string operator on " + fieldType.getSimpleName() + " field " + path);
+            }
+            return switch (operator) {
+                case STR_CONTAINS -> fact -> field.apply(fact) instanceof String s && s.contains(value);
+                case STR_STARTS_WITH -> fact -> field.apply(fact) instanceof String s && s.startsWith(value);
+                default -> fact -> field.apply(fact) instanceof String s && s.endsWith(value);
+            };
+        }
+
+        Object expected;
+        try {
+            expected = RuleTemplateTable.parseValue(value, fieldType);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("value " + value + " does not fit field " + path);
+        }
+        if (operator == RuleOperatorType.EQUALS) {
+            return fact -> expected.equals(RuleTemplateTable.normalize(field.apply(fact)));
+        }
+        if (operator == RuleOperatorType.NOT_EQUALS) {
+            return fact -> !expected.equals(RuleTemplateTable.normalize(field.apply(fact)));
+        }
+        if (fieldType == Boolean.class) {
+            throw new IllegalArgumentException("operator " + operator + " on boolean field " + path);
+        }
+        Comparable bound = (Comparable) expected;
+        IntPredicate accepts = switch (operator) {
+            case GT -> c -> c > 0;
+            case GTE -> c -> c >= 0;
+            case LT -> c -> c < 0;
+            case LTE -> c -> c <= 0;
+            default -> throw new IllegalArgumentException("operator " + operator);
+        };
+        return fact -> {
+            Object actual = field.apply(fact);
+            return actual != null && accepts.test(((Comparable) RuleTemplateTable.normalize(actual)).compareTo(bound));
+        };
+    }
+
+    /**
+     * Conditions of a rule as OR of ANDs of column tests, grouped like condition()
+     */
+    private List<List<ColumnarRuleSet.FieldTest>> fieldTests(List<RuleCondition> conditions, String prefix, Class<?> factClass) {
+        List<List<ColumnarRuleSet.FieldTest>> alternatives = new ArrayList<>();
+        List<ColumnarRuleSet.FieldTest> conjunction = new ArrayList<>();
+        for (int i = 0; i < conditions.size(); i++) {
+            RuleCondition condition = conditions.get(i);
+            RuleConditionGroup group = condition.getGroup();
+            if (group.getParent() != null || group.getType() == RuleGroupType.NOT) {
+                throw new IllegalArgumentException("nested or NOT condition group");
+            }
+            conjunction.add(fieldTest(condition, prefix, factClass));
+            if (i == conditions.size() - 1 || group.getType() == RuleGroupType.OR) {
+                alternatives.add(conjunction);
+                conjunction = new ArrayList<>();
+            }
+        }
+        return alternatives;
+    }
+
+    /**
+     * Column test of a single condition; numeric constants must fit the fixed-point columns
+     */
+    private static ColumnarRuleSet.FieldTest fieldTest(RuleCondition condition, String prefix, Class<?> factClass) {
+        RuleOperatorType operator = condition.getOperator();
+        Method getter = fieldGetter(condition, prefix, factClass);
+        Class<?> fieldType = getter.getReturnType();
+        String field = condition.getFieldPath().substring(prefix.length());
+        String value = valueText(condition);
+        boolean equality = operator == RuleOperatorType.EQUALS || operator == RuleOperatorType.NOT_EQUALS;
+        boolean ordering = operator == RuleOperatorType.GT || operator == RuleOperatorType.GTE
+            || operator == RuleOperatorType.LT || operator == RuleOperatorType.LTE;
+
+        Object operand;
+        if (value == null) {
+            if (!equality) {
+                throw new IllegalArgumentException("operator " + operator + " against null");
+            }
+            operand = null;
+        } else if (fieldType == String.class) {
+            if (!equality && !ordering && operator != RuleOperatorType.IN && operator != RuleOperatorType.NOT_IN
+                    && operator != RuleOperatorType.STR_CONTAINS && operator != RuleOperatorType.STR_STARTS_WITH
+                    && operator != RuleOperatorType.STR_ENDS_WITH) {
+                throw new IllegalArgumentException("operator " + operator);
+            }
+            operand = value;
+        } else if (fieldType == Boolean.class) {
+            if (!equality) {
+                throw new IllegalArgumentException("operator " + operator + " on boolean field " + field);
+            }
+            operand = RuleTemplateTable.parseValue(value, fieldType);
+        } else {
+            if (!equality && !ordering) {
+                throw new IllegalArgumentException("operator " + operator + " on numeric field " + field);
+            }
+            BigDecimal constant = (BigDecimal) RuleTemplateTable.parseValue(value, fieldType);
+            if (constant.scale() > ColumnarRuleSet.MAX_SCALE || constant.abs().compareTo(ColumnarRuleSet.MAX_CONSTANT) >= 0) {
+                throw new IllegalArgumentException("value " + value + " outside the fixed-point range");
+            }
+            operand = constant;
+        }
+        return new ColumnarRuleSet.FieldTest(field, fieldType, accessor(factClass, getter), operator, operand);
+    }
+
+    /**
+     * Getter of the fact field a condition tests
+     * @throws IllegalArgumentException for item-level paths and unsupported field types
+     */
+    private static Method fieldGetter(RuleCondition condition, String prefix, Class<?> factClass) {
+        String path = condition.getFieldPath();
+        if (path == null || condition.getOperator() == null || !path.startsWith(prefix)
+                || path.indexOf('.', prefix.length()) >= 0) {
+            throw new IllegalArgumentException("field " + path + " is not a field of the fact");
+        }
+        Method getter = getter(factClass, path.substring(prefix.length()));
+        if (!FIELD_TYPES.contains(getter.getReturnType())) {
+            throw new IllegalArgumentException("field " + path + " has unsupported type " + getter.getReturnType().getSimpleName());
+        }
+        return getter;
+    }
+
+    /**
+     * Condition value as the text the DRL generator would have written, or null for a null literal
+     */
+    static String valueText(RuleCondition condition) {
+        if (condition.getValueType() == null) {
+            return null;
+        }
+        return switch (condition.getValueType()) {
+            case STRING -> condition.getValueText();
+            case INT, LONG -> condition.getValueNumber() != null ? condition.getValueNumber().toString() : null;
+            case BIG_DECIMAL -> condition.getValueDecimal() != null
+                ? condition.getValueDecimal().stripTrailingZeros().toPlainString() : null;
+            case BOOLEAN -> condition.getValueBoolean() != null ? condition.getValueBoolean().toString() : null;
+            default -> throw new IllegalArgumentException("value type " + condition.getValueType());
+        };
+    }
+
+    /**
+     * Public no-argument getter of a field (getX, or isX for booleans)
+     */
+    static Method getter(Class<?> type, String fieldName) {
+        String suffix = Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
+        for (String name : new String[] {"get" + suffix, "is" + suffix}) {
+            try {
+                Method method = type.getMethod(name);
+                if (!Modifier.isStatic(method.getModifiers())) {
+                    return method;
+                }
+            } catch (NoSuchMethodException e) {
+                // try the next spelling
+            }
+        }
+        throw new IllegalArgumentException("no getter for field " + fieldName + " on " + type.getSimpleName());
+    }
+
+    /**
+     * Getter bound as a Function through LambdaMetafactory (cached per class and field)
+     */
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> accessor(Class<?> type, Method getter) {
+        return ACCESSORS.computeIfAbsent(type.getName() + "#" + getter.getName(), key -> {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                MethodHandle handle = lookup.unreflect(getter);
+                CallSite site = LambdaMetafactory.metafactory(
+                    lookup,
+                    "apply",
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    handle,
+                    handle.type().wrap());
+                return (Function<Object, Object>) site.getTarget().invokeExact();
+            } catch (Throwable e) {
+                throw new IllegalStateException("Cannot bind getter " + getter, e);
+            }
+        });
+    }
+}
@@ -0,0 +1,128 @@
+package rule.engine.org.app.domain.service;
+
+import org.kie.api.event.rule.AgendaEventListener;
+import rule.engine.org.app.domain.entity.execution.RuleOutputHit;
+import rule.engine.org.app.domain.entity.execution.TotalRuleResults;
+import rule.engine.org.app.domain.entity.ui.EvaluationStage;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Rule backend evaluating compiled Java predicates instead of a Drools session
+ *
+ * Built by PredicateRuleCompiler from the structured conditions of a rule set in which every
+ * rule tests fields of the fact itself. Rules are kept per stage in firing order (priority
+ * descending like salience, then rule ID), so a fact costs one predicate call per rule: no
+ * session, no insert, no agenda. Drools fires rules of equal salience in no fixed order, so
+ * nothing may depend on the order within a priority: halting finishes the priority of the
+ * terminal hit. Immutable and shared by all executions of a container snapshot.
+ */
+final class PredicateRuleSet implements RuleBackend {
+
+    /**
+     * One rule: where and when it fires, its condition and the hit it produces
+     * Output values already carry the defaults of generated rules.
+     */
+    record CompiledRule(long ruleId, String ruleName, EvaluationStage stage, int priority,
+                        Predicate<Object> condition, String action, String result, BigDecimal score,
+                        String flag, String documentType, String documentId, String description) {
+
+        RuleOutputHit hit() {
+            RuleOutputHit hit = new RuleOutputHit();
+            hit.setAction(action);
+            hit.setResult(result);
+            hit.setScore(score);
+            hit.setFlag(flag);
+            hit.setDocumentType(documentType);
+            hit.setDocumentId(documentId);
+            hit.setDescription(description);
+            hit.setRuleName(ruleName);
+            hit.setRuleId(ruleId);
+            return hit;
+        }
+    }
+
+    private static final CompiledRule[] NO_RULES = new CompiledRule[0];
+
+    private final Class<?> factClass;
+    private final CompiledRule[][] rulesByStage;
+    private final Predicate<TotalRuleResults> skipDeep;
+    private final int ruleCount;
+
+    /**
+     * @param skipDeep Tested before DEEP with the results so far; null to always run DEEP
+     */
+    PredicateRuleSet(Class<?> factClass, List<CompiledRule> rules, Predicate<TotalRuleResults> skipDeep) {
+        this.factClass = factClass;
+        this.skipDeep = skipDeep;
+        this.ruleCount = rules.size();
+        this.rulesByStage = new CompiledRule[StagedEvaluation.STAGES.length][];
+        for (EvaluationStage stage : StagedEvaluation.STAGES) {
+            CompiledRule[] stageRules = rules.stream()
+                .filter(rule -> rule.stage() == stage)
+                .sorted(Comparator.comparingInt(CompiledRule::priority).reversed()
+                    .thenComparingLong(CompiledRule::ruleId))
+                .toArray(CompiledRule[]::new);
+            rulesByStage[stage.ordinal()] = stageRules.length > 0 ? stageRules : NO_RULES;
+        }
+    }
+
+    int ruleCount() {
+        return ruleCount;
+    }
+
+    @Override
+    public String name() {
+        return "predicate";
+    }
+
+    @Override
+    public void fire(Object fact, TotalRuleResults results, String haltOn, AgendaEventListener listener, long[] stageNanos) {
+        if (stageNanos != null) {
+            Arrays.fill(stageNanos, StagedEvaluation.NOT_RUN);
+        }
+        if (haltOn != null) {
+            results.setTruncated(false);
+        }
+        if (!factClass.isInstance(fact)) {
+            // A pattern on another fact class never matches
+            return;
+        }
+        // Rules may test derived fields, which Drools gets from FactLayout.insert
+        DerivedFeatures.compute(fact);
+        for (EvaluationStage stage : StagedEvaluation.STAGES) {
+            if (stage == EvaluationStage.DEEP && skipDeep != null && skipDeep.test(results)) {
+                continue;
+            }
+            long start = System.nanoTime();
+            boolean halted = false;
+            int haltPriority = 0;
+            for (CompiledRule rule : rulesByStage[stage.ordinal()]) {
+                if (halted && rule.priority() < haltPriority) {
+                    break;
+                }
+                if (!rule.condition().test(fact)) {
+                    continue;
+                }
+                RuleOutputHit hit = rule.hit();
+                results.getHits().add(hit);
+                if (!halted && haltOn != null && haltOn.equalsIgnoreCase(hit.getAction())) {
+                    // Rules of the same priority still fire, as in HaltOnActionListener
+                    results.setTruncated(true);
+                    halted = true;
+                    haltPriority = rule.priority();
+                }
+            }
+            if (stageNanos != null) {
+                stageNanos[stage.ordinal()] = System.nanoTime() - start;
+            }
+            if (halted) {
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package rule.engine.org.app.domain.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import rule.engine.org.app.domain.entity.ui.DecisionRule;
+import rule.engine.org.app.domain.entity.ui.ReferenceList;
+import rule.engine.org.app.domain.repository.DecisionRuleRepository;
+import rule.engine.org.app.domain.repository.ReferenceListRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Manages reference lists: storage in reference_lists / reference_list_entries and publication
+ * to the in-memory ReferenceLists used by rules
+ *
+ * Changes are written in one transaction and published only after it commits, so executions
+ * never see values that were rolled back. POST /reload re-reads every list, e.g. after the
+ * tables were loaded by another instance or an external import.
+ *
+ * Meters per list: rule.engine.reflist.size (values loaded) and rule.engine.reflist.lookups
+ * (tagged result=hit|miss); rule.engine.reflist.unknown counts lookups of lists not loaded.
+ */
+@Service
+public class ReferenceListService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReferenceListService.class);
+
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    private final ReferenceListRepository referenceListRepository;
+    private final DecisionRuleRepository decisionRuleRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ReferenceLists referenceLists;
+
+    // List names whose meters are registered; meters read the live state, so they outlive reloads
+    private final Set<String> meteredLists = ConcurrentHashMap.newKeySet();
+
+    public ReferenceListService(
+            ReferenceListRepository referenceListRepository,
+            DecisionRuleRepository decisionRuleRepository,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            ReferenceLists referenceLists) {
+        this.referenceListRepository = referenceListRepository;
+        this.decisionRuleRepository = decisionRuleRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.referenceLists = referenceLists;
+        FunctionCounter.builder("rule.engine.reflist.unknown", referenceLists, ReferenceLists::unknownLookups)
+            .description("Lookups of reference lists that are not loaded")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Load every list from the database and publish them, replacing what is loaded
+     */
+    @PostConstruct
+    public void reload() {
+        Map<String, Set<String>> values = new HashMap<>();
+        for (ReferenceList list : referenceListRepository.findAll()) {
+            values.put(list.getName(), new LinkedHashSet<>());
+        }
+        jdbcTemplate.query(
+            "SELECT l.name, e.value FROM reference_list_entries e JOIN reference_lists l ON l.id = e.list_id",
+            resultSet -> {
+                Set<String> list = values.get(resultSet.getString(1));
+                if (list != null) {
+                    list.add(resultSet.getString(2));
+                }
+            });
+        referenceLists.publishAll(values);
+        values.keySet().forEach(this::registerMeters);
+        log.info("Loaded {} reference lists ({} values)", values.size(),
+            values.values().stream().mapToInt(Set::size).sum());
+    }
+
+    public List<ReferenceList> getLists() {
+        return referenceListRepository.findAllByOrderByNameAsc();
+    }
+
+    public Optional<ReferenceList> getList(String name) {
+        return referenceListRepository.findByName(name);
+    }
+
+    /**
+     * Values of a list as stored, sorted
+     */
+    public List<String> getValues(ReferenceList list) {
+        return new ArrayList<>(new TreeSet<>(jdbcTemplate.queryForList(
+            "SELECT value FROM reference_list_entries WHERE list_id = ?", String.class, list.getId())));
+    }
+
+    /**
+     * Create a list or replace all of its values, then publish it
+     * Values are trimmed; blank values and duplicates are dropped.
+     * @throws IllegalArgumentException if the name is invalid or a value is too long
+     */
+    public ReferenceList replace(String name, String description, Collection<String> values) {
+        validateName(name);
+        Set<String> normalized = new LinkedHashSet<>();
+        for (String value : values) {
+            if (value == null || value.isBlank()) {
+                continue;
+            }
+            String trimmed = value.trim();
+            if (trimmed.length() > 255) {
+                throw new IllegalArgumentException("Reference list value longer than 255 characters: " + trimmed.substring(0, 40) + "...");
+            }
+            normalized.add(trimmed);
+        }
+
+        ReferenceList saved = transactionTemplate.execute(status -> {
+            ReferenceList list = referenceListRepository.findByName(name).orElseGet(() -> {
+                ReferenceList created = new ReferenceList();
+                created.setName(name);
+                return created;
+            });
+            if (description != null) {
+                list.setDescription(description);
+            }
+            list = referenceListRepository.saveAndFlush(list);
+
+            long listId = list.getId();
+            jdbcTemplate.update("DELETE FROM reference_list_entries WHERE list_id = ?", listId);
+            jdbcTemplate.batchUpdate("INSERT INTO reference_list_entries (list_id, value) VALUES (?, ?)",
+                normalized, INSERT_BATCH_SIZE, (ps, value) -> {
+                    ps.setLong(1, listId);
+                    ps.setString(2, value);
+                });
+            return list;
+        });
+
+        referenceLists.publish(name, normalized);
+        registerMeters(name);
+        log.info("Published reference list {} ({} values)", name, normalized.size());
+        return saved;
+    }
+
+    /**
+     * Delete a list and unload it
+     * @throws IllegalStateException if a latest rule version still uses the list
+     */
+    public boolean delete(String name) {
+        Optional<ReferenceList> list = referenceListRepository.findByName(name);
+        if (list.isEmpty()) {
+            return false;
+        }
+        List<String> users = decisionRuleRepository.findByIsLatestTrueAndRuleContentContaining(lookupFragment(name)).stream()
+            .map(DecisionRule::getRuleName)
+            .collect(Collectors.toList());
+        if (!users.isEmpty()) {
+            throw new IllegalStateException("Reference list " + name + " is used by rules " + users);
+        }
+        referenceListRepository.delete(list.get());
+        referenceLists.remove(name);
+        return true;
+    }
+
+    /**
+     * DRL fragment of a lookup in the named list, as generated for IN / NOT_IN conditions
+     */
+    public static String lookupFragment(String name) {
+        return "refLists.contains(\"" + name + "\"";
+    }
+
+    /**
+     * List names are embedded in DRL string literals, so keep them to a safe alphabet
+     */
+    private void validateName(String name) {
+        if (name == null || !name.matches("[A-Za-z0-9_.-]{1,100}")) {
+            throw new IllegalArgumentException("Reference list name must be 1-100 characters of letters, digits, '_', '.' or '-'");
+        }
+    }
+
+    private void registerMeters(String name) {
+        if (!meteredLists.add(name)) {
+            return;
+        }
+        Gauge.builder("rule.engine.reflist.size", referenceLists, lists -> lists.size(name))
+            .description("Values loaded in a reference list")
+            .tag("list", name)
+            .register(meterRegistry);
+        FunctionCounter.builder("rule.engine.reflist.lookups", referenceLists, lists -> lists.hits(name))
+            .description("Reference list lookups")
+            .tags("list", name, "result", "hit")
+            .register(meterRegistry);
+        FunctionCounter.builder("rule.engine.reflist.lookups", referenceLists, lists -> lists.misses(name))
+            .description("Reference list lookups")
+            .tags("list", name, "result", "miss")
+            .register(meterRegistry);
+    }
+}
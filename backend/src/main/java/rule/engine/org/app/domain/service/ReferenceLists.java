@@ -0,0 +1,127 @@
+package rule.engine.org.app.domain.service;
+
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory reference lists, exposed to DRL as the refLists global
+ *
+ * Rules test membership with refLists.contains("LIST_NAME", value): one map lookup and one hash
+ * set lookup, whatever the list size. Each list is an immutable set and the whole name -> list
+ * map is swapped in one volatile write, so a reload is seen atomically by executions and needs
+ * no KieBase recompilation. Values compare as exact strings (BigDecimal as plain string).
+ * Lookups against a name that is not loaded return false and are counted as unknown.
+ */
+@Component
+public class ReferenceLists {
+
+    /**
+     * One loaded list; counters survive reloads of the same name
+     */
+    static final class LoadedList {
+        final Set<String> values;
+        final LongAdder hits;
+        final LongAdder misses;
+
+        LoadedList(Set<String> values, LongAdder hits, LongAdder misses) {
+            this.values = values;
+            this.hits = hits;
+            this.misses = misses;
+        }
+    }
+
+    private volatile Map<String, LoadedList> lists = Map.of();
+    private final LongAdder unknownLookups = new LongAdder();
+
+    /**
+     * Whether the list contains the value; false for null values and unknown lists
+     */
+    public boolean contains(String listName, Object value) {
+        LoadedList list = lists.get(listName);
+        if (list == null) {
+            unknownLookups.increment();
+            return false;
+        }
+        if (value == null) {
+            list.misses.increment();
+            return false;
+        }
+        String key = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+        if (list.values.contains(key)) {
+            list.hits.increment();
+            return true;
+        }
+        list.misses.increment();
+        return false;
+    }
+
+    public boolean isLoaded(String listName) {
+        return lists.containsKey(listName);
+    }
+
+    /**
+     * Number of values in a loaded list, or 0 if it is not loaded
+     */
+    public int size(String listName) {
+        LoadedList list = lists.get(listName);
+        return list != null ? list.values.size() : 0;
+    }
+
+    /**
+     * Values of a loaded list (immutable), or an empty set if it is not loaded
+     */
+    public Set<String> values(String listName) {
+        LoadedList list = lists.get(listName);
+        return list != null ? list.values : Set.of();
+    }
+
+    public long hits(String listName) {
+        LoadedList list = lists.get(listName);
+        return list != null ? list.hits.sum() : 0;
+    }
+
+    public long misses(String listName) {
+        LoadedList list = lists.get(listName);
+        return list != null ? list.misses.sum() : 0;
+    }
+
+    public long unknownLookups() {
+        return unknownLookups.sum();
+    }
+
+    /**
+     * Replace every loaded list; names not in the map are dropped
+     */
+    synchronized void publishAll(Map<String, Set<String>> values) {
+        Map<String, LoadedList> next = new HashMap<>();
+        values.forEach((name, set) -> next.put(name, loaded(name, set)));
+        lists = Map.copyOf(next);
+    }
+
+    /**
+     * Replace (or add) one list
+     */
+    synchronized void publish(String listName, Set<String> values) {
+        Map<String, LoadedList> next = new HashMap<>(lists);
+        next.put(listName, loaded(listName, values));
+        lists = Map.copyOf(next);
+    }
+
+    synchronized void remove(String listName) {
+        Map<String, LoadedList> next = new HashMap<>(lists);
+        next.remove(listName);
+        lists = Map.copyOf(next);
+    }
+
+    private LoadedList loaded(String listName, Set<String> values) {
+        LoadedList previous = lists.get(listName);
+        return previous != null
+            ? new LoadedList(Set.copyOf(values), previous.hits, previous.misses)
+            : new LoadedList(Set.copyOf(values), new LongAdder(), new LongAdder());
+    }
+}
@@ -0,0 +1,472 @@
+package rule.engine.org.app.domain.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import rule.engine.org.app.api.mapper.FactMapper;
+import rule.engine.org.app.domain.entity.execution.RuleOutputHit;
+import rule.engine.org.app.domain.entity.execution.TotalRuleResults;
+import rule.engine.org.app.domain.entity.ui.DecisionRule;
+import rule.engine.org.app.domain.entity.ui.FactType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Replays stored or uploaded facts against two container versions and reports the impact
+ *
+ * A replay streams its input (the declarations table, read in keyset-paged chunks, or an
+ * NDJSON file) through a baseline and a candidate version. Only as many facts as the replay's
+ * concurrency are in memory at a time: the reader waits for a permit before materializing the
+ * next fact. Executions run on virtual threads, like execution jobs, and use the version
+ * container cache, so each version is compiled once and no live observer (audit, shadow) sees
+ * replay traffic. The report aggregates action transitions, the score distribution of both
+ * versions, per-rule hit counts and throughput; individual results are not kept.
+ */
+@Service
+public class ReplayService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplayService.class);
+
+    // Upper bounds of the total score buckets in the report; the last bucket is open-ended
+    private static final int[] SCORE_BUCKETS = {0, 10, 20, 30, 40, 50, 60, 70, 80, 90, 100};
+    private static final int MAX_CHANGED_SAMPLES = 100;
+
+    /**
+     * Lifecycle state of a replay
+     */
+    public enum ReplayStatus {
+        RUNNING,
+        COMPLETED,
+        CANCELLED,
+        FAILED
+    }
+
+    /**
+     * Facts to replay, converted lazily as they are read
+     */
+    public interface FactSource extends Iterator<Object>, AutoCloseable {
+    }
+
+    /**
+     * Replay options
+     * @param from Only stored declarations submitted at or after this time (declarations source)
+     * @param to Only stored declarations submitted before this time (declarations source)
+     * @param limit Maximum number of facts to replay (0 = all)
+     */
+    public record ReplayOptions(String factType, long baselineVersion, long candidateVersion, int concurrency,
+                                LocalDateTime from, LocalDateTime to, long limit) {
+    }
+
+    /**
+     * Hit counts of one rule under both versions
+     */
+    public record RuleHitDelta(Long ruleId, String ruleName, long baselineHits, long candidateHits) {
+        public long getDelta() {
+            return candidateHits - baselineHits;
+        }
+    }
+
+    /**
+     * A running or finished replay and its aggregated report
+     */
+    public static class Replay {
+        private final String id;
+        private final String source;
+        private final ReplayOptions options;
+        private final Map<Long, Long> logicalRuleIds;
+        private final Instant submittedAt = Instant.now();
+        private volatile ReplayStatus status = ReplayStatus.RUNNING;
+        private volatile Instant finishedAt;
+        private volatile String error;
+
+        private final LongAdder processed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder actionChanges = new LongAdder();
+        private final LongAdder scoreIncreased = new LongAdder();
+        private final LongAdder scoreDecreased = new LongAdder();
+        private final LongAdder baselineNanos = new LongAdder();
+        private final LongAdder candidateNanos = new LongAdder();
+        private final AtomicLong baselineScoreCents = new AtomicLong();
+        private final AtomicLong candidateScoreCents = new AtomicLong();
+        private final Map<String, LongAdder> actionTransitions = new ConcurrentHashMap<>();
+        private final LongAdder[] baselineScoreBuckets = newBuckets();
+        private final LongAdder[] candidateScoreBuckets = newBuckets();
+        private final Map<String, RuleCounts> ruleHits = new ConcurrentHashMap<>();
+        private final ConcurrentLinkedQueue<String> changedSamples = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger changedSampleCount = new AtomicInteger();
+
+        Replay(String id, String source, ReplayOptions options, Map<Long, Long> logicalRuleIds) {
+            this.id = id;
+            this.source = source;
+            this.options = options;
+            this.logicalRuleIds = logicalRuleIds;
+        }
+
+        public String getId() { return id; }
+        public String getSource() { return source; }
+        public ReplayOptions getOptions() { return options; }
+        public ReplayStatus getStatus() { return status; }
+        public Instant getSubmittedAt() { return submittedAt; }
+        public Instant getFinishedAt() { return finishedAt; }
+        public String getError() { return error; }
+        public long getProcessed() { return processed.sum(); }
+        public long getFailed() { return failed.sum(); }
+        public long getActionChanges() { return actionChanges.sum(); }
+        public long getScoreIncreased() { return scoreIncreased.sum(); }
+        public long getScoreDecreased() { return scoreDecreased.sum(); }
+
+        public boolean isDone() {
+            return status != ReplayStatus.RUNNING;
+        }
+
+        /**
+         * Facts replayed per second since the replay started
+         */
+        public double getThroughputPerSecond() {
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            long millis = Math.max(1, Duration.between(submittedAt, end).toMillis());
+            return processed.sum() * 1000.0 / millis;
+        }
+
+        public double getBaselineMicrosAvg() {
+            long count = processed.sum();
+            return count == 0 ? 0 : baselineNanos.sum() / 1000.0 / count;
+        }
+
+        public double getCandidateMicrosAvg() {
+            long count = processed.sum();
+            return count == 0 ? 0 : candidateNanos.sum() / 1000.0 / count;
+        }
+
+        public BigDecimal getBaselineScoreMean() {
+            return mean(baselineScoreCents.get());
+        }
+
+        public BigDecimal getCandidateScoreMean() {
+            return mean(candidateScoreCents.get());
+        }
+
+        /**
+         * "BASELINE->CANDIDATE" final action -> count, for facts whose final action changed
+         */
+        public Map<String, Long> getActionTransitions() {
+            Map<String, Long> transitions = new LinkedHashMap<>();
+            actionTransitions.forEach((key, count) -> transitions.put(key, count.sum()));
+            return transitions;
+        }
+
+        /**
+         * Score bucket label -> fact count, per version
+         */
+        public Map<String, Map<String, Long>> getScoreDistribution() {
+            Map<String, Map<String, Long>> distribution = new LinkedHashMap<>();
+            distribution.put("baseline", bucketCounts(baselineScoreBuckets));
+            distribution.put("candidate", bucketCounts(candidateScoreBuckets));
+            return distribution;
+        }
+
+        /**
+         * Per-rule hit counts, largest absolute change first
+         */
+        public List<RuleHitDelta> getRuleHitDeltas() {
+            List<RuleHitDelta> deltas = new ArrayList<>();
+            ruleHits.values().forEach(counts -> deltas.add(
+                new RuleHitDelta(counts.ruleId, counts.ruleName, counts.baseline.sum(), counts.candidate.sum())));
+            deltas.sort((a, b) -> Long.compare(Math.abs(b.getDelta()), Math.abs(a.getDelta())));
+            return deltas;
+        }
+
+        /**
+         * IDs of the first facts whose final action changed
+         */
+        public List<String> getChangedSamples() {
+            return new ArrayList<>(changedSamples);
+        }
+
+        private BigDecimal mean(long cents) {
+            long count = processed.sum();
+            return count == 0 ? BigDecimal.ZERO
+                : BigDecimal.valueOf(cents).divide(BigDecimal.valueOf(count * 100L), 2, RoundingMode.HALF_UP);
+        }
+
+        private void record(String factId, TotalRuleResults baseline, TotalRuleResults candidate,
+                            long baselineElapsed, long candidateElapsed) {
+            processed.increment();
+            baselineNanos.add(baselineElapsed);
+            candidateNanos.add(candidateElapsed);
+
+            if (!Objects.equals(baseline.getFinalAction(), candidate.getFinalAction())) {
+                actionChanges.increment();
+                actionTransitions.computeIfAbsent(baseline.getFinalAction() + "->" + candidate.getFinalAction(),
+                    key -> new LongAdder()).increment();
+                if (factId != null && changedSampleCount.incrementAndGet() <= MAX_CHANGED_SAMPLES) {
+                    changedSamples.add(factId);
+                }
+            }
+
+            BigDecimal baselineScore = baseline.getTotalScore() != null ? baseline.getTotalScore() : BigDecimal.ZERO;
+            BigDecimal candidateScore = candidate.getTotalScore() != null ? candidate.getTotalScore() : BigDecimal.ZERO;
+            int comparison = candidateScore.compareTo(baselineScore);
+            if (comparison > 0) {
+                scoreIncreased.increment();
+            } else if (comparison < 0) {
+                scoreDecreased.increment();
+            }
+            baselineScoreCents.addAndGet(baselineScore.movePointRight(2).longValue());
+            candidateScoreCents.addAndGet(candidateScore.movePointRight(2).longValue());
+            baselineScoreBuckets[bucket(baselineScore)].increment();
+            candidateScoreBuckets[bucket(candidateScore)].increment();
+
+            for (RuleOutputHit hit : baseline.getHits()) {
+                ruleCounts(hit).baseline.increment();
+            }
+            for (RuleOutputHit hit : candidate.getHits()) {
+                ruleCounts(hit).candidate.increment();
+            }
+        }
+
+        private RuleCounts ruleCounts(RuleOutputHit hit) {
+            // Key by logical rule so a rule updated between the versions is compared with itself
+            String key = hit.getRuleId() != null
+                ? "id:" + logicalRuleIds.getOrDefault(hit.getRuleId(), hit.getRuleId())
+                : "name:" + hit.getRuleName();
+            return ruleHits.computeIfAbsent(key, k -> new RuleCounts(
+                hit.getRuleId() != null ? logicalRuleIds.getOrDefault(hit.getRuleId(), hit.getRuleId()) : null,
+                hit.getRuleName()));
+        }
+
+        private static LongAdder[] newBuckets() {
+            LongAdder[] buckets = new LongAdder[SCORE_BUCKETS.length + 1];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+            return buckets;
+        }
+
+        private static int bucket(BigDecimal score) {
+            for (int i = 0; i < SCORE_BUCKETS.length; i++) {
+                if (score.compareTo(BigDecimal.valueOf(SCORE_BUCKETS[i])) <= 0) {
+                    return i;
+                }
+            }
+            return SCORE_BUCKETS.length;
+        }
+
+        private static Map<String, Long> bucketCounts(LongAdder[] buckets) {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            for (int i = 0; i < buckets.length; i++) {
+                String label = i == 0 ? "<=" + SCORE_BUCKETS[0]
+                    : i == SCORE_BUCKETS.length ? ">" + SCORE_BUCKETS[i - 1]
+                    : SCORE_BUCKETS[i - 1] + "-" + SCORE_BUCKETS[i];
+                counts.put(label, buckets[i].sum());
+            }
+            return counts;
+        }
+    }
+
+    private static class RuleCounts {
+        final Long ruleId;
+        final String ruleName;
+        final LongAdder baseline = new LongAdder();
+        final LongAdder candidate = new LongAdder();
+
+        RuleCounts(Long ruleId, String ruleName) {
+            this.ruleId = ruleId;
+            this.ruleName = ruleName;
+        }
+    }
+
+    private final RuleEngineManager ruleEngineManager;
+    private final FactMapper factMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final int pageSize;
+    private final int maxConcurrency;
+    private final Duration retention;
+    private final Map<String, Replay> replays = new ConcurrentHashMap<>();
+
+    public ReplayService(
+            RuleEngineManager ruleEngineManager,
+            FactMapper factMapper,
+            JdbcTemplate jdbcTemplate,
+            @Value("${rule-engine.replay.page-size:500}") int pageSize,
+            @Value("${rule-engine.replay.max-concurrency:0}") int maxConcurrency,
+            @Value("${rule-engine.replay.retention:24h}") Duration retention) {
+        this.ruleEngineManager = ruleEngineManager;
+        this.factMapper = factMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.pageSize = Math.max(1, pageSize);
+        this.maxConcurrency = maxConcurrency > 0 ? maxConcurrency : Runtime.getRuntime().availableProcessors() * 2;
+        this.retention = retention;
+    }
+
+    /**
+     * Replay declarations stored in the declarations table, oldest first
+     */
+    public Replay replayStoredDeclarations(ReplayOptions options) {
+        ReplayOptions resolved = resolve(options, FactType.DECLARATION.getValue());
+        return start("declarations", resolved, () -> new StoredDeclarationReader(jdbcTemplate, pageSize, resolved.from(), resolved.to(), null, List.of()));
+    }
+
+    /**
+     * Replay facts read from an external source, e.g. an uploaded NDJSON file
+     * @param source Description of the input for the report
+     * @param facts Read on the replay thread and closed when the replay ends
+     */
+    public Replay replay(String source, ReplayOptions options, FactSource facts) {
+        return start(source, resolve(options, options.factType()), () -> facts);
+    }
+
+    public Optional<Replay> getReplay(String replayId) {
+        return Optional.ofNullable(replays.get(replayId));
+    }
+
+    /**
+     * Stop a replay: no further facts are read, facts already running finish
+     * @return false if the replay does not exist or has already finished
+     */
+    public boolean cancel(String replayId) {
+        Replay replay = replays.get(replayId);
+        if (replay == null || replay.isDone()) {
+            return false;
+        }
+        replay.status = ReplayStatus.CANCELLED;
+        return true;
+    }
+
+    private ReplayOptions resolve(ReplayOptions options, String factType) {
+        String factTypeValue = FactType.fromValue(factType).getValue();
+        if (options.baselineVersion() == options.candidateVersion()) {
+            throw new IllegalArgumentException("Baseline and candidate versions must differ");
+        }
+        int concurrency = options.concurrency() > 0 ? Math.min(options.concurrency(), maxConcurrency) : maxConcurrency;
+        return new ReplayOptions(factTypeValue, options.baselineVersion(), options.candidateVersion(), concurrency,
+            options.from(), options.to(), Math.max(0, options.limit()));
+    }
+
+    private Replay start(String source, ReplayOptions options, Supplier<? extends Iterator<?>> facts) {
+        evictExpiredReplays();
+
+        // Fails fast on unknown versions; also gives the logical rule IDs for per-rule deltas
+        Map<Long, Long> logicalRuleIds = new HashMap<>();
+        for (long version : new long[] {options.baselineVersion(), options.candidateVersion()}) {
+            for (DecisionRule rule : ruleEngineManager.loadVersionRules(options.factType(), version)) {
+                logicalRuleIds.put(rule.getId(), rule.getParentRuleId() != null ? rule.getParentRuleId() : rule.getId());
+            }
+        }
+
+        Replay replay = new Replay(UUID.randomUUID().toString(), source, options, Collections.unmodifiableMap(logicalRuleIds));
+        replays.put(replay.id, replay);
+        Thread.ofVirtual()
+            .name("rule-replay-" + replay.id)
+            .start(() -> run(replay, facts));
+        return replay;
+    }
+
+    private void run(Replay replay, Supplier<? extends Iterator<?>> facts) {
+        ReplayOptions options = replay.options;
+        Semaphore permits = new Semaphore(options.concurrency());
+        Iterator<?> iterator = null;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            iterator = facts.get();
+            long read = 0;
+            while (replay.status == ReplayStatus.RUNNING
+                    && (options.limit() == 0 || read < options.limit())) {
+                // Take the permit first so at most `concurrency` facts are materialized at once
+                permits.acquire();
+                Object fact;
+                try {
+                    if (!iterator.hasNext()) {
+                        permits.release();
+                        break;
+                    }
+                    fact = iterator.next();
+                } catch (IllegalArgumentException e) {
+                    // A single fact that does not convert; unreadable input ends the replay below
+                    permits.release();
+                    read++;
+                    replay.failed.increment();
+                    continue;
+                } catch (RuntimeException e) {
+                    permits.release();
+                    throw e;
+                }
+                read++;
+                executor.submit(() -> {
+                    try {
+                        replayFact(replay, fact);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            replay.status = ReplayStatus.CANCELLED;
+        } catch (Exception e) {
+            log.error("Replay {} failed", replay.id, e);
+            replay.error = e.getMessage();
+            replay.status = ReplayStatus.FAILED;
+        } finally {
+            if (iterator instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Could not close input of replay {}: {}", replay.id, e.getMessage());
+                }
+            }
+            replay.finishedAt = Instant.now();
+            if (replay.status == ReplayStatus.RUNNING) {
+                replay.status = ReplayStatus.COMPLETED;
+            }
+            log.info("Replay {} {} ({} v{} vs v{}): {} facts, {} failed, {} action changes, {} facts/s",
+                replay.id, replay.status, options.factType(), options.baselineVersion(), options.candidateVersion(),
+                replay.getProcessed(), replay.getFailed(), replay.getActionChanges(),
+                String.format("%.1f", replay.getThroughputPerSecond()));
+        }
+    }
+
+    private void replayFact(Replay replay, Object fact) {
+        ReplayOptions options = replay.options;
+        try {
+            long start = System.nanoTime();
+            TotalRuleResults baseline = ruleEngineManager.fireRulesWithVersion(options.factType(), fact, options.baselineVersion());
+            long baselineElapsed = System.nanoTime() - start;
+            start = System.nanoTime();
+            TotalRuleResults candidate = ruleEngineManager.fireRulesWithVersion(options.factType(), fact, options.candidateVersion());
+            long candidateElapsed = System.nanoTime() - start;
+            replay.record(factMapper.factId(fact), baseline, candidate, baselineElapsed, candidateElapsed);
+        } catch (RuntimeException e) {
+            replay.failed.increment();
+        }
+    }
+
+    private void evictExpiredReplays() {
+        Instant cutoff = Instant.now().minus(retention);
+        replays.values().removeIf(replay -> replay.isDone() && replay.finishedAt != null && replay.finishedAt.isBefore(cutoff));
+    }
+}
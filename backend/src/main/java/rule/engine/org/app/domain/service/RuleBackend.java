@@ -0,0 +1,29 @@
+package rule.engine.org.app.domain.service;
+
+import org.kie.api.event.rule.AgendaEventListener;
+import rule.engine.org.app.domain.entity.execution.TotalRuleResults;
+
+/**
+ * Evaluates facts against the compiled rule set of one fact type
+ *
+ * DroolsRuleBackend runs any rule set; PredicateRuleSet runs rule sets made only of simple
+ * conditions on fact fields as plain Java predicates. Both keep the same contract, so results
+ * do not depend on the backend: hits are stamped with rule name and ID, stages run in
+ * EvaluationStage order with DEEP skippable, and firing stops (truncated) after the rules of
+ * the same priority as the first hit with the haltOn action. Aggregation is left to the caller.
+ */
+interface RuleBackend {
+
+    /**
+     * Backend name as reported in container status ("drools", "predicate")
+     */
+    String name();
+
+    /**
+     * Fire one fact and add the hits to the results
+     * @param haltOn Terminal action that stops firing, or null to fire all matching rules
+     * @param listener Extra agenda listener (e.g. sampled metrics), or null; only Drools has an agenda
+     * @param stageNanos Receives per-stage timings (see StagedEvaluation), or null
+     */
+    void fire(Object fact, TotalRuleResults results, String haltOn, AgendaEventListener listener, long[] stageNanos);
+}
@@ -0,0 +1,508 @@
+package rule.engine.org.app.domain.service;
+
+import rule.engine.org.app.api.response.RuleFieldMetadata.FieldDefinition;
+import rule.engine.org.app.domain.entity.execution.cargo.CargoReport;
+import rule.engine.org.app.domain.entity.execution.declaration.Declaration;
+import rule.engine.org.app.domain.entity.execution.declaration.GovernmentAgencyGoodsItem;
+import rule.engine.org.app.domain.entity.ui.DecisionRule;
+import rule.engine.org.app.domain.entity.ui.FactType;
+import rule.engine.org.app.domain.entity.ui.RuleCondition;
+import rule.engine.org.app.domain.entity.ui.RuleConditionGroup;
+import rule.engine.org.app.domain.entity.ui.RuleGroupType;
+import rule.engine.org.app.domain.entity.ui.RuleOperatorType;
+import rule.engine.org.app.domain.entity.ui.RuleValueType;
+import rule.engine.org.app.util.DrlConstants;
+import rule.engine.org.app.util.RuleFieldExtractor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Turns the structured conditions and output of the rule editor into rule content and condition rows
+ *
+ * Conditions are maps with field, operator, value and logicalOp (the operator joining the next
+ * condition), the output a map with action, result, score, flag, documentType, documentId and
+ * description. The DRL (stored as the rule's content, compiled by Drools) and the condition rows
+ * (compiled by PredicateRuleCompiler) are both derived here from the same maps, so the two
+ * backends see the same rule.
+ */
+public final class RuleDrlGenerator {
+
+    /**
+     * UI operators whose value is the name of a reference list rather than a literal
+     */
+    public static final Set<String> REFERENCE_LIST_OPERATORS = Set.of("inList", "notInList");
+
+    private RuleDrlGenerator() {
+    }
+
+    /**
+     * Complete DRL of a rule: package, imports, globals and the rule "<name>_<id>"
+     * A rule not saved yet gets ID 0; callers regenerate the DRL once the ID is known.
+     * @return Null when the conditions or the output produce no clause
+     */
+    public static String ruleDrl(DecisionRule rule, List<Map<String, Object>> conditions, Map<String, Object> output) {
+        FactType factType = rule.getFactType() != null ? rule.getFactType() : FactType.DECLARATION;
+
+        String whenClause = whenClause(conditions, factType.getValue());
+        if (whenClause == null || whenClause.isBlank()) {
+            return null;
+        }
+
+        String thenClause = thenClause(output, rule);
+        if (thenClause == null || thenClause.isBlank()) {
+            return null;
+        }
+
+        StringBuilder drl = new StringBuilder();
+
+        // DRL header (package, imports, globals)
+        drl.append(DrlConstants.buildDrlHeader());
+
+        // Rule definition
+        String ruleName = rule.getRuleName() != null ? rule.getRuleName() : "Rule";
+        Long ruleId = rule.getId() != null ? rule.getId() : 0L;
+        int salience = rule.getPriority() != null ? rule.getPriority() : 0;
+
+        drl.append("rule \"").append(ruleName).append("_").append(ruleId).append("\"\n");
+        drl.append("salience ").append(salience).append("\n");
+        drl.append("when\n");
+        drl.append("    ").append(whenClause).append("\n");
+        drl.append("then\n");
+        drl.append(thenClause);
+        drl.append("end\n");
+
+        return drl.toString();
+    }
+
+    /**
+     * WHEN clause from the conditions, or null if none yields a constraint
+     */
+    static String whenClause(List<Map<String, Object>> conditions, String factType) {
+        if (conditions == null || conditions.isEmpty()) {
+            return null;
+        }
+
+        // Build a lookup of field types for quoting values correctly
+        // Use factType to extract correct fields
+        FactType factTypeEnum = factType != null && !factType.isEmpty()
+            ? FactType.fromValue(factType) : FactType.DECLARATION;
+        Map<String, String> fieldTypeByName = RuleFieldExtractor.extractInputFields(factTypeEnum.getValue()).stream()
+            .collect(Collectors.toMap(FieldDefinition::getName, FieldDefinition::getType, (a, b) -> a));
+
+        // Determine fact type variable and class name based on factType
+        String factVariable;
+        String factClassName;
+        String entityPrefix;
+        if (factTypeEnum == FactType.CARGO_REPORT) {
+            factVariable = "$c";
+            factClassName = "CargoReport";
+            entityPrefix = "cargoReport.";
+        } else {
+            factVariable = "$d";
+            factClassName = "Declaration";
+            entityPrefix = "declaration.";
+        }
+
+        // Item-level conditions (e.g., declaration.governmentAgencyGoodsItems.customsValueAmount) match the
+        // child facts inserted next to the fact (see FactLayout) as "exists Item(...)" patterns, which Drools
+        // indexes and shares across rules. An OR cannot span patterns, so with OR they stay in the parent pattern.
+        // Conditions on collections nested in one another (consignments and their consignmentItems) hold on
+        // related elements: the item must belong to the consignment, so the patterns are joined (see childPatterns).
+        boolean anyOr = false;
+        for (int i = 0; i < conditions.size() - 1; i++) {
+            anyOr |= "OR".equalsIgnoreCase(String.valueOf(conditions.get(i).getOrDefault("logicalOp", "AND")));
+        }
+
+        StringBuilder conditionBuilder = new StringBuilder();
+        // Item-level conditions and element types, by collection path (e.g., consignments.consignmentItems)
+        Map<String, StringBuilder> childConditions = new LinkedHashMap<>();
+        Map<String, String> childTypes = new HashMap<>();
+        // HS code prefixes of an all-AND rule: placed once the rule's other goods item conditions are known
+        List<String> hsPrefixes = new ArrayList<>();
+        String pendingOp = null;
+        for (Map<String, Object> condition : conditions) {
+            Object fieldObj = condition.get("field");
+            Object operatorObj = condition.get("operator");
+            if (fieldObj == null || operatorObj == null) {
+                continue;
+            }
+
+            String field = fieldObj.toString();
+            String operator = operatorObj.toString();
+            Object valueObj = condition.get("value");
+
+            String hsPrefixCondition = operator.equals("startsWith") && field.equals(HsPrefixMatches.GOODS_ITEM_HS_FIELD)
+                && valueObj != null ? HsPrefixMatches.condition(valueObj.toString().trim()) : null;
+            if (hsPrefixCondition != null && !anyOr) {
+                hsPrefixes.add(valueObj.toString().trim());
+                continue;
+            }
+
+            // Convert field path from declaration.fieldName to $d.fieldName for Drools
+            // e.g., declaration.importerName -> $d.importerName
+            // e.g., cargoReport.transportMeansId -> $c.transportMeansId
+            // e.g., declaration.governmentAgencyGoodsItems.customsValueAmount -> customsValueAmount in a GovernmentAgencyGoodsItem pattern
+            // e.g., cargoReport.consignments.consignmentItems.grossWeightMeasure -> grossWeightMeasure in a ConsignmentItem pattern
+            String path = field.startsWith(entityPrefix) ? field.substring(entityPrefix.length()) : field;
+            String childType = null;
+            String childCollection = null;
+            String childPath = null;
+            Class<?> owner = null;
+            if (!anyOr) {
+                // Follow collections down to the innermost element type; its facts are in working memory as well
+                owner = factTypeEnum == FactType.CARGO_REPORT ? CargoReport.class : Declaration.class;
+                int start = 0;
+                for (int dot = path.indexOf('.'); dot > start; dot = path.indexOf('.', start)) {
+                    Class<?> elementType = RuleFieldExtractor.collectionElementType(owner, path.substring(start, dot));
+                    if (elementType == null) {
+                        break;
+                    }
+                    owner = elementType;
+                    childType = elementType.getSimpleName();
+                    childCollection = path.substring(0, dot);
+                    childTypes.put(childCollection, childType);
+                    start = dot + 1;
+                }
+                childPath = path.substring(start);
+            }
+            String droolsFieldPath = childType != null ? childPath : factVariable + "." + path;
+
+            String constraint;
+            if (hsPrefixCondition != null) {
+                // HS code prefix over the goods items in a rule with OR: answered by the container's prefix index
+                constraint = hsPrefixCondition;
+            } else if (REFERENCE_LIST_OPERATORS.contains(operator)) {
+                // Membership in a reference list: O(1) lookup in the refLists global instead of inline literals
+                if (valueObj == null) {
+                    continue;
+                }
+                constraint = (operator.equals("notInList") ? "!" : "")
+                    + ReferenceListService.lookupFragment(valueObj.toString()) + ", " + droolsFieldPath + ")";
+            } else {
+                // Fields of nested collections are not in the metadata: type them from the element class
+                String fieldType = fieldTypeByName.containsKey(field) || childType == null
+                    ? fieldTypeByName.getOrDefault(field, "string") : RuleFieldExtractor.fieldType(owner, childPath);
+                String valueExpression = valueExpression(valueObj, fieldType);
+
+                if (valueExpression == null) {
+                    continue;
+                }
+
+                constraint = droolsFieldPath + " " + drlOperator(operator) + " " + valueExpression;
+            }
+
+            if (childType != null) {
+                StringBuilder childBuilder = childConditions.computeIfAbsent(childCollection, k -> new StringBuilder());
+                if (childBuilder.length() > 0) {
+                    childBuilder.append(" && ");
+                }
+                childBuilder.append(constraint);
+            } else {
+                if (pendingOp != null) {
+                    conditionBuilder.append(pendingOp.equalsIgnoreCase("OR") ? " || " : " && ");
+                }
+                conditionBuilder.append(constraint);
+                pendingOp = String.valueOf(condition.getOrDefault("logicalOp", "AND"));
+            }
+        }
+
+        // With other goods item conditions the prefix must match the same item, so it is tested in the item
+        // pattern against that item's matches; on its own, any item will do and the fact-level test suffices
+        String goodsItemType = GovernmentAgencyGoodsItem.class.getSimpleName();
+        StringBuilder goodsItemConditions = childConditions.entrySet().stream()
+            .filter(entry -> goodsItemType.equals(childTypes.get(entry.getKey())))
+            .map(Map.Entry::getValue)
+            .findFirst()
+            .orElse(null);
+        for (String prefix : hsPrefixes) {
+            if (goodsItemConditions != null) {
+                goodsItemConditions.insert(0, HsPrefixMatches.itemCondition(prefix) + " && ");
+            } else {
+                if (conditionBuilder.length() > 0) {
+                    conditionBuilder.append(" && ");
+                }
+                conditionBuilder.append(HsPrefixMatches.condition(prefix));
+            }
+        }
+
+        if (conditionBuilder.length() == 0 && childConditions.isEmpty()) {
+            return null;
+        }
+
+        StringBuilder when = new StringBuilder();
+        when.append(factVariable).append(" : ").append(factClassName).append("(").append(conditionBuilder).append(")");
+        for (String pattern : childPatterns(childConditions, childTypes)) {
+            when.append("\n    exists ").append(pattern);
+        }
+        return when.toString();
+    }
+
+    /**
+     * One existential pattern per outermost constrained collection
+     *
+     * A constrained collection nested in another constrained collection joins its pattern to the
+     * parent's element: "($consignment : Consignment(...) and ConsignmentItem(this memberOf
+     * $consignment.consignmentItems && ...))". Collections between the two, unconstrained, are
+     * bound along the way. Without a constrained ancestor the pattern stands alone: all child facts
+     * in working memory belong to the one fact being evaluated.
+     */
+    private static List<String> childPatterns(Map<String, StringBuilder> childConditions, Map<String, String> childTypes) {
+        List<String> patterns = new ArrayList<>();
+        for (String root : childConditions.keySet()) {
+            if (constrainedAncestor(root, childConditions) != null) {
+                continue;
+            }
+
+            // Collections joined under this one, parents first
+            List<String> joined = new ArrayList<>(List.of(root));
+            for (String collection : childConditions.keySet()) {
+                if (!collection.startsWith(root + ".")) {
+                    continue;
+                }
+                for (int dot = collection.indexOf('.', root.length() + 1); dot > 0; dot = collection.indexOf('.', dot + 1)) {
+                    if (!joined.contains(collection.substring(0, dot))) {
+                        joined.add(collection.substring(0, dot));
+                    }
+                }
+                if (!joined.contains(collection)) {
+                    joined.add(collection);
+                }
+            }
+
+            List<String> elements = new ArrayList<>();
+            for (String collection : joined) {
+                String type = childTypes.get(collection);
+                StringBuilder element = new StringBuilder();
+                if (joined.stream().anyMatch(other -> other.startsWith(collection + "."))) {
+                    element.append(elementVariable(type)).append(" : ");
+                }
+                element.append(type).append("(");
+                StringBuilder constraints = childConditions.get(collection);
+                if (!collection.equals(root)) {
+                    int dot = collection.lastIndexOf('.');
+                    element.append("this memberOf ").append(elementVariable(childTypes.get(collection.substring(0, dot))))
+                        .append(".").append(collection.substring(dot + 1));
+                    if (constraints != null) {
+                        element.append(" && ");
+                    }
+                }
+                if (constraints != null) {
+                    element.append(constraints);
+                }
+                elements.add(element.append(")").toString());
+            }
+            patterns.add(elements.size() == 1 ? elements.get(0) : "(" + String.join(" and ", elements) + ")");
+        }
+        return patterns;
+    }
+
+    /**
+     * Closest enclosing collection of the path that has conditions of its own, or null
+     */
+    private static String constrainedAncestor(String collection, Map<String, StringBuilder> childConditions) {
+        for (int dot = collection.lastIndexOf('.'); dot > 0; dot = collection.lastIndexOf('.', dot - 1)) {
+            if (childConditions.containsKey(collection.substring(0, dot))) {
+                return collection.substring(0, dot);
+            }
+        }
+        return null;
+    }
+
+    private static String elementVariable(String type) {
+        return "$" + Character.toLowerCase(type.charAt(0)) + type.substring(1);
+    }
+
+    /**
+     * THEN clause adding one RuleOutputHit; defaults: FLAG, "Rule '<name>' matched", score 0
+     */
+    static String thenClause(Map<String, Object> output, DecisionRule rule) {
+        if (output == null) {
+            output = new HashMap<>();
+        }
+
+        StringBuilder then = new StringBuilder();
+
+        // Create RuleOutputHit and set fields
+        then.append("    RuleOutputHit output = new RuleOutputHit();\n");
+
+        String action = output.get("action") != null ? output.get("action").toString() : "FLAG";
+        then.append("    output.setAction(\"").append(escapeJavaString(action)).append("\");\n");
+
+        String result = output.get("result") != null ? output.get("result").toString()
+            : "Rule '" + (rule.getRuleName() != null ? rule.getRuleName() : "Unknown") + "' matched";
+        then.append("    output.setResult(\"").append(escapeJavaString(result)).append("\");\n");
+
+        Object scoreObj = output.get("score");
+        String score = scoreObj != null ? scoreObj.toString() : "0";
+        then.append("    output.setScore(new BigDecimal(\"").append(score).append("\"));\n");
+
+        // Set optional fields
+        if (output.get("flag") != null) {
+            then.append("    output.setFlag(\"").append(escapeJavaString(output.get("flag").toString())).append("\");\n");
+        }
+        if (output.get("documentType") != null) {
+            then.append("    output.setDocumentType(\"").append(escapeJavaString(output.get("documentType").toString())).append("\");\n");
+        }
+        if (output.get("documentId") != null) {
+            then.append("    output.setDocumentId(\"").append(escapeJavaString(output.get("documentId").toString())).append("\");\n");
+        }
+        if (output.get("description") != null) {
+            then.append("    output.setDescription(\"").append(escapeJavaString(output.get("description").toString())).append("\");\n");
+        }
+
+        // Add to totalResults
+        then.append("    totalResults.getHits().add(output);\n");
+
+        // Log rule match
+        boolean cargoReport = rule.getFactType() == FactType.CARGO_REPORT;
+        then.append("    System.out.println(\"[DROOLS] Rule '").append(rule.getRuleName() != null ? rule.getRuleName() : "Unknown")
+            .append(cargoReport ? "' matched for cargo report: \" + $c.getReportId());\n"
+                : "' matched for declaration: \" + $d.getDeclarationId());\n");
+
+        return then.toString();
+    }
+
+    /**
+     * Structured conditions as unsaved condition rows, in group / condition order
+     * Consecutive conditions with the same logical operator (AND/OR) share a group.
+     */
+    public static List<RuleCondition> conditionRows(DecisionRule rule, List<Map<String, Object>> conditions) {
+        List<RuleCondition> rows = new ArrayList<>();
+        if (conditions == null) {
+            return rows;
+        }
+        RuleConditionGroup currentGroup = null;
+        RuleGroupType currentGroupType = RuleGroupType.AND;
+        int groupOrderIndex = 0;
+        int conditionOrderIndex = 0;
+
+        for (Map<String, Object> cond : conditions) {
+            if (!cond.containsKey("field") || !cond.containsKey("operator") || !cond.containsKey("value")) {
+                continue;
+            }
+
+            // Get logical operator for this condition (default to AND)
+            String logicalOp = (String) cond.getOrDefault("logicalOp", "AND");
+            RuleGroupType groupType = "OR".equals(logicalOp) ? RuleGroupType.OR : RuleGroupType.AND;
+
+            // Create new group if operator changed or first condition
+            if (currentGroup == null || !currentGroupType.equals(groupType)) {
+                currentGroup = new RuleConditionGroup();
+                currentGroup.setDecisionRule(rule);
+                currentGroup.setType(groupType);
+                currentGroup.setOrderIndex(groupOrderIndex++);
+                currentGroupType = groupType;
+                conditionOrderIndex = 0; // Reset condition order within group
+            }
+
+            rows.add(conditionRow(cond, currentGroup, conditionOrderIndex++));
+        }
+        return rows;
+    }
+
+    /**
+     * Condition row of one structured condition
+     */
+    public static RuleCondition conditionRow(Map<String, Object> cond, RuleConditionGroup group, int orderIndex) {
+        RuleCondition condition = new RuleCondition();
+        condition.setGroup(group);
+        condition.setFieldPath((String) cond.get("field"));
+        condition.setOrderIndex(orderIndex);
+
+        // Map operator
+        String operatorStr = (String) cond.get("operator");
+        condition.setOperator(operatorType(operatorStr));
+
+        // Parse value
+        Object value = cond.get("value");
+        if (value == null) {
+            condition.setValueType(RuleValueType.STRING);
+            condition.setValueText(null);
+        } else if (value instanceof String) {
+            condition.setValueType(RuleValueType.STRING);
+            condition.setValueText((String) value);
+        } else if (value instanceof Number) {
+            if (value instanceof Integer || value instanceof Long) {
+                condition.setValueType(RuleValueType.INT);
+                condition.setValueNumber(((Number) value).longValue());
+            } else {
+                condition.setValueType(RuleValueType.BIG_DECIMAL);
+                condition.setValueDecimal(new BigDecimal(value.toString()));
+            }
+        } else if (value instanceof Boolean) {
+            condition.setValueType(RuleValueType.BOOLEAN);
+            condition.setValueBoolean((Boolean) value);
+        } else {
+            condition.setValueType(RuleValueType.STRING);
+            condition.setValueText(value.toString());
+        }
+
+        return condition;
+    }
+
+    /**
+     * Stored operator type of a UI operator
+     */
+    private static RuleOperatorType operatorType(String operatorStr) {
+        return switch (operatorStr) {
+            case "==" -> RuleOperatorType.EQUALS;
+            case "!=" -> RuleOperatorType.NOT_EQUALS;
+            case ">" -> RuleOperatorType.GT;
+            case ">=" -> RuleOperatorType.GTE;
+            case "<" -> RuleOperatorType.LT;
+            case "<=" -> RuleOperatorType.LTE;
+            case "contains" -> RuleOperatorType.STR_CONTAINS;
+            case "startsWith" -> RuleOperatorType.STR_STARTS_WITH;
+            case "endsWith" -> RuleOperatorType.STR_ENDS_WITH;
+            case "inList" -> RuleOperatorType.IN;
+            case "notInList" -> RuleOperatorType.NOT_IN;
+            default -> RuleOperatorType.EQUALS;
+        };
+    }
+
+    /**
+     * DRL spelling of a UI string operator; startsWith / endsWith are Drools str operators
+     */
+    private static String drlOperator(String operator) {
+        return switch (operator) {
+            case "startsWith" -> "str[startsWith]";
+            case "endsWith" -> "str[endsWith]";
+            default -> operator;
+        };
+    }
+
+    private static String valueExpression(Object valueObj, String fieldType) {
+        if (valueObj == null) {
+            return "null";
+        }
+
+        switch (fieldType) {
+            case "integer":
+            case "decimal":
+                return valueObj.toString();
+            case "boolean":
+                return String.valueOf(valueObj);
+            default:
+                String escaped = valueObj.toString()
+                    .replace("\\", "\\\\")
+                    .replace("\"", "\\\"");
+                return "\"" + escaped + "\"";
+        }
+    }
+
+    private static String escapeJavaString(String str) {
+        if (str == null) return "";
+        return str.replace("\\", "\\\\")
+                  .replace("\"", "\\\"")
+                  .replace("\n", "\\n")
+                  .replace("\r", "\\r")
+                  .replace("\t", "\\t");
+    }
+}
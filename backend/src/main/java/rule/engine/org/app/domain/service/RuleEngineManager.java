@@ -1,11 +1,18 @@
 package rule.engine.org.app.domain.service;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.kie.api.KieServices;
-import org.kie.api.builder.KieBuilder;
-import org.kie.api.builder.KieFileSystem;
+import org.kie.api.event.rule.AgendaEventListener;
 import org.kie.api.builder.KieModule;
 import org.kie.api.runtime.KieContainer;
 import org.kie.api.runtime.StatelessKieSession;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import rule.engine.org.app.domain.entity.ui.DecisionRule;
 import rule.engine.org.app.domain.entity.ui.FactType;
@@ -15,15 +22,20 @@ import rule.engine.org.app.domain.entity.execution.TotalRuleResults;
 import rule.engine.org.app.domain.repository.DecisionRuleRepository;
 import rule.engine.org.app.domain.repository.KieContainerVersionRepository;
 import rule.engine.org.app.domain.entity.ui.KieContainerVersion;
-import rule.engine.org.app.util.DrlConstants;
 
 import java.math.BigDecimal;
 import java.security.MessageDigest;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -32,33 +44,173 @@ public class RuleEngineManager {
     
     private final DecisionRuleRepository decisionRuleRepository;
     private final KieContainerVersionRepository containerVersionRepository;
-    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RuleSetCompiler ruleSetCompiler;
+    private final KieModuleArtifactStore artifactStore;
+    private final RuleExecutionMetrics ruleExecutionMetrics;
+    private final ReferenceLists referenceLists;
+    private final PredicateRuleCompiler predicateRuleCompiler;
+    private final MeterRegistry meterRegistry;
     
-    // Map to store containers by fact type
+    // Fact types whose live executions run on compiled predicates when all their rules allow it
+    private final Set<String> predicateFactTypes;
+    private final boolean bulkEnabled;
+    
+    // DEEP-stage gate: null runs DEEP for every fact
+    private final BigDecimal deepScoreThreshold;
+    private final Predicate<TotalRuleResults> skipDeep;
+    
+    // One build mutex per fact type: rebuilds of the same fact type are serialized,
+    // different fact types build in parallel, and executions never take these locks
+    private final Map<String, ReentrantLock> buildLocks = new ConcurrentHashMap<>();
+    
+    // Current container snapshot by fact type, replaced atomically on rebuild/deploy
     private final Map<String, ContainerInfo> containers = new ConcurrentHashMap<>();
     
+    // Compiled containers of historical versions for version-pinned execution, keyed by (factType, version).
+    // Async so concurrent callers for the same version share one compile without holding cache locks.
+    // Weighed by rule count as a proxy for KieBase memory; evicted entries are retired like replaced snapshots.
+    private final AsyncCache<VersionKey, ContainerInfo> versionContainers;
+    
+    // Notified after each execution on a live container (see RuleExecutionObserver)
+    private final List<RuleExecutionObserver> observers = new CopyOnWriteArrayList<>();
+    
     /**
-     * Container information for a specific fact type
+     * Cache key for a historical container version
+     */
+    private record VersionKey(String factType, long version) {
+    }
+    
+    /**
+     * Immutable container snapshot for a specific fact type
+     * Executions lease the snapshot while they use its container. The map slot holds one
+     * lease of its own, so the container is disposed only after the snapshot has been
+     * replaced (retired) and the last in-flight execution has released it.
+     * A refresh that changes no rule file reuses the container: its snapshot shares the
+     * container, and therefore the lease counter, with the snapshot it replaces.
      */
     private static class ContainerInfo {
         final KieContainer container;
         final KieModule kieModule;
-        volatile long version;
-        volatile String lastRulesHash;
+        final long version;
+        final String lastRulesHash;
+        final RuleSetCompiler.IncrementalState incrementalState;
+        // IDs of the rules compiled into the container
+        final Set<Long> ruleIds;
+        // Same rules compiled as Java predicates; null when the fact type runs on Drools
+        final PredicateRuleSet predicateRules;
+        // Vectorizable rules for bulk scoring; null when bulk scoring is off or nothing vectorizes
+        final ColumnarRuleSet columnarRules;
+        private final AtomicInteger leases;
         
-        ContainerInfo(KieContainer container, KieModule kieModule, long version, String lastRulesHash) {
+        ContainerInfo(KieContainer container, KieModule kieModule, long version, String lastRulesHash,
+                      RuleSetCompiler.IncrementalState incrementalState, Set<Long> ruleIds,
+                      PredicateRuleSet predicateRules, ColumnarRuleSet columnarRules) {
+            // Starts at 1 for the lease held by the containers map slot
+            this(container, kieModule, version, lastRulesHash, incrementalState, ruleIds, predicateRules, columnarRules, new AtomicInteger(1));
+        }
+        
+        private ContainerInfo(KieContainer container, KieModule kieModule, long version, String lastRulesHash,
+                              RuleSetCompiler.IncrementalState incrementalState, Set<Long> ruleIds,
+                              PredicateRuleSet predicateRules, ColumnarRuleSet columnarRules, AtomicInteger leases) {
             this.container = container;
             this.kieModule = kieModule;
             this.version = version;
             this.lastRulesHash = lastRulesHash;
+            this.incrementalState = incrementalState;
+            this.ruleIds = ruleIds;
+            this.predicateRules = predicateRules;
+            this.columnarRules = columnarRules;
+            this.leases = leases;
+        }
+        
+        /**
+         * Snapshot of the same, unchanged container under a new version
+         * Takes the new map slot's lease on the shared container.
+         */
+        ContainerInfo successor(long version, String lastRulesHash, Set<Long> ruleIds,
+                                PredicateRuleSet predicateRules, ColumnarRuleSet columnarRules) {
+            if (!tryAcquire()) {
+                throw new IllegalStateException("Container for version " + this.version + " has already been disposed");
+            }
+            return new ContainerInfo(container, kieModule, version, lastRulesHash, incrementalState, ruleIds, predicateRules, columnarRules, leases);
+        }
+        
+        /**
+         * Take a lease on this snapshot
+         * @return false if the snapshot has already been retired and disposed
+         */
+        boolean tryAcquire() {
+            int current;
+            do {
+                current = leases.get();
+                if (current <= 0) {
+                    return false;
+                }
+            } while (!leases.compareAndSet(current, current + 1));
+            return true;
+        }
+        
+        /**
+         * Return a lease; the last one out disposes the container
+         */
+        void release() {
+            if (leases.decrementAndGet() == 0 && container != null) {
+                container.dispose();
+            }
+        }
+        
+        /**
+         * Drop the map slot's lease after the snapshot has been replaced or removed
+         */
+        void retire() {
+            release();
         }
     }
     
     public RuleEngineManager(
             DecisionRuleRepository decisionRuleRepository,
-            KieContainerVersionRepository containerVersionRepository) {
+            KieContainerVersionRepository containerVersionRepository,
+            RuleSetCompiler ruleSetCompiler,
+            KieModuleArtifactStore artifactStore,
+            RuleExecutionMetrics ruleExecutionMetrics,
+            ReferenceLists referenceLists,
+            PredicateRuleCompiler predicateRuleCompiler,
+            MeterRegistry meterRegistry,
+            @Value("${rule-engine.version-cache.max-rules:20000}") long versionCacheMaxRules,
+            @Value("${rule-engine.version-cache.expire-after-access:30m}") Duration versionCacheExpireAfterAccess,
+            @Value("${rule-engine.stages.skip-deep-when-clean:false}") boolean skipDeepWhenClean,
+            @Value("${rule-engine.stages.deep-score-threshold:0}") BigDecimal deepScoreThreshold,
+            @Value("${rule-engine.predicate-backend.fact-types:}") List<String> predicateFactTypes,
+            @Value("${rule-engine.bulk.enabled:true}") boolean bulkEnabled) {
         this.decisionRuleRepository = decisionRuleRepository;
         this.containerVersionRepository = containerVersionRepository;
+        this.ruleSetCompiler = ruleSetCompiler;
+        this.artifactStore = artifactStore;
+        this.ruleExecutionMetrics = ruleExecutionMetrics;
+        this.referenceLists = referenceLists;
+        this.predicateRuleCompiler = predicateRuleCompiler;
+        this.meterRegistry = meterRegistry;
+        this.bulkEnabled = bulkEnabled;
+        this.predicateFactTypes = predicateFactTypes.stream()
+            .map(String::trim)
+            .filter(value -> !value.isEmpty())
+            .map(value -> FactType.fromValue(value).getValue())
+            .collect(Collectors.toSet());
+        this.deepScoreThreshold = deepScoreThreshold;
+        this.skipDeep = skipDeepWhenClean ? this::isClean : null;
+        this.versionContainers = Caffeine.newBuilder()
+            .maximumWeight(versionCacheMaxRules)
+            .weigher((VersionKey key, ContainerInfo info) -> 1 + countRules(info.container))
+            .expireAfterAccess(versionCacheExpireAfterAccess)
+            .removalListener((VersionKey key, ContainerInfo info, RemovalCause cause) -> {
+                if (info != null) {
+                    KieServices.Factory.get().getRepository().removeKieModule(info.kieModule.getReleaseId());
+                    info.retire();
+                }
+            })
+            .recordStats()
+            .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, versionContainers, "rule.engine.version.containers", Tags.empty());
         
         // Load all fact types and build containers
         initializeContainers();
@@ -68,21 +220,16 @@ public class RuleEngineManager {
      * Initialize containers for all fact types
      */
     private void initializeContainers() {
-        lock.writeLock().lock();
-        try {
-            // Get all distinct fact types
-            List<FactType> factTypes = decisionRuleRepository.findDistinctFactTypes();
-            if (factTypes.isEmpty()) {
-                // Default to "Declaration" if no fact types found
-                factTypes = Collections.singletonList(FactType.DECLARATION);
-            }
-            
-            // Build container for each fact type
-            for (FactType factType : factTypes) {
-                rebuildRulesForFactType(factType.getValue(), false);
-            }
-        } finally {
-            lock.writeLock().unlock();
+        // Get all distinct fact types
+        List<FactType> factTypes = decisionRuleRepository.findDistinctFactTypes();
+        if (factTypes.isEmpty()) {
+            // Default to "Declaration" if no fact types found
+            factTypes = Collections.singletonList(FactType.DECLARATION);
+        }
+        
+        // Build container for each fact type
+        for (FactType factType : factTypes) {
+            rebuildRulesForFactType(factType.getValue(), false);
         }
     }
     
@@ -90,25 +237,8 @@ public class RuleEngineManager {
      * Rebuild rules for all fact types without incrementing version (for refresh)
      */
     public void rebuildRules() {
-        lock.writeLock().lock();
-        try {
-            List<String> factTypes = new ArrayList<>(containers.keySet());
-            if (factTypes.isEmpty()) {
-                List<FactType> factTypeEnums = decisionRuleRepository.findDistinctFactTypes();
-                if (factTypeEnums.isEmpty()) {
-                    factTypes = Collections.singletonList(FactType.DECLARATION.getValue());
-                } else {
-                    factTypes = factTypeEnums.stream()
-                        .map(FactType::getValue)
-                        .collect(Collectors.toList());
-                }
-            }
-            
-            for (String factType : factTypes) {
-                rebuildRulesForFactType(factType, false);
-            }
-        } finally {
-            lock.writeLock().unlock();
+        for (String factType : resolveFactTypes()) {
+            rebuildRulesForFactType(factType, false);
         }
     }
     
@@ -123,25 +253,8 @@ public class RuleEngineManager {
      * Deploy rules for all fact types with version increment (for deploy)
      */
     public void deployRules() {
-        lock.writeLock().lock();
-        try {
-            List<String> factTypes = new ArrayList<>(containers.keySet());
-            if (factTypes.isEmpty()) {
-                List<FactType> factTypeEnums = decisionRuleRepository.findDistinctFactTypes();
-                if (factTypeEnums.isEmpty()) {
-                    factTypes = Collections.singletonList(FactType.DECLARATION.getValue());
-                } else {
-                    factTypes = factTypeEnums.stream()
-                        .map(FactType::getValue)
-                        .collect(Collectors.toList());
-                }
-            }
-            
-            for (String factType : factTypes) {
-                rebuildRulesForFactType(factType, true);
-            }
-        } finally {
-            lock.writeLock().unlock();
+        for (String factType : resolveFactTypes()) {
+            rebuildRulesForFactType(factType, true);
         }
     }
     
@@ -152,13 +265,43 @@ public class RuleEngineManager {
         rebuildRulesForFactType(factType, true);
     }
     
+    /**
+     * Fact types to rebuild: those with a live container, or those found in the database
+     */
+    private List<String> resolveFactTypes() {
+        List<String> factTypes = new ArrayList<>(containers.keySet());
+        if (factTypes.isEmpty()) {
+            List<FactType> factTypeEnums = decisionRuleRepository.findDistinctFactTypes();
+            if (factTypeEnums.isEmpty()) {
+                factTypes = Collections.singletonList(FactType.DECLARATION.getValue());
+            } else {
+                factTypes = factTypeEnums.stream()
+                    .map(FactType::getValue)
+                    .collect(Collectors.toList());
+            }
+        }
+        return factTypes;
+    }
+    
     /**
      * Internal method to rebuild rules for a specific fact type with optional version increment
+     * Runs as a staged pipeline: load rules, compile and verify all happen while executions keep
+     * using the current container; only the publish touches shared state, and it is a single map
+     * put. A failure before the publish leaves the current container live.
+     * When only a few rules changed, the compile stage builds a new container from the previous rule
+     * files with the changes applied, under the version's own ReleaseId (see RuleSetCompiler); a full
+     * rebuild is used otherwise and whenever the incremental path fails. The published container and
+     * its KieModule are never modified: in-flight executions keep using them until they release their lease.
+     * The version row of a deploy is written after the publish; if that fails, the previous
+     * snapshot is put back so the live container never runs ahead of the stored versions.
      */
     private void rebuildRulesForFactType(String factType, boolean incrementVersion) {
-        lock.writeLock().lock();
+        ReentrantLock buildLock = buildLocks.computeIfAbsent(factType, key -> new ReentrantLock());
+        buildLock.lock();
         try {
-            // Load latest active rules for this fact type
+            long buildStart = System.nanoTime();
+            
+            // Stage 1: load latest active rules for this fact type
             FactType factTypeEnum = FactType.fromValue(factType);
             List<DecisionRule> rules = decisionRuleRepository
                 .findByFactTypeAndIsLatestTrueAndActiveTrueOrderByPriorityAsc(factTypeEnum);
@@ -185,6 +328,9 @@ public class RuleEngineManager {
             }
             
             // Build list of rule IDs
+            Set<Long> liveRuleIds = rules.stream()
+                .map(DecisionRule::getId)
+                .collect(Collectors.toUnmodifiableSet());
             String ruleIds = rules.stream()
                 .map(rule -> rule.getId().toString())
                 .reduce((a, b) -> a + "," + b)
@@ -199,76 +345,226 @@ public class RuleEngineManager {
                 lastHash = currentRulesHash;
             }
             
-            KieContainerBuildResult buildResult = buildKieContainer(rules, factType, currentVersion);
-            
-            // Atomic swap
-            ContainerInfo oldInfo = containers.get(factType);
-            ContainerInfo newInfo = new ContainerInfo(
-                buildResult.container,
-                buildResult.kieModule,
-                currentVersion,
-                lastHash
-            );
-            containers.put(factType, newInfo);
-            
-            // Cleanup old container
-            if (oldInfo != null && oldInfo.container != null) {
-                oldInfo.container.dispose();
+            // Stage 2: compile - only the changed rules when the current build state allows it;
+            // on first build (startup) reuse a stored kjar compiled from the same rules;
+            // otherwise the whole rule set into a new container
+            RuleSetCompiler.IncrementalUpdate incrementalUpdate = null;
+            RuleSetCompiler.KieContainerBuildResult buildResult = null;
+            boolean loadedFromStore = false;
+            if (containerInfo != null) {
+                try {
+                    incrementalUpdate = ruleSetCompiler.incrementalUpdate(containerInfo.incrementalState, rules, factType);
+                    // A deploy always gets a module under its own version's ReleaseId; only a refresh
+                    // that changes no rule file keeps the current container
+                    if (incrementalUpdate != null && (!incrementalUpdate.isEmpty() || incrementVersion)) {
+                        buildResult = ruleSetCompiler.buildIncrementally(incrementalUpdate, factType,
+                            ruleSetCompiler.releaseId(factType, currentVersion));
+                        verifyBuild(buildResult);
+                    }
+                } catch (RuntimeException e) {
+                    System.err.println("[RULE ENGINE] ✗ Incremental update failed for " + factType + ", falling back to full rebuild: " + e.getMessage());
+                    if (buildResult != null) {
+                        buildResult.container.dispose();
+                    }
+                    incrementalUpdate = null;
+                    buildResult = null;
+                }
+            } else {
+                buildResult = artifactStore.load(factType, currentRulesHash, ruleSetCompiler.getBuildMode()).orElse(null);
+                if (buildResult != null) {
+                    try {
+                        verifyBuild(buildResult);
+                        loadedFromStore = true;
+                    } catch (RuntimeException e) {
+                        // Unusable stored artifact: compile instead
+                        buildResult.container.dispose();
+                        buildResult = null;
+                    }
+                }
+            }
+            boolean fullBuild = incrementalUpdate == null && buildResult == null;
+            if (fullBuild) {
+                buildResult = ruleSetCompiler.buildKieContainer(rules, factType, currentVersion);
             }
+            // Null buildResult: no rule file changed and the current container is reused as is
+            KieModule kieModule = buildResult != null ? buildResult.kieModule : containerInfo.kieModule;
             
-            // Only save version to database if deploying
-            if (incrementVersion) {
-                // Save version to database
-                KieContainerVersion versionEntity = new KieContainerVersion();
-                versionEntity.setFactType(factTypeEnum);
-                versionEntity.setVersion(currentVersion);
-                versionEntity.setRulesCount(rules.size());
-                versionEntity.setRulesHash(currentRulesHash);
-                versionEntity.setReleaseId(buildResult.kieModule.getReleaseId().toString());
-                versionEntity.setRuleIds(ruleIds);
-                
-                // Generate changes description
-                String changesDescription = generateChangesDescription(factTypeEnum.getValue(), rules, currentVersion, isNewVersion);
-                versionEntity.setChangesDescription(changesDescription);
-                
-                // Generate detailed rule changes (added, removed, updated)
-                String ruleChangesJson = generateRuleChangesJson(factTypeEnum.getValue(), rules, currentVersion);
-                versionEntity.setRuleChangesJson(ruleChangesJson);
+            KieContainerVersion versionEntity = null;
+            PredicateRuleSet predicateRules;
+            ColumnarRuleSet columnarRules;
+            try {
+                // Stage 3: verify the new container before anyone can use it
+                if (fullBuild) {
+                    verifyBuild(buildResult);
+                }
                 
-                containerVersionRepository.save(versionEntity);
+                predicateRules = predicateFactTypes.contains(factType)
+                    ? compilePredicateRules(rules, factType)
+                    : null;
+                columnarRules = bulkEnabled ? compileColumnarRules(rules, factType) : null;
                 
-                // Verify container after deployment
-                try {
-                    StatelessKieSession testSession = buildResult.container.newStatelessKieSession();
-                    // Execute a no-op command to validate session usability
-                    testSession.execute(java.util.Collections.emptyList());
-                    org.kie.api.KieBase kieBase = buildResult.container.getKieBase();
-                    int ruleCount = kieBase != null ? kieBase.getKiePackages().stream()
-                        .mapToInt(pkg -> pkg.getRules().size())
-                        .sum() : 0;
+                // Stage 4: prepare the version row (deploy only); written once the container is live
+                if (incrementVersion) {
+                    versionEntity = new KieContainerVersion();
+                    versionEntity.setFactType(factTypeEnum);
+                    versionEntity.setVersion(currentVersion);
+                    versionEntity.setRulesCount(rules.size());
+                    versionEntity.setRulesHash(currentRulesHash);
+                    versionEntity.setReleaseId(kieModule.getReleaseId().toString());
+                    versionEntity.setRuleIds(ruleIds);
+                    
+                    // Generate changes description
+                    String changesDescription = generateChangesDescription(factTypeEnum.getValue(), rules, currentVersion, isNewVersion);
+                    versionEntity.setChangesDescription(changesDescription);
                     
-                    // Log deploy with version and release ID
-                    System.out.println("[RULE ENGINE] ✓ Deployed " + factType + " v" + currentVersion + " with " + rules.size() + " rules");
-                    System.out.println("[RULE ENGINE]   ReleaseId: " + buildResult.kieModule.getReleaseId());
-                    System.out.println("[RULE ENGINE]   Hash: " + currentRulesHash.substring(0, 8) + "...");
-                    System.out.println("[RULE ENGINE]   ✓ Container verified: " + ruleCount + " rules loaded in KieBase");
-                    System.out.println("[RULE ENGINE]   ✓ Session creation test: PASSED");
-                } catch (Exception e) {
-                    System.err.println("[RULE ENGINE] ✗ WARNING: Container deployed but verification failed: " + e.getMessage());
-                    e.printStackTrace();
+                    // Generate detailed rule changes (added, removed, updated)
+                    String ruleChangesJson = generateRuleChangesJson(factTypeEnum.getValue(), rules, currentVersion);
+                    versionEntity.setRuleChangesJson(ruleChangesJson);
                 }
+            } catch (RuntimeException e) {
+                // New container never went live; current container stays published
+                if (buildResult != null) {
+                    buildResult.container.dispose();
+                }
+                throw e;
+            }
+            
+            Timer.builder("rule.engine.container.build")
+                .description("Time to load, compile and verify a rule set")
+                .tag("factType", factType)
+                .tag("mode", incrementalUpdate != null ? "incremental" : loadedFromStore ? "stored" : "full")
+                .register(meterRegistry)
+                .record(System.nanoTime() - buildStart, TimeUnit.NANOSECONDS);
+            
+            // Stage 5: publish - new executions see the new snapshot immediately (a single map put)
+            long swapStart = System.nanoTime();
+            ContainerInfo newInfo = buildResult != null
+                ? new ContainerInfo(buildResult.container, kieModule, currentVersion, lastHash, buildResult.incrementalState, liveRuleIds, predicateRules, columnarRules)
+                : containerInfo.successor(currentVersion, lastHash, liveRuleIds, predicateRules, columnarRules);
+            ContainerInfo oldInfo = containers.put(factType, newInfo);
+            long swapNanos = System.nanoTime() - swapStart;
+            Timer.builder("rule.engine.container.swap")
+                .description("Time the container publish (swap) window lasts")
+                .tag("factType", factType)
+                .register(meterRegistry)
+                .record(swapNanos, TimeUnit.NANOSECONDS);
+            
+            // Stage 6: persist version (deploy only)
+            if (versionEntity != null) {
+                try {
+                    containerVersionRepository.save(versionEntity);
+                } catch (RuntimeException e) {
+                    // Put the previous snapshot back (it still holds its map slot lease), and with it the
+                    // build state the next deploy compares against
+                    if (oldInfo != null) {
+                        containers.put(factType, oldInfo);
+                    } else {
+                        containers.remove(factType);
+                    }
+                    newInfo.retire();
+                    throw e;
+                }
+            }
+            // Per-rule meters of replaced versions would otherwise accumulate with every deploy
+            ruleExecutionMetrics.retire(factType, currentVersion);
+            
+            // Old container is disposed once in-flight executions on it have finished
+            // (when it was reused, the new snapshot's lease keeps it alive); containers created
+            // from its module keep it, the repository no longer needs to
+            if (oldInfo != null) {
+                if (!oldInfo.kieModule.getReleaseId().equals(kieModule.getReleaseId())) {
+                    KieServices.Factory.get().getRepository().removeKieModule(oldInfo.kieModule.getReleaseId());
+                }
+                oldInfo.retire();
+            }
+            
+            int ruleCount = countRules(newInfo.container);
+            if (incrementVersion) {
+                // Log deploy with version and release ID
+                System.out.println("[RULE ENGINE] ✓ Deployed " + factType + " v" + currentVersion + " with " + rules.size() + " rules");
+                System.out.println("[RULE ENGINE]   ReleaseId: " + kieModule.getReleaseId());
+                System.out.println("[RULE ENGINE]   Hash: " + currentRulesHash.substring(0, 8) + "...");
+                System.out.println("[RULE ENGINE]   ✓ Container verified: " + ruleCount + " rules loaded in KieBase");
+                System.out.println("[RULE ENGINE]   ✓ Session creation test: PASSED");
             } else {
                 // Log refresh without version increment
-                System.out.println("[RULE ENGINE] Refreshed " + factType + " with " + rules.size() + " rules (ReleaseId: " + buildResult.kieModule.getReleaseId() + ", Hash: " + currentRulesHash.substring(0, 8) + "...)");
+                System.out.println("[RULE ENGINE] Refreshed " + factType + " with " + rules.size() + " rules (ReleaseId: " + kieModule.getReleaseId() + ", Hash: " + currentRulesHash.substring(0, 8) + "...)");
+            }
+            if (loadedFromStore) {
+                System.out.println("[RULE ENGINE]   Loaded compiled KieModule from artifact store");
+            } else if (fullBuild) {
+                // Keep the compiled kjar so the next startup can skip compilation
+                artifactStore.save(factType, currentRulesHash, ruleSetCompiler.getBuildMode(), kieModule);
+            }
+            if (incrementalUpdate != null) {
+                System.out.println("[RULE ENGINE]   Incremental update: " + incrementalUpdate.added + " added, "
+                    + incrementalUpdate.updated + " updated, " + incrementalUpdate.removed + " removed");
+            }
+            if (predicateRules != null) {
+                System.out.println("[RULE ENGINE]   Backend: predicate (" + predicateRules.ruleCount() + " rules compiled to Java predicates)");
             }
+            if (columnarRules != null) {
+                System.out.println("[RULE ENGINE]   Bulk: " + columnarRules.vectorRuleCount() + " of " + rules.size() + " rules columnar");
+            }
+            System.out.println("[RULE ENGINE]   Swap: " + swapNanos + " ns");
         } finally {
-            lock.writeLock().unlock();
+            buildLock.unlock();
+        }
+    }
+    
+    /**
+     * Compile the rules into predicates for the predicate backend
+     * @return Null when some rule needs Drools; the fact type then keeps running on Drools
+     */
+    private PredicateRuleSet compilePredicateRules(List<DecisionRule> rules, String factType) {
+        try {
+            return predicateRuleCompiler.compile(rules, factType, skipDeep);
+        } catch (RuntimeException e) {
+            System.out.println("[RULE ENGINE]   Backend: drools (" + factType + " rules not compilable to predicates: " + e.getMessage() + ")");
+            return null;
+        }
+    }
+    
+    /**
+     * Compile the vectorizable rules for bulk scoring
+     * @return Null when no rule vectorizes or compilation fails; bulk scoring then fires per fact
+     */
+    private ColumnarRuleSet compileColumnarRules(List<DecisionRule> rules, String factType) {
+        try {
+            return predicateRuleCompiler.compileColumnar(rules, factType, skipDeep);
+        } catch (RuntimeException e) {
+            System.out.println("[RULE ENGINE]   Bulk: per fact (" + factType + " rules not compilable to columns: " + e.getMessage() + ")");
+            return null;
+        }
+    }
+    
+    /**
+     * Verify a freshly built container can create and run a session
+     */
+    private void verifyBuild(RuleSetCompiler.KieContainerBuildResult buildResult) {
+        try {
+            StatelessKieSession testSession = buildResult.container.newStatelessKieSession();
+            // Execute a no-op command to validate session usability
+            testSession.execute(java.util.Collections.emptyList());
+        } catch (Exception e) {
+            System.err.println("[RULE ENGINE] ✗ Container verification failed: " + e.getMessage());
+            throw new RuntimeException("Container verification failed for " + buildResult.kieModule.getReleaseId(), e);
         }
     }
     
+    /**
+     * Number of rules loaded in a container's KieBase
+     */
+    private int countRules(KieContainer container) {
+        org.kie.api.KieBase kieBase = container.getKieBase();
+        return kieBase != null ? kieBase.getKiePackages().stream()
+            .mapToInt(pkg -> pkg.getRules().size())
+            .sum() : 0;
+    }
+    
     /**
      * Calculate hash of rules to detect changes
-     * Hash is based on rule IDs, ruleContent, priority, and active status
+     * Hash is based on rule IDs, ruleContent, priority, evaluation stage, and active status
      */
     private String calculateRulesHash(List<DecisionRule> rules) {
         try {
@@ -280,6 +576,7 @@ public class RuleEngineManager {
                 hashInput.append(rule.getId()).append(":");
                 hashInput.append(rule.getRuleContent() != null ? rule.getRuleContent() : "").append(":");
                 hashInput.append(rule.getPriority()).append(":");
+                hashInput.append(rule.getEvaluationStage()).append(":");
                 hashInput.append(rule.getActive()).append("|");
             }
             
@@ -406,19 +703,20 @@ public class RuleEngineManager {
                         }
                     }
                     
-                    // Find updated rules (logical ID in both, but content/priority/active changed)
+                    // Find updated rules (logical ID in both, but content/priority/stage/active changed)
                     for (Long logicalId : currentLogicalIds) {
                         if (prevLogicalIds.contains(logicalId)) {
                             DecisionRule currentRule = currentRulesByLogicalId.get(logicalId);
                             DecisionRule prevRule = prevRulesByLogicalId.get(logicalId);
                             
                             if (currentRule != null && prevRule != null) {
-                                // Check if rule content, priority, or active status changed
+                                // Check if rule content, priority, stage, or active status changed
                                 boolean contentChanged = !Objects.equals(currentRule.getRuleContent(), prevRule.getRuleContent());
                                 boolean priorityChanged = !Objects.equals(currentRule.getPriority(), prevRule.getPriority());
+                                boolean stageChanged = currentRule.getEvaluationStage() != prevRule.getEvaluationStage();
                                 boolean activeChanged = !Objects.equals(currentRule.getActive(), prevRule.getActive());
                                 
-                                if (contentChanged || priorityChanged || activeChanged) {
+                                if (contentChanged || priorityChanged || stageChanged || activeChanged) {
                                     Map<String, Object> ruleInfo = new HashMap<>();
                                     ruleInfo.put("id", currentLogicalToActualId.get(logicalId));
                                     ruleInfo.put("name", currentRuleNames.get(logicalId));
@@ -464,13 +762,8 @@ public class RuleEngineManager {
      * @return Current container version, or 0 if not found
      */
     public long getContainerVersion(String factType) {
-        lock.readLock().lock();
-        try {
-            ContainerInfo info = containers.get(factType);
-            return info != null ? info.version : 0;
-        } finally {
-            lock.readLock().unlock();
-        }
+        ContainerInfo info = containers.get(factType);
+        return info != null ? info.version : 0;
     }
     
     /**
@@ -489,16 +782,11 @@ public class RuleEngineManager {
      * @return ReleaseId string, or null if container not built yet
      */
     public String getContainerReleaseId(String factType) {
-        lock.readLock().lock();
-        try {
-            ContainerInfo info = containers.get(factType);
-            if (info == null || info.kieModule == null) {
-                return null;
-            }
-            return info.kieModule.getReleaseId().toString();
-        } finally {
-            lock.readLock().unlock();
+        ContainerInfo info = containers.get(factType);
+        if (info == null || info.kieModule == null) {
+            return null;
         }
+        return info.kieModule.getReleaseId().toString();
     }
     
     /**
@@ -515,12 +803,7 @@ public class RuleEngineManager {
      * Get all fact types that have containers
      */
     public Set<String> getFactTypes() {
-        lock.readLock().lock();
-        try {
-            return new HashSet<>(containers.keySet());
-        } finally {
-            lock.readLock().unlock();
-        }
+        return new HashSet<>(containers.keySet());
     }
     
     /**
@@ -540,10 +823,9 @@ public class RuleEngineManager {
      * @return Map containing container status information
      */
     public Map<String, Object> getContainerStatus(String factType) {
-        lock.readLock().lock();
+        ContainerInfo info = acquire(factType);
         try {
             Map<String, Object> status = new HashMap<>();
-            ContainerInfo info = containers.get(factType);
             
             if (info == null) {
                 status.put("exists", false);
@@ -556,6 +838,7 @@ public class RuleEngineManager {
             status.put("version", info.version);
             status.put("releaseId", info.kieModule != null ? info.kieModule.getReleaseId().toString() : null);
             status.put("rulesHash", info.lastRulesHash);
+            status.put("backend", info.predicateRules != null ? info.predicateRules.name() : "drools");
             
             // Verify container can create session
             boolean valid = false;
@@ -583,7 +866,9 @@ public class RuleEngineManager {
             
             return status;
         } finally {
-            lock.readLock().unlock();
+            if (info != null) {
+                info.release();
+            }
         }
     }
     
@@ -592,16 +877,11 @@ public class RuleEngineManager {
      * @return Map of fact type -> container status
      */
     public Map<String, Map<String, Object>> getAllContainersStatus() {
-        lock.readLock().lock();
-        try {
-            Map<String, Map<String, Object>> allStatus = new HashMap<>();
-            for (String factType : containers.keySet()) {
-                allStatus.put(factType, getContainerStatus(factType));
-            }
-            return allStatus;
-        } finally {
-            lock.readLock().unlock();
+        Map<String, Map<String, Object>> allStatus = new HashMap<>();
+        for (String factType : containers.keySet()) {
+            allStatus.put(factType, getContainerStatus(factType));
         }
+        return allStatus;
     }
     
     /**
@@ -610,10 +890,9 @@ public class RuleEngineManager {
      * @return Map containing verification result
      */
     public Map<String, Object> verifyContainer(String factType) {
-        lock.readLock().lock();
+        ContainerInfo info = acquire(factType);
         try {
             Map<String, Object> result = new HashMap<>();
-            ContainerInfo info = containers.get(factType);
             
             if (info == null || info.container == null) {
                 result.put("success", false);
@@ -657,23 +936,47 @@ public class RuleEngineManager {
             
             return result;
         } finally {
-            lock.readLock().unlock();
+            if (info != null) {
+                info.release();
+            }
         }
     }
     
     /**
-     * Result of building KieContainer
+     * Lease the current container snapshot for a fact type
+     * Never blocks: if a rebuild retires the snapshot between the read and the lease,
+     * the newer snapshot that replaced it is picked up instead.
+     * Callers must release() the returned snapshot when done.
+     * @return Leased snapshot, or null if no container exists for the fact type
      */
-    private static class KieContainerBuildResult {
-        final KieContainer container;
-        final KieModule kieModule;
-        
-        KieContainerBuildResult(KieContainer container, KieModule kieModule) {
-            this.container = container;
-            this.kieModule = kieModule;
+    private ContainerInfo acquire(String factType) {
+        while (true) {
+            ContainerInfo info = containers.get(factType);
+            if (info == null) {
+                return null;
+            }
+            if (info.tryAcquire()) {
+                return info;
+            }
         }
     }
     
+    /**
+     * Register an observer of live executions
+     */
+    public void addObserver(RuleExecutionObserver observer) {
+        observers.add(observer);
+    }
+
+    /**
+     * Whether a rule ID is one of the rules of the live container of a fact type
+     * Hit attribution takes the ID from the rule name suffix, which hand-written DRL can set to anything.
+     */
+    public boolean isLiveRule(String factType, long ruleId) {
+        ContainerInfo info = containers.get(factType);
+        return info != null && info.ruleIds.contains(ruleId);
+    }
+
     /**
      * Fire rules for a specific fact type
      * @param factType Fact type (e.g., "Declaration", "Order")
@@ -681,9 +984,20 @@ public class RuleEngineManager {
      * @return TotalRuleResults
      */
     public TotalRuleResults fireRules(String factType, Object fact) {
-        lock.readLock().lock();
+        return fireRules(factType, fact, null);
+    }
+    
+    /**
+     * Fire rules for a specific fact type, halting once a hit with the terminal action is produced
+     * @param haltOn Terminal action (e.g., "REJECT"), or null to fire all matching rules
+     * @return TotalRuleResults, with truncated set when haltOn is given
+     */
+    public TotalRuleResults fireRules(String factType, Object fact, String haltOn) {
+        ContainerInfo info = acquire(factType);
+        TotalRuleResults results;
+        long version;
+        long elapsedNanos;
         try {
-            ContainerInfo info = containers.get(factType);
             if (info == null || info.container == null) {
                 TotalRuleResults empty = new TotalRuleResults();
                 empty.setRunAt(LocalDateTime.now());
@@ -691,21 +1005,68 @@ public class RuleEngineManager {
                 return empty;
             }
             
-            // Create result container
-            TotalRuleResults results = new TotalRuleResults();
-            results.setRunAt(LocalDateTime.now());
-            
-            StatelessKieSession session = info.container.newStatelessKieSession();
-            // Set TotalRuleResults as global so rules can add outputs
-            session.setGlobal("totalResults", results);
-            session.execute(fact);
-            
-            // Aggregate results after execution
-            aggregateResults(results);
+            version = info.version;
+            long start = System.nanoTime();
+            results = execute(backend(info), factType, version, fact, haltOn);
+            elapsedNanos = System.nanoTime() - start;
+        } finally {
+            if (info != null) {
+                info.release();
+            }
+        }
+        notifyObservers(factType, version, fact, results, elapsedNanos);
+        return results;
+    }
+    
+    private void notifyObservers(String factType, long version, Object fact, TotalRuleResults results, long elapsedNanos) {
+        for (RuleExecutionObserver observer : observers) {
+            try {
+                observer.onExecuted(factType, version, fact, results, elapsedNanos);
+            } catch (RuntimeException e) {
+                System.err.println("[RULE ENGINE] Execution observer " + observer.getClass().getSimpleName() + " failed: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Score many facts of one fact type at once against the current rule set (bulk rescoring)
+     * Vectorizable rules are evaluated column-at-a-time over the whole list; the remaining rules
+     * fire in Drools per fact. Results match fireRules() fact by fact (hits possibly in another
+     * order, which aggregation does not depend on), but are not passed to the execution observers:
+     * a rescoring run is not live traffic.
+     * @return Results in the order of the facts
+     */
+    public List<TotalRuleResults> fireRulesBulk(String factType, List<?> facts) {
+        ContainerInfo info = acquire(factType);
+        try {
+            List<TotalRuleResults> scored = new ArrayList<>(facts.size());
+            if (info == null || info.container == null) {
+                for (int i = 0; i < facts.size(); i++) {
+                    TotalRuleResults empty = new TotalRuleResults();
+                    empty.setRunAt(LocalDateTime.now());
+                    empty.setTotalScore(BigDecimal.ZERO);
+                    scored.add(empty);
+                }
+                return scored;
+            }
             
-            return results;
+            ColumnarRuleSet columnarRules = info.columnarRules;
+            if (columnarRules == null) {
+                RuleBackend backend = backend(info);
+                for (Object fact : facts) {
+                    scored.add(evaluate(backend, fact, null, null, null));
+                }
+                return scored;
+            }
+            RuleBackend fallback = columnarRules.fallbackRuleCount() > 0
+                ? new DroolsRuleBackend(info.container, ruleSetCompiler.factLayout(info.container), referenceLists,
+                    skipDeep, columnarRules.fallbackFilter())
+                : null;
+            return columnarRules.score(facts, fallback);
         } finally {
-            lock.readLock().unlock();
+            if (info != null) {
+                info.release();
+            }
         }
     }
     
@@ -718,7 +1079,7 @@ public class RuleEngineManager {
     
     /**
      * Fire rules with a specific version (for testing historical versions)
-     * This creates a temporary KieContainer from rules in the specified version
+     * The container for the specified version is compiled once and kept in a bounded cache
      * 
      * @param factType Fact type (e.g., "Declaration")
      * @param fact Fact object to evaluate
@@ -726,57 +1087,30 @@ public class RuleEngineManager {
      * @return TotalRuleResults
      */
     public TotalRuleResults fireRulesWithVersion(String factType, Object fact, long version) {
+        return fireRulesWithVersion(factType, fact, version, null);
+    }
+    
+    /**
+     * Fire rules with a specific version, halting once a hit with the terminal action is produced
+     * @param haltOn Terminal action (e.g., "REJECT"), or null to fire all matching rules
+     */
+    public TotalRuleResults fireRulesWithVersion(String factType, Object fact, long version, String haltOn) {
         try {
-            // Get the version from database
-            FactType factTypeEnum = FactType.fromValue(factType);
-            Optional<KieContainerVersion> versionOpt = containerVersionRepository
-                .findByFactTypeAndVersion(factTypeEnum, version);
-            
-            if (versionOpt.isEmpty()) {
-                throw new IllegalArgumentException("Version " + version + " not found for fact type " + factType);
-            }
-            
-            KieContainerVersion containerVersion = versionOpt.get();
-            String ruleIds = containerVersion.getRuleIds();
-            
-            if (ruleIds == null || ruleIds.isEmpty()) {
-                throw new IllegalArgumentException("No rules found in version " + version + " for fact type " + factType);
-            }
-            
-            // Parse rule IDs and load rules
-            List<Long> ruleIdList = Arrays.stream(ruleIds.split(","))
-                .filter(s -> !s.isEmpty())
-                .map(Long::parseLong)
-                .collect(Collectors.toList());
-            
-            List<DecisionRule> rules = decisionRuleRepository.findAllById(ruleIdList);
-            
-            if (rules.isEmpty()) {
-                throw new IllegalArgumentException("Rules not found for version " + version + " of fact type " + factType);
+            ContainerInfo info = acquireVersion(FactType.fromValue(factType).getValue(), version);
+            if (info == null) {
+                // Evicted before it could be leased (e.g. larger than the whole cache): use a one-off container
+                RuleSetCompiler.KieContainerBuildResult buildResult = buildVersionContainer(factType, version);
+                try {
+                    return execute(droolsBackend(buildResult.container), factType, version, fact, haltOn);
+                } finally {
+                    buildResult.container.dispose();
+                    KieServices.Factory.get().getRepository().removeKieModule(buildResult.kieModule.getReleaseId());
+                }
             }
-            
-            // Build temporary KieContainer with these rules
-            KieContainerBuildResult buildResult = buildKieContainer(rules, factType, version);
-            
             try {
-                // Create result container
-                TotalRuleResults results = new TotalRuleResults();
-                results.setRunAt(LocalDateTime.now());
-                
-                StatelessKieSession session = buildResult.container.newStatelessKieSession();
-                // Set TotalRuleResults as global so rules can add outputs
-                session.setGlobal("totalResults", results);
-                session.execute(fact);
-                
-                // Aggregate results after execution
-                aggregateResults(results);
-                
-                return results;
+                return execute(droolsBackend(info.container), factType, version, fact, haltOn);
             } finally {
-                // Cleanup temporary container
-                if (buildResult.container != null) {
-                    buildResult.container.dispose();
-                }
+                info.release();
             }
         } catch (Exception e) {
             System.err.println("[RULE ENGINE] Error executing rules with version " + version + " for fact type " + factType + ": " + e.getMessage());
@@ -784,7 +1118,147 @@ public class RuleEngineManager {
         }
     }
     
-    private void aggregateResults(TotalRuleResults results) {
+    /**
+     * Lease the cached container of a historical version, compiling it on a miss
+     * Concurrent misses for the same version wait on the same compile.
+     * @return Leased snapshot, or null if it was evicted before it could be leased
+     */
+    private ContainerInfo acquireVersion(String factType, long version) {
+        VersionKey key = new VersionKey(factType, version);
+        CompletableFuture<ContainerInfo> future = versionContainers.get(key, (k, executor) ->
+            CompletableFuture.supplyAsync(() -> {
+                RuleSetCompiler.KieContainerBuildResult buildResult = buildVersionContainer(k.factType(), k.version());
+                return new ContainerInfo(buildResult.container, buildResult.kieModule, k.version(), null, null, Set.of(), null, null);
+            }, executor));
+        ContainerInfo info;
+        try {
+            info = future.join();
+        } catch (CompletionException e) {
+            // Failed compiles are not cached; surface the original error
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return info.tryAcquire() ? info : null;
+    }
+    
+    /**
+     * Compile the rules recorded for a historical version
+     * Uses its own ReleaseId so it never replaces a deployed module in the KieRepository.
+     */
+    private RuleSetCompiler.KieContainerBuildResult buildVersionContainer(String factType, long version) {
+        List<DecisionRule> rules = loadVersionRules(factType, version);
+        org.kie.api.builder.ReleaseId releaseId = KieServices.Factory.get()
+            .newReleaseId("org.rule.history", factType.toLowerCase(), version + ".0.0");
+        return ruleSetCompiler.buildKieContainer(rules, factType, releaseId, ruleSetCompiler.getBuildMode());
+    }
+    
+    /**
+     * Load the rules recorded for a historical version
+     * @throws IllegalArgumentException if the version or its rules do not exist
+     */
+    List<DecisionRule> loadVersionRules(String factType, long version) {
+        // Get the version from database
+        FactType factTypeEnum = FactType.fromValue(factType);
+        Optional<KieContainerVersion> versionOpt = containerVersionRepository
+            .findByFactTypeAndVersion(factTypeEnum, version);
+        
+        if (versionOpt.isEmpty()) {
+            throw new IllegalArgumentException("Version " + version + " not found for fact type " + factType);
+        }
+        
+        KieContainerVersion containerVersion = versionOpt.get();
+        String ruleIds = containerVersion.getRuleIds();
+        
+        if (ruleIds == null || ruleIds.isEmpty()) {
+            throw new IllegalArgumentException("No rules found in version " + version + " for fact type " + factType);
+        }
+        
+        // Parse rule IDs and load rules
+        List<Long> ruleIdList = Arrays.stream(ruleIds.split(","))
+            .filter(s -> !s.isEmpty())
+            .map(Long::parseLong)
+            .collect(Collectors.toList());
+        
+        List<DecisionRule> rules = decisionRuleRepository.findAllById(ruleIdList);
+        
+        if (rules.isEmpty()) {
+            throw new IllegalArgumentException("Rules not found for version " + version + " of fact type " + factType);
+        }
+        return rules;
+    }
+    
+    /**
+     * Run one fact through a rule backend and aggregate the hits
+     * @param haltOn Terminal action that stops firing, or null to fire all matching rules
+     */
+    private TotalRuleResults execute(RuleBackend backend, String factType, long version, Object fact, String haltOn) {
+        // Per-rule metrics on a sampled fraction of executions (Drools only: predicates have no agenda)
+        AgendaEventListener metricsListener = ruleExecutionMetrics.sample(factType, version);
+        long[] stageNanos = new long[StagedEvaluation.STAGES.length];
+        TotalRuleResults results = evaluate(backend, fact, haltOn, metricsListener, stageNanos);
+        ruleExecutionMetrics.recordStages(factType, stageNanos);
+        return results;
+    }
+    
+    /**
+     * Fire one fact through a container's evaluation stages and aggregate the hits
+     * Shared with shadow execution so candidates are evaluated exactly like live executions.
+     * @param listener Extra agenda listener (e.g. sampled metrics), or null
+     * @param stageNanos Receives per-stage timings (see StagedEvaluation), or null
+     */
+    TotalRuleResults evaluate(KieContainer container, Object fact, String haltOn,
+                              AgendaEventListener listener, long[] stageNanos) {
+        return evaluate(droolsBackend(container), fact, haltOn, listener, stageNanos);
+    }
+    
+    private TotalRuleResults evaluate(RuleBackend backend, Object fact, String haltOn,
+                                      AgendaEventListener listener, long[] stageNanos) {
+        // Create result container
+        TotalRuleResults results = new TotalRuleResults();
+        results.setRunAt(LocalDateTime.now());
+        
+        backend.fire(fact, results, haltOn, listener, stageNanos);
+        
+        // Aggregate results after execution
+        aggregateResults(results);
+        
+        return results;
+    }
+    
+    /**
+     * Backend serving live executions of a snapshot: its predicate rules when compiled, else Drools
+     */
+    private RuleBackend backend(ContainerInfo info) {
+        return info.predicateRules != null ? info.predicateRules : droolsBackend(info.container);
+    }
+    
+    private RuleBackend droolsBackend(KieContainer container) {
+        return new DroolsRuleBackend(container, ruleSetCompiler.factLayout(container), referenceLists, skipDeep);
+    }
+    
+    /**
+     * Whether the stages before DEEP found nothing worth a deep look:
+     * no hit with an action other than APPROVE and a total score at or below the threshold
+     */
+    private boolean isClean(TotalRuleResults results) {
+        BigDecimal score = BigDecimal.ZERO;
+        for (RuleOutputHit hit : results.getHits()) {
+            if (hit.getAction() != null && !hit.getAction().isEmpty() && !"APPROVE".equalsIgnoreCase(hit.getAction())) {
+                return false;
+            }
+            if (hit.getScore() != null) {
+                score = score.add(hit.getScore());
+            }
+        }
+        return score.compareTo(deepScoreThreshold) <= 0;
+    }
+    
+    /**
+     * Compute total score, final action and final flag from the hits
+     */
+    static void aggregateResults(TotalRuleResults results) {
         if (results.getHits().isEmpty()) {
             results.setTotalScore(BigDecimal.ZERO);
             results.setFinalAction("APPROVE"); // Default if no hits
@@ -814,131 +1288,30 @@ public class RuleEngineManager {
             .orElse("APPROVE");
         results.setFinalAction(finalAction);
         
-        // Determine final flag (use first non-null flag, or highest score flag)
+        // Determine final flag (flag of the highest score hit)
+        // Ties go to the lowest rule ID, then the first flag alphabetically: rules of equal priority fire in
+        // no fixed order, and bulk mode adds columnar and Drools hits separately, so hit order must not matter
         String finalFlag = results.getHits().stream()
             .filter(hit -> hit.getFlag() != null && !hit.getFlag().isEmpty())
-            .max(Comparator.comparing(hit -> hit.getScore() != null ? hit.getScore() : BigDecimal.ZERO))
+            .max(Comparator.comparing((RuleOutputHit hit) -> hit.getScore() != null ? hit.getScore() : BigDecimal.ZERO)
+                .thenComparing(RuleOutputHit::getRuleId, Comparator.nullsFirst(Comparator.<Long>reverseOrder()))
+                .thenComparing(RuleOutputHit::getFlag, Comparator.reverseOrder()))
             .map(RuleOutputHit::getFlag)
             .orElse(null);
         results.setFinalFlag(finalFlag);
     }
     
-    private KieContainerBuildResult buildKieContainer(List<DecisionRule> rules, String factType, long versionNumber) {
-        KieServices kieServices = KieServices.Factory.get();
-        KieFileSystem kfs = kieServices.newKieFileSystem();
-        
-        // Set ReleaseId with format: org.rule.{factType}:{version}
-        // groupId: "org.rule"
-        // artifactId: factType in lowercase (e.g., "declaration", "cargoreport") - Maven convention
-        // version: use actual version number (e.g., "1.0.0", "2.0.0", "3.0.0")
-        String groupId = "org.rule";
-        String artifactId = factType.toLowerCase();
-        String version = versionNumber + ".0.0";
-        org.kie.api.builder.ReleaseId releaseId = kieServices.newReleaseId(groupId, artifactId, version);
-        kfs.generateAndWritePomXML(releaseId);
-        
-        StringBuilder drl = new StringBuilder();
-        
-        // DRL header (package, imports, globals)
-        drl.append(DrlConstants.buildDrlHeader());
-        
-        for (DecisionRule rule : rules) {
-            // Use ruleContent directly (complete DRL)
-            String ruleContent = rule.getRuleContent();
-            if (ruleContent == null || ruleContent.isBlank()) {
-                // Fallback: build minimal DRL if ruleContent is missing
-                String droolsRuleName = rule.getRuleName() + "_" + rule.getId();
-                drl.append("rule \"").append(droolsRuleName).append("\"\n");
-                drl.append("salience ").append(rule.getPriority()).append("\n");
-                drl.append("when\n");
-                drl.append("    $d : ").append(factType).append("()\n");
-                drl.append("then\n");
-                drl.append("    System.out.println(\"[DROOLS] Rule '").append(rule.getRuleName())
-                   .append("' matched for ").append(factType.toLowerCase()).append(": \" + $d);\n");
-                drl.append("end\n\n");
-            } else {
-                // ruleContent is complete DRL (includes package, imports, globals, and rule)
-                // Extract just the rule definition part (skip package/imports/global if present)
-                String ruleDefinition = extractRuleDefinition(ruleContent);
-                if (ruleDefinition != null && !ruleDefinition.isBlank()) {
-                    drl.append(ruleDefinition);
-                    if (!ruleDefinition.endsWith("\n")) {
-                        drl.append("\n");
-                    }
-                    drl.append("\n"); // Add blank line between rules
-                }
-            }
-        }
-        
-        kfs.write("src/main/resources/rules/" + factType.toLowerCase() + "_rules.drl", drl.toString());
-        
-        KieBuilder kieBuilder = kieServices.newKieBuilder(kfs).buildAll();
-        
-        // Check for build errors
-        if (kieBuilder.getResults().hasMessages(org.kie.api.builder.Message.Level.ERROR)) {
-            throw new RuntimeException("Error building KieModule for fact type " + factType + ": " + kieBuilder.getResults().getMessages());
-        }
-        
-        KieModule kieModule = kieBuilder.getKieModule();
-        
-        // Register KieModule in KieRepository before creating container
-        // This ensures the KieModule can be found when creating container from ReleaseId
-        kieServices.getRepository().addKieModule(kieModule);
-        
-        // Create container from the built KieModule's ReleaseId
-        KieContainer container = kieServices.newKieContainer(kieModule.getReleaseId());
-        
-        return new KieContainerBuildResult(container, kieModule);
-    }
-    
-    /**
-     * Extract rule definition from complete DRL content
-     * Removes package, imports, and globals, keeping only the rule definition
-     */
-    private String extractRuleDefinition(String completeDrl) {
-        if (completeDrl == null || completeDrl.isBlank()) {
-            return null;
-        }
-        
-        // Find the start of rule definition (look for "rule \"")
-        int ruleStart = completeDrl.indexOf("rule \"");
-        if (ruleStart == -1) {
-            // If no "rule \"" found, try to find just "rule "
-            ruleStart = completeDrl.indexOf("rule ");
-            if (ruleStart == -1) {
-                return null;
-            }
-        }
-        
-        // Extract from "rule" to end of file
-        String rulePart = completeDrl.substring(ruleStart);
-        
-        // Trim any leading/trailing whitespace
-        rulePart = rulePart.trim();
-        
-        // Ensure it ends with newline
-        if (!rulePart.endsWith("\n")) {
-            rulePart = rulePart + "\n";
-        }
-        
-        return rulePart;
-    }
-    
     /**
      * Dispose all containers (cleanup on shutdown)
      */
     @jakarta.annotation.PreDestroy
     public void disposeAll() {
-        lock.writeLock().lock();
-        try {
-            for (ContainerInfo info : containers.values()) {
-                if (info.container != null) {
-                    info.container.dispose();
-                }
+        for (String factType : new ArrayList<>(containers.keySet())) {
+            ContainerInfo info = containers.remove(factType);
+            if (info != null) {
+                info.retire();
             }
-            containers.clear();
-        } finally {
-            lock.writeLock().unlock();
         }
+        versionContainers.synchronous().invalidateAll();
     }
 }
@@ -0,0 +1,260 @@
+package rule.engine.org.app.domain.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Runs large scoring workloads as asynchronous jobs on virtual threads
+ * Submitting returns immediately, so no servlet thread is held for the duration of the run.
+ * Each job runs on its own virtual thread and executes its items on a per-job virtual-thread
+ * executor. The executor is closed with try-with-resources, which waits for every item, so a
+ * job never finishes with work still running. A semaphore shared by all jobs caps concurrent
+ * executions, because rule evaluation is CPU-bound however many virtual threads exist.
+ * Cancelling shuts the job's executor down, interrupting the items still running; the job
+ * reports CANCELLING until every item has settled and returned its permit, then CANCELLED.
+ * Jobs and their results are kept in memory; a background task drops finished jobs once the
+ * retention period has passed.
+ */
+@Service
+public class RuleExecutionJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(RuleExecutionJobService.class);
+
+    /**
+     * Lifecycle state of a job
+     */
+    public enum JobStatus {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        // Cancel requested, items still settling
+        CANCELLING,
+        CANCELLED
+    }
+
+    /**
+     * Progress and results of one job
+     */
+    public static class Job {
+        private final String id;
+        private final int total;
+        private final Instant submittedAt = Instant.now();
+        private final AtomicInteger completed = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final Object[] results;
+        private volatile JobStatus status = JobStatus.QUEUED;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+        // Set while the job runs; guarded by the job's monitor together with status changes
+        private Thread runner;
+        private ExecutorService executor;
+
+        Job(String id, int total) {
+            this.id = id;
+            this.total = total;
+            this.results = new Object[total];
+        }
+
+        public String getId() { return id; }
+        public JobStatus getStatus() { return status; }
+        public int getTotal() { return total; }
+        public int getCompleted() { return completed.get(); }
+        public int getFailed() { return failed.get(); }
+        public Instant getSubmittedAt() { return submittedAt; }
+        public Instant getStartedAt() { return startedAt; }
+        public Instant getFinishedAt() { return finishedAt; }
+
+        public boolean isDone() {
+            return status == JobStatus.COMPLETED || status == JobStatus.CANCELLED;
+        }
+
+        /**
+         * Items completed per second since the job started
+         */
+        public double getThroughputPerSecond() {
+            Instant start = startedAt;
+            if (start == null) {
+                return 0;
+            }
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            long millis = Math.max(1, Duration.between(start, end).toMillis());
+            return completed.get() * 1000.0 / millis;
+        }
+
+        /**
+         * Results in input order; entries for items not yet finished are null
+         */
+        @SuppressWarnings("unchecked")
+        public <R> List<R> getResults(int offset, int limit) {
+            int from = Math.min(Math.max(0, offset), total);
+            int to = Math.min(total, from + Math.max(0, limit));
+            return new ArrayList<>((List<R>) Arrays.asList(results).subList(from, to));
+        }
+    }
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final Semaphore executionPermits;
+    private final Duration retention;
+    private final ScheduledExecutorService evictor;
+
+    public RuleExecutionJobService(
+            @Value("${rule-engine.jobs.max-concurrent-executions:0}") int maxConcurrentExecutions,
+            @Value("${rule-engine.jobs.retention:1h}") Duration retention) {
+        int permits = maxConcurrentExecutions > 0
+            ? maxConcurrentExecutions
+            : Runtime.getRuntime().availableProcessors() * 2;
+        this.executionPermits = new Semaphore(permits);
+        this.retention = retention;
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rule-job-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long evictPeriodMillis = Math.max(1000, Math.min(retention.toMillis(), TimeUnit.MINUTES.toMillis(1)));
+        evictor.scheduleWithFixedDelay(this::evictExpiredJobs, evictPeriodMillis, evictPeriodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Start a job that applies task to every input
+     * @param inputs Items to process
+     * @param task Work to run for each item
+     * @param onError Builds the result for an item whose task threw (counted as failed)
+     * @return The queued job
+     */
+    public <T, R> Job submit(List<T> inputs, Function<T, R> task, BiFunction<T, Exception, R> onError) {
+        Job job = new Job(UUID.randomUUID().toString(), inputs.size());
+        jobs.put(job.id, job);
+        Thread runner = Thread.ofVirtual()
+            .name("rule-job-" + job.id)
+            .unstarted(() -> run(job, inputs, task, onError));
+        synchronized (job) {
+            job.runner = runner;
+        }
+        runner.start();
+        return job;
+    }
+
+    public Optional<Job> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    /**
+     * Stop a job: items not yet started are skipped, running items are interrupted
+     * The job stays CANCELLING until its running items have settled.
+     * @return false if the job does not exist or has already finished
+     */
+    public boolean cancel(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            return false;
+        }
+        ExecutorService executor;
+        Thread runner;
+        synchronized (job) {
+            if (job.isDone()) {
+                return false;
+            }
+            job.status = JobStatus.CANCELLING;
+            executor = job.executor;
+            runner = job.runner;
+        }
+        if (executor != null) {
+            // Interrupts running items; their finally blocks still return the permits
+            executor.shutdownNow();
+        }
+        if (runner != null) {
+            // Wakes the submit loop if it is waiting for a permit
+            runner.interrupt();
+        }
+        return true;
+    }
+
+    private <T, R> void run(Job job, List<T> inputs, Function<T, R> task, BiFunction<T, Exception, R> onError) {
+        job.startedAt = Instant.now();
+        // close() waits for every submitted item, also after a cancel has shut the executor down
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            synchronized (job) {
+                if (job.status == JobStatus.QUEUED) {
+                    job.status = JobStatus.RUNNING;
+                }
+                job.executor = executor;
+            }
+            for (int i = 0; i < inputs.size() && job.status == JobStatus.RUNNING; i++) {
+                // Throttle before starting the next item so at most the permitted number run at once
+                executionPermits.acquire();
+                int index = i;
+                T input = inputs.get(i);
+                try {
+                    executor.submit(() -> {
+                        try {
+                            if (job.status != JobStatus.RUNNING) {
+                                return;
+                            }
+                            try {
+                                job.results[index] = task.apply(input);
+                            } catch (Exception e) {
+                                if (job.status != JobStatus.RUNNING) {
+                                    // Interrupted by a cancel: the item was not evaluated, not failed
+                                    return;
+                                }
+                                job.results[index] = onError.apply(input, e);
+                                job.failed.incrementAndGet();
+                            }
+                            job.completed.incrementAndGet();
+                        } finally {
+                            executionPermits.release();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    // Executor shut down by a cancel between the status check and the submit
+                    executionPermits.release();
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            // Interrupted by a cancel while waiting for a permit; the status is already CANCELLING
+        } finally {
+            synchronized (job) {
+                job.finishedAt = Instant.now();
+                job.status = job.status == JobStatus.RUNNING ? JobStatus.COMPLETED : JobStatus.CANCELLED;
+                job.executor = null;
+                job.runner = null;
+            }
+            log.info("Rule execution job {} {}: {}/{} items, {} failed, {} items/s",
+                job.id, job.status, job.completed.get(), job.total, job.failed.get(),
+                String.format("%.1f", job.getThroughputPerSecond()));
+        }
+    }
+
+    private void evictExpiredJobs() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.isDone() && job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        evictor.shutdownNow();
+    }
+}
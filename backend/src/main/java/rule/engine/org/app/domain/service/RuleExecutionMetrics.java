@@ -0,0 +1,202 @@
+package rule.engine.org.app.domain.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.kie.api.event.rule.AfterMatchFiredEvent;
+import org.kie.api.event.rule.AgendaEventListener;
+import org.kie.api.event.rule.BeforeMatchFiredEvent;
+import org.kie.api.event.rule.DefaultAgendaEventListener;
+import org.kie.api.event.rule.MatchCreatedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import rule.engine.org.app.domain.entity.ui.EvaluationStage;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-rule execution metrics exported through Micrometer (see /actuator/metrics)
+ *
+ * A sampled fraction of executions gets an agenda listener that records, per rule name,
+ * fact type and container version:
+ * - rule.engine.rule.matches: activations created (rule conditions matched)
+ * - rule.engine.rule.fired: activations fired
+ * - rule.engine.rule.consequence: time spent in the rule consequence
+ * Counts cover sampled executions only; rule.engine.executions and rule.engine.executions.sampled
+ * give the ratio to scale them. Unsampled executions pay only for the two counter increments
+ * and the per-stage meters, which are recorded for every execution:
+ * - rule.engine.stage: time spent firing each evaluation stage
+ * - rule.engine.stage.skipped: stages not run (DEEP skipped for clean facts, or halted earlier)
+ * Per-rule meters of a fact type are removed from the registry when a new container version is
+ * published (see retire), so their number stays bounded by the rules of the live version plus
+ * whatever version-pinned executions sampled since the last publish.
+ */
+@Component
+public class RuleExecutionMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final double sampleRate;
+
+    // Meters per (fact type, version, rule), cached so sampled executions do not rebuild meter IDs
+    private final Map<RuleKey, RuleMeters> ruleMeters = new ConcurrentHashMap<>();
+    private final Map<String, Counter[]> executionCounters = new ConcurrentHashMap<>();
+    private final Map<String, StageMeters[]> stageMeters = new ConcurrentHashMap<>();
+
+    public RuleExecutionMetrics(
+            MeterRegistry meterRegistry,
+            @Value("${rule-engine.metrics.sample-rate:0.01}") double sampleRate) {
+        this.meterRegistry = meterRegistry;
+        this.sampleRate = sampleRate;
+    }
+
+    private record RuleKey(String factType, String version, String ruleName) {
+    }
+
+    private static class RuleMeters {
+        final Counter matches;
+        final Counter fired;
+        final Timer consequence;
+
+        RuleMeters(Counter matches, Counter fired, Timer consequence) {
+            this.matches = matches;
+            this.fired = fired;
+            this.consequence = consequence;
+        }
+    }
+
+    private static class StageMeters {
+        final Timer duration;
+        final Counter skipped;
+
+        StageMeters(Timer duration, Counter skipped) {
+            this.duration = duration;
+            this.skipped = skipped;
+        }
+    }
+
+    /**
+     * Count an execution and decide whether to sample it
+     * @return Listener to register on the execution's session, or null if this execution is not sampled
+     */
+    public AgendaEventListener sample(String factType, long version) {
+        Counter[] counters = executionCounters.computeIfAbsent(factType, key -> new Counter[] {
+            Counter.builder("rule.engine.executions")
+                .description("Rule executions")
+                .tag("factType", key)
+                .register(meterRegistry),
+            Counter.builder("rule.engine.executions.sampled")
+                .description("Rule executions with per-rule metrics recorded")
+                .tag("factType", key)
+                .register(meterRegistry)
+        });
+        counters[0].increment();
+
+        if (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return null;
+        }
+        counters[1].increment();
+        return new SampledListener(factType, String.valueOf(version));
+    }
+
+    /**
+     * Record the stage timings of one execution
+     * @param stageNanos Time per stage by ordinal, StagedEvaluation.NOT_RUN for stages that did not run
+     */
+    public void recordStages(String factType, long[] stageNanos) {
+        StageMeters[] meters = stageMeters.computeIfAbsent(factType, key -> {
+            StageMeters[] created = new StageMeters[StagedEvaluation.STAGES.length];
+            for (EvaluationStage stage : StagedEvaluation.STAGES) {
+                String stageName = stage.name();
+                created[stage.ordinal()] = new StageMeters(
+                    Timer.builder("rule.engine.stage")
+                        .description("Time spent firing an evaluation stage")
+                        .tags("factType", key, "stage", stageName)
+                        .register(meterRegistry),
+                    Counter.builder("rule.engine.stage.skipped")
+                        .description("Evaluation stages not run")
+                        .tags("factType", key, "stage", stageName)
+                        .register(meterRegistry));
+            }
+            return created;
+        });
+        for (int i = 0; i < meters.length; i++) {
+            if (stageNanos[i] == StagedEvaluation.NOT_RUN) {
+                meters[i].skipped.increment();
+            } else {
+                meters[i].duration.record(stageNanos[i], TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Drop the per-rule meters of every other version of a fact type once a version is published
+     * A sampled execution still running on the replaced container may register a meter again;
+     * it is dropped with the next publish.
+     */
+    public void retire(String factType, long liveVersion) {
+        String live = String.valueOf(liveVersion);
+        ruleMeters.entrySet().removeIf(entry -> {
+            RuleKey key = entry.getKey();
+            if (!key.factType().equals(factType) || key.version().equals(live)) {
+                return false;
+            }
+            RuleMeters meters = entry.getValue();
+            meterRegistry.remove(meters.matches);
+            meterRegistry.remove(meters.fired);
+            meterRegistry.remove(meters.consequence);
+            return true;
+        });
+    }
+
+    private RuleMeters meters(String factType, String version, String ruleName) {
+        return ruleMeters.computeIfAbsent(new RuleKey(factType, version, ruleName), key -> new RuleMeters(
+            Counter.builder("rule.engine.rule.matches")
+                .description("Rule activations created")
+                .tags("factType", factType, "version", version, "rule", ruleName)
+                .register(meterRegistry),
+            Counter.builder("rule.engine.rule.fired")
+                .description("Rule activations fired")
+                .tags("factType", factType, "version", version, "rule", ruleName)
+                .register(meterRegistry),
+            Timer.builder("rule.engine.rule.consequence")
+                .description("Time spent in rule consequences")
+                .tags("factType", factType, "version", version, "rule", ruleName)
+                .register(meterRegistry)
+        ));
+    }
+
+    /**
+     * Listener for one sampled execution; the execution's session fires on a single thread
+     */
+    private class SampledListener extends DefaultAgendaEventListener {
+        private final String factType;
+        private final String version;
+        private long firedAt;
+
+        SampledListener(String factType, String version) {
+            this.factType = factType;
+            this.version = version;
+        }
+
+        @Override
+        public void matchCreated(MatchCreatedEvent event) {
+            meters(factType, version, event.getMatch().getRule().getName()).matches.increment();
+        }
+
+        @Override
+        public void beforeMatchFired(BeforeMatchFiredEvent event) {
+            firedAt = System.nanoTime();
+        }
+
+        @Override
+        public void afterMatchFired(AfterMatchFiredEvent event) {
+            long elapsed = System.nanoTime() - firedAt;
+            RuleMeters meters = meters(factType, version, event.getMatch().getRule().getName());
+            meters.fired.increment();
+            meters.consequence.record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+}
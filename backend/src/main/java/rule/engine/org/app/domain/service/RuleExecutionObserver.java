@@ -0,0 +1,21 @@
+package rule.engine.org.app.domain.service;
+
+import rule.engine.org.app.domain.entity.execution.TotalRuleResults;
+
+/**
+ * Callback for executions against the live (deployed) container of a fact type
+ * Observers run on the executing thread after the results are aggregated, so they must
+ * return quickly and hand any real work off to another thread. Exceptions are logged and
+ * never affect the execution. Register with RuleEngineManager.addObserver.
+ */
+public interface RuleExecutionObserver {
+
+    /**
+     * @param factType Fact type the rules ran for
+     * @param version Container version that produced the results
+     * @param fact Fact that was evaluated
+     * @param results Aggregated results; observers must not modify them
+     * @param elapsedNanos Time the rule execution took
+     */
+    void onExecuted(String factType, long version, Object fact, TotalRuleResults results, long elapsedNanos);
+}
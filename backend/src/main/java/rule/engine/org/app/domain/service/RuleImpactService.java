@@ -0,0 +1,377 @@
+package rule.engine.org.app.domain.service;
+
+import org.kie.api.KieServices;
+import org.kie.api.builder.ReleaseId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import rule.engine.org.app.domain.entity.execution.TotalRuleResults;
+import rule.engine.org.app.domain.entity.execution.declaration.Declaration;
+import rule.engine.org.app.domain.entity.execution.declaration.GovernmentAgencyGoodsItem;
+import rule.engine.org.app.domain.entity.ui.DecisionRule;
+import rule.engine.org.app.domain.entity.ui.FactType;
+import rule.engine.org.app.domain.entity.ui.RuleCondition;
+import rule.engine.org.app.domain.entity.ui.RuleConditionGroup;
+import rule.engine.org.app.domain.entity.ui.RuleGroupType;
+import rule.engine.org.app.domain.entity.ui.RuleOperatorType;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Estimates how many stored declarations a proposed rule would hit
+ *
+ * The rule's structured conditions are translated into a parameterized SQL predicate over
+ * declarations (alias d), with goods item conditions as EXISTS subqueries served by the
+ * (declaration_id, sequence_numeric) index. The translation mirrors the DRL the rule editor
+ * generates: in an all-AND rule the goods item conditions, HS code prefixes included, must hold for
+ * one and the same item, in a rule with OR an HS code prefix for any item, and && binds tighter than ||. Semantics follow Drools: a null
+ * field fails ==, ordering, string and list tests and passes !=.
+ *
+ * When every condition translates, count and sample come straight from the database. Otherwise
+ * (derived fields, ordering on text, MATCHES / BETWEEN, goods item fields in an OR rule, ...)
+ * the translatable conditions still narrow the scan as a pre-filter - dropping a condition from
+ * an AND / OR tree can only widen it - and the declarations that pass are streamed through a
+ * container holding just the proposed rule.
+ */
+@Service
+public class RuleImpactService {
+
+    private static final Logger log = LoggerFactory.getLogger(RuleImpactService.class);
+
+    private static final String FACT_PREFIX = "declaration.";
+    private static final String GOODS_ITEMS = "governmentAgencyGoodsItems";
+    private static final int MAX_SAMPLE_SIZE = 100;
+
+    /**
+     * How the matches were counted
+     */
+    public enum MatchPath {
+        // Whole rule as SQL
+        SQL,
+        // Translatable conditions as SQL pre-filter, the rule in Drools over what passes
+        SQL_PREFILTER_DROOLS,
+        // Nothing translatable: the rule in Drools over every stored declaration
+        DROOLS
+    }
+
+    /**
+     * Outcome of an estimate
+     * @param predicate SQL predicate that was run (whole rule or pre-filter), or null
+     * @param unsupported Conditions left to Drools, each with the reason
+     * @param scanned Declarations evaluated in Drools (0 on the SQL path)
+     * @param truncated The Drools scan stopped at the scan limit; matched is then a lower bound
+     * @param sampleDeclarationIds First matching declarations by storage order
+     */
+    public record ImpactEstimate(MatchPath path, String predicate, List<String> unsupported, long matched,
+                                 long scanned, boolean truncated, List<String> sampleDeclarationIds, long durationMs) {
+    }
+
+    /**
+     * SQL form of a rule's conditions
+     * @param sql Predicate over declarations d, or null if no condition narrows the result
+     * @param unsupported Conditions not in sql; sql is then a superset of the rule's matches
+     */
+    record SqlPredicate(String sql, List<Object> args, List<String> unsupported) {
+        boolean complete() {
+            return sql != null && unsupported.isEmpty();
+        }
+    }
+
+    private record Term(String sql, List<Object> args) {
+    }
+
+    /**
+     * Qualified column of a fact field, with the field's Java type
+     */
+    private record Column(String name, Class<?> type) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RuleSetCompiler ruleSetCompiler;
+    private final ReferenceLists referenceLists;
+    private final int pageSize;
+    private final long maxScanned;
+    private final AtomicLong builds = new AtomicLong();
+    // Column names by table, read from information_schema on first use
+    private final Map<String, Set<String>> tableColumns = new ConcurrentHashMap<>();
+
+    public RuleImpactService(
+            JdbcTemplate jdbcTemplate,
+            RuleSetCompiler ruleSetCompiler,
+            ReferenceLists referenceLists,
+            @Value("${rule-engine.impact.page-size:1000}") int pageSize,
+            @Value("${rule-engine.impact.max-scanned:200000}") long maxScanned,
+            @Value("${rule-engine.impact.query-timeout:30s}") Duration queryTimeout) {
+        // Own template so the timeout applies to impact queries only
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.jdbcTemplate.setQueryTimeout((int) Math.max(1, queryTimeout.toSeconds()));
+        this.ruleSetCompiler = ruleSetCompiler;
+        this.referenceLists = referenceLists;
+        this.pageSize = Math.max(1, pageSize);
+        this.maxScanned = maxScanned;
+    }
+
+    /**
+     * Count the stored declarations the rule matches
+     * @param rule Declaration rule with its rule content (DRL); need not be saved
+     * @param conditions Its structured conditions in group / condition order
+     * @param from Only declarations submitted at or after this time, or null
+     * @param to Only declarations submitted before this time, or null
+     * @throws IllegalArgumentException for rules of other fact types or without conditions
+     */
+    public ImpactEstimate estimate(DecisionRule rule, List<RuleCondition> conditions,
+                                   LocalDateTime from, LocalDateTime to, int sampleSize) {
+        if (rule.getFactType() != FactType.DECLARATION) {
+            throw new IllegalArgumentException("Only Declaration rules can be matched against stored declarations");
+        }
+        if (conditions.isEmpty()) {
+            throw new IllegalArgumentException("Rule has no conditions");
+        }
+        long start = System.nanoTime();
+        int samples = Math.max(0, Math.min(sampleSize, MAX_SAMPLE_SIZE));
+        SqlPredicate predicate = translate(conditions);
+
+        ImpactEstimate estimate;
+        if (predicate.complete()) {
+            List<Object> args = new ArrayList<>(predicate.args());
+            String where = " WHERE (" + predicate.sql() + ")" + StoredDeclarationReader.window(from, to, args);
+            Long matched = jdbcTemplate.query("SELECT count(*) FROM declarations d" + where,
+                StoredDeclarationReader.bind(args), resultSet -> resultSet.next() ? resultSet.getLong(1) : 0L);
+            List<String> sample = List.of();
+            if (samples > 0 && matched != null && matched > 0) {
+                args.add(samples);
+                sample = jdbcTemplate.query("SELECT d.declaration_id FROM declarations d" + where + " ORDER BY d.id LIMIT ?",
+                    StoredDeclarationReader.bind(args), (resultSet, rowNum) -> resultSet.getString(1));
+            }
+            estimate = new ImpactEstimate(MatchPath.SQL, predicate.sql(), List.of(), matched != null ? matched : 0L,
+                0, false, sample, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } else {
+            estimate = scan(rule, predicate, from, to, samples, start);
+        }
+        log.info("Rule {} matches {} stored declarations ({}, {} scanned, {} ms)",
+            rule.getRuleName(), estimate.matched(), estimate.path(), estimate.scanned(), estimate.durationMs());
+        return estimate;
+    }
+
+    /**
+     * Stream the declarations passing the pre-filter through a container holding only the rule
+     */
+    private ImpactEstimate scan(DecisionRule rule, SqlPredicate predicate, LocalDateTime from, LocalDateTime to,
+                                int samples, long start) {
+        ReleaseId releaseId = KieServices.Factory.get().newReleaseId(
+            "org.rule.impact", FactType.DECLARATION.getValue().toLowerCase(), builds.incrementAndGet() + ".0.0");
+        RuleSetCompiler.KieContainerBuildResult build = ruleSetCompiler.buildKieContainer(
+            List.of(rule), FactType.DECLARATION.getValue(), releaseId, ruleSetCompiler.getBuildMode());
+        long matched = 0;
+        long scanned = 0;
+        boolean truncated = false;
+        List<String> sample = new ArrayList<>();
+        try {
+            // No DEEP skipping: a DEEP-stage rule alone would otherwise never fire
+            RuleBackend drools = new DroolsRuleBackend(
+                build.container, ruleSetCompiler.factLayout(build.container), referenceLists, null);
+            Iterator<Declaration> declarations = new StoredDeclarationReader(
+                jdbcTemplate, pageSize, from, to, predicate.sql(), predicate.args());
+            while (declarations.hasNext()) {
+                if (scanned == maxScanned) {
+                    truncated = true;
+                    break;
+                }
+                Declaration declaration = declarations.next();
+                scanned++;
+                TotalRuleResults results = new TotalRuleResults();
+                drools.fire(declaration, results, null, null, null);
+                if (!results.getHits().isEmpty()) {
+                    matched++;
+                    if (sample.size() < samples) {
+                        sample.add(declaration.getDeclarationId());
+                    }
+                }
+            }
+        } finally {
+            build.container.dispose();
+            KieServices.Factory.get().getRepository().removeKieModule(build.kieModule.getReleaseId());
+        }
+        MatchPath path = predicate.sql() != null ? MatchPath.SQL_PREFILTER_DROOLS : MatchPath.DROOLS;
+        return new ImpactEstimate(path, predicate.sql(), predicate.unsupported(), matched, scanned, truncated, sample,
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Translate conditions (in group / condition order) into a SQL predicate over declarations d
+     * The operator after a condition is the type of its group, as saved by the rule editor.
+     */
+    SqlPredicate translate(List<RuleCondition> conditions) {
+        List<String> unsupported = new ArrayList<>();
+        for (RuleCondition condition : conditions) {
+            RuleConditionGroup group = condition.getGroup();
+            if (group.getParent() != null || group.getType() == RuleGroupType.NOT) {
+                unsupported.add("nested or NOT condition groups");
+                return new SqlPredicate(null, List.of(), unsupported);
+            }
+        }
+        boolean anyOr = false;
+        for (int i = 0; i < conditions.size() - 1; i++) {
+            anyOr |= conditions.get(i).getGroup().getType() == RuleGroupType.OR;
+        }
+
+        // Alternatives of AND-ed terms; an untranslated condition is left out (i.e. taken as true)
+        List<List<Term>> alternatives = new ArrayList<>();
+        List<Term> conjunction = new ArrayList<>();
+        List<Term> itemTerms = new ArrayList<>();
+        for (int i = 0; i < conditions.size(); i++) {
+            RuleCondition condition = conditions.get(i);
+            try {
+                term(condition, anyOr, conjunction, itemTerms);
+            } catch (IllegalArgumentException e) {
+                unsupported.add(condition.getFieldPath() + " " + condition.getOperator() + ": " + e.getMessage());
+            }
+            if (i == conditions.size() - 1 || condition.getGroup().getType() == RuleGroupType.OR) {
+                alternatives.add(conjunction);
+                conjunction = new ArrayList<>();
+            }
+        }
+        if (!itemTerms.isEmpty()) {
+            // All-AND rule: the item conditions form one "exists GovernmentAgencyGoodsItem(...)" pattern
+            alternatives.get(0).add(new Term(
+                "EXISTS (SELECT 1 FROM government_agency_goods_items i WHERE i.declaration_id = d.id AND "
+                    + String.join(" AND ", itemTerms.stream().map(Term::sql).toList()) + ")",
+                itemTerms.stream().flatMap(term -> term.args().stream()).toList()));
+        }
+
+        List<String> sql = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        for (List<Term> alternative : alternatives) {
+            if (alternative.isEmpty()) {
+                // One alternative is unconstrained in SQL, so the whole disjunction is
+                return new SqlPredicate(null, List.of(), unsupported);
+            }
+            sql.add(String.join(" AND ", alternative.stream().map(Term::sql).toList()));
+            alternative.forEach(term -> args.addAll(term.args()));
+        }
+        String predicate = sql.size() == 1 ? sql.get(0)
+            : String.join(" OR ", sql.stream().map(alternative -> "(" + alternative + ")").toList());
+        return new SqlPredicate(predicate, args, unsupported);
+    }
+
+    /**
+     * Add the SQL of one condition to the declaration-level conjunction or to the goods item terms
+     * @throws IllegalArgumentException if the condition has no SQL form
+     */
+    private void term(RuleCondition condition, boolean anyOr, List<Term> conjunction, List<Term> itemTerms) {
+        String path = condition.getFieldPath();
+        if (path == null || condition.getOperator() == null || !path.startsWith(FACT_PREFIX)) {
+            throw new IllegalArgumentException("not a declaration field");
+        }
+        String field = path.substring(FACT_PREFIX.length());
+        int dot = field.indexOf('.');
+        if (dot < 0) {
+            conjunction.add(comparison(column("declarations", "d", Declaration.class, field), condition));
+            return;
+        }
+        String itemField = field.substring(dot + 1);
+        if (!field.substring(0, dot).equals(GOODS_ITEMS) || itemField.indexOf('.') >= 0) {
+            throw new IllegalArgumentException("nested field");
+        }
+        if (anyOr) {
+            String value = PredicateRuleCompiler.valueText(condition);
+            if (path.equals(HsPrefixMatches.GOODS_ITEM_HS_FIELD) && condition.getOperator() == RuleOperatorType.STR_STARTS_WITH
+                    && value != null && HsPrefixMatches.condition(value.trim()) != null) {
+                // HS prefix index in a rule with OR: some goods item's HS code starts with the prefix
+                String prefix = value.trim();
+                conjunction.add(new Term("EXISTS (SELECT 1 FROM government_agency_goods_items i WHERE i.declaration_id = d.id"
+                    + " AND left(i.hs_id, char_length(?)) = ?)", List.of(prefix, prefix)));
+                return;
+            }
+            throw new IllegalArgumentException("goods item field in a rule with OR");
+        }
+        // All-AND rule: HS code prefixes included, the item conditions hold on one and the same item
+        itemTerms.add(comparison(column("government_agency_goods_items", "i", GovernmentAgencyGoodsItem.class, itemField), condition));
+    }
+
+    private Column column(String table, String alias, Class<?> factClass, String field) {
+        Method getter = PredicateRuleCompiler.getter(factClass, field);
+        if (!PredicateRuleCompiler.FIELD_TYPES.contains(getter.getReturnType())) {
+            throw new IllegalArgumentException("unsupported field type " + getter.getReturnType().getSimpleName());
+        }
+        String column = field.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toLowerCase();
+        if (!columns(table).contains(column)) {
+            throw new IllegalArgumentException("no stored column (derived field?)");
+        }
+        return new Column(alias + "." + column, getter.getReturnType());
+    }
+
+    private Set<String> columns(String table) {
+        return tableColumns.computeIfAbsent(table, name -> new HashSet<>(jdbcTemplate.queryForList(
+            "SELECT column_name FROM information_schema.columns WHERE table_schema = current_schema() AND table_name = ?",
+            String.class, name)));
+    }
+
+    private Term comparison(Column column, RuleCondition condition) {
+        RuleOperatorType operator = condition.getOperator();
+        String c = column.name();
+        if (operator == RuleOperatorType.IS_NULL || operator == RuleOperatorType.IS_NOT_NULL) {
+            return new Term(c + (operator == RuleOperatorType.IS_NULL ? " IS NULL" : " IS NOT NULL"), List.of());
+        }
+        String value = PredicateRuleCompiler.valueText(condition);
+        if (value == null) {
+            return switch (operator) {
+                case EQUALS -> new Term(c + " IS NULL", List.of());
+                case NOT_EQUALS -> new Term(c + " IS NOT NULL", List.of());
+                default -> throw new IllegalArgumentException("operator against null");
+            };
+        }
+        boolean text = column.type() == String.class;
+        switch (operator) {
+            case IN, NOT_IN -> {
+                if (!text) {
+                    throw new IllegalArgumentException("reference list on a non-text field");
+                }
+                String[] values = referenceLists.values(value).toArray(new String[0]);
+                return operator == RuleOperatorType.IN
+                    ? new Term(c + " = ANY(?)", List.of((Object) values))
+                    : new Term("(" + c + " IS NULL OR NOT (" + c + " = ANY(?)))", List.of((Object) values));
+            }
+            case STR_CONTAINS, STR_STARTS_WITH, STR_ENDS_WITH -> {
+                if (!text) {
+                    throw new IllegalArgumentException("string operator on a non-text field");
+                }
+                return switch (operator) {
+                    case STR_CONTAINS -> new Term("strpos(" + c + ", ?) > 0", List.of(value));
+                    case STR_STARTS_WITH -> new Term("left(" + c + ", char_length(?)) = ?", List.of(value, value));
+                    default -> new Term("right(" + c + ", char_length(?)) = ?", List.of(value, value));
+                };
+            }
+            case EQUALS, NOT_EQUALS, GT, GTE, LT, LTE -> {
+                boolean ordering = operator != RuleOperatorType.EQUALS && operator != RuleOperatorType.NOT_EQUALS;
+                if (ordering && (text || column.type() == Boolean.class)) {
+                    // Database collation and Java string order differ
+                    throw new IllegalArgumentException("ordering on a text or boolean field");
+                }
+                Object operand = RuleTemplateTable.parseValue(value, column.type());
+                return switch (operator) {
+                    case EQUALS -> new Term(c + " = ?", List.of(operand));
+                    case NOT_EQUALS -> new Term("(" + c + " IS NULL OR " + c + " <> ?)", List.of(operand));
+                    case GT -> new Term(c + " > ?", List.of(operand));
+                    case GTE -> new Term(c + " >= ?", List.of(operand));
+                    case LT -> new Term(c + " < ?", List.of(operand));
+                    default -> new Term(c + " <= ?", List.of(operand));
+                };
+            }
+            default -> throw new IllegalArgumentException("operator is evaluated in Drools only");
+        }
+    }
+}
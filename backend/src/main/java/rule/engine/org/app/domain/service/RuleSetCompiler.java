@@ -0,0 +1,409 @@
+package rule.engine.org.app.domain.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.drools.model.codegen.ExecutableModelProject;
+import org.kie.api.KieServices;
+import org.kie.api.builder.KieBuilder;
+import org.kie.api.builder.KieFileSystem;
+import org.kie.api.builder.KieModule;
+import org.kie.api.builder.Message;
+import org.kie.api.builder.ReleaseId;
+import org.kie.api.runtime.KieContainer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import rule.engine.org.app.domain.entity.ui.DecisionRule;
+import rule.engine.org.app.domain.entity.ui.EvaluationStage;
+import rule.engine.org.app.util.DrlConstants;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles a set of decision rules into a KieContainer
+ * Pure build step: no shared state is touched, so it can run while executions
+ * keep using the currently published container.
+ *
+ * Each rule is written to its own DRL file keyed by logical rule ID (parentRuleId or id),
+ * next to a header file holding package, imports and globals. That layout lets a later
+ * deploy tell which rules were added, updated or removed: a deploy that changes no file keeps
+ * the container, a small change is written over the previous files into a new KieFileSystem
+ * under the deploy's own ReleaseId. The published container and the KieModule it was created
+ * from are never touched: executions may still hold leases on them.
+ *
+ * Rule files get the agenda-group attribute of the rule's evaluation stage added at render time,
+ * so staged execution (StagedEvaluation) needs nothing from the stored rule content. Rules with
+ * patterns on child facts or HS code prefix constraints also get @childFacts / @hsPrefixes
+ * metadata, from which the container's FactLayout is built on first use.
+ *
+ * Rules sharing a condition shape are folded into template rules by RuleTemplateCompiler; a
+ * template file takes a negative key and the folded rules get no file of their own.
+ *
+ * Two build modes are supported (rule-engine.build-mode): classic DRL compilation, where
+ * constraints are interpreted with MVEL and JIT-compiled at runtime, and the Drools executable
+ * model, where DRL is translated to Java and compiled up front. Incremental updates are only
+ * used in DRL mode; the executable model always does a full build.
+ */
+@Component
+public class RuleSetCompiler {
+
+    /**
+     * How DRL is compiled into a KieModule
+     */
+    public enum BuildMode {
+        DRL,
+        EXECUTABLE_MODEL
+    }
+
+    /**
+     * Version of the DRL rendering (rule files, injected attributes and metadata, templates)
+     * Part of the stored kjar fingerprint: bump it whenever a change here or in RuleTemplateCompiler
+     * makes the same stored rules render to different DRL, so kjars built before are not reused.
+     */
+    static final int RENDER_VERSION = 2;
+
+    // Attribute lines of a rule end at "when"; an agenda-group among them is kept
+    private static final Pattern WHEN_KEYWORD = Pattern.compile("(?m)^\\s*when\\b");
+    private static final Pattern AGENDA_GROUP_ATTRIBUTE = Pattern.compile("(?m)^\\s*agenda-group\\b");
+
+    private final BuildMode buildMode;
+    private final boolean incrementalEnabled;
+    private final int maxIncrementalChanges;
+    // Null when rule templates are not used (e.g. benchmarks building without a database)
+    private final RuleTemplateCompiler templateCompiler;
+    // Fact layout per container; weak keys so disposed containers drop out
+    private final Cache<KieContainer, FactLayout> factLayouts = Caffeine.newBuilder().weakKeys().build();
+
+    public RuleSetCompiler(
+            @Value("${rule-engine.build-mode:DRL}") BuildMode buildMode,
+            @Value("${rule-engine.incremental.enabled:true}") boolean incrementalEnabled,
+            @Value("${rule-engine.incremental.max-changed-rules:50}") int maxIncrementalChanges,
+            RuleTemplateCompiler templateCompiler) {
+        this.buildMode = buildMode;
+        this.incrementalEnabled = incrementalEnabled;
+        this.maxIncrementalChanges = maxIncrementalChanges;
+        this.templateCompiler = templateCompiler;
+    }
+
+    /**
+     * Build mode used for deployed containers
+     */
+    public BuildMode getBuildMode() {
+        return buildMode;
+    }
+
+    /**
+     * Everything besides the rules that decides the DRL a rule set renders to: the renderer version,
+     * the agenda group of each evaluation stage and the template settings
+     * Included in the fingerprint of stored kjars (see KieModuleArtifactStore).
+     */
+    String renderSettings() {
+        StringBuilder settings = new StringBuilder("render=").append(RENDER_VERSION);
+        for (EvaluationStage stage : EvaluationStage.values()) {
+            settings.append(';').append(stage.name()).append('=').append(stage.getAgendaGroup());
+        }
+        settings.append(";templates=").append(templateCompiler != null ? templateCompiler.settings() : "none");
+        return settings.toString();
+    }
+
+    /**
+     * Fact layout (child facts, HS code prefix index, rule templates) of a container, built from its rule metadata on first use
+     * Works for any container (compiled, loaded from a stored kjar or updated incrementally).
+     */
+    FactLayout factLayout(KieContainer container) {
+        return factLayouts.get(container, c -> FactLayout.fromKieBase(c.getKieBase()));
+    }
+
+    /**
+     * Result of building KieContainer
+     */
+    static class KieContainerBuildResult {
+        final KieContainer container;
+        final KieModule kieModule;
+        final IncrementalState incrementalState;
+
+        KieContainerBuildResult(KieContainer container, KieModule kieModule, IncrementalState incrementalState) {
+            this.container = container;
+            this.kieModule = kieModule;
+            this.incrementalState = incrementalState;
+        }
+    }
+
+    /**
+     * Rule files a container was built from, kept with it so later deploys can tell what changed
+     * Immutable: an incremental build gets a state of its own, which goes live with its container.
+     */
+    static class IncrementalState {
+        final ReleaseId releaseId;
+        // Logical rule ID -> DRL file content compiled into the module, in file order
+        final Map<Long, String> ruleFiles;
+
+        IncrementalState(ReleaseId releaseId, Map<Long, String> ruleFiles) {
+            this.releaseId = releaseId;
+            this.ruleFiles = Collections.unmodifiableMap(new LinkedHashMap<>(ruleFiles));
+        }
+    }
+
+    /**
+     * Rule files changed since a build state, waiting to be built into a new container
+     */
+    static class IncrementalUpdate {
+        final IncrementalState state;
+        final Map<Long, String> ruleFiles;
+        final int added;
+        final int updated;
+        final int removed;
+
+        IncrementalUpdate(IncrementalState state, Map<Long, String> ruleFiles, int added, int updated, int removed) {
+            this.state = state;
+            this.ruleFiles = ruleFiles;
+            this.added = added;
+            this.updated = updated;
+            this.removed = removed;
+        }
+
+        boolean isEmpty() {
+            return added == 0 && updated == 0 && removed == 0;
+        }
+    }
+
+    KieContainerBuildResult buildKieContainer(List<DecisionRule> rules, String factType, long versionNumber) {
+        return buildKieContainer(rules, factType, releaseId(factType, versionNumber), buildMode);
+    }
+
+    /**
+     * ReleaseId of a deployed version: org.rule:{factType}:{version}
+     * groupId: "org.rule"
+     * artifactId: factType in lowercase (e.g., "declaration", "cargoreport") - Maven convention
+     * version: use actual version number (e.g., "1.0.0", "2.0.0", "3.0.0")
+     */
+    ReleaseId releaseId(String factType, long versionNumber) {
+        return KieServices.Factory.get().newReleaseId("org.rule", factType.toLowerCase(), versionNumber + ".0.0");
+    }
+
+    /**
+     * Build a container under an explicit ReleaseId and build mode
+     * Used directly by benchmarks so their modules never replace a deployed one in the KieRepository.
+     */
+    KieContainerBuildResult buildKieContainer(List<DecisionRule> rules, String factType, ReleaseId releaseId, BuildMode mode) {
+        return build(renderRuleFiles(rules, factType), factType, releaseId, mode);
+    }
+
+    /**
+     * Compile rendered rule files into a new KieModule under the given ReleaseId and create its container
+     * Every call gets a KieFileSystem and KieBuilder of its own, so no module a container was created from is rebuilt.
+     */
+    private KieContainerBuildResult build(Map<Long, String> ruleFiles, String factType, ReleaseId releaseId, BuildMode mode) {
+        KieServices kieServices = KieServices.Factory.get();
+        KieFileSystem kfs = kieServices.newKieFileSystem();
+        kfs.generateAndWritePomXML(releaseId);
+
+        // DRL header (package, imports, globals) - always present so globals exist even with no rules
+        kfs.write(headerPath(factType), DrlConstants.buildDrlHeader());
+        ruleFiles.forEach((logicalId, drl) -> kfs.write(rulePath(factType, logicalId), drl));
+
+        KieBuilder kieBuilder = mode == BuildMode.EXECUTABLE_MODEL
+            ? kieServices.newKieBuilder(kfs).buildAll(ExecutableModelProject.class)
+            : kieServices.newKieBuilder(kfs).buildAll();
+
+        // Check for build errors
+        if (kieBuilder.getResults().hasMessages(Message.Level.ERROR)) {
+            throw new RuntimeException("Error building KieModule for fact type " + factType + ": " + kieBuilder.getResults().getMessages());
+        }
+
+        KieModule kieModule = kieBuilder.getKieModule();
+
+        // Register KieModule in KieRepository before creating container
+        // This ensures the KieModule can be found when creating container from ReleaseId
+        kieServices.getRepository().addKieModule(kieModule);
+
+        // Create container from the built KieModule's ReleaseId
+        KieContainer container = kieServices.newKieContainer(kieModule.getReleaseId());
+
+        // Incremental deploys only build the classic DRL project layout
+        IncrementalState incrementalState = mode == BuildMode.DRL
+            ? new IncrementalState(releaseId, ruleFiles)
+            : null;
+        return new KieContainerBuildResult(container, kieModule, incrementalState);
+    }
+
+    /**
+     * Find the rules that changed since the given build state
+     * Nothing is compiled here; buildIncrementally turns the update into a new container.
+     *
+     * @return Pending update (possibly empty), or null when incremental mode is off, there is no
+     *         state to compare with, or too many rules changed - callers should do a full rebuild then
+     */
+    IncrementalUpdate incrementalUpdate(IncrementalState state, List<DecisionRule> rules, String factType) {
+        if (!incrementalEnabled || state == null) {
+            return null;
+        }
+
+        Map<Long, String> ruleFiles = renderRuleFiles(rules, factType);
+
+        int added = 0;
+        int updated = 0;
+        for (Map.Entry<Long, String> entry : ruleFiles.entrySet()) {
+            String previous = state.ruleFiles.get(entry.getKey());
+            if (previous == null) {
+                added++;
+            } else if (!previous.equals(entry.getValue())) {
+                updated++;
+            }
+        }
+        int removed = 0;
+        for (Long logicalId : state.ruleFiles.keySet()) {
+            if (!ruleFiles.containsKey(logicalId)) {
+                removed++;
+            }
+        }
+
+        if (added + updated + removed > maxIncrementalChanges) {
+            return null;
+        }
+        return new IncrementalUpdate(state, ruleFiles, added, updated, removed);
+    }
+
+    /**
+     * Build a new container from the previous rule files with an update's changes applied
+     * The files are written into a new KieFileSystem whose pom carries the given ReleaseId, so the
+     * deploy is recorded under its own version. The KieModule of the state's container (the published
+     * one, which in-flight executions may still lease) is not rebuilt: its builder is not reused.
+     */
+    KieContainerBuildResult buildIncrementally(IncrementalUpdate update, String factType, ReleaseId releaseId) {
+        return build(update.ruleFiles, factType, releaseId, BuildMode.DRL);
+    }
+
+    /**
+     * Render one DRL file per rule, keyed by logical rule ID so versions of the same rule share a file
+     * Rules folded into a template are rendered as part of the template file instead.
+     */
+    private Map<Long, String> renderRuleFiles(List<DecisionRule> rules, String factType) {
+        RuleTemplateCompiler.TemplatePlan templates = templateCompiler != null
+            ? templateCompiler.plan(rules, factType)
+            : RuleTemplateCompiler.TemplatePlan.NONE;
+        Map<Long, String> ruleFiles = new LinkedHashMap<>();
+        for (DecisionRule rule : rules) {
+            if (templates.templatedRuleIds.contains(rule.getId())) {
+                continue;
+            }
+            Long logicalId = rule.getParentRuleId() != null ? rule.getParentRuleId() : rule.getId();
+            StringBuilder drl = new StringBuilder();
+
+            // Use ruleContent directly (complete DRL)
+            String ruleContent = rule.getRuleContent();
+            if (ruleContent == null || ruleContent.isBlank()) {
+                // Fallback: build minimal DRL if ruleContent is missing
+                String droolsRuleName = rule.getRuleName() + "_" + rule.getId();
+                drl.append("rule \"").append(droolsRuleName).append("\"\n");
+                drl.append("agenda-group \"").append(agendaGroup(rule)).append("\"\n");
+                drl.append("salience ").append(rule.getPriority()).append("\n");
+                drl.append("when\n");
+                drl.append("    $d : ").append(factType).append("()\n");
+                drl.append("then\n");
+                drl.append("    System.out.println(\"[DROOLS] Rule '").append(rule.getRuleName())
+                   .append("' matched for ").append(factType.toLowerCase()).append(": \" + $d);\n");
+                drl.append("end\n");
+            } else {
+                // ruleContent is complete DRL (includes package, imports, globals, and rule)
+                // Extract just the rule definition part (skip package/imports/global if present)
+                String ruleDefinition = extractRuleDefinition(ruleContent);
+                if (ruleDefinition == null || ruleDefinition.isBlank()) {
+                    continue;
+                }
+                drl.append(withAttributes(ruleDefinition, agendaGroup(rule)));
+            }
+
+            // Each file repeats the header so it compiles on its own
+            ruleFiles.put(logicalId, DrlConstants.buildDrlHeader() + drl);
+        }
+        templates.ruleFiles.forEach((key, drl) -> ruleFiles.put(key, DrlConstants.buildDrlHeader() + drl));
+        return ruleFiles;
+    }
+
+    /**
+     * Agenda group of the rule's evaluation stage; rules without a stage are STANDARD
+     */
+    private String agendaGroup(DecisionRule rule) {
+        EvaluationStage stage = rule.getEvaluationStage() != null ? rule.getEvaluationStage() : EvaluationStage.STANDARD;
+        return stage.getAgendaGroup();
+    }
+
+    /**
+     * Add the @childFacts / @hsPrefixes metadata (if any) and the agenda-group attribute right after the rule's name line
+     * Stored rule content carries no stage so that changing the stage needs no DRL regeneration. A rule that
+     * declares its own agenda-group keeps it (a second one would not compile); it then only fires when that
+     * group is the agenda group of a stage.
+     */
+    private String withAttributes(String ruleDefinition, String agendaGroup) {
+        int nameLineEnd = ruleDefinition.indexOf('\n');
+        if (nameLineEnd < 0) {
+            return ruleDefinition;
+        }
+        StringBuilder attributes = new StringBuilder();
+        Set<String> childFacts = FactLayout.childFactsIn(ruleDefinition);
+        if (!childFacts.isEmpty()) {
+            attributes.append('@').append(FactLayout.CHILD_FACTS_KEY)
+                .append("(\"").append(String.join(",", childFacts)).append("\")\n");
+        }
+        Set<String> hsPrefixes = HsPrefixIndex.prefixesIn(ruleDefinition);
+        if (!hsPrefixes.isEmpty()) {
+            attributes.append('@').append(HsPrefixIndex.METADATA_KEY)
+                .append("(\"").append(String.join(",", hsPrefixes)).append("\")\n");
+        }
+        Matcher when = WHEN_KEYWORD.matcher(ruleDefinition);
+        String ruleAttributes = ruleDefinition.substring(nameLineEnd, when.find(nameLineEnd) ? when.start() : ruleDefinition.length());
+        if (!AGENDA_GROUP_ATTRIBUTE.matcher(ruleAttributes).find()) {
+            attributes.append("agenda-group \"").append(agendaGroup).append("\"\n");
+        }
+        return ruleDefinition.substring(0, nameLineEnd + 1)
+            + attributes
+            + ruleDefinition.substring(nameLineEnd + 1);
+    }
+
+    private String headerPath(String factType) {
+        return "src/main/resources/rules/" + factType.toLowerCase() + "/header.drl";
+    }
+
+    private String rulePath(String factType, Long logicalId) {
+        return "src/main/resources/rules/" + factType.toLowerCase() + "/rule_" + logicalId + ".drl";
+    }
+
+    /**
+     * Extract rule definition from complete DRL content
+     * Removes package, imports, and globals, keeping only the rule definition
+     */
+    private String extractRuleDefinition(String completeDrl) {
+        if (completeDrl == null || completeDrl.isBlank()) {
+            return null;
+        }
+
+        // Find the start of rule definition (look for "rule \"")
+        int ruleStart = completeDrl.indexOf("rule \"");
+        if (ruleStart == -1) {
+            // If no "rule \"" found, try to find just "rule "
+            ruleStart = completeDrl.indexOf("rule ");
+            if (ruleStart == -1) {
+                return null;
+            }
+        }
+
+        // Extract from "rule" to end of file
+        String rulePart = completeDrl.substring(ruleStart);
+
+        // Trim any leading/trailing whitespace
+        rulePart = rulePart.trim();
+
+        // Ensure it ends with newline
+        if (!rulePart.endsWith("\n")) {
+            rulePart = rulePart + "\n";
+        }
+
+        return rulePart;
+    }
+}
@@ -0,0 +1,300 @@
+package rule.engine.org.app.domain.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import rule.engine.org.app.domain.entity.ui.DecisionRule;
+import rule.engine.org.app.domain.entity.ui.EvaluationStage;
+import rule.engine.org.app.domain.entity.ui.RuleCondition;
+import rule.engine.org.app.domain.entity.ui.RuleGroupType;
+import rule.engine.org.app.domain.entity.ui.RuleOperatorType;
+import rule.engine.org.app.domain.entity.ui.RuleOutput;
+import rule.engine.org.app.domain.repository.RuleConditionRepository;
+import rule.engine.org.app.domain.repository.RuleOutputRepository;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Folds decision rules that share a condition shape into data-driven template rules
+ *
+ * Rules built in the UI are stored as structured RuleCondition / RuleOutput rows next to their
+ * DRL. Rules whose conditions are a plain AND of ==, !=, >, >=, <, <= on fields of the fact
+ * itself have a shape: fact type, evaluation stage, priority and the (field, operator) list.
+ * When at least min-rules rules share a shape, they are compiled as one rule whose parameter
+ * rows (condition values and output per rule) travel as @ruleTemplate metadata and are matched
+ * at runtime through the indexed RuleTemplateTable, instead of one DRL rule per decision rule.
+ * Everything else (OR, item-level fields, lists, prefixes, hand-written DRL) compiles as before.
+ */
+@Component
+public class RuleTemplateCompiler {
+
+    private static final Logger log = LoggerFactory.getLogger(RuleTemplateCompiler.class);
+
+    /**
+     * Rule metadata key holding a template's Base64 JSON (shape and rows)
+     */
+    static final String METADATA_KEY = "ruleTemplate";
+
+    private static final Set<RuleOperatorType> OPERATORS = EnumSet.of(
+        RuleOperatorType.EQUALS, RuleOperatorType.NOT_EQUALS,
+        RuleOperatorType.GT, RuleOperatorType.GTE, RuleOperatorType.LT, RuleOperatorType.LTE);
+
+    private static final Set<Class<?>> FIELD_TYPES = Set.of(
+        String.class, Integer.class, Long.class, BigDecimal.class, Boolean.class);
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    /**
+     * Template rules of a rule set, keyed like rule files (negative keys never clash with rule IDs)
+     */
+    static final class TemplatePlan {
+        static final TemplatePlan NONE = new TemplatePlan(Map.of(), Set.of());
+
+        final Map<Long, String> ruleFiles;
+        final Set<Long> templatedRuleIds;
+
+        TemplatePlan(Map<Long, String> ruleFiles, Set<Long> templatedRuleIds) {
+            this.ruleFiles = ruleFiles;
+            this.templatedRuleIds = templatedRuleIds;
+        }
+    }
+
+    /**
+     * Parameter row of one rule, before it is grouped by shape
+     */
+    private record Row(DecisionRule rule, List<String> values, RuleOutput output) {
+    }
+
+    private record Shape(String factType, EvaluationStage stage, int priority,
+                         List<String> fields, List<RuleOperatorType> operators) {
+    }
+
+    private final RuleConditionRepository conditionRepository;
+    private final RuleOutputRepository outputRepository;
+    private final boolean enabled;
+    private final int minRules;
+
+    public RuleTemplateCompiler(
+            RuleConditionRepository conditionRepository,
+            RuleOutputRepository outputRepository,
+            @Value("${rule-engine.templates.enabled:false}") boolean enabled,
+            @Value("${rule-engine.templates.min-rules:5}") int minRules) {
+        this.conditionRepository = conditionRepository;
+        this.outputRepository = outputRepository;
+        this.enabled = enabled;
+        this.minRules = Math.max(2, minRules);
+    }
+
+    /**
+     * Settings that change which rules are templated, for the stored kjar fingerprint
+     */
+    String settings() {
+        return enabled ? "min-rules " + minRules : "off";
+    }
+
+    /**
+     * Group the rules by shape and render a template rule for every large enough group
+     * Any problem reading the structured rows leaves all rules to be compiled on their own.
+     */
+    TemplatePlan plan(List<DecisionRule> rules, String factType) {
+        Class<?> factClass = RuleTemplateTable.factClass(factType);
+        if (!enabled || rules.size() < minRules || factClass == null) {
+            return TemplatePlan.NONE;
+        }
+
+        Map<Long, List<RuleCondition>> conditionsByRule;
+        Map<Long, List<RuleOutput>> outputsByRule;
+        try {
+            List<Long> ruleIds = rules.stream().map(DecisionRule::getId).collect(Collectors.toList());
+            conditionsByRule = conditionRepository.findByDecisionRuleIds(ruleIds).stream()
+                .collect(Collectors.groupingBy(c -> c.getGroup().getDecisionRule().getId(), LinkedHashMap::new, Collectors.toList()));
+            outputsByRule = outputRepository.findByDecisionRuleIdInOrderByOrderIndexAsc(ruleIds).stream()
+                .collect(Collectors.groupingBy(o -> o.getDecisionRule().getId()));
+        } catch (RuntimeException e) {
+            log.warn("Rule templates disabled for this {} build, structured conditions unavailable: {}", factType, e.getMessage());
+            return TemplatePlan.NONE;
+        }
+
+        Map<Shape, List<Row>> rowsByShape = new LinkedHashMap<>();
+        for (DecisionRule rule : rules) {
+            List<RuleCondition> conditions = conditionsByRule.get(rule.getId());
+            List<RuleOutput> outputs = outputsByRule.get(rule.getId());
+            if (conditions == null || outputs == null || outputs.size() != 1) {
+                continue;
+            }
+            List<String> fields = new ArrayList<>();
+            List<RuleOperatorType> operators = new ArrayList<>();
+            List<String> values = new ArrayList<>();
+            if (!describe(conditions, factType, factClass, fields, operators, values)) {
+                continue;
+            }
+            EvaluationStage stage = rule.getEvaluationStage() != null ? rule.getEvaluationStage() : EvaluationStage.STANDARD;
+            int priority = rule.getPriority() != null ? rule.getPriority() : 0;
+            rowsByShape.computeIfAbsent(new Shape(factType, stage, priority, fields, operators), k -> new ArrayList<>())
+                .add(new Row(rule, values, outputs.get(0)));
+        }
+
+        Map<Long, String> ruleFiles = new LinkedHashMap<>();
+        Set<Long> templatedRuleIds = new HashSet<>();
+        rowsByShape.forEach((shape, rows) -> {
+            if (rows.size() < minRules) {
+                return;
+            }
+            String key = key(shape);
+            ruleFiles.put(-Long.parseLong(key, 16) - 1, render(key, shape, rows));
+            rows.forEach(row -> templatedRuleIds.add(row.rule().getId()));
+        });
+        return ruleFiles.isEmpty() ? TemplatePlan.NONE : new TemplatePlan(ruleFiles, templatedRuleIds);
+    }
+
+    /**
+     * Collect the (field, operator, value) triples of a rule's conditions
+     * @return False if the conditions do not form a templatable shape
+     */
+    private boolean describe(List<RuleCondition> conditions, String factType, Class<?> factClass,
+                             List<String> fields, List<RuleOperatorType> operators, List<String> values) {
+        String prefix = Character.toLowerCase(factType.charAt(0)) + factType.substring(1) + ".";
+        for (RuleCondition condition : conditions) {
+            if (condition.getGroup().getType() != RuleGroupType.AND || !OPERATORS.contains(condition.getOperator())) {
+                return false;
+            }
+            String path = condition.getFieldPath();
+            if (path == null || !path.startsWith(prefix) || path.indexOf('.', prefix.length()) >= 0) {
+                return false;
+            }
+            String fieldName = path.substring(prefix.length());
+            Class<?> fieldType;
+            try {
+                Field field = factClass.getDeclaredField(fieldName);
+                fieldType = field.getType();
+            } catch (NoSuchFieldException e) {
+                return false;
+            }
+            if (!FIELD_TYPES.contains(fieldType)) {
+                return false;
+            }
+            boolean ordering = condition.getOperator() != RuleOperatorType.EQUALS
+                && condition.getOperator() != RuleOperatorType.NOT_EQUALS;
+            if (ordering && fieldType == Boolean.class) {
+                return false;
+            }
+            String value = valueText(condition);
+            if (value == null) {
+                return false;
+            }
+            try {
+                RuleTemplateTable.parseValue(value, fieldType);
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+            fields.add(fieldName);
+            operators.add(condition.getOperator());
+            values.add(value);
+        }
+        return !fields.isEmpty();
+    }
+
+    /**
+     * Condition value as the text the DRL generator would have written, or null if unsupported
+     */
+    private static String valueText(RuleCondition condition) {
+        if (condition.getValueType() == null) {
+            return null;
+        }
+        return switch (condition.getValueType()) {
+            case STRING -> condition.getValueText();
+            case INT, LONG -> condition.getValueNumber() != null ? condition.getValueNumber().toString() : null;
+            case BIG_DECIMAL -> condition.getValueDecimal() != null ? condition.getValueDecimal().toPlainString() : null;
+            case BOOLEAN -> condition.getValueBoolean() != null ? condition.getValueBoolean().toString() : null;
+            default -> null;
+        };
+    }
+
+    /**
+     * Render the template rule; outputs default like generated rules (FLAG, "Rule '<name>' matched", score 0)
+     */
+    private String render(String key, Shape shape, List<Row> rows) {
+        ObjectNode template = JSON.createObjectNode();
+        template.put("key", key);
+        template.put("factType", shape.factType());
+        ArrayNode conditions = template.putArray("conditions");
+        for (int i = 0; i < shape.fields().size(); i++) {
+            conditions.addObject()
+                .put("field", shape.fields().get(i))
+                .put("operator", shape.operators().get(i).name());
+        }
+        ArrayNode rowNodes = template.putArray("rows");
+        for (Row row : rows) {
+            DecisionRule rule = row.rule();
+            RuleOutput output = row.output();
+            String ruleName = rule.getRuleName() != null ? rule.getRuleName() : "Unknown";
+            ObjectNode rowNode = rowNodes.addObject();
+            rowNode.put("ruleId", rule.getId());
+            rowNode.put("ruleName", ruleName + "_" + rule.getId());
+            ArrayNode values = rowNode.putArray("values");
+            row.values().forEach(values::add);
+            rowNode.put("action", output.getAction() != null ? output.getAction() : "FLAG");
+            rowNode.put("result", output.getResult() != null ? output.getResult() : "Rule '" + ruleName + "' matched");
+            rowNode.put("score", output.getScore() != null ? output.getScore().toPlainString() : "0");
+            rowNode.put("flag", output.getFlag());
+            rowNode.put("documentType", output.getDocumentType());
+            rowNode.put("documentId", output.getDocumentId());
+            rowNode.put("description", output.getDescription());
+        }
+        String encoded = Base64.getEncoder().encodeToString(template.toString().getBytes(StandardCharsets.UTF_8));
+
+        StringBuilder drl = new StringBuilder();
+        drl.append("rule \"template_").append(key).append("\"\n");
+        drl.append('@').append(METADATA_KEY).append("(\"").append(encoded).append("\")\n");
+        drl.append("agenda-group \"").append(shape.stage().getAgendaGroup()).append("\"\n");
+        drl.append("salience ").append(shape.priority()).append("\n");
+        drl.append("when\n");
+        drl.append("    $fact : ").append(shape.factType()).append("()\n");
+        drl.append("    $row : RuleTemplateRow() from ruleTemplates.matches(\"").append(key).append("\", $fact)\n");
+        drl.append("then\n");
+        drl.append("    RuleOutputHit output = new RuleOutputHit();\n");
+        drl.append("    output.setAction($row.getAction());\n");
+        drl.append("    output.setResult($row.getResult());\n");
+        drl.append("    output.setScore($row.getScore());\n");
+        drl.append("    output.setFlag($row.getFlag());\n");
+        drl.append("    output.setDocumentType($row.getDocumentType());\n");
+        drl.append("    output.setDocumentId($row.getDocumentId());\n");
+        drl.append("    output.setDescription($row.getDescription());\n");
+        drl.append("    output.setRuleName($row.getRuleName());\n");
+        drl.append("    output.setRuleId($row.getRuleId());\n");
+        drl.append("    totalResults.getHits().add(output);\n");
+        drl.append("end\n");
+        return drl.toString();
+    }
+
+    /**
+     * Stable 12 hex digit key of a shape
+     */
+    private static String key(Shape shape) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                .digest(shape.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 6);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package rule.engine.org.app.domain.service;
+
+import java.math.BigDecimal;
+
+/**
+ * One parameter row of a rule template: the condition values and output of one decision rule
+ * Returned to the template rule by RuleTemplateTable.matches; the consequence copies the output
+ * into a RuleOutputHit stamped with the row's rule.
+ */
+public final class RuleTemplateRow {
+
+    private final Long ruleId;
+    private final String ruleName;
+    // Normalized condition values, by template condition position
+    final Object[] values;
+    private final String action;
+    private final String result;
+    private final BigDecimal score;
+    private final String flag;
+    private final String documentType;
+    private final String documentId;
+    private final String description;
+
+    RuleTemplateRow(Long ruleId, String ruleName, Object[] values, String action, String result, BigDecimal score,
+                    String flag, String documentType, String documentId, String description) {
+        this.ruleId = ruleId;
+        this.ruleName = ruleName;
+        this.values = values;
+        this.action = action;
+        this.result = result;
+        this.score = score;
+        this.flag = flag;
+        this.documentType = documentType;
+        this.documentId = documentId;
+        this.description = description;
+    }
+
+    public Long getRuleId() {
+        return ruleId;
+    }
+
+    /**
+     * Name the rule would have had on its own ("<ruleName>_<ruleId>")
+     */
+    public String getRuleName() {
+        return ruleName;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public BigDecimal getScore() {
+        return score;
+    }
+
+    public String getFlag() {
+        return flag;
+    }
+
+    public String getDocumentType() {
+        return documentType;
+    }
+
+    public String getDocumentId() {
+        return documentId;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
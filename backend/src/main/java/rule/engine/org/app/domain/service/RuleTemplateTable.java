@@ -0,0 +1,257 @@
+package rule.engine.org.app.domain.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import rule.engine.org.app.domain.entity.execution.cargo.CargoReport;
+import rule.engine.org.app.domain.entity.execution.declaration.Declaration;
+import rule.engine.org.app.domain.entity.ui.RuleOperatorType;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Parameter rows of the rule templates of one container, exposed to DRL as the ruleTemplates global
+ *
+ * A template rule (see RuleTemplateCompiler) stands for many decision rules with the same
+ * condition shape; its "from ruleTemplates.matches(key, $fact)" returns the rows whose conditions
+ * hold for the fact. Rows are indexed by the values of the template's == conditions, so a lookup
+ * is one hash probe plus the remaining (!=, range) checks on the candidate rows, however many
+ * rows the template has. Semantics follow the generated DRL: a null fact value fails ==, < and
+ * friends and passes !=; numbers compare by value, strings with compareTo.
+ */
+public final class RuleTemplateTable {
+
+    static final RuleTemplateTable EMPTY = new RuleTemplateTable(Map.of());
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    /**
+     * One template: the fact fields and operators of its conditions and its rows
+     */
+    private static final class Template {
+        final Field[] fields;
+        final RuleOperatorType[] operators;
+        // Positions of == conditions (the index key) and of the other conditions
+        final int[] keyPositions;
+        final int[] checkPositions;
+        // == values -> rows; with no == condition every row sits under the empty key
+        final Map<List<Object>, List<RuleTemplateRow>> rowsByKey;
+
+        Template(Field[] fields, RuleOperatorType[] operators, List<RuleTemplateRow> rows) {
+            this.fields = fields;
+            this.operators = operators;
+            this.keyPositions = positions(operators, true);
+            this.checkPositions = positions(operators, false);
+            this.rowsByKey = new HashMap<>();
+            for (RuleTemplateRow row : rows) {
+                rowsByKey.computeIfAbsent(key(row.values), k -> new ArrayList<>()).add(row);
+            }
+        }
+
+        List<Object> key(Object[] values) {
+            Object[] key = new Object[keyPositions.length];
+            for (int i = 0; i < keyPositions.length; i++) {
+                key[i] = values[keyPositions[i]];
+            }
+            return Arrays.asList(key);
+        }
+
+        private static int[] positions(RuleOperatorType[] operators, boolean equals) {
+            return IntStream.range(0, operators.length)
+                .filter(i -> (operators[i] == RuleOperatorType.EQUALS) == equals)
+                .toArray();
+        }
+    }
+
+    private final Map<String, Template> templates;
+
+    private RuleTemplateTable(Map<String, Template> templates) {
+        this.templates = templates;
+    }
+
+    /**
+     * Rows of a template whose conditions hold for the fact
+     */
+    public List<RuleTemplateRow> matches(String templateKey, Object fact) {
+        Template template = templates.get(templateKey);
+        if (template == null || fact == null) {
+            return List.of();
+        }
+        Object[] factValues = new Object[template.fields.length];
+        try {
+            for (int i = 0; i < factValues.length; i++) {
+                factValues[i] = normalize(template.fields[i].get(fact));
+            }
+        } catch (IllegalAccessException | IllegalArgumentException e) {
+            return List.of();
+        }
+        for (int position : template.keyPositions) {
+            if (factValues[position] == null) {
+                // == never holds for a null field
+                return List.of();
+            }
+        }
+        List<RuleTemplateRow> candidates = template.rowsByKey.get(template.key(factValues));
+        if (candidates == null) {
+            return List.of();
+        }
+        if (template.checkPositions.length == 0) {
+            return candidates;
+        }
+        List<RuleTemplateRow> matched = new ArrayList<>();
+        for (RuleTemplateRow row : candidates) {
+            if (holds(template, row, factValues)) {
+                matched.add(row);
+            }
+        }
+        return matched;
+    }
+
+    int size() {
+        return templates.size();
+    }
+
+    private static boolean holds(Template template, RuleTemplateRow row, Object[] factValues) {
+        for (int position : template.checkPositions) {
+            Object actual = factValues[position];
+            Object expected = row.values[position];
+            RuleOperatorType operator = template.operators[position];
+            if (operator == RuleOperatorType.NOT_EQUALS) {
+                if (expected.equals(actual)) {
+                    return false;
+                }
+                continue;
+            }
+            if (actual == null) {
+                return false;
+            }
+            int cmp = compare(actual, expected);
+            boolean ok = switch (operator) {
+                case GT -> cmp > 0;
+                case GTE -> cmp >= 0;
+                case LT -> cmp < 0;
+                case LTE -> cmp <= 0;
+                default -> false;
+            };
+            if (!ok) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Object actual, Object expected) {
+        return ((Comparable) actual).compareTo(expected);
+    }
+
+    /**
+     * Canonical form of a condition or fact value: numbers as BigDecimal without trailing zeros
+     */
+    static Object normalize(Object value) {
+        if (value instanceof BigDecimal decimal) {
+            return decimal.signum() == 0 ? BigDecimal.ZERO : decimal.stripTrailingZeros();
+        }
+        if (value instanceof Integer || value instanceof Long) {
+            return normalize(BigDecimal.valueOf(((Number) value).longValue()));
+        }
+        if (value instanceof Number number) {
+            return normalize(new BigDecimal(number.toString()));
+        }
+        return value;
+    }
+
+    /**
+     * Entity class of a fact type, or null if unknown
+     */
+    static Class<?> factClass(String factType) {
+        if ("Declaration".equalsIgnoreCase(factType)) {
+            return Declaration.class;
+        }
+        if ("CargoReport".equalsIgnoreCase(factType)) {
+            return CargoReport.class;
+        }
+        return null;
+    }
+
+    /**
+     * Parse a condition value given as text for a fact field of the given type
+     * @throws IllegalArgumentException if the text does not fit the type
+     */
+    static Object parseValue(String text, Class<?> fieldType) {
+        if (fieldType == String.class) {
+            return text;
+        }
+        if (fieldType == Boolean.class || fieldType == boolean.class) {
+            if (!"true".equalsIgnoreCase(text) && !"false".equalsIgnoreCase(text)) {
+                throw new IllegalArgumentException("Not a boolean: " + text);
+            }
+            return Boolean.valueOf(text);
+        }
+        return normalize(new BigDecimal(text.trim()));
+    }
+
+    /**
+     * Rebuild the table from the @ruleTemplate metadata values of a KieBase's template rules
+     */
+    static RuleTemplateTable fromMetadata(Collection<String> encodedTemplates) {
+        if (encodedTemplates.isEmpty()) {
+            return EMPTY;
+        }
+        Map<String, Template> templates = new HashMap<>();
+        for (String encoded : encodedTemplates) {
+            try {
+                JsonNode node = JSON.readTree(new String(Base64.getDecoder().decode(encoded), StandardCharsets.UTF_8));
+                Class<?> factClass = factClass(node.path("factType").asText());
+                if (factClass == null) {
+                    throw new IllegalStateException("Unknown fact type " + node.path("factType").asText());
+                }
+                JsonNode conditions = node.path("conditions");
+                Field[] fields = new Field[conditions.size()];
+                RuleOperatorType[] operators = new RuleOperatorType[conditions.size()];
+                for (int i = 0; i < conditions.size(); i++) {
+                    fields[i] = factClass.getDeclaredField(conditions.get(i).path("field").asText());
+                    fields[i].setAccessible(true);
+                    operators[i] = RuleOperatorType.valueOf(conditions.get(i).path("operator").asText());
+                }
+                List<RuleTemplateRow> rows = new ArrayList<>();
+                for (JsonNode row : node.path("rows")) {
+                    Object[] values = new Object[fields.length];
+                    for (int i = 0; i < fields.length; i++) {
+                        values[i] = parseValue(row.path("values").get(i).asText(), fields[i].getType());
+                    }
+                    rows.add(new RuleTemplateRow(
+                        row.path("ruleId").asLong(),
+                        row.path("ruleName").asText(),
+                        values,
+                        text(row, "action"),
+                        text(row, "result"),
+                        new BigDecimal(row.path("score").asText("0")),
+                        text(row, "flag"),
+                        text(row, "documentType"),
+                        text(row, "documentId"),
+                        text(row, "description")));
+                }
+                templates.put(node.path("key").asText(), new Template(fields, operators, rows));
+            } catch (IOException | NoSuchFieldException | RuntimeException e) {
+                throw new IllegalStateException("Unreadable rule template metadata: " + e.getMessage(), e);
+            }
+        }
+        return new RuleTemplateTable(templates);
+    }
+
+    private static String text(JsonNode row, String name) {
+        JsonNode value = row.get(name);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+}
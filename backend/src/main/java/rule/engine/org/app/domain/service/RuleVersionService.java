@@ -67,6 +67,7 @@ public class RuleVersionService {
         newVersion.setLabel(updatedRule.getLabel());
         newVersion.setRuleContent(updatedRule.getRuleContent());
         newVersion.setPriority(updatedRule.getPriority());
+        newVersion.setEvaluationStage(updatedRule.getEvaluationStage());
         newVersion.setActive(updatedRule.getActive());
         newVersion.setFactType(updatedRule.getFactType());
         
@@ -0,0 +1,486 @@
+package rule.engine.org.app.domain.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.kie.api.KieServices;
+import org.kie.api.builder.ReleaseId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import rule.engine.org.app.api.mapper.FactMapper;
+import rule.engine.org.app.domain.entity.execution.RuleOutputHit;
+import rule.engine.org.app.domain.entity.execution.TotalRuleResults;
+import rule.engine.org.app.domain.entity.ui.ChangeRequest;
+import rule.engine.org.app.domain.entity.ui.DecisionRule;
+import rule.engine.org.app.domain.entity.ui.FactType;
+import rule.engine.org.app.domain.repository.ChangeRequestRepository;
+import rule.engine.org.app.domain.repository.DecisionRuleRepository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shadow (champion/challenger) execution of a candidate rule set on live traffic
+ *
+ * While a shadow is active for a fact type, a sampled fraction of live executions is replayed
+ * against the candidate container and the outcome is compared with what the live container
+ * returned: final action, total score, fired rules (by logical rule, so a new version of a rule
+ * counts as the same rule) and execution latency. The candidate is either a deployed
+ * KieContainerVersion or the rule set a pending change request would produce once approved.
+ *
+ * Shadow work runs on its own small bounded executor: when it is saturated, samples are skipped
+ * (and counted) instead of queuing, so the live path never waits on shadow work. Candidate
+ * results are never returned to callers or audited. The latest diffs are kept in memory.
+ */
+@Service
+public class ShadowExecutionService implements RuleExecutionObserver {
+
+    private static final Logger log = LoggerFactory.getLogger(ShadowExecutionService.class);
+
+    /**
+     * Outcome of one shadowed request
+     * @param addedRules Rules that fired only on the candidate
+     * @param removedRules Rules that fired only on the live container
+     */
+    public record ShadowDiff(
+        String factId,
+        Instant comparedAt,
+        long liveVersion,
+        String liveAction,
+        String candidateAction,
+        BigDecimal liveScore,
+        BigDecimal candidateScore,
+        boolean actionChanged,
+        boolean scoreChanged,
+        boolean hitsChanged,
+        List<String> addedRules,
+        List<String> removedRules,
+        long liveMicros,
+        long candidateMicros,
+        String error) {
+
+        public boolean isMismatch() {
+            return actionChanged || scoreChanged || hitsChanged || error != null;
+        }
+    }
+
+    /**
+     * An active shadow: candidate container plus comparison statistics
+     */
+    public static class Shadow {
+        private final String factType;
+        private final String candidate;
+        private final RuleSetCompiler.KieContainerBuildResult build;
+        private final Map<Long, Long> logicalRuleIds;
+        private final double sampleRate;
+        private final int maxDiffs;
+        private final Instant startedAt = Instant.now();
+        private final AtomicInteger leases = new AtomicInteger(1);
+
+        private final AtomicLong sampled = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private final AtomicLong compared = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong actionMismatches = new AtomicLong();
+        private final AtomicLong scoreMismatches = new AtomicLong();
+        private final AtomicLong hitMismatches = new AtomicLong();
+        private final AtomicLong liveNanos = new AtomicLong();
+        private final AtomicLong candidateNanos = new AtomicLong();
+        private final Deque<ShadowDiff> diffs = new ArrayDeque<>();
+
+        Shadow(String factType, String candidate, RuleSetCompiler.KieContainerBuildResult build,
+               Map<Long, Long> logicalRuleIds, double sampleRate, int maxDiffs) {
+            this.factType = factType;
+            this.candidate = candidate;
+            this.build = build;
+            this.logicalRuleIds = logicalRuleIds;
+            this.sampleRate = sampleRate;
+            this.maxDiffs = maxDiffs;
+        }
+
+        public String getFactType() { return factType; }
+        public String getCandidate() { return candidate; }
+        public String getReleaseId() { return build.kieModule.getReleaseId().toString(); }
+        public double getSampleRate() { return sampleRate; }
+        public Instant getStartedAt() { return startedAt; }
+        public long getSampled() { return sampled.get(); }
+        public long getSkipped() { return skipped.get(); }
+        public long getCompared() { return compared.get(); }
+        public long getFailed() { return failed.get(); }
+        public long getActionMismatches() { return actionMismatches.get(); }
+        public long getScoreMismatches() { return scoreMismatches.get(); }
+        public long getHitMismatches() { return hitMismatches.get(); }
+
+        /**
+         * Average live execution time of compared requests, in microseconds
+         */
+        public double getLiveMicrosAvg() {
+            long count = compared.get();
+            return count == 0 ? 0 : liveNanos.get() / 1000.0 / count;
+        }
+
+        /**
+         * Average candidate execution time of compared requests, in microseconds
+         */
+        public double getCandidateMicrosAvg() {
+            long count = compared.get();
+            return count == 0 ? 0 : candidateNanos.get() / 1000.0 / count;
+        }
+
+        /**
+         * Most recent diffs, newest first
+         */
+        public List<ShadowDiff> getDiffs(int limit, boolean mismatchesOnly) {
+            List<ShadowDiff> result = new ArrayList<>();
+            synchronized (diffs) {
+                for (ShadowDiff diff : diffs) {
+                    if (result.size() >= limit) {
+                        break;
+                    }
+                    if (!mismatchesOnly || diff.isMismatch()) {
+                        result.add(diff);
+                    }
+                }
+            }
+            return result;
+        }
+
+        private void record(ShadowDiff diff) {
+            synchronized (diffs) {
+                diffs.addFirst(diff);
+                if (diffs.size() > maxDiffs) {
+                    diffs.removeLast();
+                }
+            }
+        }
+
+        private boolean tryAcquire() {
+            int current;
+            do {
+                current = leases.get();
+                if (current <= 0) {
+                    return false;
+                }
+            } while (!leases.compareAndSet(current, current + 1));
+            return true;
+        }
+
+        private void release() {
+            if (leases.decrementAndGet() == 0) {
+                build.container.dispose();
+                KieServices.Factory.get().getRepository().removeKieModule(build.kieModule.getReleaseId());
+            }
+        }
+    }
+
+    private final RuleEngineManager ruleEngineManager;
+    private final RuleSetCompiler ruleSetCompiler;
+    private final DecisionRuleRepository decisionRuleRepository;
+    private final ChangeRequestRepository changeRequestRepository;
+    private final FactMapper factMapper;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor executor;
+    private final int maxDiffs;
+
+    // Active shadow by fact type
+    private final Map<String, Shadow> shadows = new ConcurrentHashMap<>();
+    private final AtomicInteger candidateBuilds = new AtomicInteger();
+
+    public ShadowExecutionService(
+            RuleEngineManager ruleEngineManager,
+            RuleSetCompiler ruleSetCompiler,
+            DecisionRuleRepository decisionRuleRepository,
+            ChangeRequestRepository changeRequestRepository,
+            FactMapper factMapper,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${rule-engine.shadow.threads:2}") int threads,
+            @Value("${rule-engine.shadow.queue-capacity:256}") int queueCapacity,
+            @Value("${rule-engine.shadow.max-diffs:1000}") int maxDiffs) {
+        this.ruleEngineManager = ruleEngineManager;
+        this.ruleSetCompiler = ruleSetCompiler;
+        this.decisionRuleRepository = decisionRuleRepository;
+        this.changeRequestRepository = changeRequestRepository;
+        this.factMapper = factMapper;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.maxDiffs = Math.max(1, maxDiffs);
+
+        int poolSize = Math.max(1, threads);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+            poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+            runnable -> {
+                Thread thread = new Thread(runnable, "rule-shadow-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PostConstruct
+    void register() {
+        ruleEngineManager.addObserver(this);
+    }
+
+    /**
+     * Shadow live traffic of a fact type against a deployed version
+     */
+    public Shadow startForVersion(String factType, long version, double sampleRate) {
+        String factTypeValue = FactType.fromValue(factType).getValue();
+        List<DecisionRule> rules = ruleEngineManager.loadVersionRules(factTypeValue, version);
+        return start(factTypeValue, "version " + version, rules, sampleRate);
+    }
+
+    /**
+     * Shadow live traffic against the rule set a pending change request would deploy:
+     * the live rules with the request's added and updated rules applied and its deleted rules removed
+     */
+    public Shadow startForChangeRequest(String factTypeValue, long changeRequestId, double sampleRate) {
+        ChangeRequest changeRequest = changeRequestRepository.findById(changeRequestId)
+            .orElseThrow(() -> new IllegalArgumentException("Change request " + changeRequestId + " not found"));
+        FactType factType = changeRequest.getFactType() != null ? changeRequest.getFactType() : FactType.DECLARATION;
+        if (factType != FactType.fromValue(factTypeValue)) {
+            throw new IllegalArgumentException("Change request " + changeRequestId + " is for fact type " + factType.getValue());
+        }
+
+        Set<Long> toActivate = new HashSet<>();
+        Set<Long> toDelete = new HashSet<>();
+        if (changeRequest.getChangesJson() != null && !changeRequest.getChangesJson().isBlank()) {
+            try {
+                JsonNode changes = objectMapper.readTree(changeRequest.getChangesJson());
+                changes.path("rulesToAdd").forEach(id -> toActivate.add(id.asLong()));
+                changes.path("rulesToUpdate").forEach(id -> toActivate.add(id.asLong()));
+                changes.path("rulesToDelete").forEach(id -> toDelete.add(id.asLong()));
+            } catch (Exception e) {
+                throw new IllegalArgumentException("Invalid changes in change request " + changeRequestId + ": " + e.getMessage(), e);
+            }
+        }
+
+        // Live rules keyed by logical rule, then the request's rules replace or extend them
+        Map<Long, DecisionRule> rulesByLogicalId = new LinkedHashMap<>();
+        for (DecisionRule rule : decisionRuleRepository.findByFactTypeAndIsLatestTrueAndActiveTrueOrderByPriorityAsc(factType)) {
+            if (!toDelete.contains(rule.getId())) {
+                rulesByLogicalId.put(logicalId(rule), rule);
+            }
+        }
+        for (DecisionRule rule : decisionRuleRepository.findAllById(toActivate)) {
+            if (!toDelete.contains(rule.getId())) {
+                rulesByLogicalId.put(logicalId(rule), rule);
+            }
+        }
+        List<DecisionRule> rules = new ArrayList<>(rulesByLogicalId.values());
+        rules.sort(Comparator.comparing(rule -> rule.getPriority() != null ? rule.getPriority() : 0));
+        return start(factType.getValue(), "change request " + changeRequestId, rules, sampleRate);
+    }
+
+    private Shadow start(String factType, String candidate, List<DecisionRule> rules, double sampleRate) {
+        if (sampleRate <= 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("sampleRate must be greater than 0 and at most 1");
+        }
+        ReleaseId releaseId = KieServices.Factory.get().newReleaseId(
+            "org.rule.shadow", factType.toLowerCase(), candidateBuilds.incrementAndGet() + ".0.0");
+        RuleSetCompiler.KieContainerBuildResult build =
+            ruleSetCompiler.buildKieContainer(rules, factType, releaseId, ruleSetCompiler.getBuildMode());
+
+        // Map rule IDs of both sides to logical rules so a new version of a rule is not reported as a change
+        Map<Long, Long> logicalRuleIds = new HashMap<>();
+        rules.forEach(rule -> logicalRuleIds.put(rule.getId(), logicalId(rule)));
+        decisionRuleRepository.findByFactTypeAndIsLatestTrueAndActiveTrueOrderByPriorityAsc(FactType.fromValue(factType))
+            .forEach(rule -> logicalRuleIds.putIfAbsent(rule.getId(), logicalId(rule)));
+
+        Shadow shadow = new Shadow(factType, candidate, build, logicalRuleIds, sampleRate, maxDiffs);
+        Shadow previous = shadows.put(factType, shadow);
+        if (previous != null) {
+            previous.release();
+        }
+        log.info("Shadow execution started for {} against {} ({} rules, {}% of traffic)",
+            factType, candidate, rules.size(), sampleRate * 100);
+        return shadow;
+    }
+
+    public Optional<Shadow> getShadow(String factType) {
+        return Optional.ofNullable(shadows.get(FactType.fromValue(factType).getValue()));
+    }
+
+    /**
+     * Stop shadowing a fact type; comparisons already running finish first
+     * @return The stopped shadow with its final statistics, or empty if none was active
+     */
+    public Optional<Shadow> stop(String factType) {
+        Shadow shadow = shadows.remove(FactType.fromValue(factType).getValue());
+        if (shadow != null) {
+            shadow.release();
+            log.info("Shadow execution stopped for {}: {} compared, {} action, {} score, {} hit mismatches",
+                shadow.factType, shadow.getCompared(), shadow.getActionMismatches(),
+                shadow.getScoreMismatches(), shadow.getHitMismatches());
+        }
+        return Optional.ofNullable(shadow);
+    }
+
+    @Override
+    public void onExecuted(String factType, long version, Object fact, TotalRuleResults results, long elapsedNanos) {
+        Shadow shadow = shadows.get(factType);
+        // Short-circuited results are partial and would show up as spurious mismatches
+        if (shadow == null || Boolean.TRUE.equals(results.getTruncated())
+                || ThreadLocalRandom.current().nextDouble() >= shadow.sampleRate) {
+            return;
+        }
+        shadow.sampled.incrementAndGet();
+        try {
+            executor.execute(() -> compare(shadow, version, fact, results, elapsedNanos));
+        } catch (RejectedExecutionException e) {
+            // Shadow capacity exhausted: drop the sample rather than slow down the live path
+            shadow.skipped.incrementAndGet();
+            counter("skipped", factType).increment();
+        }
+    }
+
+    private void compare(Shadow shadow, long liveVersion, Object fact, TotalRuleResults live, long liveNanos) {
+        if (!shadow.tryAcquire()) {
+            // Stopped or replaced since the sample was taken
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            TotalRuleResults candidate;
+            try {
+                candidate = execute(shadow, fact);
+            } catch (RuntimeException e) {
+                shadow.failed.incrementAndGet();
+                counter("failed", shadow.factType).increment();
+                shadow.record(new ShadowDiff(factMapper.factId(fact), Instant.now(), liveVersion, live.getFinalAction(), null,
+                    live.getTotalScore(), null, false, false, false, List.of(), List.of(),
+                    TimeUnit.NANOSECONDS.toMicros(liveNanos), 0, e.getMessage()));
+                return;
+            }
+            long candidateNanos = System.nanoTime() - start;
+
+            Map<String, String> liveRules = firedRules(shadow, live);
+            Map<String, String> candidateRules = firedRules(shadow, candidate);
+            List<String> added = new ArrayList<>();
+            candidateRules.forEach((key, name) -> {
+                if (!liveRules.containsKey(key)) {
+                    added.add(name);
+                }
+            });
+            List<String> removed = new ArrayList<>();
+            liveRules.forEach((key, name) -> {
+                if (!candidateRules.containsKey(key)) {
+                    removed.add(name);
+                }
+            });
+
+            boolean actionChanged = !Objects.equals(live.getFinalAction(), candidate.getFinalAction());
+            boolean scoreChanged = compareScores(live.getTotalScore(), candidate.getTotalScore()) != 0;
+            boolean hitsChanged = !added.isEmpty() || !removed.isEmpty();
+            ShadowDiff diff = new ShadowDiff(factMapper.factId(fact), Instant.now(), liveVersion,
+                live.getFinalAction(), candidate.getFinalAction(), live.getTotalScore(), candidate.getTotalScore(),
+                actionChanged, scoreChanged, hitsChanged, added, removed,
+                TimeUnit.NANOSECONDS.toMicros(liveNanos), TimeUnit.NANOSECONDS.toMicros(candidateNanos), null);
+
+            shadow.compared.incrementAndGet();
+            shadow.liveNanos.addAndGet(liveNanos);
+            shadow.candidateNanos.addAndGet(candidateNanos);
+            if (actionChanged) {
+                shadow.actionMismatches.incrementAndGet();
+            }
+            if (scoreChanged) {
+                shadow.scoreMismatches.incrementAndGet();
+            }
+            if (hitsChanged) {
+                shadow.hitMismatches.incrementAndGet();
+            }
+            counter(diff.isMismatch() ? "mismatch" : "match", shadow.factType).increment();
+            shadow.record(diff);
+        } finally {
+            shadow.release();
+        }
+    }
+
+    /**
+     * Run the fact on the candidate container the way live executions run (stages, hit attribution, aggregation)
+     */
+    private TotalRuleResults execute(Shadow shadow, Object fact) {
+        return ruleEngineManager.evaluate(shadow.build.container, fact, null, null, null);
+    }
+
+    /**
+     * Fired rules keyed by logical rule ID where known, otherwise by rule name
+     */
+    private Map<String, String> firedRules(Shadow shadow, TotalRuleResults results) {
+        Map<String, String> fired = new LinkedHashMap<>();
+        for (RuleOutputHit hit : results.getHits()) {
+            String name = hit.getRuleName() != null ? hit.getRuleName() : "unknown";
+            String key = hit.getRuleId() != null
+                ? "id:" + shadow.logicalRuleIds.getOrDefault(hit.getRuleId(), hit.getRuleId())
+                : "name:" + name;
+            fired.putIfAbsent(key, name);
+        }
+        return fired;
+    }
+
+    private int compareScores(BigDecimal live, BigDecimal candidate) {
+        return (live != null ? live : BigDecimal.ZERO).compareTo(candidate != null ? candidate : BigDecimal.ZERO);
+    }
+
+    private Counter counter(String outcome, String factType) {
+        return Counter.builder("rule.engine.shadow.comparisons")
+            .description("Live executions replayed against a shadow candidate")
+            .tag("factType", factType)
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    private static Long logicalId(DecisionRule rule) {
+        return rule.getParentRuleId() != null ? rule.getParentRuleId() : rule.getId();
+    }
+
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        for (String factType : new ArrayList<>(shadows.keySet())) {
+            Shadow shadow = shadows.remove(factType);
+            if (shadow != null) {
+                shadow.release();
+            }
+        }
+    }
+
+    /**
+     * Active shadows, for status listings
+     */
+    public List<Shadow> getShadows() {
+        return Collections.unmodifiableList(new ArrayList<>(shadows.values()));
+    }
+}
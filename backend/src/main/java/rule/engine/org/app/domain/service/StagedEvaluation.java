@@ -0,0 +1,76 @@
+package rule.engine.org.app.domain.service;
+
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.rule.AgendaFilter;
+import rule.engine.org.app.domain.entity.execution.TotalRuleResults;
+import rule.engine.org.app.domain.entity.ui.EvaluationStage;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * Fires a fact through the evaluation stages of a session, one agenda group at a time
+ *
+ * Every rule is compiled into the agenda group of its stage (see RuleSetCompiler), so nothing
+ * fires until a stage gets the focus. Stages run in EvaluationStage order; before DEEP the skip
+ * predicate sees the hits produced so far and can leave DEEP unfocused. Phreak evaluates joins,
+ * "from" and accumulate lazily when a group is fired, so a skipped stage costs little beyond the
+ * constraints on the fact itself, which are checked when it is inserted. Firing also stops when
+ * a halt listener marks the results truncated.
+ *
+ * A session evaluates exactly one root fact (plus its child facts, see FactLayout).
+ */
+final class StagedEvaluation {
+
+    static final EvaluationStage[] STAGES = EvaluationStage.values();
+
+    /**
+     * Marker in stageNanos for a stage that did not run
+     */
+    static final long NOT_RUN = -1;
+
+    private StagedEvaluation() {
+    }
+
+    /**
+     * Insert the fact and fire the stages in order
+     * @param layout Fact layout of the session's container: child facts to insert and the HS prefix index
+     * @param skipDeep Tested before DEEP with the results so far; null to always run DEEP
+     * @param stageNanos Receives the time spent per stage (by ordinal), NOT_RUN for stages that did not run; may be null
+     */
+    static void fire(KieSession session, Object fact, TotalRuleResults results, FactLayout layout,
+                     Predicate<TotalRuleResults> skipDeep, long[] stageNanos) {
+        fire(session, fact, results, layout, skipDeep, stageNanos, null);
+    }
+
+    /**
+     * Insert the fact and fire the stages in order, firing only the matches the filter accepts
+     * @param filter Matches to fire (see ColumnarRuleSet); null fires every match
+     */
+    static void fire(KieSession session, Object fact, TotalRuleResults results, FactLayout layout,
+                     Predicate<TotalRuleResults> skipDeep, long[] stageNanos, AgendaFilter filter) {
+        if (stageNanos != null) {
+            Arrays.fill(stageNanos, NOT_RUN);
+        }
+        layout.insert(session, fact);
+        for (EvaluationStage stage : STAGES) {
+            if (stage == EvaluationStage.DEEP && skipDeep != null && skipDeep.test(results)) {
+                continue;
+            }
+            long start = System.nanoTime();
+            session.getAgenda().getAgendaGroup(stage.getAgendaGroup()).setFocus();
+            if (filter != null) {
+                session.fireAllRules(filter);
+            } else {
+                session.fireAllRules();
+            }
+            if (stageNanos != null) {
+                stageNanos[stage.ordinal()] = System.nanoTime() - start;
+            }
+            if (Boolean.TRUE.equals(results.getTruncated())) {
+                // Halted on a terminal action: later stages must not run either
+                break;
+            }
+        }
+    }
+}
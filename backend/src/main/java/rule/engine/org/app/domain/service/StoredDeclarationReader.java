@@ -0,0 +1,150 @@
+package rule.engine.org.app.domain.service;
+
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import rule.engine.org.app.domain.entity.execution.declaration.Declaration;
+import rule.engine.org.app.domain.entity.execution.declaration.GovernmentAgencyGoodsItem;
+
+import java.sql.Array;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Streams stored declarations with their goods items, one keyset-paged chunk at a time
+ *
+ * Uses plain JDBC rather than JPA so no persistence context accumulates over a long scan.
+ * Declarations are read oldest first (by id), optionally restricted to a submission window
+ * and an extra SQL predicate over the declarations table (alias d).
+ */
+final class StoredDeclarationReader implements Iterator<Declaration> {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int pageSize;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final String predicate;
+    private final List<Object> predicateArgs;
+    private final BeanPropertyRowMapper<Declaration> declarationMapper = new BeanPropertyRowMapper<>(Declaration.class);
+    private final BeanPropertyRowMapper<GovernmentAgencyGoodsItem> itemMapper =
+        new BeanPropertyRowMapper<>(GovernmentAgencyGoodsItem.class);
+    private Iterator<Declaration> page = Collections.emptyIterator();
+    private long lastId;
+    private boolean exhausted;
+
+    /**
+     * @param from Only declarations submitted at or after this time, or null
+     * @param to Only declarations submitted before this time, or null
+     * @param predicate Extra condition on the declarations row (alias d), or null
+     * @param predicateArgs Parameters of the predicate (see bind)
+     */
+    StoredDeclarationReader(JdbcTemplate jdbcTemplate, int pageSize, LocalDateTime from, LocalDateTime to,
+                            String predicate, List<Object> predicateArgs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.pageSize = pageSize;
+        this.from = from;
+        this.to = to;
+        this.predicate = predicate;
+        this.predicateArgs = predicateArgs;
+    }
+
+    /**
+     * Parameter setter for a statement; String[] arguments are bound as varchar arrays (for = ANY(?))
+     */
+    static PreparedStatementSetter bind(List<Object> args) {
+        return statement -> {
+            for (int i = 0; i < args.size(); i++) {
+                Object arg = args.get(i);
+                if (arg instanceof String[] values) {
+                    statement.setArray(i + 1, statement.getConnection().createArrayOf("varchar", values));
+                } else {
+                    statement.setObject(i + 1, arg);
+                }
+            }
+        };
+    }
+
+    /**
+     * SQL restricting declarations (alias d) to a submission window; appends its parameters to args
+     */
+    static String window(LocalDateTime from, LocalDateTime to, List<Object> args) {
+        StringBuilder sql = new StringBuilder();
+        if (from != null) {
+            sql.append(" AND d.submission_date_time >= ?");
+            args.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" AND d.submission_date_time < ?");
+            args.add(Timestamp.valueOf(to));
+        }
+        return sql.toString();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!page.hasNext() && !exhausted) {
+            List<Declaration> declarations = loadPage();
+            exhausted = declarations.size() < pageSize;
+            page = declarations.iterator();
+        }
+        return page.hasNext();
+    }
+
+    @Override
+    public Declaration next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return page.next();
+    }
+
+    private List<Declaration> loadPage() {
+        StringBuilder sql = new StringBuilder("SELECT d.* FROM declarations d WHERE d.id > ?");
+        List<Object> args = new ArrayList<>();
+        args.add(lastId);
+        sql.append(window(from, to, args));
+        if (predicate != null) {
+            sql.append(" AND (").append(predicate).append(")");
+            args.addAll(predicateArgs);
+        }
+        sql.append(" ORDER BY d.id LIMIT ?");
+        args.add(pageSize);
+
+        List<Declaration> declarations = jdbcTemplate.query(sql.toString(), bind(args), declarationMapper);
+        if (declarations.isEmpty()) {
+            return declarations;
+        }
+        lastId = declarations.get(declarations.size() - 1).getId();
+
+        Map<Long, Declaration> byId = new HashMap<>();
+        Long[] ids = new Long[declarations.size()];
+        for (int i = 0; i < declarations.size(); i++) {
+            Declaration declaration = declarations.get(i);
+            declaration.setGovernmentAgencyGoodsItems(new ArrayList<>());
+            byId.put(declaration.getId(), declaration);
+            ids[i] = declaration.getId();
+        }
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(
+                "SELECT * FROM government_agency_goods_items WHERE declaration_id = ANY(?) ORDER BY declaration_id, sequence_numeric");
+            Array idArray = connection.createArrayOf("bigint", ids);
+            statement.setArray(1, idArray);
+            return statement;
+        }, resultSet -> {
+            GovernmentAgencyGoodsItem item = itemMapper.mapRow(resultSet, 0);
+            Declaration declaration = byId.get(resultSet.getLong("declaration_id"));
+            if (item != null && declaration != null) {
+                item.setDeclaration(declaration);
+                declaration.getGovernmentAgencyGoodsItems().add(item);
+            }
+        });
+        return declarations;
+    }
+}
@@ -0,0 +1,158 @@
+package rule.engine.org.app.util;
+
+import org.apache.poi.UnsupportedFileFormatException;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads decision tables from CSV or XLSX into rows of cell text
+ *
+ * CSV follows RFC 4180 (comma separated, double quotes around cells holding commas, quotes or
+ * line breaks, "" for a quote inside a quoted cell); a UTF-8 byte order mark is skipped. For
+ * XLSX only the first sheet is read, and cells are taken as Excel displays them, so numbers keep
+ * the sheet's formatting. Blank rows are skipped but keep their place in the row numbering, so
+ * errors can point to the row an analyst sees in the spreadsheet.
+ */
+public class DecisionTableReader {
+
+    /**
+     * One non-blank row; number is 1-based as shown by spreadsheet tools (the header is row 1)
+     */
+    public record TableRow(int number, List<String> cells) {
+
+        /**
+         * Trimmed text of a cell, or null if the cell is missing or blank
+         */
+        public String cell(int index) {
+            if (index >= cells.size()) {
+                return null;
+            }
+            String value = cells.get(index);
+            return value == null || value.isBlank() ? null : value.trim();
+        }
+    }
+
+    /**
+     * Read a table, choosing the format from the file name (.xlsx, anything else is CSV)
+     * @throws IllegalArgumentException if the content is not a readable table
+     */
+    public static List<TableRow> read(String fileName, InputStream input) throws IOException {
+        if (fileName != null && fileName.toLowerCase().endsWith(".xlsx")) {
+            return readXlsx(input);
+        }
+        return readCsv(input);
+    }
+
+    public static List<TableRow> readCsv(InputStream input) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        List<TableRow> rows = new ArrayList<>();
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        boolean cellQuoted = false;
+        int lineNumber = 1;
+        int rowStart = 1;
+
+        int c = reader.read();
+        if (c == '\uFEFF') {
+            c = reader.read();
+        }
+        for (; c != -1; c = reader.read()) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        cell.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    cell.append((char) c);
+                }
+            } else if (c == '"' && cell.isEmpty() && !cellQuoted) {
+                quoted = true;
+                cellQuoted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+                cellQuoted = false;
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                }
+                cells.add(cell.toString());
+                addRow(rows, rowStart, cells);
+                cells = new ArrayList<>();
+                cell.setLength(0);
+                cellQuoted = false;
+                lineNumber++;
+                rowStart = lineNumber;
+            } else {
+                cell.append((char) c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted cell starting in row " + rowStart);
+        }
+        if (!cell.isEmpty() || !cells.isEmpty() || cellQuoted) {
+            cells.add(cell.toString());
+            addRow(rows, rowStart, cells);
+        }
+        return rows;
+    }
+
+    public static List<TableRow> readXlsx(InputStream input) throws IOException {
+        List<TableRow> rows = new ArrayList<>();
+        try (Workbook workbook = WorkbookFactory.create(input)) {
+            if (workbook.getNumberOfSheets() == 0) {
+                return rows;
+            }
+            Sheet sheet = workbook.getSheetAt(0);
+            DataFormatter formatter = new DataFormatter();
+            for (Row row : sheet) {
+                List<String> cells = new ArrayList<>();
+                for (int i = 0; i < Math.max(0, row.getLastCellNum()); i++) {
+                    Cell cell = row.getCell(i, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
+                    cells.add(cell != null ? formatter.formatCellValue(cell) : "");
+                }
+                addRow(rows, row.getRowNum() + 1, cells);
+            }
+        } catch (UnsupportedFileFormatException e) {
+            throw new IllegalArgumentException("Not an XLSX workbook: " + e.getMessage(), e);
+        }
+        return rows;
+    }
+
+    private static void addRow(List<TableRow> rows, int number, List<String> cells) {
+        for (String cell : cells) {
+            if (!cell.isBlank()) {
+                rows.add(new TableRow(number, cells));
+                return;
+            }
+        }
+    }
+
+    private DecisionTableReader() {
+        // Utility class - prevent instantiation
+    }
+}
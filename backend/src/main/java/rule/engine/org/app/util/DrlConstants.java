@@ -18,12 +18,19 @@ public class DrlConstants {
         "rule.engine.org.app.domain.entity.execution.cargo.ConsignmentItem",
         "rule.engine.org.app.domain.entity.execution.RuleOutputHit",
         "rule.engine.org.app.domain.entity.execution.TotalRuleResults",
+        "rule.engine.org.app.domain.service.ReferenceLists",
+        "rule.engine.org.app.domain.service.HsPrefixMatches",
+        "rule.engine.org.app.domain.service.RuleTemplateTable",
+        "rule.engine.org.app.domain.service.RuleTemplateRow",
         "java.math.BigDecimal"
     };
     
     // Global declarations for DRL rules
     public static final String[] DRL_GLOBALS = {
-        "TotalRuleResults totalResults"
+        "TotalRuleResults totalResults",
+        "ReferenceLists refLists",
+        "HsPrefixMatches hsPrefixes",
+        "RuleTemplateTable ruleTemplates"
     };
     
     /**
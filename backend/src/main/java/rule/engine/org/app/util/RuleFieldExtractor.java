@@ -7,6 +7,7 @@ import rule.engine.org.app.api.response.RuleFieldMetadata.FieldDefinition;
 import rule.engine.org.app.api.response.RuleFieldMetadata.OperatorDefinition;
 import rule.engine.org.app.domain.entity.execution.declaration.Declaration;
 import rule.engine.org.app.domain.entity.execution.cargo.CargoReport;
+import rule.engine.org.app.domain.entity.execution.DerivedFeature;
 import rule.engine.org.app.domain.entity.execution.RuleOutputHit;
 
 import java.lang.reflect.Field;
@@ -51,6 +52,17 @@ public class RuleFieldExtractor {
                 continue;
             }
             
+            // Check for @DerivedFeature annotation (aggregates computed before rules fire)
+            DerivedFeature derived = field.getAnnotation(DerivedFeature.class);
+            if (derived != null) {
+                String fieldPath = entityPrefix + "." + fieldName;
+                String type = determineFieldType(field.getType());
+                String over = derived.field().isEmpty() ? derived.source() : derived.source() + "." + derived.field();
+                String description = String.format("Derived: %s of %s (type: %s)", derived.aggregate(), over, type);
+                fields.add(new FieldDefinition(fieldPath, generateLabel(fieldName), type, description));
+                continue;
+            }
+            
             // Check for @Column annotation (regular fields)
             Column column = field.getAnnotation(Column.class);
             if (column != null) {
@@ -122,6 +134,49 @@ public class RuleFieldExtractor {
         return fields;
     }
     
+    /**
+     * Element class of a collection field of the fact type's entity
+     * e.g., ("Declaration", "governmentAgencyGoodsItems") -> GovernmentAgencyGoodsItem
+     * @return Element class, or null if the field is not a @OneToMany collection
+     */
+    public static Class<?> collectionElementType(String factType, String collectionField) {
+        Class<?> entityClass = "CargoReport".equalsIgnoreCase(factType) ? CargoReport.class : Declaration.class;
+        return collectionElementType(entityClass, collectionField);
+    }
+
+    /**
+     * Element class of a collection field of an entity class
+     * e.g., (Consignment.class, "consignmentItems") -> ConsignmentItem
+     * @return Element class, or null if the field is not a @OneToMany collection
+     */
+    public static Class<?> collectionElementType(Class<?> entityClass, String collectionField) {
+        try {
+            Field field = entityClass.getDeclaredField(collectionField);
+            if (field.getAnnotation(OneToMany.class) != null
+                    && field.getGenericType() instanceof ParameterizedType paramType
+                    && paramType.getActualTypeArguments().length > 0
+                    && paramType.getActualTypeArguments()[0] instanceof Class<?> elementClass) {
+                return elementClass;
+            }
+        } catch (NoSuchFieldException e) {
+            // Not a field of the entity
+        }
+        return null;
+    }
+    
+    /**
+     * UI type name of a field of an entity class, for fields the metadata does not list
+     * e.g., (ConsignmentItem.class, "grossWeightMeasure") -> decimal
+     * @return Type name, or "string" if the entity has no such field
+     */
+    public static String fieldType(Class<?> entityClass, String fieldName) {
+        try {
+            return determineFieldType(entityClass.getDeclaredField(fieldName).getType());
+        } catch (NoSuchFieldException e) {
+            return "string";
+        }
+    }
+    
     /**
      * Skip technical/internal fields that shouldn't be used in conditions
      */
@@ -188,7 +243,9 @@ public class RuleFieldExtractor {
             new OperatorDefinition("contains", "Contains", "Check if string contains a substring"),
             new OperatorDefinition("startsWith", "Starts with", "Check if string starts with a prefix"),
             new OperatorDefinition("endsWith", "Ends with", "Check if string ends with a suffix"),
-            new OperatorDefinition("matches", "Matches regex", "Check if string matches a regular expression")
+            new OperatorDefinition("matches", "Matches regex", "Check if string matches a regular expression"),
+            new OperatorDefinition("inList", "In list", "Check if value is in a reference list"),
+            new OperatorDefinition("notInList", "Not in list", "Check if value is not in a reference list")
         ));
         
         // Integer operators
@@ -198,7 +255,9 @@ public class RuleFieldExtractor {
             new OperatorDefinition(">", "Greater than", "Check if value is greater than"),
             new OperatorDefinition(">=", "Greater than or equal to", "Check if value is greater than or equal to"),
             new OperatorDefinition("<", "Less than", "Check if value is less than"),
-            new OperatorDefinition("<=", "Less than or equal to", "Check if value is less than or equal to")
+            new OperatorDefinition("<=", "Less than or equal to", "Check if value is less than or equal to"),
+            new OperatorDefinition("inList", "In list", "Check if value is in a reference list"),
+            new OperatorDefinition("notInList", "Not in list", "Check if value is not in a reference list")
         ));
         
         // Decimal operators (same as integer)
@@ -0,0 +1,28 @@
+-- Create kie_module_artifacts table to store compiled KieModules (kjars)
+-- Lets the rule engine load a compiled rule set on startup instead of recompiling DRL
+
+CREATE TABLE IF NOT EXISTS kie_module_artifacts (
+    id BIGSERIAL PRIMARY KEY,
+    fact_type VARCHAR(100) NOT NULL,
+    rules_hash VARCHAR(64) NOT NULL,
+    build_mode VARCHAR(50) NOT NULL, -- DRL, EXECUTABLE_MODEL
+    build_fingerprint VARCHAR(64) NOT NULL, -- Hash of DRL header and fact classes the kjar was compiled against
+    release_id VARCHAR(255) NOT NULL,
+    artifact BYTEA NOT NULL,
+    size_bytes INTEGER NOT NULL,
+    created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    created_by VARCHAR(255),
+    last_modified_date TIMESTAMP,
+    last_modified_by VARCHAR(255),
+    CONSTRAINT uk_kie_module_artifacts_key UNIQUE (fact_type, rules_hash, build_mode, build_fingerprint)
+);
+
+COMMENT ON TABLE kie_module_artifacts IS 'Compiled KieModules (kjars) keyed by rules hash, reused on startup to skip DRL compilation';
+COMMENT ON COLUMN kie_module_artifacts.fact_type IS 'Fact type the rule set applies to (e.g., Declaration, CargoReport)';
+COMMENT ON COLUMN kie_module_artifacts.rules_hash IS 'MD5 hash of the rules compiled into the artifact (same as kie_container_versions.rules_hash)';
+COMMENT ON COLUMN kie_module_artifacts.build_mode IS 'Build mode used to compile the artifact: DRL or EXECUTABLE_MODEL';
+COMMENT ON COLUMN kie_module_artifacts.build_fingerprint IS 'Hash of the DRL header and fact classes; artifacts built against other classes are ignored';
+COMMENT ON COLUMN kie_module_artifacts.release_id IS 'Drools ReleaseId of the stored KieModule';
+COMMENT ON COLUMN kie_module_artifacts.artifact IS 'Serialized kjar bytes';
+
+CREATE INDEX IF NOT EXISTS idx_kie_module_artifacts_fact_type_created ON kie_module_artifacts(fact_type, created_date DESC);
@@ -0,0 +1,90 @@
+-- Create declarations and government_agency_goods_items tables
+-- Stores submitted declarations (matching the Declaration / GovernmentAgencyGoodsItem entities)
+-- so they can be replayed against other rule versions
+
+CREATE TABLE IF NOT EXISTS declarations (
+    id BIGSERIAL PRIMARY KEY,
+    function_code VARCHAR(10),
+    type_code VARCHAR(10),
+    office_id VARCHAR(50),
+    declaration_id VARCHAR(255) UNIQUE,
+    submission_date_time TIMESTAMP,
+    ucr VARCHAR(255),
+    declarant_id VARCHAR(255),
+    declarant_name VARCHAR(255),
+    declarant_country_id VARCHAR(10),
+    consignor_id VARCHAR(255),
+    consignor_name VARCHAR(255),
+    consignor_country_id VARCHAR(10),
+    consignee_id VARCHAR(255),
+    consignee_name VARCHAR(255),
+    consignee_country_id VARCHAR(10),
+    importer_id VARCHAR(255),
+    importer_name VARCHAR(255),
+    importer_country_id VARCHAR(10),
+    country_of_export_id VARCHAR(10),
+    country_of_import_id VARCHAR(10),
+    country_of_destination_id VARCHAR(10),
+    incoterm_code VARCHAR(10),
+    invoice_id VARCHAR(255),
+    invoice_issue_date_time TIMESTAMP,
+    invoice_currency_code VARCHAR(10),
+    invoice_amount NUMERIC(19, 2),
+    transport_means_mode_code VARCHAR(10),
+    transport_means_id VARCHAR(255),
+    transport_means_journey_id VARCHAR(255),
+    loading_location_id VARCHAR(50),
+    unloading_location_id VARCHAR(50),
+    location_of_goods_id VARCHAR(255),
+    warehouse_id VARCHAR(255),
+    package_quantity INTEGER,
+    marks_numbers_id VARCHAR(255),
+    total_gross_mass_measure NUMERIC(19, 3),
+    total_net_mass_measure NUMERIC(19, 3),
+    total_freight_amount NUMERIC(19, 2),
+    total_insurance_amount NUMERIC(19, 2),
+    other_charges_amount NUMERIC(19, 2),
+    previous_document_ids TEXT,
+    created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    created_by VARCHAR(255),
+    last_modified_date TIMESTAMP,
+    last_modified_by VARCHAR(255)
+);
+
+COMMENT ON TABLE declarations IS 'Submitted goods declarations (WCO Data Model), replayable against any rule version';
+COMMENT ON COLUMN declarations.declaration_id IS 'Declaration identifier (e.g., 23IM123456); rule_execution_results.declaration_id refers to it';
+
+CREATE INDEX IF NOT EXISTS idx_declarations_submission ON declarations(submission_date_time);
+
+CREATE TABLE IF NOT EXISTS government_agency_goods_items (
+    id BIGSERIAL PRIMARY KEY,
+    declaration_id BIGINT NOT NULL,
+    sequence_numeric INTEGER,
+    hs_id VARCHAR(20),
+    description TEXT,
+    origin_country_id VARCHAR(10),
+    net_weight_measure NUMERIC(19, 3),
+    gross_weight_measure NUMERIC(19, 3),
+    quantity_quantity NUMERIC(19, 3),
+    quantity_unit_code VARCHAR(10),
+    invoice_line_number_id VARCHAR(50),
+    unit_price_amount NUMERIC(19, 4),
+    statistical_value_amount NUMERIC(19, 2),
+    customs_value_amount NUMERIC(19, 2),
+    procedure_code VARCHAR(10),
+    previous_procedure_code VARCHAR(10),
+    preference_code VARCHAR(10),
+    valuation_method_code VARCHAR(10),
+    duty_rate NUMERIC(9, 4),
+    duty_amount NUMERIC(19, 2),
+    created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    created_by VARCHAR(255),
+    last_modified_date TIMESTAMP,
+    last_modified_by VARCHAR(255),
+    CONSTRAINT fk_goods_item_declaration FOREIGN KEY (declaration_id) REFERENCES declarations(id) ON DELETE CASCADE
+);
+
+COMMENT ON TABLE government_agency_goods_items IS 'Line items of stored declarations';
+COMMENT ON COLUMN government_agency_goods_items.declaration_id IS 'Reference to declarations.id';
+
+CREATE INDEX IF NOT EXISTS idx_goods_items_declaration ON government_agency_goods_items(declaration_id, sequence_numeric);
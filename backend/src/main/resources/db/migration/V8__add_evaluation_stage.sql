@@ -0,0 +1,8 @@
+-- Add evaluation_stage to decision_rules
+-- Rules are compiled into one agenda group per stage; stages run in order
+-- SCREENING -> STANDARD -> DEEP, and DEEP can be skipped for facts the earlier stages found clean
+
+ALTER TABLE decision_rules
+ADD COLUMN IF NOT EXISTS evaluation_stage VARCHAR(20) DEFAULT 'STANDARD' NOT NULL;
+
+COMMENT ON COLUMN decision_rules.evaluation_stage IS 'Evaluation stage of the rule (SCREENING, STANDARD or DEEP). DEEP rules may be skipped when earlier stages produce no findings.';
@@ -0,0 +1,24 @@
+-- Create reference_lists and reference_list_entries tables
+-- Named value lists (country or HS watch-lists, ...) used by IN / NOT_IN conditions;
+-- loaded into memory and exposed to DRL as the refLists global, reloadable without recompiling rules
+
+CREATE TABLE IF NOT EXISTS reference_lists (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(100) NOT NULL UNIQUE,
+    description TEXT,
+    created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    created_by VARCHAR(255),
+    last_modified_date TIMESTAMP,
+    last_modified_by VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS reference_list_entries (
+    list_id BIGINT NOT NULL,
+    value VARCHAR(255) NOT NULL,
+    CONSTRAINT pk_reference_list_entries PRIMARY KEY (list_id, value),
+    CONSTRAINT fk_reference_list_entries_list FOREIGN KEY (list_id) REFERENCES reference_lists(id) ON DELETE CASCADE
+);
+
+COMMENT ON TABLE reference_lists IS 'Named reference-data lists used by IN / NOT_IN rule conditions';
+COMMENT ON COLUMN reference_lists.name IS 'List name referenced from rules, e.g. refLists.contains("HIGH_RISK_COUNTRIES", $d.countryOfExportId)';
+COMMENT ON TABLE reference_list_entries IS 'Values of reference lists, compared as exact strings';
@@ -0,0 +1,531 @@
+package rule.engine.org.app.domain.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieServices;
+import org.kie.api.builder.ReleaseId;
+import rule.engine.org.app.domain.entity.execution.RuleOutputHit;
+import rule.engine.org.app.domain.entity.execution.TotalRuleResults;
+import rule.engine.org.app.domain.entity.execution.declaration.Declaration;
+import rule.engine.org.app.domain.entity.execution.declaration.GovernmentAgencyGoodsItem;
+import rule.engine.org.app.domain.entity.ui.DecisionRule;
+import rule.engine.org.app.domain.entity.ui.FactType;
+import rule.engine.org.app.domain.entity.ui.RuleCondition;
+import rule.engine.org.app.domain.entity.ui.RuleOutput;
+import rule.engine.org.app.domain.repository.DecisionRuleRepository;
+import rule.engine.org.app.domain.repository.KieContainerVersionRepository;
+import rule.engine.org.app.domain.repository.KieModuleArtifactRepository;
+import rule.engine.org.app.domain.repository.RuleConditionRepository;
+import rule.engine.org.app.domain.repository.RuleOutputRepository;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The predicate backend must produce the same results as Drools for every rule set it accepts
+ *
+ * Rules are generated from rule editor conditions by RuleDrlGenerator, as on save: the DRL goes
+ * to Drools, the condition rows to PredicateRuleCompiler. Each fact is fired through both and
+ * the aggregated results are compared: hits as a multiset (rules of equal salience may fire in
+ * another order), total score by value, final action and final flag.
+ */
+class BackendConformanceTest {
+
+    private static final String FACT_TYPE = FactType.DECLARATION.getValue();
+    private static final AtomicInteger BUILDS = new AtomicInteger();
+
+    private final ReferenceLists referenceLists = new ReferenceLists();
+    private final RuleSetCompiler ruleSetCompiler = new RuleSetCompiler(RuleSetCompiler.BuildMode.DRL, false, 0, null);
+    private final List<RuleSetCompiler.KieContainerBuildResult> builds = new ArrayList<>();
+
+    @AfterEach
+    void disposeContainers() {
+        for (RuleSetCompiler.KieContainerBuildResult build : builds) {
+            build.container.dispose();
+            KieServices.Factory.get().getRepository().removeKieModule(build.kieModule.getReleaseId());
+        }
+    }
+
+    @Test
+    void nullFieldsFailComparisonsAndStringTests() {
+        RuleSet ruleSet = new RuleSet()
+            .rule("Invoice above", output("REVIEW", "10", "HIGH_VALUE"), condition("invoiceAmount", ">", 1000))
+            .rule("Exported from CN", output("FLAG", "5", "ORIGIN"), condition("countryOfExportId", "==", "CN"))
+            .rule("C incoterm", output("FLAG", "3", "INCOTERM"), condition("incotermCode", "startsWith", "C"))
+            .rule("Trading importer", output("HOLD", "2", "IMPORTER"), condition("importerName", "contains", "Trading"))
+            .rule("Few packages", output("FLAG", "1", "PACKAGES"), condition("packageQuantity", "<=", 10));
+
+        List<TotalRuleResults> results = assertConformant(ruleSet,
+            declaration(d -> { }),
+            declaration(d -> {
+                d.setInvoiceAmount(new BigDecimal("2500.00"));
+                d.setCountryOfExportId("CN");
+                d.setIncotermCode("CIF");
+                d.setImporterName("Saigon Trading Co");
+                d.setPackageQuantity(4);
+            }),
+            declaration(d -> {
+                d.setCountryOfExportId("VN");
+                d.setPackageQuantity(40);
+            }));
+
+        assertThat(results.get(0).getHits()).isEmpty();
+        assertThat(results.get(1).getHits()).hasSize(5);
+        assertThat(results.get(2).getHits()).isEmpty();
+    }
+
+    @Test
+    void notEqualsMatchesNullFields() {
+        RuleSet ruleSet = new RuleSet()
+            .rule("Not from CN", output("FLAG", "5", "ORIGIN"), condition("countryOfExportId", "!=", "CN"))
+            .rule("Not 500", output("REVIEW", "7", "AMOUNT"), condition("invoiceAmount", "!=", 500))
+            .rule("Incoterm given", output("FLAG", "2", "INCOTERM"), condition("incotermCode", "!=", null))
+            .rule("Importer missing", output("HOLD", "4", "IMPORTER"), condition("importerId", "==", null));
+
+        List<TotalRuleResults> results = assertConformant(ruleSet,
+            declaration(d -> { }),
+            declaration(d -> {
+                d.setCountryOfExportId("CN");
+                d.setInvoiceAmount(new BigDecimal("500.00"));
+                d.setIncotermCode("FOB");
+                d.setImporterId("VN0101");
+            }),
+            declaration(d -> {
+                d.setCountryOfExportId("US");
+                d.setInvoiceAmount(new BigDecimal("499.99"));
+            }));
+
+        assertThat(ruleIds(results.get(0))).containsExactlyInAnyOrder(1L, 2L, 4L);
+        assertThat(ruleIds(results.get(1))).containsExactly(3L);
+        assertThat(ruleIds(results.get(2))).containsExactlyInAnyOrder(1L, 2L, 4L);
+    }
+
+    @Test
+    void valuesCompareByFieldTypeNotByLiteralType() {
+        RuleSet ruleSet = new RuleSet()
+            // Numeric field, value entered as text or with another scale
+            .rule("Invoice text value", output("FLAG", "1", "A"), condition("invoiceAmount", ">=", "1000.50"))
+            .rule("Invoice equal", output("FLAG", "2", "B"), condition("invoiceAmount", "==", 1000))
+            .rule("Freight decimal", output("REVIEW", "3", "C"), condition("totalFreightAmount", "<", 99.5))
+            .rule("Packages decimal", output("FLAG", "4", "D"), condition("packageQuantity", ">", 10.5))
+            // String field, value entered as a number
+            .rule("Maritime", output("HOLD", "5", "E"), condition("transportMeansModeCode", "==", 1))
+            .rule("Country order", output("FLAG", "6", "F"), condition("countryOfExportId", ">", "M"));
+
+        assertConformant(ruleSet,
+            declaration(d -> {
+                d.setInvoiceAmount(new BigDecimal("1000.00"));
+                d.setTotalFreightAmount(new BigDecimal("99.50"));
+                d.setPackageQuantity(10);
+                d.setTransportMeansModeCode("1");
+                d.setCountryOfExportId("CN");
+            }),
+            declaration(d -> {
+                d.setInvoiceAmount(new BigDecimal("1000.5"));
+                d.setTotalFreightAmount(new BigDecimal("12"));
+                d.setPackageQuantity(11);
+                d.setTransportMeansModeCode("01");
+                d.setCountryOfExportId("VN");
+            }),
+            declaration(d -> d.setInvoiceAmount(new BigDecimal("1E+3"))));
+    }
+
+    @Test
+    void orBindsLooserThanAnd() {
+        RuleSet ruleSet = new RuleSet()
+            // CN || (FOB && > 1000)
+            .rule("Or first", output("REVIEW", "10", "OR_FIRST"),
+                or(condition("countryOfExportId", "==", "CN")),
+                condition("incotermCode", "==", "FOB"),
+                condition("invoiceAmount", ">", 1000))
+            // (CN && FOB) || > 1000
+            .rule("Or last", output("FLAG", "6", "OR_LAST"),
+                condition("countryOfExportId", "==", "CN"),
+                or(condition("incotermCode", "==", "FOB")),
+                condition("invoiceAmount", ">", 1000))
+            // CN || FOB || null quantity
+            .rule("Or only", output("HOLD", "3", "OR_ONLY"),
+                or(condition("countryOfExportId", "==", "CN")),
+                or(condition("incotermCode", "==", "FOB")),
+                condition("packageQuantity", "==", null));
+
+        List<TotalRuleResults> results = assertConformant(ruleSet,
+            declaration(d -> { }),
+            declaration(d -> d.setCountryOfExportId("CN")),
+            declaration(d -> {
+                d.setIncotermCode("FOB");
+                d.setPackageQuantity(3);
+            }),
+            declaration(d -> {
+                d.setIncotermCode("FOB");
+                d.setInvoiceAmount(new BigDecimal("1500"));
+                d.setPackageQuantity(3);
+            }),
+            declaration(d -> {
+                d.setCountryOfExportId("CN");
+                d.setIncotermCode("FOB");
+                d.setPackageQuantity(3);
+            }));
+
+        assertThat(ruleIds(results.get(0))).containsExactly(3L);
+        assertThat(ruleIds(results.get(1))).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(ruleIds(results.get(2))).containsExactly(3L);
+        assertThat(ruleIds(results.get(3))).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(ruleIds(results.get(4))).containsExactlyInAnyOrder(1L, 2L, 3L);
+    }
+
+    @Test
+    void equalScoresGiveTheFinalFlagOfTheLowestRuleId() {
+        // Rules 1, 3 and 5 share priority 10, so Drools fires them in any order
+        RuleSet ruleSet = new RuleSet()
+            .rule("Invoice above", output("FLAG", "5", "ZETA"), condition("invoiceAmount", ">", 1000))
+            .rule("Exported from CN", output("FLAG", "5", "BETA"), condition("countryOfExportId", "==", "CN"))
+            .rule("C incoterm", output("REVIEW", "5", "ALPHA"), condition("incotermCode", "startsWith", "C"))
+            .rule("Trading importer", output("HOLD", "2", "IMPORTER"), condition("importerName", "contains", "Trading"))
+            .rule("Few packages", output("FLAG", "5", "GAMMA"), condition("packageQuantity", "<=", 10));
+
+        List<TotalRuleResults> results = assertConformant(ruleSet,
+            declaration(d -> {
+                d.setInvoiceAmount(new BigDecimal("2500"));
+                d.setCountryOfExportId("CN");
+                d.setIncotermCode("CIF");
+                d.setImporterName("Saigon Trading Co");
+                d.setPackageQuantity(4);
+            }),
+            declaration(d -> {
+                d.setIncotermCode("CFR");
+                d.setPackageQuantity(4);
+            }));
+
+        assertThat(results.get(0).getFinalFlag()).isEqualTo("ZETA");
+        assertThat(results.get(1).getFinalFlag()).isEqualTo("ALPHA");
+    }
+
+    @Test
+    void haltOnFinishesThePriorityOfTheTerminalHit() {
+        // Priorities 10, 0, 10, 0, 10
+        RuleSet ruleSet = new RuleSet()
+            .rule("Invoice above", output("REJECT", "10", "HIGH_VALUE"), condition("invoiceAmount", ">", 1000))
+            .rule("Exported from CN", output("FLAG", "5", "ORIGIN"), condition("countryOfExportId", "==", "CN"))
+            .rule("C incoterm", output("REVIEW", "7", "INCOTERM"), condition("incotermCode", "startsWith", "C"))
+            .rule("Few packages", output("REJECT", "9", "PACKAGES"), condition("packageQuantity", "<=", 10))
+            .rule("Trading importer", output("FLAG", "3", "IMPORTER"), condition("importerName", "contains", "Trading"));
+        RuleBackend drools = drools(ruleSet);
+        PredicateRuleSet predicates = ruleSet.predicateCompiler(referenceLists).compile(ruleSet.rules, FACT_TYPE, null);
+        List<Declaration> facts = List.of(
+            declaration(d -> {
+                d.setInvoiceAmount(new BigDecimal("2500"));
+                d.setCountryOfExportId("CN");
+                d.setIncotermCode("CIF");
+                d.setImporterName("Saigon Trading Co");
+                d.setPackageQuantity(4);
+            }),
+            declaration(d -> {
+                d.setInvoiceAmount(new BigDecimal("500"));
+                d.setCountryOfExportId("CN");
+                d.setIncotermCode("CIF");
+                d.setImporterName("Saigon Trading Co");
+                d.setPackageQuantity(4);
+            }),
+            declaration(d -> d.setCountryOfExportId("CN")));
+
+        List<TotalRuleResults> results = new ArrayList<>();
+        for (int i = 0; i < facts.size(); i++) {
+            TotalRuleResults expected = fire(drools, facts.get(i), "REJECT");
+            TotalRuleResults actual = fire(predicates, facts.get(i), "REJECT");
+            assertThat(Outcome.of(actual)).as("fact %d", i).isEqualTo(Outcome.of(expected));
+            assertThat(actual.getTruncated()).as("fact %d", i).isEqualTo(expected.getTruncated());
+            results.add(expected);
+        }
+
+        // Rule 1 rejects: the other priority 10 rules still fire, the priority 0 ones do not
+        assertThat(ruleIds(results.get(0))).containsExactlyInAnyOrder(1L, 3L, 5L);
+        assertThat(results.get(0).getTruncated()).isTrue();
+        // Rule 4 rejects at priority 0, after all priority 10 rules
+        assertThat(ruleIds(results.get(1))).containsExactlyInAnyOrder(2L, 3L, 4L, 5L);
+        assertThat(results.get(1).getTruncated()).isTrue();
+        assertThat(ruleIds(results.get(2))).containsExactly(2L);
+        assertThat(results.get(2).getTruncated()).isFalse();
+    }
+
+    @Test
+    void ruleSetWithItemConditionsFallsBackToDrools() {
+        RuleSet ruleSet = new RuleSet()
+            .rule("Invoice above", output("REVIEW", "10", "HIGH_VALUE"), condition("invoiceAmount", ">", 1000))
+            .rule("Valuable item", output("FLAG", "8", "ITEM"),
+                condition("governmentAgencyGoodsItems.customsValueAmount", ">", 5000))
+            .rule("Not from CN", output("FLAG", "5", "ORIGIN"), condition("countryOfExportId", "!=", "CN"));
+        List<Declaration> facts = List.of(
+            declaration(d -> { }),
+            declaration(d -> {
+                d.setInvoiceAmount(new BigDecimal("2000"));
+                d.setCountryOfExportId("CN");
+                d.getGovernmentAgencyGoodsItems().add(item("6109100000", "7500"));
+            }),
+            declaration(d -> {
+                d.setCountryOfExportId("VN");
+                d.getGovernmentAgencyGoodsItems().add(item("8517120000", "100"));
+                d.getGovernmentAgencyGoodsItems().add(item("8471300000", "9000"));
+            }));
+
+        assertThatThrownBy(() -> ruleSet.predicateCompiler(referenceLists).compile(ruleSet.rules, FACT_TYPE, null))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Valuable item_2");
+
+        RuleBackend drools = drools(ruleSet);
+        RuleEngineManager manager = manager(ruleSet);
+        try {
+            assertThat(manager.getContainerStatus(FACT_TYPE)).containsEntry("backend", "drools");
+            List<TotalRuleResults> bulk = manager.fireRulesBulk(FACT_TYPE, facts);
+            for (int i = 0; i < facts.size(); i++) {
+                Outcome expected = Outcome.of(fire(drools, facts.get(i)));
+                assertThat(Outcome.of(manager.fireRules(FACT_TYPE, facts.get(i)))).as("fact %d", i).isEqualTo(expected);
+                // Bulk scoring evaluates the other rules on columns and leaves only the item rule to Drools
+                assertThat(Outcome.of(bulk.get(i))).as("bulk fact %d", i).isEqualTo(expected);
+            }
+            assertThat(ruleIds(bulk.get(1))).containsExactlyInAnyOrder(1L, 2L);
+            assertThat(ruleIds(bulk.get(2))).containsExactlyInAnyOrder(2L, 3L);
+        } finally {
+            manager.disposeAll();
+        }
+    }
+
+    @Test
+    void tiedScoresGiveTheSameFinalFlagInEveryHitOrder() {
+        RuleSet ruleSet = new RuleSet()
+            .rule("Valuable item", output("FLAG", "8", "ITEM"),
+                condition("governmentAgencyGoodsItems.customsValueAmount", ">", 5000))
+            .rule("Invoice above", output("REVIEW", "8", "HIGH_VALUE"), condition("invoiceAmount", ">", 1000));
+        Declaration fact = declaration(d -> {
+            d.setInvoiceAmount(new BigDecimal("2000"));
+            d.getGovernmentAgencyGoodsItems().add(item("6109100000", "7500"));
+        });
+
+        TotalRuleResults expected = fire(drools(ruleSet), fact);
+        assertThat(expected.getFinalFlag()).isEqualTo("ITEM");
+
+        // Bulk scoring adds the columnar hit of rule 2 before the Drools hit of rule 1
+        RuleEngineManager manager = manager(ruleSet);
+        try {
+            assertThat(Outcome.of(manager.fireRules(FACT_TYPE, fact))).isEqualTo(Outcome.of(expected));
+            assertThat(Outcome.of(manager.fireRulesBulk(FACT_TYPE, List.of(fact)).get(0))).isEqualTo(Outcome.of(expected));
+        } finally {
+            manager.disposeAll();
+        }
+
+        TotalRuleResults reversed = new TotalRuleResults();
+        reversed.getHits().addAll(expected.getHits().reversed());
+        RuleEngineManager.aggregateResults(reversed);
+        assertThat(reversed.getFinalFlag()).isEqualTo("ITEM");
+    }
+
+    @Test
+    void hsPrefixAndOtherItemConditionsHoldOnTheSameItem() {
+        RuleSet ruleSet = new RuleSet()
+            .rule("Valuable computer", output("REVIEW", "10", "COMPUTER"),
+                condition("governmentAgencyGoodsItems.hsId", "startsWith", "8471"),
+                condition("governmentAgencyGoodsItems.customsValueAmount", ">", 1000))
+            .rule("Any computer", output("FLAG", "2", "HS"),
+                condition("governmentAgencyGoodsItems.hsId", "startsWith", "8471"));
+        RuleBackend drools = drools(ruleSet);
+
+        // The 8471 item is cheap, the valuable one is another item
+        TotalRuleResults split = fire(drools, declaration(d -> {
+            d.getGovernmentAgencyGoodsItems().add(item("8471300000", "100"));
+            d.getGovernmentAgencyGoodsItems().add(item("8517120000", "9000"));
+        }));
+        assertThat(ruleIds(split)).containsExactly(2L);
+
+        TotalRuleResults same = fire(drools, declaration(d -> {
+            d.getGovernmentAgencyGoodsItems().add(item("8517120000", "100"));
+            d.getGovernmentAgencyGoodsItems().add(item("8471300000", "9000"));
+        }));
+        assertThat(ruleIds(same)).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    /**
+     * Fire every fact through both backends and assert equal outcomes
+     * @return Drools results, by fact
+     */
+    private List<TotalRuleResults> assertConformant(RuleSet ruleSet, Declaration... facts) {
+        RuleBackend drools = drools(ruleSet);
+        PredicateRuleSet predicates = ruleSet.predicateCompiler(referenceLists).compile(ruleSet.rules, FACT_TYPE, null);
+        assertThat(predicates.ruleCount()).isEqualTo(ruleSet.rules.size());
+
+        List<TotalRuleResults> expected = new ArrayList<>();
+        for (int i = 0; i < facts.length; i++) {
+            TotalRuleResults droolsResults = fire(drools, facts[i]);
+            assertThat(Outcome.of(fire(predicates, facts[i]))).as("fact %d", i).isEqualTo(Outcome.of(droolsResults));
+            expected.add(droolsResults);
+        }
+        return expected;
+    }
+
+    private RuleBackend drools(RuleSet ruleSet) {
+        ReleaseId releaseId = KieServices.Factory.get().newReleaseId(
+            "org.rule.test", "backend-conformance", BUILDS.incrementAndGet() + ".0.0");
+        RuleSetCompiler.KieContainerBuildResult build =
+            ruleSetCompiler.buildKieContainer(ruleSet.rules, FACT_TYPE, releaseId, RuleSetCompiler.BuildMode.DRL);
+        builds.add(build);
+        return new DroolsRuleBackend(build.container, ruleSetCompiler.factLayout(build.container), referenceLists, null);
+    }
+
+    /**
+     * Manager serving the rule set with the predicate backend enabled for declarations
+     */
+    private RuleEngineManager manager(RuleSet ruleSet) {
+        DecisionRuleRepository decisionRuleRepository = mock(DecisionRuleRepository.class);
+        when(decisionRuleRepository.findDistinctFactTypes()).thenReturn(List.of(FactType.DECLARATION));
+        when(decisionRuleRepository.findByFactTypeAndIsLatestTrueAndActiveTrueOrderByPriorityAsc(any()))
+            .thenReturn(ruleSet.rules);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        return new RuleEngineManager(
+            decisionRuleRepository,
+            mock(KieContainerVersionRepository.class),
+            ruleSetCompiler,
+            new KieModuleArtifactStore(mock(KieModuleArtifactRepository.class), ruleSetCompiler, false, 0),
+            new RuleExecutionMetrics(meterRegistry, 0),
+            referenceLists,
+            ruleSet.predicateCompiler(referenceLists),
+            meterRegistry,
+            1000,
+            Duration.ofMinutes(1),
+            false,
+            BigDecimal.ZERO,
+            List.of(FACT_TYPE),
+            true);
+    }
+
+    private static TotalRuleResults fire(RuleBackend backend, Object fact) {
+        return fire(backend, fact, null);
+    }
+
+    private static TotalRuleResults fire(RuleBackend backend, Object fact, String haltOn) {
+        TotalRuleResults results = new TotalRuleResults();
+        results.setRunAt(LocalDateTime.now());
+        backend.fire(fact, results, haltOn, null, null);
+        RuleEngineManager.aggregateResults(results);
+        return results;
+    }
+
+    private static List<Long> ruleIds(TotalRuleResults results) {
+        return results.getHits().stream().map(RuleOutputHit::getRuleId).toList();
+    }
+
+    private static Declaration declaration(Consumer<Declaration> fields) {
+        Declaration declaration = new Declaration();
+        fields.accept(declaration);
+        return declaration;
+    }
+
+    private static GovernmentAgencyGoodsItem item(String hsId, String customsValue) {
+        GovernmentAgencyGoodsItem item = new GovernmentAgencyGoodsItem();
+        item.setHsId(hsId);
+        item.setCustomsValueAmount(new BigDecimal(customsValue));
+        return item;
+    }
+
+    /**
+     * Rule editor condition on a declaration field
+     */
+    private static Map<String, Object> condition(String field, String operator, Object value) {
+        Map<String, Object> condition = new HashMap<>();
+        condition.put("field", "declaration." + field);
+        condition.put("operator", operator);
+        condition.put("value", value);
+        condition.put("logicalOp", "AND");
+        return condition;
+    }
+
+    private static Map<String, Object> or(Map<String, Object> condition) {
+        condition.put("logicalOp", "OR");
+        return condition;
+    }
+
+    private static Map<String, Object> output(String action, String score, String flag) {
+        Map<String, Object> output = new HashMap<>();
+        output.put("action", action);
+        output.put("score", score);
+        output.put("flag", flag);
+        return output;
+    }
+
+    /**
+     * Rules with IDs 1..n as saved by the rule editor: DRL content, condition rows and one output row
+     */
+    private static final class RuleSet {
+        final List<DecisionRule> rules = new ArrayList<>();
+        final List<RuleCondition> conditions = new ArrayList<>();
+        final List<RuleOutput> outputs = new ArrayList<>();
+
+        @SafeVarargs
+        final RuleSet rule(String ruleName, Map<String, Object> output, Map<String, Object>... conditionMaps) {
+            DecisionRule rule = new DecisionRule();
+            rule.setId((long) rules.size() + 1);
+            rule.setRuleName(ruleName);
+            rule.setFactType(FactType.DECLARATION);
+            rule.setPriority(rules.size() % 2 == 0 ? 10 : 0);
+            rule.setActive(true);
+            rule.setIsLatest(true);
+            rule.setRuleContent(RuleDrlGenerator.ruleDrl(rule, List.of(conditionMaps), output));
+            rules.add(rule);
+            conditions.addAll(RuleDrlGenerator.conditionRows(rule, List.of(conditionMaps)));
+
+            RuleOutput row = new RuleOutput();
+            row.setDecisionRule(rule);
+            row.setAction((String) output.get("action"));
+            row.setScore(new BigDecimal((String) output.get("score")));
+            row.setFlag((String) output.get("flag"));
+            outputs.add(row);
+            return this;
+        }
+
+        PredicateRuleCompiler predicateCompiler(ReferenceLists referenceLists) {
+            RuleConditionRepository conditionRepository = mock(RuleConditionRepository.class);
+            when(conditionRepository.findByDecisionRuleIds(any())).thenReturn(conditions);
+            RuleOutputRepository outputRepository = mock(RuleOutputRepository.class);
+            when(outputRepository.findByDecisionRuleIdInOrderByOrderIndexAsc(any())).thenReturn(outputs);
+            return new PredicateRuleCompiler(conditionRepository, outputRepository, referenceLists);
+        }
+    }
+
+    /**
+     * Comparable form of aggregated results: scores by value, hits in a fixed order
+     */
+    private record Outcome(String totalScore, String finalAction, String finalFlag, List<String> hits) {
+
+        static Outcome of(TotalRuleResults results) {
+            return new Outcome(
+                plain(results.getTotalScore()),
+                results.getFinalAction(),
+                results.getFinalFlag(),
+                results.getHits().stream()
+                    .map(hit -> hit.getRuleId() + " " + hit.getRuleName() + " " + hit.getAction() + " " + plain(hit.getScore())
+                        + " " + hit.getFlag() + " " + hit.getResult() + " " + hit.getDocumentType() + " "
+                        + hit.getDocumentId() + " " + hit.getDescription())
+                    .sorted()
+                    .toList());
+        }
+
+        private static String plain(BigDecimal value) {
+            if (value == null) {
+                return null;
+            }
+            return value.signum() == 0 ? "0" : value.stripTrailingZeros().toPlainString();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package rule.engine.org.app.domain.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionTemplate;
+import rule.engine.org.app.api.request.CreateRuleRequest;
+import rule.engine.org.app.api.response.DecisionTableImportResponse;
+import rule.engine.org.app.domain.entity.ui.FactType;
+import rule.engine.org.app.util.DecisionTableReader.TableRow;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Decision table validation reports every problem of every row, by spreadsheet row and column
+ */
+class DecisionTableImportServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final DecisionTableImportService service = new DecisionTableImportService(
+        jdbcTemplate, mock(TransactionTemplate.class), mock(RuleEngineManager.class), new ReferenceLists());
+
+    @Test
+    void everyRowReportsAllOfItsErrors() {
+        when(jdbcTemplate.query(any(PreparedStatementCreator.class), ArgumentMatchers.<RowMapper<String>>any()))
+            .thenReturn(List.of("Existing rule"));
+
+        DecisionTableImportService.ParsedTable table = service.parse(List.of(
+            row(1, "ruleName", "priority", "score", "action", "declaration.invoiceAmount >", "declaration.countryOfExportId inList"),
+            row(2, "Big invoice", "10", "50", "REVIEW", "1000", ""),
+            row(3, "", "x", "", "", "", ""),
+            row(4, "Big invoice", "", "abc", "FLAG", "lots", ""),
+            // Row 5 was blank
+            row(6, "Risky origin", "", "2000", "", "", "SANCTIONED"),
+            row(7, "Existing rule", "", "", "", "500", "")),
+            FactType.DECLARATION);
+
+        assertThat(errors(table)).containsExactly(
+            "3 ruleName: Rule name is required",
+            "3 priority: Not an integer: x",
+            "4 ruleName: Rule name already used in row 2",
+            "4 score: Not a number: abc",
+            "4 declaration.invoiceAmount >: Not a valid decimal value: lots",
+            "6 score: Score out of range: 2000",
+            "6 declaration.countryOfExportId inList: Unknown reference list: SANCTIONED",
+            "7 ruleName: Rule name already exists");
+        assertThat(table.requests()).extracting(CreateRuleRequest::getRuleName).containsExactly("Big invoice", "Existing rule");
+        assertThat(table.requests().get(0).getPriority()).isEqualTo(10);
+        assertThat(table.requests().get(0).getConditions()).singleElement()
+            .satisfies(condition -> assertThat(condition).containsEntry("field", "declaration.invoiceAmount")
+                .containsEntry("operator", ">")
+                .containsEntry("value", new BigDecimal("1000")));
+    }
+
+    @Test
+    void headerErrorsStopBeforeTheRows() {
+        DecisionTableImportService.ParsedTable table = service.parse(List.of(
+            row(1, "label", "declaration.noSuchField ==", "declaration.invoiceAmount contains"),
+            row(2, "", "x", "y")),
+            FactType.DECLARATION);
+
+        assertThat(errors(table)).containsExactly(
+            "1 declaration.noSuchField ==: Unknown column; expected a rule attribute or \"<field> <operator>\" with a Declaration field",
+            "1 declaration.invoiceAmount contains: Operator contains not supported for decimal field declaration.invoiceAmount",
+            "1 ruleName: Missing required column",
+            "1 null: No condition columns");
+        assertThat(table.requests()).isEmpty();
+    }
+
+    private static TableRow row(int number, String... cells) {
+        return new TableRow(number, List.of(cells));
+    }
+
+    private static List<String> errors(DecisionTableImportService.ParsedTable table) {
+        return table.errors().stream()
+            .map((DecisionTableImportResponse.RowError error) -> error.getRow() + " " + error.getColumn() + ": " + error.getMessage())
+            .toList();
+    }
+}
@@ -0,0 +1,190 @@
+package rule.engine.org.app.domain.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.kie.api.event.rule.AfterMatchFiredEvent;
+import org.kie.api.event.rule.AgendaEventListener;
+import org.kie.api.event.rule.DefaultAgendaEventListener;
+import org.mockito.ArgumentCaptor;
+import rule.engine.org.app.domain.entity.execution.RuleOutputHit;
+import rule.engine.org.app.domain.entity.execution.TotalRuleResults;
+import rule.engine.org.app.domain.entity.execution.declaration.Declaration;
+import rule.engine.org.app.domain.entity.ui.DecisionRule;
+import rule.engine.org.app.domain.entity.ui.FactType;
+import rule.engine.org.app.domain.entity.ui.KieContainerVersion;
+import rule.engine.org.app.domain.repository.DecisionRuleRepository;
+import rule.engine.org.app.domain.repository.KieContainerVersionRepository;
+import rule.engine.org.app.domain.repository.KieModuleArtifactRepository;
+import rule.engine.org.app.domain.repository.RuleConditionRepository;
+import rule.engine.org.app.domain.repository.RuleOutputRepository;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * An incremental deploy builds a new container under the deployed version's ReleaseId while
+ * executions leased on the previous snapshot keep running on the previous rules
+ */
+class IncrementalDeployTest {
+
+    private static final String FACT_TYPE = FactType.DECLARATION.getValue();
+
+    private final List<DecisionRule> rules = new ArrayList<>();
+    private final CountDownLatch firing = new CountDownLatch(1);
+    private final CountDownLatch resume = new CountDownLatch(1);
+    private final AtomicBoolean pauseNextExecution = new AtomicBoolean();
+    private RuleEngineManager manager;
+
+    @AfterEach
+    void dispose() {
+        resume.countDown();
+        if (manager != null) {
+            manager.disposeAll();
+        }
+    }
+
+    @Test
+    void deployWhileExecutingKeepsTheLeasedSnapshotAndRecordsTheNewReleaseId() throws Exception {
+        rules.add(rule(1L, null, "Invoice above", "invoiceAmount", ">", 1000, "10"));
+        rules.add(rule(2L, null, "Exported from CN", "countryOfExportId", "==", "CN", "5"));
+
+        DecisionRuleRepository decisionRuleRepository = mock(DecisionRuleRepository.class);
+        when(decisionRuleRepository.findDistinctFactTypes()).thenReturn(List.of(FactType.DECLARATION));
+        when(decisionRuleRepository.findByFactTypeAndIsLatestTrueAndActiveTrueOrderByPriorityAsc(any()))
+            .thenAnswer(invocation -> List.copyOf(rules));
+        KieContainerVersionRepository versionRepository = mock(KieContainerVersionRepository.class);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ReferenceLists referenceLists = new ReferenceLists();
+        RuleSetCompiler ruleSetCompiler = new RuleSetCompiler(RuleSetCompiler.BuildMode.DRL, true, 50, null);
+        manager = new RuleEngineManager(
+            decisionRuleRepository,
+            versionRepository,
+            ruleSetCompiler,
+            new KieModuleArtifactStore(mock(KieModuleArtifactRepository.class), ruleSetCompiler, false, 0),
+            new PausingMetrics(meterRegistry),
+            referenceLists,
+            new PredicateRuleCompiler(mock(RuleConditionRepository.class), mock(RuleOutputRepository.class), referenceLists),
+            meterRegistry,
+            1000,
+            Duration.ofMinutes(1),
+            false,
+            BigDecimal.ZERO,
+            List.of(),
+            false);
+        String initialReleaseId = manager.getContainerReleaseId(FACT_TYPE);
+
+        // Execution on the current snapshot, held inside its first rule firing
+        pauseNextExecution.set(true);
+        CompletableFuture<TotalRuleResults> running = CompletableFuture.supplyAsync(
+            () -> manager.fireRules(FACT_TYPE, declaration()));
+        assertThat(firing.await(30, TimeUnit.SECONDS)).isTrue();
+
+        // One-rule edit: a new version of rule 1 with another score, deployed as v1
+        rules.set(0, rule(3L, 1L, "Invoice above", "invoiceAmount", ">", 1000, "20"));
+        manager.deployRules(FACT_TYPE);
+
+        String deployedReleaseId = ruleSetCompiler.releaseId(FACT_TYPE, 1).toString();
+        assertThat(deployedReleaseId).isNotEqualTo(initialReleaseId);
+        assertThat(manager.getContainerVersion(FACT_TYPE)).isEqualTo(1);
+        assertThat(manager.getContainerReleaseId(FACT_TYPE)).isEqualTo(deployedReleaseId);
+        assertThat(manager.getContainerStatus(FACT_TYPE)).containsEntry("releaseId", deployedReleaseId);
+        ArgumentCaptor<KieContainerVersion> saved = ArgumentCaptor.forClass(KieContainerVersion.class);
+        verify(versionRepository).save(saved.capture());
+        assertThat(saved.getValue().getVersion()).isEqualTo(1L);
+        assertThat(saved.getValue().getReleaseId()).isEqualTo(deployedReleaseId);
+        assertThat(buildCount(meterRegistry, "incremental")).isEqualTo(1);
+
+        // New executions see the edit
+        TotalRuleResults deployed = manager.fireRules(FACT_TYPE, declaration());
+        assertThat(hits(deployed)).containsExactlyInAnyOrder("2 5", "3 20");
+        assertThat(deployed.getTotalScore()).isEqualByComparingTo("25");
+
+        // The held execution finishes on the rules it started with
+        resume.countDown();
+        TotalRuleResults previous = running.get(30, TimeUnit.SECONDS);
+        assertThat(hits(previous)).containsExactlyInAnyOrder("1 10", "2 5");
+        assertThat(previous.getTotalScore()).isEqualByComparingTo("15");
+    }
+
+    private static long buildCount(MeterRegistry meterRegistry, String mode) {
+        return meterRegistry.get("rule.engine.container.build").tag("mode", mode).timer().count();
+    }
+
+    private static List<String> hits(TotalRuleResults results) {
+        return results.getHits().stream()
+            .map((RuleOutputHit hit) -> hit.getRuleId() + " " + hit.getScore().stripTrailingZeros().toPlainString())
+            .toList();
+    }
+
+    private static Declaration declaration() {
+        Declaration declaration = new Declaration();
+        declaration.setInvoiceAmount(new BigDecimal("2500"));
+        declaration.setCountryOfExportId("CN");
+        return declaration;
+    }
+
+    private static DecisionRule rule(Long id, Long parentRuleId, String ruleName,
+                                     String field, String operator, Object value, String score) {
+        DecisionRule rule = new DecisionRule();
+        rule.setId(id);
+        rule.setParentRuleId(parentRuleId);
+        rule.setRuleName(ruleName);
+        rule.setFactType(FactType.DECLARATION);
+        rule.setPriority(0);
+        rule.setActive(true);
+        rule.setIsLatest(true);
+        rule.setRuleContent(RuleDrlGenerator.ruleDrl(rule,
+            List.of(Map.of("field", "declaration." + field, "operator", operator, "value", value, "logicalOp", "AND")),
+            Map.of("action", "FLAG", "score", score, "flag", "TEST")));
+        return rule;
+    }
+
+    /**
+     * Metrics whose sampling listener holds the next execution inside its first rule firing until resumed
+     */
+    private final class PausingMetrics extends RuleExecutionMetrics {
+
+        PausingMetrics(MeterRegistry meterRegistry) {
+            super(meterRegistry, 0);
+        }
+
+        @Override
+        public AgendaEventListener sample(String factType, long version) {
+            if (!pauseNextExecution.compareAndSet(true, false)) {
+                return null;
+            }
+            return new DefaultAgendaEventListener() {
+                private boolean paused;
+
+                @Override
+                public void afterMatchFired(AfterMatchFiredEvent event) {
+                    if (paused) {
+                        return;
+                    }
+                    paused = true;
+                    firing.countDown();
+                    try {
+                        resume.await(30, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package rule.engine.org.app.domain.service;
+
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieServices;
+import rule.engine.org.app.domain.entity.execution.RuleOutputHit;
+import rule.engine.org.app.domain.entity.execution.TotalRuleResults;
+import rule.engine.org.app.domain.entity.execution.cargo.CargoReport;
+import rule.engine.org.app.domain.entity.execution.cargo.Consignment;
+import rule.engine.org.app.domain.entity.execution.cargo.ConsignmentItem;
+import rule.engine.org.app.domain.entity.ui.DecisionRule;
+import rule.engine.org.app.domain.entity.ui.FactType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RuleDrlGeneratorTest {
+
+    private static final List<Map<String, Object>> HEAVY_ITEM_OF_UCR_1 = List.of(
+        Map.of("field", "cargoReport.consignments.ucr", "operator", "==", "value", "UCR-1"),
+        Map.of("field", "cargoReport.consignments.consignmentItems.grossWeightMeasure", "operator", ">", "value", "500"));
+
+    @Test
+    void itemConditionsMatchTheInnermostCollectionElementOfTheMatchedParent() {
+        String when = RuleDrlGenerator.whenClause(HEAVY_ITEM_OF_UCR_1, FactType.CARGO_REPORT.getValue());
+
+        assertThat(when).isEqualTo("$c : CargoReport()"
+            + "\n    exists ($consignment : Consignment(ucr == \"UCR-1\")"
+            + " and ConsignmentItem(this memberOf $consignment.consignmentItems && grossWeightMeasure > 500))");
+    }
+
+    @Test
+    void itemConditionsWithoutParentConditionsMatchAnyElement() {
+        String when = RuleDrlGenerator.whenClause(List.of(
+            Map.of("field", "cargoReport.consignments.consignmentItems.grossWeightMeasure", "operator", ">", "value", "500")),
+            FactType.CARGO_REPORT.getValue());
+
+        assertThat(when).isEqualTo("$c : CargoReport()\n    exists ConsignmentItem(grossWeightMeasure > 500)");
+    }
+
+    @Test
+    void heavyItemOfAnotherConsignmentDoesNotMatch() {
+        DecisionRule rule = new DecisionRule();
+        rule.setId(1L);
+        rule.setRuleName("Heavy item of UCR-1");
+        rule.setFactType(FactType.CARGO_REPORT);
+        rule.setPriority(0);
+        rule.setActive(true);
+        rule.setIsLatest(true);
+        rule.setRuleContent(RuleDrlGenerator.ruleDrl(rule, HEAVY_ITEM_OF_UCR_1,
+            Map.of("action", "FLAG", "score", "10", "flag", "HEAVY")));
+
+        RuleSetCompiler ruleSetCompiler = new RuleSetCompiler(RuleSetCompiler.BuildMode.DRL, false, 0, null);
+        RuleSetCompiler.KieContainerBuildResult build = ruleSetCompiler.buildKieContainer(List.of(rule),
+            FactType.CARGO_REPORT.getValue(),
+            KieServices.Factory.get().newReleaseId("org.rule.test", "rule-drl-generator", "1.0.0"),
+            RuleSetCompiler.BuildMode.DRL);
+        try {
+            RuleBackend drools = new DroolsRuleBackend(
+                build.container, ruleSetCompiler.factLayout(build.container), new ReferenceLists(), null);
+
+            // UCR-1 has a light item, another consignment the heavy one
+            assertThat(hits(drools, cargoReport(consignment("UCR-1", "100"), consignment("UCR-2", "900")))).isEmpty();
+            assertThat(hits(drools, cargoReport(consignment("UCR-2", "100"), consignment("UCR-1", "100", "900"))))
+                .containsExactly(1L);
+        } finally {
+            build.container.dispose();
+            KieServices.Factory.get().getRepository().removeKieModule(build.kieModule.getReleaseId());
+        }
+    }
+
+    @Test
+    void hsPrefixIsTestedOnTheItemOfTheOtherItemConditions() {
+        String when = RuleDrlGenerator.whenClause(List.of(
+            Map.of("field", "declaration.governmentAgencyGoodsItems.hsId", "operator", "startsWith", "value", "8471"),
+            Map.of("field", "declaration.governmentAgencyGoodsItems.customsValueAmount", "operator", ">", "value", "1000")),
+            FactType.DECLARATION.getValue());
+
+        assertThat(when).isEqualTo("$d : Declaration()"
+            + "\n    exists GovernmentAgencyGoodsItem(hsPrefixes.matched(this, \"8471\") && customsValueAmount > 1000)");
+    }
+
+    @Test
+    void hsPrefixOnItsOwnIsTestedOnTheFact() {
+        String when = RuleDrlGenerator.whenClause(List.of(
+            Map.of("field", "declaration.governmentAgencyGoodsItems.hsId", "operator", "startsWith", "value", "8471"),
+            Map.of("field", "declaration.invoiceAmount", "operator", ">", "value", "1000")),
+            FactType.DECLARATION.getValue());
+
+        assertThat(when).isEqualTo("$d : Declaration($d.invoiceAmount > 1000 && hsPrefixes.matched(\"8471\"))");
+    }
+
+    private static List<Long> hits(RuleBackend backend, CargoReport cargoReport) {
+        TotalRuleResults results = new TotalRuleResults();
+        results.setRunAt(LocalDateTime.now());
+        backend.fire(cargoReport, results, null, null, null);
+        return results.getHits().stream().map(RuleOutputHit::getRuleId).toList();
+    }
+
+    private static CargoReport cargoReport(Consignment... consignments) {
+        CargoReport cargoReport = new CargoReport();
+        cargoReport.setConsignments(List.of(consignments));
+        return cargoReport;
+    }
+
+    private static Consignment consignment(String ucr, String... grossWeights) {
+        Consignment consignment = new Consignment();
+        consignment.setUcr(ucr);
+        for (String grossWeight : grossWeights) {
+            ConsignmentItem item = new ConsignmentItem();
+            item.setGoodsDescription(ucr + " " + grossWeight);
+            item.setGrossWeightMeasure(new BigDecimal(grossWeight));
+            consignment.getConsignmentItems().add(item);
+        }
+        return consignment;
+    }
+}